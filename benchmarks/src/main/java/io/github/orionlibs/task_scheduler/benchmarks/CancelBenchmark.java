@@ -0,0 +1,72 @@
+package io.github.orionlibs.task_scheduler.benchmarks;
+
+import io.github.orionlibs.task_scheduler.ScheduledTask;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of scheduling a timeout and cancelling it before it fires, which is the common
+ * life of a timeout, with 1 producer thread and with as many producer threads as the available processors.
+ * It compares cancel(), which interrupts and throws on a miss, with tryCancel().
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CancelBenchmark
+{
+    @Benchmark
+    @Threads(1)
+    public boolean scheduleAndCancel_1Producer(SchedulerBenchmarkState state) throws Exception
+    {
+        return scheduleAndCancel(state);
+    }
+
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean scheduleAndCancel_maxProducers(SchedulerBenchmarkState state) throws Exception
+    {
+        return scheduleAndCancel(state);
+    }
+
+
+    @Benchmark
+    @Threads(1)
+    public boolean scheduleAndTryCancel_1Producer(SchedulerBenchmarkState state) throws Exception
+    {
+        return scheduleAndTryCancel(state);
+    }
+
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean scheduleAndTryCancel_maxProducers(SchedulerBenchmarkState state) throws Exception
+    {
+        return scheduleAndTryCancel(state);
+    }
+
+
+    private boolean scheduleAndCancel(SchedulerBenchmarkState state) throws Exception
+    {
+        ScheduledTask task = state.newTask(30L, TimeUnit.SECONDS);
+        state.scheduler.schedule(task);
+        return state.scheduler.cancel(task.getTaskID());
+    }
+
+
+    private boolean scheduleAndTryCancel(SchedulerBenchmarkState state) throws Exception
+    {
+        ScheduledTask task = state.newTask(30L, TimeUnit.SECONDS);
+        state.scheduler.schedule(task);
+        return state.scheduler.tryCancel(task.getTaskID());
+    }
+}
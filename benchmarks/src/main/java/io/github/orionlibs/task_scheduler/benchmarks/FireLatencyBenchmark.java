@@ -0,0 +1,96 @@
+package io.github.orionlibs.task_scheduler.benchmarks;
+
+import io.github.orionlibs.task_scheduler.metrics.HistogramSnapshot;
+import io.github.orionlibs.task_scheduler.metrics.LatencyHistogram;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Firing lag: each invocation schedules a task that is due 1 millisecond later and waits until it runs.
+ * The task itself records its actual start time minus its due time in a histogram, whose percentiles are printed
+ * after every iteration, with 1 producer thread and with as many producer threads as the available processors.
+ * The JMH score is only the rate of fired tasks.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FireLatencyBenchmark
+{
+    private static final long DELAY_IN_NANOS = TimeUnit.MILLISECONDS.toNanos(1L);
+
+
+    @Benchmark
+    @Threads(1)
+    public long fire_1Producer(SchedulerBenchmarkState state, FiringLag firingLag) throws Exception
+    {
+        return scheduleAndAwaitFiring(state, firingLag);
+    }
+
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public long fire_maxProducers(SchedulerBenchmarkState state, FiringLag firingLag) throws Exception
+    {
+        return scheduleAndAwaitFiring(state, firingLag);
+    }
+
+
+    private long scheduleAndAwaitFiring(SchedulerBenchmarkState state, FiringLag firingLag) throws Exception
+    {
+        CountDownLatch fired = new CountDownLatch(1);
+        LatencyHistogram histogram = firingLag.histogram;
+        long dueTimeInNanos = System.nanoTime() + DELAY_IN_NANOS;
+        state.scheduler.schedule(state.newTask(() -> {
+            histogram.record(System.nanoTime() - dueTimeInNanos);
+            fired.countDown();
+        }, DELAY_IN_NANOS, TimeUnit.NANOSECONDS));
+        fired.await();
+        return fired.getCount();
+    }
+
+
+    /**
+     * The histogram of the firing lag of the tasks of one iteration.
+     */
+    @State(Scope.Benchmark)
+    public static class FiringLag
+    {
+        LatencyHistogram histogram;
+
+
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            histogram = new LatencyHistogram();
+        }
+
+
+        @TearDown(Level.Iteration)
+        public void print()
+        {
+            HistogramSnapshot snapshot = histogram.snapshot();
+            System.out.printf("%nfiring lag of %d tasks in microseconds: p50=%d p90=%d p99=%d p99.9=%d max=%d%n",
+                            snapshot.getCount(),
+                            snapshot.getValueAtPercentile(50.0, TimeUnit.MICROSECONDS),
+                            snapshot.getValueAtPercentile(90.0, TimeUnit.MICROSECONDS),
+                            snapshot.getValueAtPercentile(99.0, TimeUnit.MICROSECONDS),
+                            snapshot.getValueAtPercentile(99.9, TimeUnit.MICROSECONDS),
+                            snapshot.getMax(TimeUnit.MICROSECONDS));
+        }
+    }
+}
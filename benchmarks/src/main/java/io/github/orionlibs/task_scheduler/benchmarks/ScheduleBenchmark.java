@@ -0,0 +1,84 @@
+package io.github.orionlibs.task_scheduler.benchmarks;
+
+import io.github.orionlibs.task_scheduler.BulkScheduleResult;
+import io.github.orionlibs.task_scheduler.ScheduledTask;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of SingleExecutionScheduleService.schedule for single tasks and for collections of tasks,
+ * with 1 producer thread and with as many producer threads as the available processors.
+ * The scheduled tasks fire a few seconds later, so the number of pending tasks stays stable.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScheduleBenchmark
+{
+    private static final int BULK_SIZE = 1_000;
+
+
+    @Benchmark
+    @Threads(1)
+    public ScheduledTask schedule_1Producer(SchedulerBenchmarkState state) throws Exception
+    {
+        return schedule(state);
+    }
+
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public ScheduledTask schedule_maxProducers(SchedulerBenchmarkState state) throws Exception
+    {
+        return schedule(state);
+    }
+
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(BULK_SIZE)
+    public BulkScheduleResult scheduleBulk_1Producer(SchedulerBenchmarkState state) throws Exception
+    {
+        return scheduleBulk(state);
+    }
+
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    @OperationsPerInvocation(BULK_SIZE)
+    public BulkScheduleResult scheduleBulk_maxProducers(SchedulerBenchmarkState state) throws Exception
+    {
+        return scheduleBulk(state);
+    }
+
+
+    private ScheduledTask schedule(SchedulerBenchmarkState state) throws Exception
+    {
+        ScheduledTask task = state.newTask(5L, TimeUnit.SECONDS);
+        state.scheduler.schedule(task);
+        return task;
+    }
+
+
+    private BulkScheduleResult scheduleBulk(SchedulerBenchmarkState state) throws Exception
+    {
+        List<ScheduledTask> tasks = new ArrayList<>(BULK_SIZE);
+        for(int i = 0; i < BULK_SIZE; i++)
+        {
+            tasks.add(state.newTask(5L, TimeUnit.SECONDS));
+        }
+        return state.scheduler.schedule(tasks);
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.orionlibs.task_scheduler.benchmarks;
+
+import io.github.orionlibs.task_scheduler.ScheduledTask;
+import io.github.orionlibs.task_scheduler.SingleExecutionScheduleService;
+import io.github.orionlibs.task_scheduler.engine.ExecutorTimerEngine;
+import io.github.orionlibs.task_scheduler.engine.ShardedTimerEngine;
+import io.github.orionlibs.task_scheduler.engine.TimerEngine;
+import io.github.orionlibs.task_scheduler.engine.TimingWheelTimerEngine;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A SingleExecutionScheduleService that already holds a number of pending tasks that will not fire during the benchmark.
+ * The pending tasks are due 1 to 2 hours after the setup, well past the length of a trial.
+ */
+@State(Scope.Benchmark)
+public class SchedulerBenchmarkState
+{
+    static final Runnable NO_OP = () -> {
+    };
+    private static final int PRELOAD_BATCH_SIZE = 10_000;
+    private static final long PRELOAD_MIN_DELAY_IN_SECONDS = TimeUnit.HOURS.toSeconds(1L);
+    @Param({"EXECUTOR", "TIMING_WHEEL", "SHARDED"})
+    public String engineType;
+    @Param({"1000", "100000", "1000000"})
+    public int pendingTasks;
+    SingleExecutionScheduleService scheduler;
+    private final AtomicLong taskIDs = new AtomicLong();
+
+
+    @Setup
+    public void setUpScheduler() throws Exception
+    {
+        //one log record per schedule() call would dominate the measurements
+        Logger.getLogger(SingleExecutionScheduleService.class.getName()).setLevel(Level.WARNING);
+        scheduler = SingleExecutionScheduleService.builder()
+                        .timerEngine(newTimerEngine(engineType))
+                        .build();
+        List<ScheduledTask> batch = new ArrayList<>(PRELOAD_BATCH_SIZE);
+        for(int i = 0; i < pendingTasks; i++)
+        {
+            batch.add(newTask(PRELOAD_MIN_DELAY_IN_SECONDS + i % 3_600L, TimeUnit.SECONDS));
+            if(batch.size() == PRELOAD_BATCH_SIZE)
+            {
+                scheduler.schedule(batch);
+                batch = new ArrayList<>(PRELOAD_BATCH_SIZE);
+            }
+        }
+        scheduler.schedule(batch);
+    }
+
+
+    private static TimerEngine newTimerEngine(String engineType)
+    {
+        switch(engineType)
+        {
+            case "TIMING_WHEEL":
+                return new TimingWheelTimerEngine();
+            case "SHARDED":
+                return new ShardedTimerEngine();
+            default:
+                return new ExecutorTimerEngine();
+        }
+    }
+
+
+    @TearDown
+    public void tearDownScheduler() throws InterruptedException
+    {
+        scheduler.shutdown();
+        scheduler.awaitTermination(10L, TimeUnit.SECONDS);
+    }
+
+
+    ScheduledTask newTask(long delay, TimeUnit unit)
+    {
+        return newTask(NO_OP, delay, unit);
+    }
+
+
+    ScheduledTask newTask(Runnable task, long delay, TimeUnit unit)
+    {
+        return ScheduledTask.builder()
+                        .taskID("benchmark-task-" + taskIDs.incrementAndGet())
+                        .taskToSchedule(task)
+                        .delay(delay)
+                        .unit(unit)
+                        .build();
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.orionlibs.task_scheduler.benchmarks;
+
+import io.github.orionlibs.task_scheduler.engine.ExecutorTimerEngine;
+import io.github.orionlibs.task_scheduler.engine.TimerEngine;
+import io.github.orionlibs.task_scheduler.engine.TimerFuture;
+import io.github.orionlibs.task_scheduler.engine.TimingWheelTimerEngine;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the ExecutorTimerEngine and the TimingWheelTimerEngine when they arm and
+ * cancel short timeouts on top of a large number of pending timers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimerEngineBenchmark
+{
+    private static final Runnable NO_OP = () -> {
+    };
+    @Param({"EXECUTOR", "TIMING_WHEEL"})
+    public String engineType;
+    @Param({"1000", "100000", "1000000"})
+    public int pendingTimers;
+    private TimerEngine timerEngine;
+
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        timerEngine = "EXECUTOR".equals(engineType) ? new ExecutorTimerEngine() : new TimingWheelTimerEngine();
+        for(int i = 0; i < pendingTimers; i++)
+        {
+            timerEngine.schedule(NO_OP, 1L + ThreadLocalRandom.current().nextLong(TimeUnit.HOURS.toMillis(1L)), TimeUnit.MILLISECONDS);
+        }
+    }
+
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException
+    {
+        timerEngine.shutdown();
+        timerEngine.awaitTermination(10L, TimeUnit.SECONDS);
+    }
+
+
+    @Benchmark
+    @Threads(4)
+    public boolean scheduleAndCancel()
+    {
+        TimerFuture timeout = timerEngine.schedule(NO_OP, 30L, TimeUnit.SECONDS);
+        return timeout.cancel(false);
+    }
+}
@@ -0,0 +1,217 @@
+package io.github.orionlibs.task_scheduler;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import lombok.Builder;
+
+/**
+ * Limits on a SingleExecutionScheduleService: a maximum number of pending tasks, a maximum number of pending tasks
+ * per tenant, a maximum rate at which the tasks fire and a maximum rate at which the tasks of each tenant fire.
+ * <br>
+ * The tenant of a task is the longest key of tenantQuotas or tenantMaxTasksPerSecond that its taskID starts with.
+ * Tasks whose taskID starts with none of them only count against the limits of the whole service.
+ * A task that would exceed a pending limit is handled according to the overflowPolicy and,
+ * if it is not admitted, schedule() throws a RejectedExecutionException.
+ * A task that would exceed a rate limit when it fires is delayed until it is within the limit, so a burst of tasks
+ * that are due at the same time is spread out, and a tenant that fires too much only delays its own tasks.
+ * <br>
+ * Retries and the next runs of recurring tasks re-arm already admitted tasks, so they are not limited by the pending limits,
+ * but every run counts against the rate limits. A task that replaces a pending task with the same taskID takes over its slot.
+ */
+public class AdmissionController
+{
+    private final PendingLimit pendingLimit;
+    private final RateLimit rateLimit;
+    private final String[] tenantPrefixes;
+    private final PendingLimit[] tenantLimits;
+    private final RateLimit[] tenantRateLimits;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutInNanos;
+
+
+    /**
+     * @param maxPendingTasks the maximum number of tasks that can be pending at the same time. Values less than 1 mean no limit.
+     * @param tenantQuotas the maximum number of pending tasks per taskID prefix. It can be null.
+     * @param maxTasksPerSecond the maximum rate at which tasks fire. Values less than or equal to 0 mean no limit.
+     * @param tenantMaxTasksPerSecond the maximum rate at which the tasks of each taskID prefix fire. It can be null.
+     * @param burst the number of tasks that can fire at once above a rate limit. Values less than 1 default to 1.
+     * @param overflowPolicy what to do with a task that would exceed a pending limit. If null, REJECT is used.
+     * @param blockTimeout how long schedule() blocks at most under the BLOCK policy.
+     * @param blockTimeoutUnit the unit of blockTimeout. If null, milliseconds are used.
+     */
+    @Builder
+    public AdmissionController(int maxPendingTasks, Map<String, Integer> tenantQuotas, double maxTasksPerSecond, Map<String, Double> tenantMaxTasksPerSecond, int burst,
+                    OverflowPolicy overflowPolicy, long blockTimeout, TimeUnit blockTimeoutUnit)
+    {
+        this.overflowPolicy = overflowPolicy != null ? overflowPolicy : OverflowPolicy.REJECT;
+        boolean shedding = this.overflowPolicy == OverflowPolicy.SHED_OLDEST;
+        this.pendingLimit = maxPendingTasks > 0 ? new PendingLimit(maxPendingTasks, shedding) : null;
+        this.rateLimit = maxTasksPerSecond > 0.0d ? new RateLimit(maxTasksPerSecond, burst) : null;
+        Map<String, Integer> quotas = tenantQuotas != null ? tenantQuotas : Map.of();
+        Map<String, Double> rates = tenantMaxTasksPerSecond != null ? tenantMaxTasksPerSecond : Map.of();
+        this.tenantPrefixes = Stream.concat(quotas.keySet().stream(), rates.keySet().stream())
+                        .distinct()
+                        .sorted(Comparator.comparingInt(String::length).reversed())
+                        .toArray(String[]::new);
+        this.tenantLimits = new PendingLimit[tenantPrefixes.length];
+        this.tenantRateLimits = new RateLimit[tenantPrefixes.length];
+        for(int i = 0; i < tenantPrefixes.length; i++)
+        {
+            Integer quota = quotas.get(tenantPrefixes[i]);
+            Double rate = rates.get(tenantPrefixes[i]);
+            tenantLimits[i] = quota != null ? new PendingLimit(Math.max(quota, 0), shedding) : null;
+            tenantRateLimits[i] = rate != null && rate > 0.0d ? new RateLimit(rate, burst) : null;
+        }
+        this.blockTimeoutInNanos = (blockTimeoutUnit != null ? blockTimeoutUnit : TimeUnit.MILLISECONDS).toNanos(Math.max(blockTimeout, 0L));
+    }
+
+
+    /**
+     * It admits the given task or throws.
+     * @param task
+     * @param isPending tells if a task is still pending in the service
+     * @param shed cancels a pending task of the service and tells if it did
+     * @throws RejectedExecutionException if the task is not admitted.
+     */
+    void admit(ScheduledTask task, Predicate<ScheduledTask> isPending, Predicate<ScheduledTask> shed) throws RejectedExecutionException
+    {
+        PendingLimit tenantLimit = getTenantLimit(task.getTaskID());
+        if(tenantLimit != null)
+        {
+            acquire(tenantLimit, task, isPending, shed, "the quota of its tenant");
+        }
+        if(pendingLimit != null)
+        {
+            try
+            {
+                acquire(pendingLimit, task, isPending, shed, "the maximum number of pending tasks");
+            }
+            catch(RejectedExecutionException e)
+            {
+                if(tenantLimit != null)
+                {
+                    tenantLimit.release();
+                }
+                throw e;
+            }
+            pendingLimit.admitted(task, isPending);
+        }
+        if(tenantLimit != null)
+        {
+            tenantLimit.admitted(task, isPending);
+        }
+    }
+
+
+    /**
+     * It counts the given task as pending without checking the limits, for tasks that were admitted before
+     * e.g. recovered ones, or that replace a pending task whose slot is released when it is replaced.
+     * @param task
+     * @param isPending tells if a task is still pending in the service
+     */
+    void forceAdmit(ScheduledTask task, Predicate<ScheduledTask> isPending)
+    {
+        PendingLimit tenantLimit = getTenantLimit(task.getTaskID());
+        if(tenantLimit != null)
+        {
+            tenantLimit.forceAcquire();
+            tenantLimit.admitted(task, isPending);
+        }
+        if(pendingLimit != null)
+        {
+            pendingLimit.forceAcquire();
+            pendingLimit.admitted(task, isPending);
+        }
+    }
+
+
+    /**
+     * It takes the tokens of the rate limits for a run of the given task that is due now.
+     * @param task
+     * @return how long the run has to be delayed to stay within the rate limits, or 0 if it can start now
+     */
+    long reserveFire(ScheduledTask task)
+    {
+        long delayInNanos = rateLimit != null ? rateLimit.reserve() : 0L;
+        int tenant = getTenant(task.getTaskID());
+        if(tenant >= 0 && tenantRateLimits[tenant] != null)
+        {
+            delayInNanos = Math.max(delayInNanos, tenantRateLimits[tenant].reserve());
+        }
+        return delayInNanos;
+    }
+
+
+    /**
+     * It is called when an admitted task is not pending anymore.
+     */
+    void release(ScheduledTask task)
+    {
+        PendingLimit tenantLimit = getTenantLimit(task.getTaskID());
+        if(tenantLimit != null)
+        {
+            tenantLimit.release();
+        }
+        if(pendingLimit != null)
+        {
+            pendingLimit.release();
+        }
+    }
+
+
+    private void acquire(PendingLimit limit, ScheduledTask task, Predicate<ScheduledTask> isPending, Predicate<ScheduledTask> shed, String limitName)
+    {
+        boolean acquired;
+        if(overflowPolicy == OverflowPolicy.BLOCK)
+        {
+            try
+            {
+                acquired = limit.tryAcquire(blockTimeoutInNanos);
+            }
+            catch(InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+        }
+        else
+        {
+            acquired = limit.tryAcquire();
+            while(!acquired && overflowPolicy == OverflowPolicy.SHED_OLDEST && limit.shedOldest(isPending, shed))
+            {
+                acquired = limit.tryAcquire();
+            }
+        }
+        if(!acquired)
+        {
+            throw new RejectedExecutionException("The task " + task.getTaskID() + " exceeds " + limitName + ".");
+        }
+    }
+
+
+    private PendingLimit getTenantLimit(String taskID)
+    {
+        int tenant = getTenant(taskID);
+        return tenant >= 0 ? tenantLimits[tenant] : null;
+    }
+
+
+    /**
+     * @return the index of the longest tenant prefix of the given taskID, or -1 if it has none
+     */
+    private int getTenant(String taskID)
+    {
+        for(int i = 0; i < tenantPrefixes.length; i++)
+        {
+            if(taskID.startsWith(tenantPrefixes[i]))
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
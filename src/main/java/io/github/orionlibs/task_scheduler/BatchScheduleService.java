@@ -0,0 +1,376 @@
+package io.github.orionlibs.task_scheduler;
+
+import io.github.orionlibs.task_scheduler.config.FeatureFlags;
+import io.github.orionlibs.task_scheduler.engine.TimerEngine;
+import io.github.orionlibs.task_scheduler.engine.TimerFuture;
+import io.github.orionlibs.task_scheduler.metrics.MetricsSnapshot;
+import io.github.orionlibs.task_scheduler.metrics.SchedulerMetrics;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Service that fires the tasks that share a group key and fall due within a small window as one batch,
+ * which is handed to the batch handler of the group in one call, instead of running one Runnable per task.
+ * <br>
+ * A task joins the open batch of its group whose first task is due at most maxLinger before it, if that batch
+ * has fewer than maxBatchSize tasks, or it opens a new batch. A batch is armed once on the engine of the
+ * SingleExecutionScheduleService, at the due time of its first task plus maxLinger, so no task fires early
+ * and a task fires at most maxLinger late.
+ * <br>
+ * The taskToSchedule of a batched task is not run, so it can be null. If the handler throws, the tasks of the batch
+ * that have retries left are scheduled again after their retryBackoff, or their delay, and join a later batch.
+ * Batched tasks are not journaled, spilled or forwarded and are not in the task map of the SingleExecutionScheduleService.
+ */
+public class BatchScheduleService
+{
+    private static final Logger log = Logger.getLogger(BatchScheduleService.class.getName());
+    private static final int DEFAULT_MAX_BATCH_SIZE = 256;
+    private static final long DEFAULT_MAX_LINGER_IN_NANOS = TimeUnit.MILLISECONDS.toNanos(10L);
+    private final SingleExecutionScheduleService singleExecutionScheduleService;
+    private final TimerEngine timerEngine;
+    private final SchedulerMetrics metrics;
+    private final Map<String, BatchGroup> groups;
+    private final Map<String, Batch> batchesByTaskID;
+
+
+    /**
+     * @param singleExecutionScheduleService the service whose config and engine the batches use
+     */
+    public BatchScheduleService(SingleExecutionScheduleService singleExecutionScheduleService)
+    {
+        this.singleExecutionScheduleService = singleExecutionScheduleService;
+        this.timerEngine = singleExecutionScheduleService.getTimerEngine();
+        this.metrics = new SchedulerMetrics();
+        this.groups = new ConcurrentHashMap<>();
+        this.batchesByTaskID = new ConcurrentHashMap<>();
+    }
+
+
+    /**
+     * It registers the handler of the batches of the given group key. The handler runs on the worker threads of the engine.
+     * Registering a group key again replaces its handler and limits for the batches that open from then on.
+     * @param groupKey e.g. the taskType of the tasks
+     * @param batchHandler
+     * @param maxBatchSize the maximum number of tasks per batch. Values less than 1 default to 256.
+     * @param maxLinger how long after the due time of its first task a batch waits for more tasks. Values less than 0 default to 10 milliseconds.
+     * @param maxLingerUnit the unit of maxLinger. If null, milliseconds are used.
+     * @return this service
+     * @throws InvalidArgumentException if the groupKey is null/empty or the batchHandler is null.
+     */
+    public BatchScheduleService registerBatchHandler(String groupKey, Consumer<List<ScheduledTask>> batchHandler, int maxBatchSize, long maxLinger, TimeUnit maxLingerUnit) throws InvalidArgumentException
+    {
+        if(groupKey == null || groupKey.isEmpty())
+        {
+            throw new InvalidArgumentException("groupKey cannot be null/empty.");
+        }
+        if(batchHandler == null)
+        {
+            throw new InvalidArgumentException("batchHandler cannot be null.");
+        }
+        long maxLingerInNanos = maxLinger >= 0L ? (maxLingerUnit != null ? maxLingerUnit : TimeUnit.MILLISECONDS).toNanos(maxLinger) : DEFAULT_MAX_LINGER_IN_NANOS;
+        groups.put(groupKey, new BatchGroup(batchHandler, maxBatchSize > 0 ? maxBatchSize : DEFAULT_MAX_BATCH_SIZE, maxLingerInNanos));
+        return this;
+    }
+
+
+    /**
+     * Schedules a task to be handed to the batch handler of the given group key, together with the tasks
+     * of the group that fall due within maxLinger of it.
+     * If a pending task with the same taskID has been scheduled through this service, it is replaced by this one.
+     * @param groupKey
+     * @param taskToSchedule
+     * @throws FeatureIsDisabledException if the scheduler is disabled.
+     * @throws RejectedExecutionException if the engine rejects the batch e.g. because it has been shut down.
+     * @throws InvalidArgumentException if the task has invalid values or no batch handler is registered for the group key.
+     */
+    public void schedule(String groupKey, ScheduledTask taskToSchedule) throws FeatureIsDisabledException, RejectedExecutionException, InvalidArgumentException
+    {
+        if(singleExecutionScheduleService.getConfig().getFeatureFlags().isSchedulerEnabled())
+        {
+            if(taskToSchedule == null || taskToSchedule.getTaskID() == null || taskToSchedule.getTaskID().isEmpty())
+            {
+                throw new InvalidArgumentException("taskID cannot be null/empty.");
+            }
+            if(taskToSchedule.getUnit() == null)
+            {
+                throw new InvalidArgumentException("unit cannot be null.");
+            }
+            BatchGroup group = groupKey != null ? groups.get(groupKey) : null;
+            if(group == null)
+            {
+                throw new InvalidArgumentException("no batch handler is registered for the group key %s", groupKey);
+            }
+            cancelPendingTask(taskToSchedule.getTaskID());
+            long delayInNanos = taskToSchedule.getUnit().toNanos(Math.max(taskToSchedule.getDelay(), 0L));
+            group.add(new BatchedTask(taskToSchedule, System.nanoTime() + delayInNanos, Math.max(taskToSchedule.getNumberOfRetriesOnError(), 0)));
+            metrics.recordScheduled(1);
+        }
+        else
+        {
+            throw new FeatureIsDisabledException();
+        }
+    }
+
+
+    /**
+     * It removes the given task from its batch before the batch fires.
+     * A batch whose tasks have all been cancelled is cancelled on the engine.
+     * @param taskToCancel
+     * @return
+     * @throws FeatureIsDisabledException if the scheduler or the cancellation feature is disabled.
+     * @throws TaskDoesNotExistException if the task is not pending in this service.
+     */
+    public boolean cancel(String taskToCancel) throws FeatureIsDisabledException, TaskDoesNotExistException
+    {
+        FeatureFlags featureFlags = singleExecutionScheduleService.getConfig().getFeatureFlags();
+        if(featureFlags.isSchedulerEnabled() && featureFlags.isCancellationEnabled())
+        {
+            if(!cancelPendingTask(taskToCancel))
+            {
+                throw new TaskDoesNotExistException();
+            }
+            metrics.recordCancelled();
+            return true;
+        }
+        else
+        {
+            throw new FeatureIsDisabledException();
+        }
+    }
+
+
+    /**
+     * It returns a snapshot of the scheduling lag and throughput metrics of the batched tasks.
+     * The firing lag of a task is the time from its own due time to the start of its batch.
+     * @return
+     */
+    public MetricsSnapshot getMetrics()
+    {
+        return metrics.snapshot(batchesByTaskID.size());
+    }
+
+
+    /**
+     * It returns the service whose engine fires the batches.
+     * @return
+     */
+    public SingleExecutionScheduleService getSingleExecutionScheduleService()
+    {
+        return singleExecutionScheduleService;
+    }
+
+
+    private boolean cancelPendingTask(String taskID)
+    {
+        Batch batch = taskID != null ? batchesByTaskID.remove(taskID) : null;
+        return batch != null && batch.remove(taskID);
+    }
+
+
+    /**
+     * The handler, the limits and the open batches of one group key.
+     * The open batches are keyed by the due time of their first task.
+     */
+    private class BatchGroup
+    {
+        private final Consumer<List<ScheduledTask>> batchHandler;
+        private final int maxBatchSize;
+        private final long maxLingerInNanos;
+        private final ReentrantLock lock;
+        private final TreeMap<Long, Batch> openBatches;
+
+
+        BatchGroup(Consumer<List<ScheduledTask>> batchHandler, int maxBatchSize, long maxLingerInNanos)
+        {
+            this.batchHandler = batchHandler;
+            this.maxBatchSize = maxBatchSize;
+            this.maxLingerInNanos = maxLingerInNanos;
+            this.lock = new ReentrantLock();
+            this.openBatches = new TreeMap<>();
+        }
+
+
+        void add(BatchedTask task)
+        {
+            lock.lock();
+            try
+            {
+                Map.Entry<Long, Batch> candidate = openBatches.floorEntry(task.dueTimeInNanos);
+                Batch batch;
+                if(candidate != null && task.dueTimeInNanos - candidate.getKey() <= maxLingerInNanos)
+                {
+                    batch = candidate.getValue();
+                }
+                else
+                {
+                    batch = new Batch(this, task.dueTimeInNanos);
+                    batch.future = timerEngine.schedule(batch, Math.max(task.dueTimeInNanos + maxLingerInNanos - System.nanoTime(), 0L), TimeUnit.NANOSECONDS);
+                    openBatches.put(task.dueTimeInNanos, batch);
+                }
+                batch.tasks.put(task.task.getTaskID(), task);
+                batchesByTaskID.put(task.task.getTaskID(), batch);
+                if(batch.tasks.size() >= maxBatchSize)
+                {
+                    openBatches.remove(batch.firstDueTimeInNanos, batch);
+                }
+            }
+            finally
+            {
+                lock.unlock();
+            }
+        }
+    }
+
+
+    /**
+     * The tasks of one group that fire together.
+     */
+    private class Batch implements Runnable
+    {
+        private final BatchGroup group;
+        private final long firstDueTimeInNanos;
+        private final Map<String, BatchedTask> tasks;
+        private TimerFuture future;
+        private boolean fired;
+
+
+        Batch(BatchGroup group, long firstDueTimeInNanos)
+        {
+            this.group = group;
+            this.firstDueTimeInNanos = firstDueTimeInNanos;
+            this.tasks = new LinkedHashMap<>();
+        }
+
+
+        /**
+         * @return true if the task was in this batch and the batch had not fired
+         */
+        boolean remove(String taskID)
+        {
+            group.lock.lock();
+            try
+            {
+                if(fired || tasks.remove(taskID) == null)
+                {
+                    return false;
+                }
+                if(tasks.isEmpty())
+                {
+                    group.openBatches.remove(firstDueTimeInNanos, this);
+                    future.cancel(false);
+                }
+                return true;
+            }
+            finally
+            {
+                group.lock.unlock();
+            }
+        }
+
+
+        @Override
+        public void run()
+        {
+            List<BatchedTask> firedTasks;
+            group.lock.lock();
+            try
+            {
+                fired = true;
+                group.openBatches.remove(firstDueTimeInNanos, this);
+                firedTasks = new ArrayList<>(tasks.values());
+                for(BatchedTask task : firedTasks)
+                {
+                    batchesByTaskID.remove(task.task.getTaskID(), this);
+                }
+            }
+            finally
+            {
+                group.lock.unlock();
+            }
+            if(firedTasks.isEmpty())
+            {
+                return;
+            }
+            long startTimeInNanos = System.nanoTime();
+            List<ScheduledTask> batch = new ArrayList<>(firedTasks.size());
+            for(BatchedTask task : firedTasks)
+            {
+                metrics.recordFired(task.dueTimeInNanos, startTimeInNanos);
+                batch.add(task.task);
+            }
+            try
+            {
+                group.batchHandler.accept(batch);
+            }
+            catch(RuntimeException e)
+            {
+                metrics.recordRunTime(System.nanoTime() - startTimeInNanos);
+                log.log(Level.WARNING, "the batch handler failed for " + firedTasks.size() + " tasks: " + e.getMessage());
+                retryOrFail(firedTasks);
+                return;
+            }
+            metrics.recordRunTime(System.nanoTime() - startTimeInNanos);
+            for(ScheduledTask task : batch)
+            {
+                if(task.getCallbackAfterTaskCompletes() != null)
+                {
+                    task.getCallbackAfterTaskCompletes().run();
+                }
+            }
+        }
+
+
+        private void retryOrFail(List<BatchedTask> failedTasks)
+        {
+            for(BatchedTask task : failedTasks)
+            {
+                if(task.remainingRetries > 0 && !batchesByTaskID.containsKey(task.task.getTaskID()))
+                {
+                    int retryNumber = Math.max(task.task.getNumberOfRetriesOnError(), 0) - task.remainingRetries + 1;
+                    long retryDelayInNanos = task.task.getRetryBackoff() != null ? task.task.getRetryBackoff().getDelayInNanos(retryNumber)
+                                    : task.task.getUnit().toNanos(Math.max(task.task.getDelay(), 0L));
+                    try
+                    {
+                        group.add(new BatchedTask(task.task, System.nanoTime() + retryDelayInNanos, task.remainingRetries - 1));
+                        metrics.recordRetried();
+                        continue;
+                    }
+                    catch(RejectedExecutionException e)
+                    {
+                        //the engine has been shut down, so the task fails
+                    }
+                }
+                metrics.recordFailed();
+            }
+        }
+    }
+
+
+    /**
+     * A pending task with its own due time and the number of retries that it has left.
+     */
+    private static class BatchedTask
+    {
+        private final ScheduledTask task;
+        private final long dueTimeInNanos;
+        private final int remainingRetries;
+
+
+        BatchedTask(ScheduledTask task, long dueTimeInNanos, int remainingRetries)
+        {
+            this.task = task;
+            this.dueTimeInNanos = dueTimeInNanos;
+            this.remainingRetries = remainingRetries;
+        }
+    }
+}
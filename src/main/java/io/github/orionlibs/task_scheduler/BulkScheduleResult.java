@@ -0,0 +1,96 @@
+package io.github.orionlibs.task_scheduler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The per-task outcomes of a bulk schedule call.
+ * The outcomes are indexed by the position of the tasks in the iteration order of the given collection.
+ */
+public class BulkScheduleResult
+{
+    private final ScheduleOutcome[] outcomes;
+    private final Map<Integer, String> rejectionReasons;
+    private int numberOfAcceptedTasks;
+    private int numberOfRejectedTasks;
+    private int numberOfDuplicateTasks;
+
+
+    BulkScheduleResult(int numberOfTasks)
+    {
+        this.outcomes = new ScheduleOutcome[numberOfTasks];
+        this.rejectionReasons = new HashMap<>();
+    }
+
+
+    void accept(int index)
+    {
+        outcomes[index] = ScheduleOutcome.ACCEPTED;
+        numberOfAcceptedTasks++;
+    }
+
+
+    void reject(int index, String reason)
+    {
+        if(outcomes[index] == ScheduleOutcome.ACCEPTED)
+        {
+            numberOfAcceptedTasks--;
+        }
+        outcomes[index] = ScheduleOutcome.REJECTED;
+        rejectionReasons.put(index, reason);
+        numberOfRejectedTasks++;
+    }
+
+
+    void markAsDuplicate(int index)
+    {
+        outcomes[index] = ScheduleOutcome.DUPLICATE_ID;
+        numberOfDuplicateTasks++;
+    }
+
+
+    /**
+     * It returns the outcome of the task at the given position.
+     * @param index
+     * @return
+     */
+    public ScheduleOutcome getOutcome(int index)
+    {
+        return outcomes[index];
+    }
+
+
+    /**
+     * It returns why the task at the given position was rejected.
+     * @param index
+     * @return the reason or null if the task was not rejected
+     */
+    public String getRejectionReason(int index)
+    {
+        return rejectionReasons.get(index);
+    }
+
+
+    public int getNumberOfTasks()
+    {
+        return outcomes.length;
+    }
+
+
+    public int getNumberOfAcceptedTasks()
+    {
+        return numberOfAcceptedTasks;
+    }
+
+
+    public int getNumberOfRejectedTasks()
+    {
+        return numberOfRejectedTasks;
+    }
+
+
+    public int getNumberOfDuplicateTasks()
+    {
+        return numberOfDuplicateTasks;
+    }
+}
@@ -0,0 +1,278 @@
+package io.github.orionlibs.task_scheduler;
+
+import io.github.orionlibs.task_scheduler.cluster.ClusterMessageHandler;
+import io.github.orionlibs.task_scheduler.cluster.ClusterTransport;
+import io.github.orionlibs.task_scheduler.cluster.ConsistentHashRing;
+import io.github.orionlibs.task_scheduler.persistence.PendingTaskRecord;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import lombok.Builder;
+
+/**
+ * Service that spreads the tasks of a cluster of SingleExecutionScheduleServices across its nodes by taskID.
+ * The taskIDs are consistently hashed onto the members of the cluster, so every task has one owner node,
+ * which holds it and fires it. schedule() and cancel() calls for a task that another node owns are forwarded
+ * to that node over the ClusterTransport, so adding nodes adds scheduling capacity.
+ * <br>
+ * A task travels as a PendingTaskRecord and is rebuilt on the owner from its taskType through the TaskTypeRegistry
+ * of the owner, so only tasks that have a taskType and no callbacks, retryBackoff, priority, maxRunTime, result
+ * or duplicatePolicy other than REPLACE can be forwarded.
+ * When a node joins or leaves, every node moves the pending tasks that it no longer owns to their new owner.
+ * Tasks that cannot be forwarded, recurring tasks and spilled tasks stay on the node where they were scheduled.
+ */
+public class ClusterScheduleService
+{
+    private static final Logger log = Logger.getLogger(ClusterScheduleService.class.getName());
+    private final String nodeID;
+    private final SingleExecutionScheduleService singleExecutionScheduleService;
+    private final ClusterTransport transport;
+    private final int virtualNodesPerMember;
+    private volatile ConsistentHashRing ring;
+
+
+    /**
+     * It joins the cluster of the given transport.
+     * @param nodeID the ID of this node, unique in the cluster
+     * @param singleExecutionScheduleService the service that holds and fires the tasks that this node owns
+     * @param transport the transport between the nodes of the cluster
+     * @param virtualNodesPerMember the number of points of each node on the hash ring. Values less than 1 default to 128.
+     * @throws IOException if the node cannot join the cluster
+     */
+    @Builder
+    public ClusterScheduleService(String nodeID, SingleExecutionScheduleService singleExecutionScheduleService, ClusterTransport transport, int virtualNodesPerMember) throws IOException
+    {
+        this.nodeID = nodeID;
+        this.singleExecutionScheduleService = singleExecutionScheduleService;
+        this.transport = transport;
+        this.virtualNodesPerMember = virtualNodesPerMember;
+        this.ring = new ConsistentHashRing(Set.of(nodeID), virtualNodesPerMember);
+        transport.join(nodeID, new MessageHandler());
+    }
+
+
+    /**
+     * Schedules a task on the node that owns its taskID.
+     * @param taskToSchedule
+     * @throws FeatureIsDisabledException if the scheduler is disabled.
+     * @throws RejectedExecutionException if the owner rejects the task or it cannot be forwarded to the owner.
+     * @throws InvalidArgumentException if the taskToSchedule argument has invalid values or another node owns it and it cannot be forwarded.
+     */
+    public void schedule(ScheduledTask taskToSchedule) throws FeatureIsDisabledException, RejectedExecutionException, InvalidArgumentException
+    {
+        String owner = getOwner(taskToSchedule.getTaskID());
+        if(owner == null || owner.equals(nodeID))
+        {
+            singleExecutionScheduleService.schedule(taskToSchedule);
+            return;
+        }
+        if(!singleExecutionScheduleService.getConfig().getFeatureFlags().isSchedulerEnabled())
+        {
+            throw new FeatureIsDisabledException();
+        }
+        taskToSchedule.validate();
+        if(!SingleExecutionScheduleService.isRebuildable(taskToSchedule))
+        {
+            throw new InvalidArgumentException("the task %s is owned by the node %s, but it cannot be rebuilt from its taskType there.", taskToSchedule.getTaskID(), owner);
+        }
+        try
+        {
+            transport.sendSchedule(owner, toPendingTaskRecord(taskToSchedule, taskToSchedule.getUnit().toMillis(taskToSchedule.getDelay())));
+        }
+        catch(IOException e)
+        {
+            throw new RejectedExecutionException("The task " + taskToSchedule.getTaskID() + " could not be forwarded to the node " + owner + ".", e);
+        }
+    }
+
+
+    /**
+     * It cancels the given task on this node, if it is here, or otherwise on the node that owns it.
+     * @param taskToCancel
+     * @return true if the task was cancelled. A forwarded cancellation returns false if the task does not exist or has already started.
+     * @throws FeatureIsDisabledException if the scheduler or the cancellation feature is disabled.
+     * @throws TaskDoesNotExistException if this node owns the task and it does not exist.
+     * @throws RejectedExecutionException if the cancellation cannot be forwarded to the owner.
+     */
+    public boolean cancel(String taskToCancel) throws FeatureIsDisabledException, TaskDoesNotExistException
+    {
+        String owner = getOwner(taskToCancel);
+        if(owner == null || owner.equals(nodeID) || singleExecutionScheduleService.getScheduledTaskByID(taskToCancel) != null)
+        {
+            return singleExecutionScheduleService.cancel(taskToCancel);
+        }
+        try
+        {
+            return transport.sendCancel(owner, taskToCancel);
+        }
+        catch(IOException e)
+        {
+            throw new RejectedExecutionException("The cancellation of the task " + taskToCancel + " could not be forwarded to the node " + owner + ".", e);
+        }
+    }
+
+
+    /**
+     * @param taskID
+     * @return the nodeID of the node that owns the given taskID
+     */
+    public String getOwner(String taskID)
+    {
+        return ring.getOwner(taskID);
+    }
+
+
+    /**
+     * @return the nodeIDs of the members of the cluster, as this node last saw them
+     */
+    public Set<String> getMembers()
+    {
+        return ring.getMembers();
+    }
+
+
+    public String getNodeID()
+    {
+        return nodeID;
+    }
+
+
+    /**
+     * It returns the service that holds and fires the tasks that this node owns.
+     * @return
+     */
+    public SingleExecutionScheduleService getSingleExecutionScheduleService()
+    {
+        return singleExecutionScheduleService;
+    }
+
+
+    /**
+     * It hands the pending tasks of this node over to the remaining members and leaves the cluster.
+     * The tasks that cannot be forwarded stay on this node.
+     */
+    public void leave()
+    {
+        List<String> remainingMembers = new ArrayList<>(ring.getMembers());
+        remainingMembers.remove(nodeID);
+        if(!remainingMembers.isEmpty())
+        {
+            ring = new ConsistentHashRing(remainingMembers, virtualNodesPerMember);
+            rebalance();
+        }
+        transport.leave(nodeID);
+    }
+
+
+    /**
+     * It moves the pending tasks that this node does not own any more to their owners.
+     * A task is detached from this node before it is forwarded, so it cannot fire on both nodes,
+     * and it is scheduled here again if it cannot be forwarded.
+     */
+    private void rebalance()
+    {
+        for(ScheduledTask task : singleExecutionScheduleService.getScheduledTasksToRunnablesMapper().values())
+        {
+            String owner = getOwner(task.getTaskID());
+            if(owner.equals(nodeID) || !SingleExecutionScheduleService.isRebuildable(task) || task.getTask() == null)
+            {
+                continue;
+            }
+            long delayInMillis = Math.max(0L, task.getTask().getDelay(TimeUnit.MILLISECONDS));
+            if(!singleExecutionScheduleService.detachForHandoff(task))
+            {
+                continue;
+            }
+            try
+            {
+                transport.sendSchedule(owner, toPendingTaskRecord(task, delayInMillis));
+            }
+            catch(IOException e)
+            {
+                log.warning("the task " + task.getTaskID() + " could not be moved to the node " + owner + ": " + e.getMessage());
+                rescheduleLocally(task, delayInMillis);
+            }
+        }
+    }
+
+
+    private void rescheduleLocally(ScheduledTask task, long delayInMillis)
+    {
+        task.setDelay(delayInMillis);
+        task.setUnit(TimeUnit.MILLISECONDS);
+        task.setTask(null);
+        try
+        {
+            singleExecutionScheduleService.schedule(task);
+        }
+        catch(FeatureIsDisabledException | InvalidArgumentException | RejectedExecutionException e)
+        {
+            log.warning("the task " + task.getTaskID() + " could not be scheduled again: " + e.getMessage());
+        }
+    }
+
+
+    private static PendingTaskRecord toPendingTaskRecord(ScheduledTask task, long delayInMillis)
+    {
+        return new PendingTaskRecord(task.getTaskID(),
+                        task.getTaskType(),
+                        task.getTaskPayload(),
+                        System.currentTimeMillis() + delayInMillis,
+                        task.getNumberOfRetriesOnError());
+    }
+
+
+    /**
+     * It handles the messages of the other nodes to this node.
+     */
+    private class MessageHandler implements ClusterMessageHandler
+    {
+        @Override
+        public void onSchedule(PendingTaskRecord task) throws Exception
+        {
+            Runnable runnable = singleExecutionScheduleService.getTaskTypeRegistry().createTask(task.getTaskType(), task.getTaskPayload());
+            if(runnable == null)
+            {
+                throw new InvalidArgumentException("no factory is registered for the task type %s.", task.getTaskType());
+            }
+            singleExecutionScheduleService.schedule(ScheduledTask.builder()
+                            .taskID(task.getTaskID())
+                            .taskToSchedule(runnable)
+                            .delay(Math.max(0L, task.getDueTimeInEpochMillis() - System.currentTimeMillis()))
+                            .unit(TimeUnit.MILLISECONDS)
+                            .numberOfRetriesOnError(task.getNumberOfRetriesOnError())
+                            .taskType(task.getTaskType())
+                            .taskPayload(task.getTaskPayload())
+                            .build());
+        }
+
+
+        @Override
+        public boolean onCancel(String taskID)
+        {
+            try
+            {
+                return singleExecutionScheduleService.tryCancel(taskID);
+            }
+            catch(FeatureIsDisabledException e)
+            {
+                return false;
+            }
+        }
+
+
+        @Override
+        public void onMembershipChange(Set<String> members)
+        {
+            if(members.contains(nodeID))
+            {
+                ring = new ConsistentHashRing(members, virtualNodesPerMember);
+                rebalance();
+            }
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package io.github.orionlibs.task_scheduler;
+
+import io.github.orionlibs.task_scheduler.config.FeatureFlags;
+import io.github.orionlibs.task_scheduler.engine.TimerEngine;
+import io.github.orionlibs.task_scheduler.metrics.MetricsSnapshot;
+import io.github.orionlibs.task_scheduler.metrics.SchedulerMetrics;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.Builder;
+
+/**
+ * Service for very large numbers of dormant single-execution tasks e.g. session expiries.
+ * A pending task is not an object graph of a ScheduledTask, a TimerFuture and a task wrapper. Its taskType is
+ * interned to an int id and its due time, retry counters and state live in primitive arrays, so a pending task
+ * costs a few tens of bytes besides its taskID and taskPayload. The Runnable of a task is built through the
+ * TaskTypeRegistry of the SingleExecutionScheduleService only when the task fires, and it runs on the engine of that service.
+ * <br>
+ * A single timer thread sleeps until the earliest due time. Scheduling, rescheduling and cancelling are O(log n).
+ * Scheduling a taskID that is already pending replaces that task in place, so e.g. extending a session is
+ * a reschedule that allocates nothing.
+ * <br>
+ * Compact tasks are not journaled and do not appear in the task map of the SingleExecutionScheduleService.
+ */
+public class CompactScheduleService
+{
+    private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+    private final SingleExecutionScheduleService singleExecutionScheduleService;
+    private final TaskTypeRegistry taskTypeRegistry;
+    private final TimerEngine timerEngine;
+    private final RetryBackoff retryBackoff;
+    private final SchedulerMetrics metrics;
+    private final CompactTaskStore store;
+    private final Map<String, Integer> taskTypeIDs;
+    private final List<String> taskTypes;
+    private final ReentrantLock lock;
+    private final Condition nextDueTimeChanged;
+    private final Thread timerThread;
+    private volatile boolean shutdown;
+
+
+    public CompactScheduleService(SingleExecutionScheduleService singleExecutionScheduleService)
+    {
+        this(singleExecutionScheduleService, DEFAULT_INITIAL_CAPACITY, null);
+    }
+
+
+    /**
+     * @param singleExecutionScheduleService the service whose config, TaskTypeRegistry and engine the compact tasks use
+     * @param initialCapacity the number of tasks that fit before the arrays grow. Values less than 1 default to 1024.
+     * @param retryBackoff the delays between the retries of a failed task. If null, a failed task is retried immediately.
+     */
+    @Builder
+    public CompactScheduleService(SingleExecutionScheduleService singleExecutionScheduleService, int initialCapacity, RetryBackoff retryBackoff)
+    {
+        this.singleExecutionScheduleService = singleExecutionScheduleService;
+        this.taskTypeRegistry = singleExecutionScheduleService.getTaskTypeRegistry();
+        this.timerEngine = singleExecutionScheduleService.getTimerEngine();
+        this.retryBackoff = retryBackoff;
+        this.metrics = new SchedulerMetrics();
+        this.store = new CompactTaskStore(initialCapacity > 0 ? initialCapacity : DEFAULT_INITIAL_CAPACITY);
+        this.taskTypeIDs = new HashMap<>();
+        this.taskTypes = new ArrayList<>();
+        this.lock = new ReentrantLock();
+        this.nextDueTimeChanged = lock.newCondition();
+        this.timerThread = new Thread(this::runTimer, "orion-task-scheduler-compact");
+        this.timerThread.setDaemon(true);
+        this.timerThread.start();
+    }
+
+
+    /**
+     * Schedules a task to execute in the future only once.
+     * @param taskID
+     * @param taskType the type of the task, whose factory has to be registered in the TaskTypeRegistry
+     * @param taskPayload the input of the factory of the taskType. It can be null.
+     * @param delay
+     * @param unit
+     * @throws FeatureIsDisabledException if the scheduler is disabled.
+     * @throws RejectedExecutionException if the service has been shut down.
+     * @throws InvalidArgumentException if the arguments have invalid values or the taskType is not registered.
+     */
+    public void schedule(String taskID, String taskType, String taskPayload, long delay, TimeUnit unit) throws FeatureIsDisabledException, RejectedExecutionException, InvalidArgumentException
+    {
+        schedule(taskID, taskType, taskPayload, delay, unit, 0);
+    }
+
+
+    /**
+     * Schedules a task to execute in the future only once and to be retried up to numberOfRetriesOnError times if it fails.
+     * If a task with the same taskID is pending, it is replaced in place by this one.
+     * If a task with the same taskID is running, it finishes without retrying and this one is scheduled separately.
+     * @param taskID
+     * @param taskType the type of the task, whose factory has to be registered in the TaskTypeRegistry
+     * @param taskPayload the input of the factory of the taskType. It can be null.
+     * @param delay
+     * @param unit
+     * @param numberOfRetriesOnError the number of retries, up to 32767
+     * @throws FeatureIsDisabledException if the scheduler is disabled.
+     * @throws RejectedExecutionException if the service has been shut down.
+     * @throws InvalidArgumentException if the arguments have invalid values or the taskType is not registered.
+     */
+    public void schedule(String taskID, String taskType, String taskPayload, long delay, TimeUnit unit, int numberOfRetriesOnError) throws FeatureIsDisabledException, RejectedExecutionException, InvalidArgumentException
+    {
+        if(singleExecutionScheduleService.getConfig().getFeatureFlags().isSchedulerEnabled())
+        {
+            validate(taskID, taskType, unit);
+            long dueTimeInNanos = System.nanoTime() + unit.toNanos(Math.max(delay, 0L));
+            lock.lock();
+            try
+            {
+                if(shutdown)
+                {
+                    throw new RejectedExecutionException("The compact scheduler has been shut down.");
+                }
+                int taskTypeID = getTaskTypeID(taskType);
+                int slot = store.find(taskID);
+                if(slot >= 0 && store.getState(slot) == CompactTaskStore.PENDING)
+                {
+                    store.replace(slot, taskTypeID, taskPayload, dueTimeInNanos, numberOfRetriesOnError);
+                }
+                else
+                {
+                    if(slot >= 0)
+                    {
+                        store.detach(slot);
+                    }
+                    store.add(taskID, taskTypeID, taskPayload, dueTimeInNanos, numberOfRetriesOnError);
+                }
+                if(store.getNextDueTimeInNanos() == dueTimeInNanos)
+                {
+                    nextDueTimeChanged.signal();
+                }
+            }
+            finally
+            {
+                lock.unlock();
+            }
+            metrics.recordScheduled(1);
+        }
+        else
+        {
+            throw new FeatureIsDisabledException();
+        }
+    }
+
+
+    private void validate(String taskID, String taskType, TimeUnit unit) throws InvalidArgumentException
+    {
+        if(taskID == null || taskID.isEmpty())
+        {
+            throw new InvalidArgumentException("taskID cannot be null/empty.");
+        }
+        if(unit == null)
+        {
+            throw new InvalidArgumentException("unit cannot be null.");
+        }
+        if(!taskTypeRegistry.isRegistered(taskType))
+        {
+            throw new InvalidArgumentException("no factory is registered for the task type %s", taskType);
+        }
+    }
+
+
+    private int getTaskTypeID(String taskType)
+    {
+        Integer taskTypeID = taskTypeIDs.get(taskType);
+        if(taskTypeID == null)
+        {
+            taskTypeID = taskTypes.size();
+            taskTypes.add(taskType);
+            taskTypeIDs.put(taskType, taskTypeID);
+        }
+        return taskTypeID;
+    }
+
+
+    /**
+     * It cancels the given pending task before it executes.
+     * @param taskToCancel
+     * @return true if the task was cancelled and false if it is already running
+     * @throws FeatureIsDisabledException if the scheduler or the cancellation feature is disabled.
+     * @throws TaskDoesNotExistException if the taskToCancel does not exist in the scheduler.
+     */
+    public boolean cancel(String taskToCancel) throws FeatureIsDisabledException, TaskDoesNotExistException
+    {
+        FeatureFlags featureFlags = singleExecutionScheduleService.getConfig().getFeatureFlags();
+        if(featureFlags.isSchedulerEnabled() && featureFlags.isCancellationEnabled())
+        {
+            lock.lock();
+            try
+            {
+                int slot = taskToCancel != null ? store.find(taskToCancel) : -1;
+                if(slot < 0)
+                {
+                    throw new TaskDoesNotExistException();
+                }
+                if(store.getState(slot) != CompactTaskStore.PENDING)
+                {
+                    return false;
+                }
+                store.remove(slot);
+            }
+            finally
+            {
+                lock.unlock();
+            }
+            metrics.recordCancelled();
+            return true;
+        }
+        else
+        {
+            throw new FeatureIsDisabledException();
+        }
+    }
+
+
+    /**
+     * @param taskID
+     * @return true if a task with the given taskID is pending or running
+     */
+    public boolean isScheduled(String taskID)
+    {
+        lock.lock();
+        try
+        {
+            return taskID != null && store.find(taskID) >= 0;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * @return the number of tasks that are pending or running
+     */
+    public int getNumberOfTasks()
+    {
+        lock.lock();
+        try
+        {
+            return store.size();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * It returns a snapshot of the scheduling lag and throughput metrics of the compact tasks.
+     * @return
+     */
+    public MetricsSnapshot getMetrics()
+    {
+        return metrics.snapshot(getNumberOfTasks());
+    }
+
+
+    /**
+     * It stops the timer thread and discards the tasks that have not fired yet.
+     * Tasks that are already running are allowed to finish, without retries.
+     */
+    public void shutdown()
+    {
+        lock.lock();
+        try
+        {
+            shutdown = true;
+            nextDueTimeChanged.signal();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * @return true if shutdown() has been called.
+     */
+    public boolean isShutdown()
+    {
+        return shutdown;
+    }
+
+
+    private void runTimer()
+    {
+        lock.lock();
+        try
+        {
+            while(!shutdown)
+            {
+                long now = System.nanoTime();
+                int slot = store.pollDue(now);
+                if(slot >= 0)
+                {
+                    dispatch(slot);
+                }
+                else
+                {
+                    long nextDueTimeInNanos = store.getNextDueTimeInNanos();
+                    if(nextDueTimeInNanos == Long.MAX_VALUE)
+                    {
+                        nextDueTimeChanged.await();
+                    }
+                    else
+                    {
+                        nextDueTimeChanged.awaitNanos(nextDueTimeInNanos - now);
+                    }
+                }
+            }
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+
+    private void dispatch(int slot)
+    {
+        try
+        {
+            timerEngine.execute(new CompactTaskRunner(slot,
+                            store.getTaskID(slot),
+                            taskTypes.get(store.getTaskTypeID(slot)),
+                            store.getTaskPayload(slot),
+                            store.getDueTimeInNanos(slot)));
+        }
+        catch(RejectedExecutionException e)
+        {
+            store.remove(slot);
+        }
+    }
+
+
+    /**
+     * @param retriable false if the task threw an Error, which is not retried
+     */
+    private void finishTask(int slot, String taskID, boolean failed, boolean retriable)
+    {
+        lock.lock();
+        try
+        {
+            if(store.getState(slot) != CompactTaskStore.RUNNING || store.getTaskID(slot) != taskID)
+            {
+                return;
+            }
+            if(failed && retriable && store.getRemainingRetries(slot) > 0 && !shutdown && store.find(taskID) == slot)
+            {
+                long retryDelayInNanos = retryBackoff != null ? retryBackoff.getDelayInNanos(store.getRetryNumber(slot) + 1) : 0L;
+                store.retry(slot, System.nanoTime() + retryDelayInNanos);
+                metrics.recordRetried();
+                nextDueTimeChanged.signal();
+                return;
+            }
+            if(failed)
+            {
+                metrics.recordFailed();
+            }
+            store.remove(slot);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+
+    /**
+     * The Runnable that is materialized for a compact task when it fires.
+     */
+    private class CompactTaskRunner implements Runnable
+    {
+        private final int slot;
+        private final String taskID;
+        private final String taskType;
+        private final String taskPayload;
+        private final long dueTimeInNanos;
+
+
+        CompactTaskRunner(int slot, String taskID, String taskType, String taskPayload, long dueTimeInNanos)
+        {
+            this.slot = slot;
+            this.taskID = taskID;
+            this.taskType = taskType;
+            this.taskPayload = taskPayload;
+            this.dueTimeInNanos = dueTimeInNanos;
+        }
+
+
+        @Override
+        public void run()
+        {
+            long startTimeInNanos = System.nanoTime();
+            metrics.recordFired(dueTimeInNanos, startTimeInNanos);
+            boolean failed = true;
+            boolean retriable = true;
+            try
+            {
+                taskTypeRegistry.createTask(taskType, taskPayload).run();
+                failed = false;
+            }
+            catch(Exception e)
+            {
+                //finishTask records the failure
+            }
+            catch(Error e)
+            {
+                retriable = false;
+                throw e;
+            }
+            finally
+            {
+                //an Error still frees the slot of the task before it propagates
+                metrics.recordRunTime(System.nanoTime() - startTimeInNanos);
+                finishTask(slot, taskID, failed, retriable);
+            }
+        }
+    }
+}
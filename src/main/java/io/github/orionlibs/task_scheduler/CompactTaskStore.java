@@ -0,0 +1,413 @@
+package io.github.orionlibs.task_scheduler;
+
+import java.util.Arrays;
+
+/**
+ * The pending tasks of a CompactScheduleService, kept in parallel primitive arrays that are indexed by slot.
+ * A task costs one slot in each array, one entry in the binary min-heap of due times and, on average,
+ * two entries in the open-addressing index of taskIDs, which is a few tens of bytes plus its taskID and taskPayload.
+ * There are no per-task objects, so the garbage collector does not have to trace the dormant tasks.
+ * <br>
+ * It is not thread-safe. The CompactScheduleService guards it with its lock.
+ */
+class CompactTaskStore
+{
+    static final byte FREE = 0;
+    static final byte PENDING = 1;
+    static final byte RUNNING = 2;
+    private static final int MINIMUM_CAPACITY = 16;
+    private String[] taskIDs;
+    private String[] taskPayloads;
+    private int[] taskTypeIDs;
+    private long[] dueTimesInNanos;
+    private short[] numberOfRetriesOnError;
+    private short[] retriesMade;
+    private byte[] states;
+    private int[] heapPositions;
+    private int[] heap;
+    private int heapSize;
+    private int[] freeSlots;
+    private int numberOfFreeSlots;
+    private int numberOfUsedSlots;
+    private int[] index;
+    private int indexMask;
+    private int numberOfIndexedTasks;
+
+
+    CompactTaskStore(int initialCapacity)
+    {
+        int capacity = Math.max(MINIMUM_CAPACITY, initialCapacity);
+        this.taskIDs = new String[capacity];
+        this.taskPayloads = new String[capacity];
+        this.taskTypeIDs = new int[capacity];
+        this.dueTimesInNanos = new long[capacity];
+        this.numberOfRetriesOnError = new short[capacity];
+        this.retriesMade = new short[capacity];
+        this.states = new byte[capacity];
+        this.heapPositions = new int[capacity];
+        this.heap = new int[capacity];
+        this.freeSlots = new int[capacity];
+        this.index = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+        this.indexMask = index.length - 1;
+    }
+
+
+    /**
+     * @param taskID
+     * @return the slot of the task that is indexed under the given taskID or -1 if there is none
+     */
+    int find(String taskID)
+    {
+        int position = spread(taskID.hashCode()) & indexMask;
+        int entry;
+        while((entry = index[position]) != 0)
+        {
+            if(taskIDs[entry - 1].equals(taskID))
+            {
+                return entry - 1;
+            }
+            position = (position + 1) & indexMask;
+        }
+        return -1;
+    }
+
+
+    /**
+     * It stores a new pending task and indexes it under its taskID, which must not be indexed already.
+     * @return the slot of the task
+     */
+    int add(String taskID, int taskTypeID, String taskPayload, long dueTimeInNanos, int numberOfRetries)
+    {
+        int slot = allocateSlot();
+        taskIDs[slot] = taskID;
+        taskPayloads[slot] = taskPayload;
+        taskTypeIDs[slot] = taskTypeID;
+        numberOfRetriesOnError[slot] = (short)Math.min(Math.max(numberOfRetries, 0), Short.MAX_VALUE);
+        retriesMade[slot] = 0;
+        addToIndex(slot);
+        pushToHeap(slot, dueTimeInNanos);
+        return slot;
+    }
+
+
+    /**
+     * It overwrites the given pending task in its slot and moves it to its new due time.
+     */
+    void replace(int slot, int taskTypeID, String taskPayload, long dueTimeInNanos, int numberOfRetries)
+    {
+        taskPayloads[slot] = taskPayload;
+        taskTypeIDs[slot] = taskTypeID;
+        numberOfRetriesOnError[slot] = (short)Math.min(Math.max(numberOfRetries, 0), Short.MAX_VALUE);
+        retriesMade[slot] = 0;
+        reschedule(slot, dueTimeInNanos);
+    }
+
+
+    /**
+     * It moves the due time of the given pending task without reallocating anything.
+     */
+    void reschedule(int slot, long dueTimeInNanos)
+    {
+        long previousDueTimeInNanos = dueTimesInNanos[slot];
+        dueTimesInNanos[slot] = dueTimeInNanos;
+        if(dueTimeInNanos - previousDueTimeInNanos < 0L)
+        {
+            siftUp(heapPositions[slot]);
+        }
+        else
+        {
+            siftDown(heapPositions[slot]);
+        }
+    }
+
+
+    /**
+     * It arms the given running task again, for a retry.
+     */
+    void retry(int slot, long dueTimeInNanos)
+    {
+        retriesMade[slot]++;
+        pushToHeap(slot, dueTimeInNanos);
+    }
+
+
+    /**
+     * It takes the earliest task out of the heap and marks it as running, if it is due.
+     * @return the slot of the task or -1 if no task is due at the given time
+     */
+    int pollDue(long nowInNanos)
+    {
+        if(heapSize == 0 || dueTimesInNanos[heap[0]] - nowInNanos > 0L)
+        {
+            return -1;
+        }
+        int slot = heap[0];
+        removeFromHeap(slot);
+        states[slot] = RUNNING;
+        return slot;
+    }
+
+
+    /**
+     * @return the due time of the earliest task or Long.MAX_VALUE if there are no pending tasks
+     */
+    long getNextDueTimeInNanos()
+    {
+        return heapSize == 0 ? Long.MAX_VALUE : dueTimesInNanos[heap[0]];
+    }
+
+
+    /**
+     * It removes the given task from the heap and from the index, if it is still indexed, and frees its slot.
+     */
+    void remove(int slot)
+    {
+        if(states[slot] == PENDING)
+        {
+            removeFromHeap(slot);
+        }
+        if(find(taskIDs[slot]) == slot)
+        {
+            removeFromIndex(slot);
+        }
+        taskIDs[slot] = null;
+        taskPayloads[slot] = null;
+        states[slot] = FREE;
+        freeSlots[numberOfFreeSlots++] = slot;
+    }
+
+
+    /**
+     * It unindexes the given running task, so that its taskID can be scheduled again while it runs.
+     * Its slot is freed by remove() when it finishes.
+     */
+    void detach(int slot)
+    {
+        removeFromIndex(slot);
+    }
+
+
+    String getTaskID(int slot)
+    {
+        return taskIDs[slot];
+    }
+
+
+    String getTaskPayload(int slot)
+    {
+        return taskPayloads[slot];
+    }
+
+
+    int getTaskTypeID(int slot)
+    {
+        return taskTypeIDs[slot];
+    }
+
+
+    long getDueTimeInNanos(int slot)
+    {
+        return dueTimesInNanos[slot];
+    }
+
+
+    byte getState(int slot)
+    {
+        return states[slot];
+    }
+
+
+    int getRemainingRetries(int slot)
+    {
+        return numberOfRetriesOnError[slot] - retriesMade[slot];
+    }
+
+
+    int getRetryNumber(int slot)
+    {
+        return retriesMade[slot];
+    }
+
+
+    /**
+     * @return the number of tasks that are pending or running
+     */
+    int size()
+    {
+        return numberOfUsedSlots - numberOfFreeSlots;
+    }
+
+
+    private int allocateSlot()
+    {
+        if(numberOfFreeSlots > 0)
+        {
+            return freeSlots[--numberOfFreeSlots];
+        }
+        if(numberOfUsedSlots == taskIDs.length)
+        {
+            grow();
+        }
+        return numberOfUsedSlots++;
+    }
+
+
+    private void grow()
+    {
+        int capacity = taskIDs.length << 1;
+        taskIDs = Arrays.copyOf(taskIDs, capacity);
+        taskPayloads = Arrays.copyOf(taskPayloads, capacity);
+        taskTypeIDs = Arrays.copyOf(taskTypeIDs, capacity);
+        dueTimesInNanos = Arrays.copyOf(dueTimesInNanos, capacity);
+        numberOfRetriesOnError = Arrays.copyOf(numberOfRetriesOnError, capacity);
+        retriesMade = Arrays.copyOf(retriesMade, capacity);
+        states = Arrays.copyOf(states, capacity);
+        heapPositions = Arrays.copyOf(heapPositions, capacity);
+        heap = Arrays.copyOf(heap, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+    }
+
+
+    private void addToIndex(int slot)
+    {
+        if((numberOfIndexedTasks + 1) * 2 > index.length)
+        {
+            rehash(index.length << 1);
+        }
+        insertIntoIndex(slot);
+        numberOfIndexedTasks++;
+    }
+
+
+    private void insertIntoIndex(int slot)
+    {
+        int position = spread(taskIDs[slot].hashCode()) & indexMask;
+        while(index[position] != 0)
+        {
+            position = (position + 1) & indexMask;
+        }
+        index[position] = slot + 1;
+    }
+
+
+    private void rehash(int indexSize)
+    {
+        int[] previousIndex = index;
+        index = new int[indexSize];
+        indexMask = indexSize - 1;
+        for(int entry : previousIndex)
+        {
+            if(entry != 0)
+            {
+                insertIntoIndex(entry - 1);
+            }
+        }
+    }
+
+
+    /**
+     * It removes the index entry of the given slot and shifts the entries after it back,
+     * so that linear probing never needs tombstones.
+     */
+    private void removeFromIndex(int slot)
+    {
+        int position = spread(taskIDs[slot].hashCode()) & indexMask;
+        while(index[position] != slot + 1)
+        {
+            position = (position + 1) & indexMask;
+        }
+        int next = (position + 1) & indexMask;
+        while(index[next] != 0)
+        {
+            int home = spread(taskIDs[index[next] - 1].hashCode()) & indexMask;
+            if(((next - home) & indexMask) >= ((next - position) & indexMask))
+            {
+                index[position] = index[next];
+                position = next;
+            }
+            next = (next + 1) & indexMask;
+        }
+        index[position] = 0;
+        numberOfIndexedTasks--;
+    }
+
+
+    private void pushToHeap(int slot, long dueTimeInNanos)
+    {
+        dueTimesInNanos[slot] = dueTimeInNanos;
+        states[slot] = PENDING;
+        heap[heapSize] = slot;
+        heapPositions[slot] = heapSize;
+        siftUp(heapSize++);
+    }
+
+
+    private void removeFromHeap(int slot)
+    {
+        int position = heapPositions[slot];
+        int last = heap[--heapSize];
+        heapPositions[slot] = -1;
+        if(position < heapSize)
+        {
+            heap[position] = last;
+            heapPositions[last] = position;
+            siftDown(position);
+            siftUp(heapPositions[last]);
+        }
+    }
+
+
+    private void siftUp(int position)
+    {
+        int slot = heap[position];
+        long dueTimeInNanos = dueTimesInNanos[slot];
+        while(position > 0)
+        {
+            int parentPosition = (position - 1) >>> 1;
+            int parent = heap[parentPosition];
+            if(dueTimeInNanos - dueTimesInNanos[parent] >= 0L)
+            {
+                break;
+            }
+            heap[position] = parent;
+            heapPositions[parent] = position;
+            position = parentPosition;
+        }
+        heap[position] = slot;
+        heapPositions[slot] = position;
+    }
+
+
+    private void siftDown(int position)
+    {
+        int slot = heap[position];
+        long dueTimeInNanos = dueTimesInNanos[slot];
+        int half = heapSize >>> 1;
+        while(position < half)
+        {
+            int childPosition = (position << 1) + 1;
+            int child = heap[childPosition];
+            int rightPosition = childPosition + 1;
+            if(rightPosition < heapSize && dueTimesInNanos[heap[rightPosition]] - dueTimesInNanos[child] < 0L)
+            {
+                childPosition = rightPosition;
+                child = heap[childPosition];
+            }
+            if(dueTimeInNanos - dueTimesInNanos[child] <= 0L)
+            {
+                break;
+            }
+            heap[position] = child;
+            heapPositions[child] = position;
+            position = childPosition;
+        }
+        heap[position] = slot;
+        heapPositions[slot] = position;
+    }
+
+
+    private static int spread(int hash)
+    {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,310 @@
+package io.github.orionlibs.task_scheduler;
+
+import java.time.ZoneOffset;
+
+/**
+ * A cron expression that is parsed once into bitmasks, so that computing the next fire time
+ * is plain arithmetic on primitives and does not allocate.
+ * <br>
+ * It has either 5 fields (minute, hour, day of month, month, day of week) or 6 fields, with the seconds first.
+ * Every field accepts * (or ?), single values, ranges (a-b), steps (* /n or a-b/n) and comma-separated lists of them.
+ * Months accept JAN-DEC and days of week accept SUN-SAT, where both 0 and 7 are Sunday.
+ * As in standard cron, if both the day of month and the day of week are restricted, a day matches if either of them matches.
+ * <br>
+ * The expression is evaluated in a fixed ZoneOffset (UTC by default), since zones with daylight saving
+ * transitions cannot be evaluated without allocating.
+ */
+public final class CronExpression
+{
+    private static final int SECONDS_PER_DAY = 86400;
+    private static final int MAX_YEARS_TO_SEARCH = 8;
+    private static final String[] MONTH_NAMES = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+    private static final String[] DAY_NAMES = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+    private final String expression;
+    private final long seconds;
+    private final long minutes;
+    private final long hours;
+    private final long daysOfMonth;
+    private final long months;
+    private final long daysOfWeek;
+    private final boolean dayOfMonthRestricted;
+    private final boolean dayOfWeekRestricted;
+    private final int offsetInSeconds;
+
+
+    private CronExpression(String expression, String[] fields, ZoneOffset offset) throws InvalidArgumentException
+    {
+        this.expression = expression;
+        int first = fields.length == 6 ? 1 : 0;
+        this.seconds = fields.length == 6 ? parseField(fields[0], 0, 59, null) : 1L;
+        this.minutes = parseField(fields[first], 0, 59, null);
+        this.hours = parseField(fields[first + 1], 0, 23, null);
+        this.daysOfMonth = parseField(fields[first + 2], 1, 31, null);
+        this.months = parseField(fields[first + 3], 1, 12, MONTH_NAMES);
+        long parsedDaysOfWeek = parseField(fields[first + 4], 0, 7, DAY_NAMES);
+        this.daysOfWeek = (parsedDaysOfWeek | (parsedDaysOfWeek >>> 7)) & 0x7FL;
+        this.dayOfMonthRestricted = isRestricted(fields[first + 2]);
+        this.dayOfWeekRestricted = isRestricted(fields[first + 4]);
+        this.offsetInSeconds = offset.getTotalSeconds();
+    }
+
+
+    /**
+     * It parses the given expression, to be evaluated in UTC.
+     * @param expression
+     * @return
+     * @throws InvalidArgumentException if the expression is not a valid cron expression.
+     */
+    public static CronExpression parse(String expression) throws InvalidArgumentException
+    {
+        return parse(expression, ZoneOffset.UTC);
+    }
+
+
+    /**
+     * It parses the given expression, to be evaluated in the given offset.
+     * @param expression
+     * @param offset
+     * @return
+     * @throws InvalidArgumentException if the expression is not a valid cron expression.
+     */
+    public static CronExpression parse(String expression, ZoneOffset offset) throws InvalidArgumentException
+    {
+        if(expression == null || expression.isBlank())
+        {
+            throw new InvalidArgumentException("cron expression cannot be null/empty.");
+        }
+        String[] fields = expression.trim().split("\\s+");
+        if(fields.length != 5 && fields.length != 6)
+        {
+            throw new InvalidArgumentException("cron expression has to have 5 or 6 fields: %s", expression);
+        }
+        return new CronExpression(expression, fields, offset != null ? offset : ZoneOffset.UTC);
+    }
+
+
+    /**
+     * It returns the first fire time that is strictly after the given time.
+     * @param afterEpochMillis
+     * @return the fire time in epoch milliseconds or -1 if the expression never fires again e.g. 0 0 30 2 *
+     */
+    public long nextFireTime(long afterEpochMillis)
+    {
+        long time = Math.floorDiv(afterEpochMillis, 1000L) + 1L + offsetInSeconds;
+        long lastYear = year(civilFromDays(Math.floorDiv(time, SECONDS_PER_DAY))) + MAX_YEARS_TO_SEARCH;
+        while(true)
+        {
+            long days = Math.floorDiv(time, SECONDS_PER_DAY);
+            long civil = civilFromDays(days);
+            long year = year(civil);
+            int month = month(civil);
+            if(year > lastYear)
+            {
+                return -1L;
+            }
+            if((months & (1L << month)) == 0L)
+            {
+                int nextMonth = nextSetBit(months, month + 1);
+                time = nextMonth < 0 || nextMonth > 12 ? daysFromCivil(year + 1L, 1, 1) * SECONDS_PER_DAY
+                                : daysFromCivil(year, nextMonth, 1) * SECONDS_PER_DAY;
+                continue;
+            }
+            if(!matchesDay(day(civil), Math.floorMod(days + 4L, 7L)))
+            {
+                time = (days + 1L) * SECONDS_PER_DAY;
+                continue;
+            }
+            int secondOfDay = (int)(time - days * SECONDS_PER_DAY);
+            int hour = secondOfDay / 3600;
+            int nextHour = nextSetBit(hours, hour);
+            if(nextHour < 0)
+            {
+                time = (days + 1L) * SECONDS_PER_DAY;
+                continue;
+            }
+            if(nextHour != hour)
+            {
+                time = days * SECONDS_PER_DAY + nextHour * 3600L;
+                continue;
+            }
+            int minute = (secondOfDay % 3600) / 60;
+            int nextMinute = nextSetBit(minutes, minute);
+            if(nextMinute < 0)
+            {
+                time = days * SECONDS_PER_DAY + (hour + 1L) * 3600L;
+                continue;
+            }
+            if(nextMinute != minute)
+            {
+                time = days * SECONDS_PER_DAY + hour * 3600L + nextMinute * 60L;
+                continue;
+            }
+            int second = secondOfDay % 60;
+            int nextSecond = nextSetBit(seconds, second);
+            if(nextSecond < 0)
+            {
+                time = days * SECONDS_PER_DAY + hour * 3600L + (minute + 1L) * 60L;
+                continue;
+            }
+            return (days * SECONDS_PER_DAY + hour * 3600L + minute * 60L + nextSecond - offsetInSeconds) * 1000L;
+        }
+    }
+
+
+    private static boolean isRestricted(String field)
+    {
+        return !field.startsWith("*") && !field.startsWith("?");
+    }
+
+
+    private boolean matchesDay(int dayOfMonth, long dayOfWeek)
+    {
+        boolean dayOfMonthMatches = (daysOfMonth & (1L << dayOfMonth)) != 0L;
+        boolean dayOfWeekMatches = (daysOfWeek & (1L << dayOfWeek)) != 0L;
+        if(dayOfMonthRestricted && dayOfWeekRestricted)
+        {
+            return dayOfMonthMatches || dayOfWeekMatches;
+        }
+        return dayOfMonthMatches && dayOfWeekMatches;
+    }
+
+
+    private static int nextSetBit(long mask, int from)
+    {
+        if(from > 63)
+        {
+            return -1;
+        }
+        long remaining = mask & (-1L << from);
+        return remaining == 0L ? -1 : Long.numberOfTrailingZeros(remaining);
+    }
+
+
+    /**
+     * It converts days since the epoch to a proleptic Gregorian date packed as year << 9 | month << 5 | day.
+     */
+    private static long civilFromDays(long days)
+    {
+        long z = days + 719468L;
+        long era = Math.floorDiv(z, 146097L);
+        long dayOfEra = z - era * 146097L;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460L + dayOfEra / 36524L - dayOfEra / 146096L) / 365L;
+        long dayOfYear = dayOfEra - (365L * yearOfEra + yearOfEra / 4L - yearOfEra / 100L);
+        long shiftedMonth = (5L * dayOfYear + 2L) / 153L;
+        long day = dayOfYear - (153L * shiftedMonth + 2L) / 5L + 1L;
+        long month = shiftedMonth < 10L ? shiftedMonth + 3L : shiftedMonth - 9L;
+        long year = yearOfEra + era * 400L + (month <= 2L ? 1L : 0L);
+        return year << 9 | month << 5 | day;
+    }
+
+
+    private static long daysFromCivil(long year, int month, int day)
+    {
+        long shiftedYear = month <= 2 ? year - 1L : year;
+        long era = Math.floorDiv(shiftedYear, 400L);
+        long yearOfEra = shiftedYear - era * 400L;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2L) / 5L + day - 1L;
+        long dayOfEra = yearOfEra * 365L + yearOfEra / 4L - yearOfEra / 100L + dayOfYear;
+        return era * 146097L + dayOfEra - 719468L;
+    }
+
+
+    private static long year(long civil)
+    {
+        return civil >> 9;
+    }
+
+
+    private static int month(long civil)
+    {
+        return (int)((civil >>> 5) & 0xFL);
+    }
+
+
+    private static int day(long civil)
+    {
+        return (int)(civil & 0x1FL);
+    }
+
+
+    private static long parseField(String field, int min, int max, String[] names) throws InvalidArgumentException
+    {
+        long mask = 0L;
+        for(String part : field.split(","))
+        {
+            String range = part;
+            int step = 1;
+            int slash = part.indexOf('/');
+            if(slash >= 0)
+            {
+                range = part.substring(0, slash);
+                step = parseNumber(part.substring(slash + 1), 1, max, null, field);
+            }
+            int from;
+            int to;
+            if(range.equals("*") || range.equals("?"))
+            {
+                from = min;
+                to = max;
+            }
+            else
+            {
+                int dash = range.indexOf('-');
+                if(dash > 0)
+                {
+                    from = parseNumber(range.substring(0, dash), min, max, names, field);
+                    to = parseNumber(range.substring(dash + 1), min, max, names, field);
+                }
+                else
+                {
+                    from = parseNumber(range, min, max, names, field);
+                    to = slash >= 0 ? max : from;
+                }
+            }
+            if(from > to)
+            {
+                throw new InvalidArgumentException("invalid range in cron field: %s", field);
+            }
+            for(int value = from; value <= to; value += step)
+            {
+                mask |= 1L << value;
+            }
+        }
+        return mask;
+    }
+
+
+    private static int parseNumber(String value, int min, int max, String[] names, String field) throws InvalidArgumentException
+    {
+        if(names != null)
+        {
+            for(int i = 0; i < names.length; i++)
+            {
+                if(names[i].equalsIgnoreCase(value))
+                {
+                    return min == 1 ? i + 1 : i;
+                }
+            }
+        }
+        try
+        {
+            int number = Integer.parseInt(value);
+            if(number < min || number > max)
+            {
+                throw new InvalidArgumentException("value out of range in cron field: %s", field);
+            }
+            return number;
+        }
+        catch(NumberFormatException e)
+        {
+            throw new InvalidArgumentException(e, "invalid value in cron field: %s", field);
+        }
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return expression;
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.orionlibs.task_scheduler;
+
+/**
+ * What schedule() does with a task whose taskID is already pending in the service.
+ */
+public enum DuplicatePolicy
+{
+    /**
+     * The pending task is cancelled and the new task is scheduled in its place. It is the default.
+     */
+    REPLACE,
+    /**
+     * The pending task is kept and the new task is not scheduled.
+     */
+    KEEP_EXISTING,
+    /**
+     * The new task is absorbed by the pending one, whose due time is pushed forward to the due time of the new task,
+     * if that is later. Nothing is allocated, so a burst of schedules for the same taskID results in one execution
+     * after the last one of them. If the pending task has already started, the new task is scheduled as with REPLACE.
+     */
+    COALESCE
+}
@@ -0,0 +1,21 @@
+package io.github.orionlibs.task_scheduler;
+
+/**
+ * What the AdmissionController does with a task that would exceed one of its pending limits.
+ * A task that would exceed a rate limit is always delayed, whatever the policy.
+ */
+public enum OverflowPolicy
+{
+    /**
+     * The task is rejected straight away.
+     */
+    REJECT,
+    /**
+     * The caller blocks until the task fits within the limits or the block timeout elapses, in which case the task is rejected.
+     */
+    BLOCK,
+    /**
+     * The oldest pending task that counts against the exceeded pending limit is cancelled to make room.
+     */
+    SHED_OLDEST
+}
@@ -0,0 +1,140 @@
+package io.github.orionlibs.task_scheduler;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * A maximum number of pending tasks. Acquiring and releasing a slot is a CAS on a counter.
+ * Callers that block wait on a monitor, which releases only touch while someone is waiting.
+ * <br>
+ * If shedding is enabled, it also remembers the tasks in admission order, so that the oldest pending one can be shed.
+ * Tasks that are not pending anymore are dropped lazily, when they reach the head or every maxPendingTasks admissions.
+ */
+class PendingLimit
+{
+    private final int maxPendingTasks;
+    private final AtomicInteger pendingTasks;
+    private final AtomicInteger waiters;
+    private final Object monitor;
+    private final Queue<ScheduledTask> admittedTasks;
+    private final AtomicInteger admissionsSincePurge;
+
+
+    PendingLimit(int maxPendingTasks, boolean shedding)
+    {
+        this.maxPendingTasks = maxPendingTasks;
+        this.pendingTasks = new AtomicInteger();
+        this.waiters = new AtomicInteger();
+        this.monitor = new Object();
+        this.admittedTasks = shedding ? new ConcurrentLinkedQueue<>() : null;
+        this.admissionsSincePurge = new AtomicInteger();
+    }
+
+
+    boolean tryAcquire()
+    {
+        int pending;
+        do
+        {
+            pending = pendingTasks.get();
+            if(pending >= maxPendingTasks)
+            {
+                return false;
+            }
+        }
+        while(!pendingTasks.compareAndSet(pending, pending + 1));
+        return true;
+    }
+
+
+    boolean tryAcquire(long timeoutInNanos) throws InterruptedException
+    {
+        if(tryAcquire())
+        {
+            return true;
+        }
+        long deadline = System.nanoTime() + timeoutInNanos;
+        waiters.incrementAndGet();
+        try
+        {
+            synchronized(monitor)
+            {
+                while(!tryAcquire())
+                {
+                    long remainingTimeInNanos = deadline - System.nanoTime();
+                    if(remainingTimeInNanos <= 0L)
+                    {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(monitor, remainingTimeInNanos);
+                }
+                return true;
+            }
+        }
+        finally
+        {
+            waiters.decrementAndGet();
+        }
+    }
+
+
+    /**
+     * It takes a slot even if the limit has been reached, for tasks that were admitted before e.g. recovered ones.
+     */
+    void forceAcquire()
+    {
+        pendingTasks.incrementAndGet();
+    }
+
+
+    void release()
+    {
+        pendingTasks.decrementAndGet();
+        if(waiters.get() > 0)
+        {
+            synchronized(monitor)
+            {
+                monitor.notifyAll();
+            }
+        }
+    }
+
+
+    void admitted(ScheduledTask task, Predicate<ScheduledTask> isPending)
+    {
+        if(admittedTasks != null)
+        {
+            //the purge comes first, since the given task is not pending in the service until it is armed
+            if(admissionsSincePurge.incrementAndGet() >= maxPendingTasks)
+            {
+                admissionsSincePurge.set(0);
+                admittedTasks.removeIf(isPending.negate());
+            }
+            admittedTasks.offer(task);
+        }
+    }
+
+
+    /**
+     * It cancels the oldest task that is still pending.
+     * @return true if a task was shed
+     */
+    boolean shedOldest(Predicate<ScheduledTask> isPending, Predicate<ScheduledTask> shed)
+    {
+        if(admittedTasks != null)
+        {
+            ScheduledTask task;
+            while((task = admittedTasks.poll()) != null)
+            {
+                if(isPending.test(task) && shed.test(task))
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
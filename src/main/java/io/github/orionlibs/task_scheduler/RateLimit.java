@@ -0,0 +1,47 @@
+package io.github.orionlibs.task_scheduler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket, implemented as the equivalent generic cell rate algorithm, so that taking a token
+ * is a CAS on the theoretical arrival time of the next task instead of a lock.
+ */
+class RateLimit
+{
+    private final long intervalInNanos;
+    private final long burstToleranceInNanos;
+    private final AtomicLong theoreticalArrivalTimeInNanos;
+
+
+    /**
+     * @param tasksPerSecond the rate at which tokens are added to the bucket
+     * @param burst the size of the bucket. Values less than 1 default to 1.
+     */
+    RateLimit(double tasksPerSecond, int burst)
+    {
+        this.intervalInNanos = Math.max(1L, (long)(TimeUnit.SECONDS.toNanos(1L) / tasksPerSecond));
+        this.burstToleranceInNanos = intervalInNanos * (Math.max(burst, 1) - 1L);
+        this.theoreticalArrivalTimeInNanos = new AtomicLong(System.nanoTime());
+    }
+
+
+    /**
+     * It takes the next token, which may only become available in the future, so callers that are over the rate
+     * queue up behind each other instead of competing for the same token.
+     * @return how long the caller has to wait for its token, or 0 if it is available now
+     */
+    long reserve()
+    {
+        while(true)
+        {
+            long now = System.nanoTime();
+            long theoreticalArrivalTime = theoreticalArrivalTimeInNanos.get();
+            long arrivalTime = theoreticalArrivalTime - now > 0L ? theoreticalArrivalTime : now;
+            if(theoreticalArrivalTimeInNanos.compareAndSet(theoreticalArrivalTime, arrivalTime + intervalInNanos))
+            {
+                return Math.max(arrivalTime - now - burstToleranceInNanos, 0L);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.orionlibs.task_scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * When a recurring task runs next. Each recurring task has its own instance.
+ */
+interface Recurrence
+{
+    /**
+     * @param dueTimeInNanos the System.nanoTime() value at which the run that just finished was due
+     * @param nowInNanos the System.nanoTime() value at which the run finished
+     * @return the delay in nanoseconds from nowInNanos to the next run or a negative value if there are no more runs
+     */
+    long getNextDelayInNanos(long dueTimeInNanos, long nowInNanos);
+
+
+    /**
+     * Runs that are missed because the previous run overran are skipped, instead of running back-to-back.
+     */
+    static Recurrence atFixedRate(long periodInNanos)
+    {
+        return (dueTimeInNanos, nowInNanos) -> {
+            long nextDueTimeInNanos = dueTimeInNanos + periodInNanos;
+            if(nextDueTimeInNanos - nowInNanos < 0L)
+            {
+                nextDueTimeInNanos += ((nowInNanos - nextDueTimeInNanos) / periodInNanos + 1L) * periodInNanos;
+            }
+            return nextDueTimeInNanos - nowInNanos;
+        };
+    }
+
+
+    static Recurrence withFixedDelay(long delayInNanos)
+    {
+        return (dueTimeInNanos, nowInNanos) -> delayInNanos;
+    }
+
+
+    static Recurrence of(CronExpression cron, long firstFireTimeInEpochMillis)
+    {
+        return new CronRecurrence(cron, firstFireTimeInEpochMillis);
+    }
+
+
+    /**
+     * It computes the next fire time after the later of the wall clock and the last fire time,
+     * so that a run that the engine fires slightly early does not fire twice.
+     */
+    class CronRecurrence implements Recurrence
+    {
+        private final CronExpression cron;
+        private long lastFireTimeInEpochMillis;
+
+
+        CronRecurrence(CronExpression cron, long firstFireTimeInEpochMillis)
+        {
+            this.cron = cron;
+            this.lastFireTimeInEpochMillis = firstFireTimeInEpochMillis;
+        }
+
+
+        @Override
+        public long getNextDelayInNanos(long dueTimeInNanos, long nowInNanos)
+        {
+            long now = System.currentTimeMillis();
+            long nextFireTimeInEpochMillis = cron.nextFireTime(Math.max(now, lastFireTimeInEpochMillis));
+            if(nextFireTimeInEpochMillis < 0L)
+            {
+                return -1L;
+            }
+            lastFireTimeInEpochMillis = nextFireTimeInEpochMillis;
+            return TimeUnit.MILLISECONDS.toNanos(nextFireTimeInEpochMillis - now);
+        }
+    }
+}
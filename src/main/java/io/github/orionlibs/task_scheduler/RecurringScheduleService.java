@@ -0,0 +1,125 @@
+package io.github.orionlibs.task_scheduler;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service that schedules tasks to be executed repeatedly, at a fixed rate, with a fixed delay
+ * between runs or according to a cron expression.
+ * It schedules through a SingleExecutionScheduleService, so the recurring tasks share its engine, its task map,
+ * its config and its cancel semantics. A recurring task keeps one TimerFuture that is re-armed after every run,
+ * so a run costs no more than a run of a single-execution task.
+ * <br>
+ * The callbackAfterTaskCompletes of a recurring task, if any, runs after every run.
+ * numberOfRetriesOnError does not apply, since a run that throws is followed by the next occurrence anyway,
+ * and neither does maxRunTime.
+ * Recurring tasks are not journaled.
+ */
+public class RecurringScheduleService
+{
+    private final SingleExecutionScheduleService singleExecutionScheduleService;
+
+
+    /**
+     * @param singleExecutionScheduleService the service whose engine, task map and config the recurring tasks share
+     */
+    public RecurringScheduleService(SingleExecutionScheduleService singleExecutionScheduleService)
+    {
+        this.singleExecutionScheduleService = singleExecutionScheduleService;
+    }
+
+
+    /**
+     * It schedules a task to first run after its delay and then every period, measured from due time to due time.
+     * If a run overruns the period, the runs that were missed are skipped.
+     * @param taskToSchedule
+     * @param period
+     * @param unit
+     * @throws FeatureIsDisabledException if the scheduler is disabled.
+     * @throws RejectedExecutionException if the scheduler rejects the task e.g. because it has been shut down.
+     * @throws InvalidArgumentException if the taskToSchedule argument has invalid values or the period is not positive.
+     */
+    public void scheduleAtFixedRate(ScheduledTask taskToSchedule, long period, TimeUnit unit) throws FeatureIsDisabledException, RejectedExecutionException, InvalidArgumentException
+    {
+        singleExecutionScheduleService.scheduleRecurring(taskToSchedule, Recurrence.atFixedRate(toPositiveNanos(period, unit, "period")));
+    }
+
+
+    /**
+     * It schedules a task to first run after its delay and then after the given delay from the end of every run.
+     * @param taskToSchedule
+     * @param delay
+     * @param unit
+     * @throws FeatureIsDisabledException if the scheduler is disabled.
+     * @throws RejectedExecutionException if the scheduler rejects the task e.g. because it has been shut down.
+     * @throws InvalidArgumentException if the taskToSchedule argument has invalid values or the delay is not positive.
+     */
+    public void scheduleWithFixedDelay(ScheduledTask taskToSchedule, long delay, TimeUnit unit) throws FeatureIsDisabledException, RejectedExecutionException, InvalidArgumentException
+    {
+        singleExecutionScheduleService.scheduleRecurring(taskToSchedule, Recurrence.withFixedDelay(toPositiveNanos(delay, unit, "delay")));
+    }
+
+
+    /**
+     * It schedules a task to run at the fire times of the given cron expression.
+     * The delay and unit of the taskToSchedule are set to the time until the first fire time.
+     * @param taskToSchedule
+     * @param cron
+     * @throws FeatureIsDisabledException if the scheduler is disabled.
+     * @throws RejectedExecutionException if the scheduler rejects the task e.g. because it has been shut down.
+     * @throws InvalidArgumentException if the taskToSchedule argument has invalid values or the cron expression never fires.
+     */
+    public void scheduleWithCron(ScheduledTask taskToSchedule, CronExpression cron) throws FeatureIsDisabledException, RejectedExecutionException, InvalidArgumentException
+    {
+        if(cron == null)
+        {
+            throw new InvalidArgumentException("cron cannot be null.");
+        }
+        long now = System.currentTimeMillis();
+        long firstFireTimeInEpochMillis = cron.nextFireTime(now);
+        if(firstFireTimeInEpochMillis < 0L)
+        {
+            throw new InvalidArgumentException("cron expression never fires: %s", cron);
+        }
+        taskToSchedule.setDelay(firstFireTimeInEpochMillis - now);
+        taskToSchedule.setUnit(TimeUnit.MILLISECONDS);
+        singleExecutionScheduleService.scheduleRecurring(taskToSchedule, Recurrence.of(cron, firstFireTimeInEpochMillis));
+    }
+
+
+    /**
+     * It cancels the given recurring task, so that it does not run again.
+     * @param taskToCancel
+     * @return
+     * @throws FeatureIsDisabledException if the scheduler or the cancellation feature is disabled.
+     * @throws TaskDoesNotExistException if the taskToCancel does not exist in the scheduler.
+     */
+    public boolean cancel(String taskToCancel) throws FeatureIsDisabledException, TaskDoesNotExistException
+    {
+        return singleExecutionScheduleService.cancel(taskToCancel);
+    }
+
+
+    /**
+     * It returns the service whose engine, task map and config the recurring tasks share.
+     * @return
+     */
+    public SingleExecutionScheduleService getSingleExecutionScheduleService()
+    {
+        return singleExecutionScheduleService;
+    }
+
+
+    private static long toPositiveNanos(long duration, TimeUnit unit, String name) throws InvalidArgumentException
+    {
+        if(unit == null)
+        {
+            throw new InvalidArgumentException(name + " unit cannot be null.");
+        }
+        if(duration <= 0L)
+        {
+            throw new InvalidArgumentException(name + " has to be greater than 0.");
+        }
+        return unit.toNanos(duration);
+    }
+}
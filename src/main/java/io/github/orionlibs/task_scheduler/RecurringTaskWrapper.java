@@ -0,0 +1,131 @@
+package io.github.orionlibs.task_scheduler;
+
+import io.github.orionlibs.task_scheduler.engine.PrioritizedTask;
+import io.github.orionlibs.task_scheduler.engine.RearmableTask;
+import io.github.orionlibs.task_scheduler.engine.ShardKeyedTask;
+import io.github.orionlibs.task_scheduler.engine.TaskPriority;
+import io.github.orionlibs.task_scheduler.listener.TaskLifecycleEventType;
+import io.github.orionlibs.task_scheduler.metrics.SchedulerMetrics;
+
+/**
+ * A class that wraps the Runnable of a recurring task, so that it re-arms its TimerFuture after every run.
+ * An exception thrown by a run is counted as a failure and the task runs again at its next occurrence.
+ * An Error thrown by a run, or anything thrown by the callback, ends the recurrence and completes the task.
+ * A run that is over the rate limits of the AdmissionController of the service is re-armed for when it is within them.
+ */
+class RecurringTaskWrapper implements RearmableTask, PrioritizedTask, ShardKeyedTask
+{
+    private final ScheduledTask taskToSchedule;
+    private final Recurrence recurrence;
+    private final SingleExecutionScheduleService singleExecutionScheduleService;
+    private final SchedulerMetrics metrics;
+    private long dueTimeInNanos;
+    private long rearmDelayInNanos;
+    private boolean fireReserved;
+
+
+    RecurringTaskWrapper(ScheduledTask taskToSchedule, Recurrence recurrence, SingleExecutionScheduleService singleExecutionScheduleService)
+    {
+        this.taskToSchedule = taskToSchedule;
+        this.recurrence = recurrence;
+        this.singleExecutionScheduleService = singleExecutionScheduleService;
+        this.metrics = singleExecutionScheduleService.getSchedulerMetrics();
+        this.dueTimeInNanos = System.nanoTime() + taskToSchedule.getUnit().toNanos(taskToSchedule.getDelay());
+        this.rearmDelayInNanos = -1L;
+    }
+
+
+    @Override
+    public void run()
+    {
+        if(!fireReserved)
+        {
+            long throttleDelayInNanos = singleExecutionScheduleService.reserveFire(taskToSchedule);
+            if(throttleDelayInNanos > 0L)
+            {
+                //the run has a token of the rate limits in the future, so it is re-armed for then
+                fireReserved = true;
+                rearmDelayInNanos = throttleDelayInNanos;
+                return;
+            }
+        }
+        fireReserved = false;
+        long startTimeInNanos = System.nanoTime();
+        metrics.recordFired(dueTimeInNanos, startTimeInNanos);
+        singleExecutionScheduleService.publishLifecycleEvent(TaskLifecycleEventType.STARTED, taskToSchedule.getTaskID(), null);
+        boolean completed = false;
+        boolean finished = false;
+        try
+        {
+            try
+            {
+                taskToSchedule.getTaskToSchedule().run();
+                singleExecutionScheduleService.publishLifecycleEvent(TaskLifecycleEventType.SUCCEEDED, taskToSchedule.getTaskID(), null);
+            }
+            catch(Exception e)
+            {
+                recordFailure(e);
+            }
+            catch(Error e)
+            {
+                metrics.recordRunTime(System.nanoTime() - startTimeInNanos);
+                recordFailure(e);
+                throw e;
+            }
+            long endTimeInNanos = System.nanoTime();
+            metrics.recordRunTime(endTimeInNanos - startTimeInNanos);
+            rearmDelayInNanos = recurrence.getNextDelayInNanos(dueTimeInNanos, endTimeInNanos);
+            if(rearmDelayInNanos < 0L)
+            {
+                completed = true;
+                singleExecutionScheduleService.completeTask(taskToSchedule);
+            }
+            else
+            {
+                dueTimeInNanos = endTimeInNanos + rearmDelayInNanos;
+            }
+            if(taskToSchedule.getCallbackAfterTaskCompletes() != null)
+            {
+                taskToSchedule.getCallbackAfterTaskCompletes().run();
+            }
+            finished = true;
+        }
+        finally
+        {
+            //the TimerFuture does not re-arm after a run that threw, so the task completes here instead of leaking
+            if(!finished && !completed)
+            {
+                rearmDelayInNanos = -1L;
+                singleExecutionScheduleService.completeTask(taskToSchedule);
+            }
+        }
+    }
+
+
+    private void recordFailure(Throwable error)
+    {
+        metrics.recordFailed();
+        singleExecutionScheduleService.publishLifecycleEvent(TaskLifecycleEventType.FAILED, taskToSchedule.getTaskID(), error);
+    }
+
+
+    @Override
+    public long getRearmDelayInNanos()
+    {
+        return rearmDelayInNanos;
+    }
+
+
+    @Override
+    public TaskPriority getPriority()
+    {
+        return taskToSchedule.getPriority();
+    }
+
+
+    @Override
+    public int getShardKey()
+    {
+        return taskToSchedule.getTaskID().hashCode();
+    }
+}
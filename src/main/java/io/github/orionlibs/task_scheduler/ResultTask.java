@@ -0,0 +1,77 @@
+package io.github.orionlibs.task_scheduler;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * The Runnable of a task that was scheduled for a result.
+ * Every run calls the Callable and a successful call completes the result. A failed call is rethrown,
+ * so that the task wrapper can retry it, and the result is only completed exceptionally once the retries run out.
+ */
+class ResultTask<T> implements Runnable
+{
+    private final Callable<T> callable;
+    private final CompletableFuture<T> result;
+
+
+    ResultTask(Callable<T> callable)
+    {
+        this.callable = callable;
+        this.result = new CompletableFuture<>();
+    }
+
+
+    @Override
+    public void run()
+    {
+        result.complete(call());
+    }
+
+
+    /**
+     * It calls the Callable without completing the result, so that a call that overran the maxRunTime of the task
+     * can fail the result instead.
+     * @return a Runnable that completes the result with the value of the call
+     */
+    Runnable callDeferred()
+    {
+        T value = call();
+        return () -> result.complete(value);
+    }
+
+
+    CompletableFuture<T> getResult()
+    {
+        return result;
+    }
+
+
+    private T call()
+    {
+        try
+        {
+            return callable.call();
+        }
+        catch(RuntimeException e)
+        {
+            throw e;
+        }
+        catch(Exception e)
+        {
+            throw new CompletionException(e);
+        }
+    }
+
+
+    void fail(Throwable error)
+    {
+        result.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+    }
+
+
+    void cancel()
+    {
+        result.cancel(false);
+    }
+}
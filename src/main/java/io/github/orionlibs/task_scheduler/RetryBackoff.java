@@ -0,0 +1,56 @@
+package io.github.orionlibs.task_scheduler;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * The delays between the retries of a task that failed.
+ * <br>
+ * FIXED waits initialDelay before every retry. EXPONENTIAL waits initialDelay before the 1st retry and
+ * multiplies the delay by multiplier for every subsequent retry, up to maxDelay. JITTERED picks a random delay
+ * between 0 and the EXPONENTIAL one, so that tasks that failed together do not all retry together.
+ */
+@Builder
+@Getter
+public class RetryBackoff
+{
+    private static final double DEFAULT_MULTIPLIER = 2.0d;
+    private final Strategy strategy;
+    private final long initialDelay;
+    private final long maxDelay;
+    private final double multiplier;
+    private final TimeUnit unit;
+
+
+    /**
+     * @param retryNumber the number of the retry, starting from 1
+     * @return the delay in nanoseconds before the given retry
+     */
+    long getDelayInNanos(int retryNumber)
+    {
+        TimeUnit delayUnit = unit != null ? unit : TimeUnit.MILLISECONDS;
+        long initialDelayInNanos = delayUnit.toNanos(Math.max(initialDelay, 0L));
+        if(strategy == null || strategy == Strategy.FIXED)
+        {
+            return initialDelayInNanos;
+        }
+        long maxDelayInNanos = maxDelay > 0L ? delayUnit.toNanos(maxDelay) : Long.MAX_VALUE;
+        double growth = Math.pow(multiplier > 1.0d ? multiplier : DEFAULT_MULTIPLIER, Math.max(retryNumber - 1, 0));
+        long delayInNanos = (long)Math.min(initialDelayInNanos * growth, maxDelayInNanos);
+        if(strategy == Strategy.JITTERED && delayInNanos > 0L)
+        {
+            return ThreadLocalRandom.current().nextLong(delayInNanos + 1L);
+        }
+        return delayInNanos;
+    }
+
+
+    public enum Strategy
+    {
+        FIXED,
+        EXPONENTIAL,
+        JITTERED
+    }
+}
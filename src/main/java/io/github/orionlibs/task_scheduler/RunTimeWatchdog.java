@@ -0,0 +1,173 @@
+package io.github.orionlibs.task_scheduler;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The single watchdog of the run time of the tasks of a service that have a maxRunTime.
+ * A run registers a Watch with its deadline in one DelayQueue, instead of arming a timer of its own, and one daemon thread
+ * takes the watches as their deadlines pass and interrupts the runs that are still going.
+ * A watch whose run has finished lets go of its thread, and the finished watches are purged from the queue in bulk
+ * once they are at least half of it, so that they are not kept until their deadlines pass.
+ */
+class RunTimeWatchdog
+{
+    private static final int FINISHES_BETWEEN_PURGE_CHECKS = 1024;
+    private final DelayQueue<Watch> watches;
+    private final AtomicInteger finishedWatches;
+    private final Thread watchdogThread;
+    private volatile boolean stopped;
+
+
+    RunTimeWatchdog()
+    {
+        this.watches = new DelayQueue<>();
+        this.finishedWatches = new AtomicInteger();
+        this.watchdogThread = new Thread(this::runWatchdog, "orion-task-scheduler-watchdog");
+        this.watchdogThread.setDaemon(true);
+        this.watchdogThread.start();
+    }
+
+
+    /**
+     * It starts watching the run of the current thread.
+     * @param maxRunTimeInNanos
+     * @return the watch, which the run has to finish when it ends
+     */
+    Watch watch(long maxRunTimeInNanos)
+    {
+        Watch watch = new Watch(this, Thread.currentThread(), System.nanoTime() + maxRunTimeInNanos);
+        watches.offer(watch);
+        return watch;
+    }
+
+
+    /**
+     * It stops the watchdog once the runs that it is watching have finished or timed out.
+     */
+    void stop()
+    {
+        stopped = true;
+        watchdogThread.interrupt();
+    }
+
+
+    int getNumberOfWatches()
+    {
+        return watches.size();
+    }
+
+
+    private void recordFinishedWatch()
+    {
+        int finished = finishedWatches.incrementAndGet();
+        if(finished % FINISHES_BETWEEN_PURGE_CHECKS == 0 && finished * 2 >= watches.size())
+        {
+            finishedWatches.addAndGet(-finished);
+            watches.removeIf(Watch::isFinished);
+        }
+    }
+
+
+    private void runWatchdog()
+    {
+        while(true)
+        {
+            try
+            {
+                Watch watch = stopped ? watches.poll(1L, TimeUnit.SECONDS) : watches.take();
+                if(watch != null)
+                {
+                    watch.expire();
+                }
+                else if(watches.isEmpty())
+                {
+                    return;
+                }
+            }
+            catch(InterruptedException e)
+            {
+                //stop() switches the watchdog to draining the remaining watches, of which only the running ones matter
+                watches.removeIf(Watch::isFinished);
+            }
+        }
+    }
+
+
+    static class Watch implements Delayed
+    {
+        private static final int RUNNING = 0;
+        private static final int FINISHED = 1;
+        private static final int TIMING_OUT = 2;
+        private static final int TIMED_OUT = 3;
+        private final RunTimeWatchdog watchdog;
+        private final long deadlineInNanos;
+        private final AtomicInteger state;
+        private Thread thread;
+
+
+        Watch(RunTimeWatchdog watchdog, Thread thread, long deadlineInNanos)
+        {
+            this.watchdog = watchdog;
+            this.thread = thread;
+            this.deadlineInNanos = deadlineInNanos;
+            this.state = new AtomicInteger(RUNNING);
+        }
+
+
+        private void expire()
+        {
+            if(state.compareAndSet(RUNNING, TIMING_OUT))
+            {
+                thread.interrupt();
+                state.set(TIMED_OUT);
+            }
+        }
+
+
+        /**
+         * It ends the watch of the run. If the run has timed out, the interrupt of the watchdog is cleared,
+         * so that it does not leak into the next task of the thread.
+         * @return true if the run timed out
+         */
+        boolean finish()
+        {
+            if(state.compareAndSet(RUNNING, FINISHED))
+            {
+                //expire() only reads the thread after it has won the state, so it never sees this write
+                thread = null;
+                watchdog.recordFinishedWatch();
+                return false;
+            }
+            while(state.get() == TIMING_OUT)
+            {
+                Thread.onSpinWait();
+            }
+            Thread.interrupted();
+            return true;
+        }
+
+
+        private boolean isFinished()
+        {
+            return state.get() == FINISHED;
+        }
+
+
+        @Override
+        public long getDelay(TimeUnit unit)
+        {
+            return unit.convert(deadlineInNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+
+        @Override
+        public int compareTo(Delayed other)
+        {
+            return other instanceof Watch otherWatch ? Long.compare(deadlineInNanos, otherWatch.deadlineInNanos)
+                            : Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
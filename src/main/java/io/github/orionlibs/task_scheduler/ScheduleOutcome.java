@@ -0,0 +1,11 @@
+package io.github.orionlibs.task_scheduler;
+
+/**
+ * The outcome of scheduling one of the tasks of a bulk schedule call.
+ */
+public enum ScheduleOutcome
+{
+    ACCEPTED,
+    REJECTED,
+    DUPLICATE_ID
+}
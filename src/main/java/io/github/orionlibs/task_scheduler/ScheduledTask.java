@@ -1,5 +1,6 @@
 package io.github.orionlibs.task_scheduler;
 
+import io.github.orionlibs.task_scheduler.engine.TaskPriority;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import lombok.AllArgsConstructor;
@@ -20,7 +21,21 @@ import lombok.Setter;
  *  set also the callbackAfterTaskIsCancelled (Runnable) field.
  *  <br>
  *  If the execution fails and you want it to retry for N times then
- *  set also the numberOfRetriesOnError (int) field.
+ *  set also the numberOfRetriesOnError (int) field. The retries wait for the delay of the task, unless
+ *  the retryBackoff (RetryBackoff) field is set.
+ *  <br>
+ *  If many tasks can be due at the same time and some of them are more latency-critical than others then
+ *  set also the priority (TaskPriority) field. It defaults to NORMAL.
+ *  <br>
+ *  If a run of the task may hang e.g. on a stuck dependency and you want it to be interrupted and retried or failed then
+ *  set also the maxRunTime (long) and maxRunTimeUnit (TimeUnit) fields. A run that overruns them ends up as a failed run.
+ *  <br>
+ *  If a task with the same taskID may already be pending and you do not want it to be replaced then
+ *  set also the duplicatePolicy (DuplicatePolicy) field. It defaults to REPLACE.
+ *  <br>
+ *  If the service has a journal and you want this task to survive restarts then
+ *  set also the taskType (String) field and, optionally, the taskPayload (String) field.
+ *  After a restart, the taskToSchedule is rebuilt from them through the TaskTypeRegistry of the service.
  */
 @NoArgsConstructor
 @AllArgsConstructor
@@ -37,6 +52,13 @@ public class ScheduledTask
     private Runnable callbackAfterTaskCompletes;
     private Runnable callbackAfterTaskIsCancelled;
     private int numberOfRetriesOnError;
+    private RetryBackoff retryBackoff;
+    private TaskPriority priority;
+    private DuplicatePolicy duplicatePolicy;
+    private String taskType;
+    private String taskPayload;
+    private long maxRunTime;
+    private TimeUnit maxRunTimeUnit;
 
 
     /**
@@ -58,6 +80,10 @@ public class ScheduledTask
         {
             throw new InvalidArgumentException("unit cannot be null.");
         }
+        if(maxRunTime > 0L && maxRunTimeUnit == null)
+        {
+            throw new InvalidArgumentException("maxRunTimeUnit cannot be null if there is a maxRunTime.");
+        }
         normalise();
         return true;
     }
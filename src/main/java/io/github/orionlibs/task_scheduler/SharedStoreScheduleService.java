@@ -0,0 +1,469 @@
+package io.github.orionlibs.task_scheduler;
+
+import io.github.orionlibs.task_scheduler.config.FeatureFlags;
+import io.github.orionlibs.task_scheduler.engine.RearmableTask;
+import io.github.orionlibs.task_scheduler.engine.TimerEngine;
+import io.github.orionlibs.task_scheduler.engine.TimerFuture;
+import io.github.orionlibs.task_scheduler.metrics.MetricsSnapshot;
+import io.github.orionlibs.task_scheduler.metrics.SchedulerMetrics;
+import io.github.orionlibs.task_scheduler.persistence.PendingTaskRecord;
+import io.github.orionlibs.task_scheduler.persistence.TaskStore;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import lombok.Builder;
+
+/**
+ * Service whose pending tasks live in a TaskStore that several scheduler instances share, instead of on heap.
+ * Every pollInterval, the service claims, in one batch, the tasks of the store that are due before the next poll,
+ * under a lease of leaseDuration, and arms them on the engine of its SingleExecutionScheduleService, which fires them on time.
+ * The tasks that have run are completed in the store in one batch at the next poll, so a task costs no round trip of its own.
+ * <br>
+ * A task is rebuilt from its taskType through the TaskTypeRegistry of the SingleExecutionScheduleService when it fires.
+ * A task whose lease has less than one pollInterval left when it fires is not run but released, so that it is claimed
+ * again under a fresh lease, and a task whose run ends too close to the expiry of its lease to wait for the next poll
+ * is completed in the store straight away.
+ * If an instance dies, its tasks are claimed by the other instances when their leases expire, so every task runs
+ * at least once, and exactly once if its run ends, and is completed in the store, before its lease expires.
+ * A task that is replaced in the store after this instance has claimed it is only completed under the claim of its new version,
+ * and a claimed task that this instance claims again, after it was replaced, only fires for its new version.
+ */
+public class SharedStoreScheduleService
+{
+    private static final Logger log = Logger.getLogger(SharedStoreScheduleService.class.getName());
+    private static final long DEFAULT_POLL_INTERVAL_IN_MILLIS = TimeUnit.SECONDS.toMillis(1L);
+    private static final long DEFAULT_LEASE_DURATION_IN_MILLIS = TimeUnit.SECONDS.toMillis(30L);
+    private static final int DEFAULT_BATCH_SIZE = 256;
+    private final SingleExecutionScheduleService singleExecutionScheduleService;
+    private final TaskStore taskStore;
+    private final String nodeID;
+    private final TaskTypeRegistry taskTypeRegistry;
+    private final TimerEngine timerEngine;
+    private final long pollIntervalInMillis;
+    private final long leaseDurationInMillis;
+    private final int batchSize;
+    private final SchedulerMetrics metrics;
+    private final Map<String, StoreTaskRunner> claimedTasks;
+    private final Queue<StoreTaskRunner> completedTasks;
+    private final TimerFuture poller;
+    private long lastLeaseExpiresAtEpochMillis;
+    private volatile boolean shutdown;
+
+
+    /**
+     * @param singleExecutionScheduleService the service whose config, TaskTypeRegistry and engine the tasks use
+     * @param taskStore the store of the pending tasks
+     * @param nodeID the owner of the leases of this instance, unique among the instances. If null, a random UUID is used.
+     * @param pollInterval how often the store is polled. Values less than 1 default to 1 second.
+     * @param pollIntervalUnit the unit of pollInterval. If null, milliseconds are used.
+     * @param leaseDuration how long a claimed task is reserved for this instance. Values less than 1 default to 30 seconds and the minimum is 2 poll intervals.
+     * @param leaseDurationUnit the unit of leaseDuration. If null, milliseconds are used.
+     * @param batchSize the maximum number of tasks per claim. Values less than 1 default to 256.
+     */
+    @Builder
+    public SharedStoreScheduleService(SingleExecutionScheduleService singleExecutionScheduleService, TaskStore taskStore, String nodeID,
+                    long pollInterval, TimeUnit pollIntervalUnit, long leaseDuration, TimeUnit leaseDurationUnit, int batchSize)
+    {
+        this.singleExecutionScheduleService = singleExecutionScheduleService;
+        this.taskStore = taskStore;
+        this.nodeID = nodeID != null ? nodeID : UUID.randomUUID().toString();
+        this.taskTypeRegistry = singleExecutionScheduleService.getTaskTypeRegistry();
+        this.timerEngine = singleExecutionScheduleService.getTimerEngine();
+        this.pollIntervalInMillis = pollInterval > 0L ? (pollIntervalUnit != null ? pollIntervalUnit : TimeUnit.MILLISECONDS).toMillis(pollInterval) : DEFAULT_POLL_INTERVAL_IN_MILLIS;
+        long leaseDurationInMillis = leaseDuration > 0L ? (leaseDurationUnit != null ? leaseDurationUnit : TimeUnit.MILLISECONDS).toMillis(leaseDuration) : DEFAULT_LEASE_DURATION_IN_MILLIS;
+        this.leaseDurationInMillis = Math.max(leaseDurationInMillis, 2L * this.pollIntervalInMillis);
+        this.batchSize = batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+        this.metrics = new SchedulerMetrics();
+        this.claimedTasks = new ConcurrentHashMap<>();
+        this.completedTasks = new ConcurrentLinkedQueue<>();
+        this.poller = timerEngine.schedule(new StorePoller(), 0L, TimeUnit.MILLISECONDS);
+    }
+
+
+    /**
+     * Schedules a task to execute in the future only once, on whichever instance claims it.
+     * @param taskID
+     * @param taskType the type of the task, whose factory has to be registered in the TaskTypeRegistry
+     * @param taskPayload the input of the factory of the taskType. It can be null.
+     * @param delay
+     * @param unit
+     * @throws FeatureIsDisabledException if the scheduler is disabled.
+     * @throws RejectedExecutionException if the service has been shut down or the store cannot be written.
+     * @throws InvalidArgumentException if the arguments have invalid values or the taskType is not registered.
+     */
+    public void schedule(String taskID, String taskType, String taskPayload, long delay, TimeUnit unit) throws FeatureIsDisabledException, RejectedExecutionException, InvalidArgumentException
+    {
+        schedule(taskID, taskType, taskPayload, delay, unit, 0);
+    }
+
+
+    /**
+     * Schedules a task to execute in the future only once and to be retried up to numberOfRetriesOnError times if it fails.
+     * A failed task is put back in the store as due straight away, so it is retried by the instance that claims it at the next poll.
+     * If a task with the same taskID is in the store, it is replaced by this one.
+     * @param taskID
+     * @param taskType the type of the task, whose factory has to be registered in the TaskTypeRegistry
+     * @param taskPayload the input of the factory of the taskType. It can be null.
+     * @param delay
+     * @param unit
+     * @param numberOfRetriesOnError
+     * @throws FeatureIsDisabledException if the scheduler is disabled.
+     * @throws RejectedExecutionException if the service has been shut down or the store cannot be written.
+     * @throws InvalidArgumentException if the arguments have invalid values or the taskType is not registered.
+     */
+    public void schedule(String taskID, String taskType, String taskPayload, long delay, TimeUnit unit, int numberOfRetriesOnError) throws FeatureIsDisabledException, RejectedExecutionException, InvalidArgumentException
+    {
+        if(singleExecutionScheduleService.getConfig().getFeatureFlags().isSchedulerEnabled())
+        {
+            if(taskID == null || taskID.isEmpty())
+            {
+                throw new InvalidArgumentException("taskID cannot be null/empty.");
+            }
+            if(unit == null)
+            {
+                throw new InvalidArgumentException("unit cannot be null.");
+            }
+            if(!taskTypeRegistry.isRegistered(taskType))
+            {
+                throw new InvalidArgumentException("no factory is registered for the task type %s", taskType);
+            }
+            if(shutdown)
+            {
+                throw new RejectedExecutionException("The shared store scheduler has been shut down.");
+            }
+            try
+            {
+                taskStore.add(new PendingTaskRecord(taskID, taskType, taskPayload, System.currentTimeMillis() + unit.toMillis(Math.max(delay, 0L)), Math.max(numberOfRetriesOnError, 0)));
+            }
+            catch(IOException e)
+            {
+                throw new RejectedExecutionException("The task " + taskID + " could not be stored.", e);
+            }
+            metrics.recordScheduled(1);
+        }
+        else
+        {
+            throw new FeatureIsDisabledException();
+        }
+    }
+
+
+    /**
+     * It removes the given task from the store. A task that an instance has already claimed may still run once.
+     * @param taskToCancel
+     * @return true if the task was in the store
+     * @throws FeatureIsDisabledException if the scheduler or the cancellation feature is disabled.
+     * @throws RejectedExecutionException if the store cannot be written.
+     */
+    public boolean cancel(String taskToCancel) throws FeatureIsDisabledException
+    {
+        FeatureFlags featureFlags = singleExecutionScheduleService.getConfig().getFeatureFlags();
+        if(featureFlags.isSchedulerEnabled() && featureFlags.isCancellationEnabled())
+        {
+            try
+            {
+                boolean wasTaskCancelled = taskToCancel != null && taskStore.remove(taskToCancel);
+                if(wasTaskCancelled)
+                {
+                    metrics.recordCancelled();
+                }
+                return wasTaskCancelled;
+            }
+            catch(IOException e)
+            {
+                throw new RejectedExecutionException("The task " + taskToCancel + " could not be removed from the store.", e);
+            }
+        }
+        else
+        {
+            throw new FeatureIsDisabledException();
+        }
+    }
+
+
+    /**
+     * It returns a snapshot of the scheduling lag and throughput metrics of the tasks that this instance has scheduled and fired.
+     * @return
+     */
+    public MetricsSnapshot getMetrics()
+    {
+        return metrics.snapshot(claimedTasks.size());
+    }
+
+
+    public String getNodeID()
+    {
+        return nodeID;
+    }
+
+
+    /**
+     * It stops polling the store, completes the tasks that have run and releases the leases of the claimed tasks
+     * that have not run yet, so that the other instances can claim them straight away. The store is closed.
+     */
+    public void shutdown()
+    {
+        shutdown = true;
+        poller.cancel(false);
+        flushCompletedTasks();
+        try
+        {
+            for(Map.Entry<Long, List<String>> claim : groupByLease(claimedTasks.values()).entrySet())
+            {
+                taskStore.release(claim.getValue(), nodeID, claim.getKey());
+            }
+            taskStore.close();
+        }
+        catch(IOException e)
+        {
+            log.warning("the task store could not be released: " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * @return true if shutdown() has been called.
+     */
+    public boolean isShutdown()
+    {
+        return shutdown;
+    }
+
+
+    /**
+     * It completes the tasks that have run, claims the tasks that are due before the next poll and arms them.
+     */
+    void poll()
+    {
+        if(shutdown)
+        {
+            return;
+        }
+        flushCompletedTasks();
+        List<PendingTaskRecord> claimedRecords;
+        do
+        {
+            long now = System.currentTimeMillis();
+            //every claim gets a distinct lease expiry, since the store tells the claims of this instance apart by it
+            long leaseExpiresAtEpochMillis = Math.max(now + leaseDurationInMillis, lastLeaseExpiresAtEpochMillis + 1L);
+            lastLeaseExpiresAtEpochMillis = leaseExpiresAtEpochMillis;
+            try
+            {
+                claimedRecords = taskStore.claimDue(nodeID, now + pollIntervalInMillis, batchSize, leaseExpiresAtEpochMillis);
+            }
+            catch(IOException e)
+            {
+                log.warning("the due tasks could not be claimed: " + e.getMessage());
+                return;
+            }
+            armClaimedTasks(claimedRecords, leaseExpiresAtEpochMillis);
+        }
+        while(claimedRecords.size() == batchSize && !shutdown);
+    }
+
+
+    private void armClaimedTasks(List<PendingTaskRecord> claimedRecords, long leaseExpiresAtEpochMillis)
+    {
+        List<StoreTaskRunner> runners = new ArrayList<>(claimedRecords.size());
+        long[] delaysInNanos = new long[claimedRecords.size()];
+        long now = System.currentTimeMillis();
+        for(int i = 0; i < delaysInNanos.length; i++)
+        {
+            PendingTaskRecord task = claimedRecords.get(i);
+            StoreTaskRunner runner = new StoreTaskRunner(task, leaseExpiresAtEpochMillis);
+            //a runner of an earlier claim of the same taskID is superseded and does not fire
+            claimedTasks.put(task.getTaskID(), runner);
+            runners.add(runner);
+            delaysInNanos[i] = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, task.getDueTimeInEpochMillis() - now));
+        }
+        try
+        {
+            timerEngine.scheduleAll(runners, delaysInNanos);
+        }
+        catch(RejectedExecutionException e)
+        {
+            //the engine has been shut down, so the leases of the tasks are released by shutdown() or expire
+        }
+    }
+
+
+    private void flushCompletedTasks()
+    {
+        List<StoreTaskRunner> runners = new ArrayList<>();
+        for(StoreTaskRunner runner = completedTasks.poll(); runner != null; runner = completedTasks.poll())
+        {
+            runners.add(runner);
+        }
+        for(Map.Entry<Long, List<String>> claim : groupByLease(runners).entrySet())
+        {
+            try
+            {
+                taskStore.complete(claim.getValue(), nodeID, claim.getKey());
+            }
+            catch(IOException e)
+            {
+                //the tasks run again when their leases expire, rather than being lost
+                log.warning("the completed tasks could not be removed from the store: " + e.getMessage());
+            }
+        }
+    }
+
+
+    /**
+     * It groups the taskIDs of the given runners by the lease expiry of their claim, so that each claim costs one round trip.
+     */
+    private static Map<Long, List<String>> groupByLease(Collection<StoreTaskRunner> runners)
+    {
+        Map<Long, List<String>> taskIDsByLease = new LinkedHashMap<>();
+        for(StoreTaskRunner runner : runners)
+        {
+            taskIDsByLease.computeIfAbsent(runner.leaseExpiresAtEpochMillis, lease -> new ArrayList<>()).add(runner.task.getTaskID());
+        }
+        return taskIDsByLease;
+    }
+
+
+    /**
+     * It fires a claimed task, if its lease is still valid and no later claim of the task supersedes it, and retries or completes it.
+     */
+    private class StoreTaskRunner implements Runnable
+    {
+        private final PendingTaskRecord task;
+        private final long leaseExpiresAtEpochMillis;
+
+
+        StoreTaskRunner(PendingTaskRecord task, long leaseExpiresAtEpochMillis)
+        {
+            this.task = task;
+            this.leaseExpiresAtEpochMillis = leaseExpiresAtEpochMillis;
+        }
+
+
+        @Override
+        public void run()
+        {
+            if(shutdown || !claimedTasks.remove(task.getTaskID(), this))
+            {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            if(now + pollIntervalInMillis > leaseExpiresAtEpochMillis)
+            {
+                //the run would hardly end within the lease, so another instance might run the task too
+                release();
+                return;
+            }
+            long startTimeInNanos = System.nanoTime();
+            long lagInNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, now - task.getDueTimeInEpochMillis()));
+            metrics.recordFired(startTimeInNanos - lagInNanos, startTimeInNanos);
+            boolean failed = false;
+            try
+            {
+                Runnable runnable = taskTypeRegistry.createTask(task.getTaskType(), task.getTaskPayload());
+                if(runnable == null)
+                {
+                    throw new IllegalStateException("no factory is registered for the task type " + task.getTaskType());
+                }
+                runnable.run();
+            }
+            catch(Exception e)
+            {
+                failed = true;
+            }
+            metrics.recordRunTime(System.nanoTime() - startTimeInNanos);
+            if(failed && task.getNumberOfRetriesOnError() > 0)
+            {
+                retry();
+                return;
+            }
+            if(failed)
+            {
+                metrics.recordFailed();
+            }
+            if(System.currentTimeMillis() + pollIntervalInMillis < leaseExpiresAtEpochMillis)
+            {
+                completedTasks.add(this);
+            }
+            else
+            {
+                //the lease would expire before the next poll completes the task
+                complete();
+            }
+        }
+
+
+        private void complete()
+        {
+            try
+            {
+                taskStore.complete(List.of(task.getTaskID()), nodeID, leaseExpiresAtEpochMillis);
+            }
+            catch(IOException e)
+            {
+                log.warning("the task " + task.getTaskID() + " could not be removed from the store: " + e.getMessage());
+            }
+        }
+
+
+        private void release()
+        {
+            try
+            {
+                taskStore.release(List.of(task.getTaskID()), nodeID, leaseExpiresAtEpochMillis);
+            }
+            catch(IOException e)
+            {
+                //the task is claimed again when its lease expires
+                log.warning("the lease of the task " + task.getTaskID() + " could not be released: " + e.getMessage());
+            }
+        }
+
+
+        private void retry()
+        {
+            try
+            {
+                taskStore.reschedule(new PendingTaskRecord(task.getTaskID(),
+                                task.getTaskType(),
+                                task.getTaskPayload(),
+                                System.currentTimeMillis(),
+                                task.getNumberOfRetriesOnError() - 1), nodeID, leaseExpiresAtEpochMillis);
+                metrics.recordRetried();
+            }
+            catch(IOException e)
+            {
+                log.warning("the retry of the task " + task.getTaskID() + " could not be stored: " + e.getMessage());
+            }
+        }
+    }
+
+
+    /**
+     * It periodically polls the store.
+     */
+    private class StorePoller implements RearmableTask
+    {
+        @Override
+        public void run()
+        {
+            poll();
+        }
+
+
+        @Override
+        public long getRearmDelayInNanos()
+        {
+            return shutdown ? -1L : TimeUnit.MILLISECONDS.toNanos(pollIntervalInMillis);
+        }
+    }
+}
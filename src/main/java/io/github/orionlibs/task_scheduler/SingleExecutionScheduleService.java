@@ -1,37 +1,124 @@
 package io.github.orionlibs.task_scheduler;
 
 import io.github.orionlibs.task_scheduler.config.ConfigurationService;
+import io.github.orionlibs.task_scheduler.config.FeatureFlags;
 import io.github.orionlibs.task_scheduler.config.OrionConfiguration;
+import io.github.orionlibs.task_scheduler.engine.ExecutorTimerEngine;
+import io.github.orionlibs.task_scheduler.engine.RearmableTask;
+import io.github.orionlibs.task_scheduler.engine.TimerEngine;
+import io.github.orionlibs.task_scheduler.engine.TimerFuture;
+import io.github.orionlibs.task_scheduler.listener.TaskLifecycleDispatcher;
+import io.github.orionlibs.task_scheduler.listener.TaskLifecycleEventType;
+import io.github.orionlibs.task_scheduler.log.SchedulerEventLog;
+import io.github.orionlibs.task_scheduler.log.SchedulerEventType;
+import io.github.orionlibs.task_scheduler.metrics.MetricsSnapshot;
+import io.github.orionlibs.task_scheduler.metrics.SchedulerMetrics;
+import io.github.orionlibs.task_scheduler.persistence.PendingTaskRecord;
+import io.github.orionlibs.task_scheduler.persistence.TaskJournal;
+import io.github.orionlibs.task_scheduler.persistence.TaskSpillStore;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.logging.Handler;
 import java.util.logging.Logger;
+import lombok.Builder;
 
 /**
  * Service that schedules tasks to be executed in the future only once.
+ * All the tasks of an instance share one TimerEngine which, by default, is an ExecutorTimerEngine
+ * with 1 timer thread and as many worker threads as the available processors.
+ * Use SingleExecutionScheduleService.builder() to provide a differently sized or different engine.
+ * <br>
+ * If the service is built with a TaskJournal, the tasks that have a taskType are journaled and
+ * the ones that were pending when the journal was last closed are scheduled again on construction,
+ * with their Runnable rebuilt through the TaskTypeRegistry of the service.
+ * <br>
+ * If the service is built with an AdmissionController, schedule() rejects, blocks or sheds older tasks
+ * according to its limits on pending tasks and per-tenant pending tasks, and the tasks that fire above its overall or per-tenant fire rate are delayed.
+ * <br>
+ * If the service is built with a TaskSpillStore, the tasks that are due beyond its horizon and can be rebuilt from
+ * their taskType (they have a taskType and no callbacks, retryBackoff, priority, maxRunTime, result or non-REPLACE duplicatePolicy)
+ * are written to disk instead of being kept on heap, and they are paged back in shortly before they are due. A spilled task can be cancelled by its taskID,
+ * but it is not in the task map until it is paged in, and it does not count towards the admission limits until then.
+ * <br>
+ * If the service is built with a TaskLifecycleDispatcher, the lifecycle events of the tasks (scheduled, started, succeeded, failed,
+ * retried, cancelled and dropped) are delivered to its TaskLifecycleListeners in batches, off the threads of the service.
+ * <br>
+ * The runs of the tasks that have a maxRunTime are timed by one RunTimeWatchdog per service, which interrupts
+ * the runs that overrun it. Such a run is retried or failed like a run that throws, with a TimeoutException.
+ * <br>
+ * If the async-logging feature flag is enabled, the scheduled, succeeded, retried, failed and cancelled events of the tasks
+ * are logged through a SchedulerEventLog, sampled and off the calling thread, instead of logging "schedule started" synchronously.
  */
 public class SingleExecutionScheduleService
 {
-    private static final String TASK_SCHEDULER_ENABLED = "orionlibs.task-scheduler.enabled";
-    private static final String SCHEDULER_CANCELLATION_ENABLED = "orionlibs.task-scheduler.cancellation.enabled";
+    private static final long SPILL_PAGE_IN_INTERVAL_IN_MILLIS = TimeUnit.MINUTES.toMillis(1L);
     private Logger log;
     private ConcurrentMap<String, ScheduledTask> scheduledTasksToRunnablesMapper;
     private ConfigurationService config;
+    private TimerEngine timerEngine;
+    private TaskJournal journal;
+    private TaskTypeRegistry taskTypeRegistry;
+    private SchedulerMetrics metrics;
+    private AdmissionController admissionController;
+    private TaskSpillStore spillStore;
+    private TaskLifecycleDispatcher lifecycleDispatcher;
+    private Predicate<ScheduledTask> isPendingTask;
+    private Predicate<ScheduledTask> shedTask;
+    private volatile SchedulerEventLog eventLog;
+    private volatile RunTimeWatchdog runTimeWatchdog;
 
 
     public SingleExecutionScheduleService() throws IOException
+    {
+        this(null, null, null, null, null, null);
+    }
+
+
+    /**
+     * @param timerEngine the engine that will fire the tasks of this service. If null, a default ExecutorTimerEngine is used.
+     * @param journal the journal that makes the tasks that have a taskType survive restarts. It can be null.
+     * @param taskTypeRegistry the factories that rebuild the Runnable of the recovered tasks. It can be null.
+     * @param admissionController the limits on the tasks that this service accepts. It can be null.
+     * @param spillStore the on-disk store of the tasks that are due beyond its horizon. It can be null.
+     * @param lifecycleDispatcher the dispatcher of the lifecycle events of the tasks to its listeners. It can be null.
+     * @throws IOException
+     */
+    @Builder
+    private SingleExecutionScheduleService(TimerEngine timerEngine, TaskJournal journal, TaskTypeRegistry taskTypeRegistry, AdmissionController admissionController, TaskSpillStore spillStore, TaskLifecycleDispatcher lifecycleDispatcher) throws IOException
     {
         log = Logger.getLogger(SingleExecutionScheduleService.class.getName());
         this.config = new ConfigurationService();
         setupConfiguration();
         this.scheduledTasksToRunnablesMapper = new ConcurrentHashMap<>();
+        this.metrics = new SchedulerMetrics();
+        this.timerEngine = timerEngine != null ? timerEngine : new ExecutorTimerEngine();
+        this.journal = journal;
+        this.taskTypeRegistry = taskTypeRegistry != null ? taskTypeRegistry : new TaskTypeRegistry();
+        this.admissionController = admissionController;
+        this.spillStore = spillStore;
+        this.lifecycleDispatcher = lifecycleDispatcher;
+        this.isPendingTask = task -> scheduledTasksToRunnablesMapper.get(task.getTaskID()) == task;
+        this.shedTask = task -> task.getTask() instanceof TimerFuture timerFuture && !timerFuture.hasStarted() && cancelTask(task, false);
+        if(journal != null)
+        {
+            recoverJournaledTasks();
+        }
+        if(spillStore != null)
+        {
+            this.timerEngine.schedule(new SpillPager(), SPILL_PAGE_IN_INTERVAL_IN_MILLIS, TimeUnit.MILLISECONDS);
+        }
     }
 
 
@@ -41,6 +128,83 @@ public class SingleExecutionScheduleService
     }
 
 
+    private void recoverJournaledTasks()
+    {
+        for(PendingTaskRecord record : journal.getRecoveredTasks())
+        {
+            if(!restoreTask(record, true))
+            {
+                log.warning("no factory is registered for the task type " + record.getTaskType() + " of the recovered task " + record.getTaskID());
+            }
+        }
+    }
+
+
+    /**
+     * It rebuilds the task of the given record through the TaskTypeRegistry and spills or arms it.
+     * @param isNewTask false if the record has been paged in from the spill store, so it is armed and not counted as scheduled again
+     * @return false if no factory is registered for the taskType of the record
+     */
+    private boolean restoreTask(PendingTaskRecord record, boolean isNewTask)
+    {
+        Runnable task = taskTypeRegistry.createTask(record.getTaskType(), record.getTaskPayload());
+        if(task == null)
+        {
+            return false;
+        }
+        ScheduledTask restoredTask = ScheduledTask.builder()
+                        .taskID(record.getTaskID())
+                        .taskToSchedule(task)
+                        .delay(Math.max(0L, record.getDueTimeInEpochMillis() - System.currentTimeMillis()))
+                        .unit(TimeUnit.MILLISECONDS)
+                        .numberOfRetriesOnError(record.getNumberOfRetriesOnError())
+                        .taskType(record.getTaskType())
+                        .taskPayload(record.getTaskPayload())
+                        .build();
+        if(!isNewTask || !spillTask(restoredTask))
+        {
+            if(admissionController != null)
+            {
+                admissionController.forceAdmit(restoredTask, isPendingTask);
+            }
+            armTask(restoredTask, TaskWrapper.buildTaskWrapper(restoredTask, this), isNewTask);
+        }
+        return true;
+    }
+
+
+    /**
+     * It pages in the spilled tasks that are due up to the given time and arms them.
+     */
+    void pageInSpilledTasks(long untilEpochMillis)
+    {
+        List<PendingTaskRecord> records;
+        try
+        {
+            records = spillStore.pageIn(untilEpochMillis);
+        }
+        catch(IOException e)
+        {
+            log.warning("the spilled tasks could not be paged in: " + e.getMessage());
+            return;
+        }
+        for(PendingTaskRecord record : records)
+        {
+            try
+            {
+                if(!restoreTask(record, false))
+                {
+                    log.warning("no factory is registered for the task type " + record.getTaskType() + " of the spilled task " + record.getTaskID());
+                }
+            }
+            catch(RejectedExecutionException e)
+            {
+                return;
+            }
+        }
+    }
+
+
     void addLogHandler(Handler handler)
     {
         log.addHandler(handler);
@@ -57,30 +221,44 @@ public class SingleExecutionScheduleService
      * Schedules a task to execute in the future only once.
      * The given ScheduledTask object will have a value for the task field which
      * will be the actual ScheduledFuture that executes.
+     * If a task with the same taskID is pending, the duplicatePolicy of the given task decides whether it replaces
+     * the pending task, is dropped, or is coalesced into it. A task that is dropped or coalesced has no task field.
      * @param taskToSchedule
      * @throws FeatureIsDisabledException if the scheduler is disabled.
-     * @throws RejectedExecutionException if the scheduler rejects the task.
+     * @throws RejectedExecutionException if the scheduler rejects the task e.g. because it has been shut down.
      * @throws NullPointerException
      * @throws InvalidArgumentException if the taskToSchedule argument has invalid values.
      */
     public void schedule(ScheduledTask taskToSchedule) throws FeatureIsDisabledException, RejectedExecutionException, InvalidArgumentException
     {
-        if(config.getBooleanProp(TASK_SCHEDULER_ENABLED))
+        if(config.getFeatureFlags().isSchedulerEnabled())
         {
             taskToSchedule.validate();
-            Runnable taskWrapper = TaskWrapper.buildTaskWrapper(taskToSchedule, scheduledTasksToRunnablesMapper, this);
-            ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
+            if(absorbDuplicate(taskToSchedule))
+            {
+                publishLifecycleEvent(TaskLifecycleEventType.DROPPED, taskToSchedule.getTaskID(), null);
+                return;
+            }
+            admitTask(taskToSchedule);
             try
             {
-                ScheduledFuture<?> task = executorService.schedule(taskWrapper, taskToSchedule.getDelay(), taskToSchedule.getUnit());
-                taskToSchedule.setTask(task);
-                scheduledTasksToRunnablesMapper.put(taskToSchedule.getTaskID(), taskToSchedule);
-                log.info("schedule started");
+                journalScheduledTask(taskToSchedule);
+            }
+            catch(RejectedExecutionException e)
+            {
+                releaseTask(taskToSchedule);
+                publishLifecycleEvent(TaskLifecycleEventType.DROPPED, taskToSchedule.getTaskID(), null);
+                throw e;
             }
-            finally
+            if(spillTask(taskToSchedule))
             {
-                executorService.shutdown();
+                releaseTask(taskToSchedule);
             }
+            else
+            {
+                armTask(taskToSchedule, TaskWrapper.buildTaskWrapper(taskToSchedule, this));
+            }
+            logScheduledTask(taskToSchedule);
         }
         else
         {
@@ -89,25 +267,366 @@ public class SingleExecutionScheduleService
     }
 
 
+    /**
+     * Schedules a task to execute in the future only once and to produce a result.
+     * The taskToSchedule field of the given ScheduledTask is set to a Runnable that calls the given callable,
+     * so any Runnable that it already has is ignored. Retries apply to the callable as they apply to a Runnable.
+     * <br>
+     * The returned future is completed with the value of the callable when it succeeds, exceptionally with
+     * the exception of the last attempt when the retries run out, and it is cancelled when the task is cancelled,
+     * including when the service is shut down before the task fires or a pending task with the same taskID absorbs it.
+     * @param taskToSchedule
+     * @param callable
+     * @return the future result of the callable
+     * @throws FeatureIsDisabledException if the scheduler is disabled.
+     * @throws RejectedExecutionException if the scheduler rejects the task e.g. because it has been shut down.
+     * @throws InvalidArgumentException if the taskToSchedule argument has invalid values or the callable is null.
+     */
+    public <T> CompletableFuture<T> schedule(ScheduledTask taskToSchedule, Callable<T> callable) throws FeatureIsDisabledException, RejectedExecutionException, InvalidArgumentException
+    {
+        if(callable == null)
+        {
+            throw new InvalidArgumentException("callable cannot be null.");
+        }
+        ResultTask<T> resultTask = new ResultTask<>(callable);
+        taskToSchedule.setTaskToSchedule(resultTask);
+        schedule(taskToSchedule);
+        if(taskToSchedule.getTask() == null)
+        {
+            //a pending task with the same taskID has absorbed this one
+            resultTask.cancel();
+        }
+        return resultTask.getResult();
+    }
+
+
+    /**
+     * It schedules a task that runs repeatedly according to the given recurrence.
+     * It is used by the RecurringScheduleService, so that recurring tasks share the engine, the task map
+     * and the cancel semantics of this service. Recurring tasks are not journaled.
+     */
+    void scheduleRecurring(ScheduledTask taskToSchedule, Recurrence recurrence) throws FeatureIsDisabledException, RejectedExecutionException, InvalidArgumentException
+    {
+        if(config.getFeatureFlags().isSchedulerEnabled())
+        {
+            taskToSchedule.validate();
+            if(absorbDuplicate(taskToSchedule))
+            {
+                publishLifecycleEvent(TaskLifecycleEventType.DROPPED, taskToSchedule.getTaskID(), null);
+                return;
+            }
+            admitTask(taskToSchedule);
+            armTask(taskToSchedule, new RecurringTaskWrapper(taskToSchedule, recurrence, this));
+            logScheduledTask(taskToSchedule);
+        }
+        else
+        {
+            throw new FeatureIsDisabledException();
+        }
+    }
+
+
+    /**
+     * It applies the KEEP_EXISTING and COALESCE duplicate policies of the given task.
+     * A coalesced task moves the due time of the pending task forward in place, so the journal keeps
+     * the earlier due time and, after a restart, the task fires at that time at the latest.
+     * @return true if a pending task with the same taskID absorbs the given task, so it must not be scheduled
+     */
+    private boolean absorbDuplicate(ScheduledTask taskToSchedule)
+    {
+        DuplicatePolicy duplicatePolicy = taskToSchedule.getDuplicatePolicy();
+        if(duplicatePolicy == null || duplicatePolicy == DuplicatePolicy.REPLACE)
+        {
+            return false;
+        }
+        ScheduledTask existingTask = scheduledTasksToRunnablesMapper.get(taskToSchedule.getTaskID());
+        if(existingTask == null)
+        {
+            return duplicatePolicy == DuplicatePolicy.KEEP_EXISTING && spillStore != null && spillStore.contains(taskToSchedule.getTaskID());
+        }
+        if(duplicatePolicy == DuplicatePolicy.KEEP_EXISTING)
+        {
+            return true;
+        }
+        return existingTask.getTask() instanceof TimerFuture timerFuture
+                        && timerFuture.postpone(System.nanoTime() + taskToSchedule.getUnit().toNanos(taskToSchedule.getDelay()));
+    }
+
+
+    private void armTask(ScheduledTask taskToSchedule, Runnable taskWrapper)
+    {
+        armTask(taskToSchedule, taskWrapper, true);
+    }
+
+
+    /**
+     * @param isNewTask false if the task has already been counted as scheduled e.g. because it was spilled
+     */
+    private void armTask(ScheduledTask taskToSchedule, Runnable taskWrapper, boolean isNewTask)
+    {
+        ScheduledTask previousTask;
+        if(taskToSchedule.getDuplicatePolicy() == DuplicatePolicy.KEEP_EXISTING)
+        {
+            previousTask = scheduledTasksToRunnablesMapper.putIfAbsent(taskToSchedule.getTaskID(), taskToSchedule);
+            if(previousTask != null)
+            {
+                //a concurrent schedule() call took the taskID in the meantime
+                releaseTask(taskToSchedule);
+                return;
+            }
+        }
+        else
+        {
+            previousTask = scheduledTasksToRunnablesMapper.put(taskToSchedule.getTaskID(), taskToSchedule);
+        }
+        if(previousTask != null && previousTask != taskToSchedule)
+        {
+            cancelReplacedTask(previousTask, taskToSchedule);
+        }
+        try
+        {
+            taskToSchedule.setTask(timerEngine.schedule(taskWrapper, taskToSchedule.getDelay(), taskToSchedule.getUnit()));
+            if(isNewTask)
+            {
+                metrics.recordScheduled(1);
+                publishLifecycleEvent(TaskLifecycleEventType.SCHEDULED, taskToSchedule.getTaskID(), null);
+            }
+        }
+        catch(RejectedExecutionException e)
+        {
+            if(scheduledTasksToRunnablesMapper.remove(taskToSchedule.getTaskID(), taskToSchedule))
+            {
+                releaseTask(taskToSchedule);
+            }
+            throw e;
+        }
+    }
+
+
+    /**
+     * It writes the given task to the spill store, instead of arming it, if it is due beyond the horizon of the store
+     * and it can be rebuilt from its taskType. Otherwise, it discards any spilled task with the same taskID,
+     * since the given task replaces it. The caller releases the admission of a task that was spilled.
+     * @return true if the task was spilled
+     */
+    private boolean spillTask(ScheduledTask task)
+    {
+        if(spillStore == null)
+        {
+            return false;
+        }
+        if(isRebuildable(task) && spillStore.isBeyondHorizon(System.currentTimeMillis() + task.getUnit().toMillis(task.getDelay())))
+        {
+            try
+            {
+                spillStore.spill(toPendingTaskRecord(task));
+                ScheduledTask previousTask = scheduledTasksToRunnablesMapper.remove(task.getTaskID());
+                if(previousTask != null)
+                {
+                    cancelReplacedTask(previousTask, task);
+                }
+                metrics.recordScheduled(1);
+                publishLifecycleEvent(TaskLifecycleEventType.SCHEDULED, task.getTaskID(), null);
+                return true;
+            }
+            catch(IOException e)
+            {
+                log.warning("the task " + task.getTaskID() + " could not be spilled: " + e.getMessage());
+            }
+        }
+        spillStore.cancel(task.getTaskID());
+        return false;
+    }
+
+
+    /**
+     * @return true if the task can be rebuilt from its taskType and taskPayload without losing anything
+     * i.e. it has a taskType and no callbacks, retryBackoff, priority, maxRunTime, result or duplicatePolicy other than REPLACE
+     */
+    static boolean isRebuildable(ScheduledTask task)
+    {
+        return task.getTaskType() != null
+                        && task.getCallbackAfterTaskCompletes() == null
+                        && task.getCallbackAfterTaskIsCancelled() == null
+                        && task.getRetryBackoff() == null
+                        && task.getPriority() == null
+                        && task.getMaxRunTime() <= 0L
+                        && (task.getDuplicatePolicy() == null || task.getDuplicatePolicy() == DuplicatePolicy.REPLACE)
+                        && !(task.getTaskToSchedule() instanceof ResultTask<?>);
+    }
+
+
+    private void admitTask(ScheduledTask taskToSchedule)
+    {
+        if(admissionController != null)
+        {
+            if(scheduledTasksToRunnablesMapper.containsKey(taskToSchedule.getTaskID()))
+            {
+                //the task replaces the pending one, whose slot is released when it is replaced
+                admissionController.forceAdmit(taskToSchedule, isPendingTask);
+                return;
+            }
+            try
+            {
+                admissionController.admit(taskToSchedule, isPendingTask, shedTask);
+            }
+            catch(RejectedExecutionException e)
+            {
+                publishLifecycleEvent(TaskLifecycleEventType.DROPPED, taskToSchedule.getTaskID(), null);
+                throw e;
+            }
+        }
+    }
+
+
+    /**
+     * It takes the tokens of the rate limits of the AdmissionController for a run of the given task.
+     * @return how long the run has to be delayed to stay within the rate limits, or 0 if it can start now
+     */
+    long reserveFire(ScheduledTask task)
+    {
+        return admissionController != null ? admissionController.reserveFire(task) : 0L;
+    }
+
+
+    private void releaseTask(ScheduledTask task)
+    {
+        if(admissionController != null)
+        {
+            admissionController.release(task);
+        }
+    }
+
+
+    private void journalScheduledTask(ScheduledTask taskToSchedule)
+    {
+        if(journal != null && taskToSchedule.getTaskType() != null)
+        {
+            try
+            {
+                journal.appendScheduled(toPendingTaskRecord(taskToSchedule));
+            }
+            catch(IOException e)
+            {
+                throw new RejectedExecutionException("The task " + taskToSchedule.getTaskID() + " could not be journaled.", e);
+            }
+        }
+    }
+
+
+    private PendingTaskRecord toPendingTaskRecord(ScheduledTask task)
+    {
+        return new PendingTaskRecord(task.getTaskID(),
+                        task.getTaskType(),
+                        task.getTaskPayload(),
+                        System.currentTimeMillis() + task.getUnit().toMillis(task.getDelay()),
+                        task.getNumberOfRetriesOnError());
+    }
+
+
+    private void journalTaskEnd(ScheduledTask task, boolean wasCancelled)
+    {
+        if(task.getTaskType() != null)
+        {
+            journalTaskEnd(task.getTaskID(), wasCancelled);
+        }
+    }
+
+
+    private void journalTaskEnd(String taskID, boolean wasCancelled)
+    {
+        if(journal != null)
+        {
+            try
+            {
+                if(wasCancelled)
+                {
+                    journal.appendCancelled(taskID);
+                }
+                else
+                {
+                    journal.appendCompleted(taskID);
+                }
+            }
+            catch(IOException e)
+            {
+                log.warning("the end of the task " + taskID + " could not be journaled: " + e.getMessage());
+            }
+        }
+    }
+
+
+    /**
+     * It is called by the task wrapper when the task has finished for good.
+     */
+    void completeTask(ScheduledTask task)
+    {
+        if(scheduledTasksToRunnablesMapper.remove(task.getTaskID(), task))
+        {
+            releaseTask(task);
+            journalTaskEnd(task, false);
+        }
+    }
+
+
     /**
      * Schedules multiple tasks to execute in the future only once.
+     * All the tasks are validated first, then the valid ones are journaled and armed in one batched operation.
+     * Invalid tasks and tasks whose taskID appears earlier in the collection are not scheduled.
+     * A task whose taskID is already scheduled is handled according to its duplicatePolicy, as in schedule(ScheduledTask),
+     * and it is marked as a duplicate if the pending task absorbs it.
+     * One summary line is logged for the whole collection.
      * @param tasksToSchedule
+     * @return the outcome of each task, in the iteration order of the collection
      * @throws FeatureIsDisabledException if the scheduler is disabled.
-     * @throws RejectedExecutionException if the scheduler rejects the task.
-     * @throws NullPointerException
-     * @throws InvalidArgumentException if the taskToSchedule argument has invalid values.
+     * @throws RejectedExecutionException if the scheduler rejects the tasks e.g. because it has been shut down.
      */
-    public void schedule(Collection<ScheduledTask> tasksToSchedule) throws FeatureIsDisabledException, RejectedExecutionException, InvalidArgumentException
+    public BulkScheduleResult schedule(Collection<ScheduledTask> tasksToSchedule) throws FeatureIsDisabledException, RejectedExecutionException
     {
-        if(config.getBooleanProp(TASK_SCHEDULER_ENABLED))
+        if(config.getFeatureFlags().isSchedulerEnabled())
         {
-            if(tasksToSchedule != null)
+            if(tasksToSchedule == null)
             {
-                for(ScheduledTask task : tasksToSchedule)
+                return new BulkScheduleResult(0);
+            }
+            BulkScheduleResult result = new BulkScheduleResult(tasksToSchedule.size());
+            List<ScheduledTask> validTasks = new ArrayList<>(tasksToSchedule.size());
+            List<Integer> validTaskIndexes = new ArrayList<>(tasksToSchedule.size());
+            Set<String> taskIDs = new HashSet<>();
+            int index = 0;
+            for(ScheduledTask task : tasksToSchedule)
+            {
+                try
+                {
+                    if(task == null)
+                    {
+                        throw new InvalidArgumentException("task cannot be null.");
+                    }
+                    task.validate();
+                    if(taskIDs.add(task.getTaskID()) && !absorbDuplicate(task))
+                    {
+                        admitTask(task);
+                        validTasks.add(task);
+                        validTaskIndexes.add(index);
+                    }
+                    else
+                    {
+                        result.markAsDuplicate(index);
+                        publishLifecycleEvent(TaskLifecycleEventType.DROPPED, task.getTaskID(), null);
+                    }
+                }
+                catch(InvalidArgumentException | RejectedExecutionException e)
                 {
-                    schedule(task);
+                    result.reject(index, e.getMessage());
                 }
+                index++;
             }
+            journalScheduledTasks(validTasks, validTaskIndexes, result);
+            armTasks(validTasks, validTaskIndexes, result);
+            log.info("schedule started for " + result.getNumberOfAcceptedTasks() + " tasks, "
+                            + result.getNumberOfRejectedTasks() + " rejected, "
+                            + result.getNumberOfDuplicateTasks() + " duplicate IDs");
+            return result;
         }
         else
         {
@@ -116,6 +635,109 @@ public class SingleExecutionScheduleService
     }
 
 
+    private void journalScheduledTasks(List<ScheduledTask> tasksToSchedule, List<Integer> taskIndexes, BulkScheduleResult result)
+    {
+        if(journal != null)
+        {
+            List<PendingTaskRecord> records = new ArrayList<>();
+            for(ScheduledTask task : tasksToSchedule)
+            {
+                if(task.getTaskType() != null)
+                {
+                    records.add(toPendingTaskRecord(task));
+                }
+            }
+            try
+            {
+                journal.appendScheduled(records);
+            }
+            catch(IOException e)
+            {
+                for(int i = tasksToSchedule.size() - 1; i >= 0; i--)
+                {
+                    if(tasksToSchedule.get(i).getTaskType() != null)
+                    {
+                        result.reject(taskIndexes.get(i), "the task could not be journaled: " + e.getMessage());
+                        releaseTask(tasksToSchedule.get(i));
+                        publishLifecycleEvent(TaskLifecycleEventType.DROPPED, tasksToSchedule.get(i).getTaskID(), null);
+                        tasksToSchedule.remove(i);
+                        taskIndexes.remove(i);
+                    }
+                }
+            }
+        }
+    }
+
+
+    private void armTasks(List<ScheduledTask> tasksToSchedule, List<Integer> taskIndexes, BulkScheduleResult result)
+    {
+        List<Runnable> taskWrappers = new ArrayList<>(tasksToSchedule.size());
+        List<ScheduledTask> tasksToArm = new ArrayList<>(tasksToSchedule.size());
+        List<Integer> indexesToArm = new ArrayList<>(tasksToSchedule.size());
+        for(int i = 0; i < tasksToSchedule.size(); i++)
+        {
+            ScheduledTask task = tasksToSchedule.get(i);
+            if(spillTask(task))
+            {
+                releaseTask(task);
+                result.accept(taskIndexes.get(i));
+            }
+            else if(task.getDuplicatePolicy() != DuplicatePolicy.KEEP_EXISTING)
+            {
+                ScheduledTask previousTask = scheduledTasksToRunnablesMapper.put(task.getTaskID(), task);
+                if(previousTask != null && previousTask != task)
+                {
+                    cancelReplacedTask(previousTask, task);
+                }
+                taskWrappers.add(TaskWrapper.buildTaskWrapper(task, this));
+                tasksToArm.add(task);
+                indexesToArm.add(taskIndexes.get(i));
+            }
+            else if(scheduledTasksToRunnablesMapper.putIfAbsent(task.getTaskID(), task) == null)
+            {
+                taskWrappers.add(TaskWrapper.buildTaskWrapper(task, this));
+                tasksToArm.add(task);
+                indexesToArm.add(taskIndexes.get(i));
+            }
+            else
+            {
+                //a concurrent schedule() call took the taskID in the meantime
+                releaseTask(task);
+                result.markAsDuplicate(taskIndexes.get(i));
+                publishLifecycleEvent(TaskLifecycleEventType.DROPPED, task.getTaskID(), null);
+            }
+        }
+        long[] delaysInNanos = new long[tasksToArm.size()];
+        for(int i = 0; i < delaysInNanos.length; i++)
+        {
+            delaysInNanos[i] = tasksToArm.get(i).getUnit().toNanos(tasksToArm.get(i).getDelay());
+        }
+        TimerFuture[] futures;
+        try
+        {
+            futures = timerEngine.scheduleAll(taskWrappers, delaysInNanos);
+        }
+        catch(RejectedExecutionException e)
+        {
+            for(ScheduledTask task : tasksToArm)
+            {
+                if(scheduledTasksToRunnablesMapper.remove(task.getTaskID(), task))
+                {
+                    releaseTask(task);
+                }
+            }
+            throw e;
+        }
+        metrics.recordScheduled(futures.length);
+        for(int i = 0; i < futures.length; i++)
+        {
+            tasksToArm.get(i).setTask(futures[i]);
+            result.accept(indexesToArm.get(i));
+            publishLifecycleEvent(TaskLifecycleEventType.SCHEDULED, tasksToArm.get(i).getTaskID(), null);
+        }
+    }
+
+
     /**
      * It cancels the given taskToCancel before it executes.
      * @param taskToCancel
@@ -125,22 +747,20 @@ public class SingleExecutionScheduleService
      */
     public boolean cancel(String taskToCancel) throws FeatureIsDisabledException, TaskDoesNotExistException
     {
-        if(config.getBooleanProp(TASK_SCHEDULER_ENABLED)
-                        && config.getBooleanProp(SCHEDULER_CANCELLATION_ENABLED))
+        FeatureFlags featureFlags = config.getFeatureFlags();
+        if(featureFlags.isSchedulerEnabled() && featureFlags.isCancellationEnabled())
         {
             ScheduledTask task = getScheduledTaskByID(taskToCancel);
-            if(task != null && !task.getTask().isCancelled())
+            if(task != null && task.getTask() != null && !task.getTask().isCancelled())
             {
-                boolean wasTaskCancelled = task.getTask().cancel(true);
-                if(wasTaskCancelled)
-                {
-                    scheduledTasksToRunnablesMapper.remove(taskToCancel);
-                }
-                if(task.getCallbackAfterTaskIsCancelled() != null)
-                {
-                    task.getCallbackAfterTaskIsCancelled().run();
-                }
-                return wasTaskCancelled;
+                return cancelTask(task, true);
+            }
+            else if(spillStore != null && spillStore.cancel(taskToCancel))
+            {
+                metrics.recordCancelled();
+                journalTaskEnd(taskToCancel, true);
+                publishLifecycleEvent(TaskLifecycleEventType.CANCELLED, taskToCancel, null);
+                return true;
             }
             else
             {
@@ -154,6 +774,257 @@ public class SingleExecutionScheduleService
     }
 
 
+    /**
+     * It cancels the given taskToCancel before it executes, for hot paths where most tasks are cancelled
+     * e.g. timeouts that rarely fire. Unlike cancel(), it neither throws nor allocates if the task does not exist,
+     * and it does not interrupt the task if it is running. The timer of the task is only marked as cancelled and
+     * the engine removes it lazily.
+     * @param taskToCancel
+     * @return true if the task was cancelled and false if it does not exist or has already started
+     * @throws FeatureIsDisabledException if the scheduler or the cancellation feature is disabled.
+     */
+    public boolean tryCancel(String taskToCancel) throws FeatureIsDisabledException
+    {
+        FeatureFlags featureFlags = config.getFeatureFlags();
+        if(featureFlags.isSchedulerEnabled() && featureFlags.isCancellationEnabled())
+        {
+            ScheduledTask task = taskToCancel != null ? scheduledTasksToRunnablesMapper.get(taskToCancel) : null;
+            if(task != null && task.getTask() != null && !task.getTask().isCancelled())
+            {
+                return cancelTask(task, false);
+            }
+            else if(spillStore != null && spillStore.cancel(taskToCancel))
+            {
+                metrics.recordCancelled();
+                journalTaskEnd(taskToCancel, true);
+                publishLifecycleEvent(TaskLifecycleEventType.CANCELLED, taskToCancel, null);
+                return true;
+            }
+            return false;
+        }
+        else
+        {
+            throw new FeatureIsDisabledException();
+        }
+    }
+
+
+    /**
+     * It cancels, without interrupting them, all the pending tasks that match the given filter, in one pass over the task map.
+     * Spilled tasks are not matched, since they are not on heap. Use cancelByPrefix() to cancel them by their taskID.
+     * @param taskFilter
+     * @return the number of cancelled tasks
+     * @throws FeatureIsDisabledException if the scheduler or the cancellation feature is disabled.
+     */
+    public int cancelAll(Predicate<ScheduledTask> taskFilter) throws FeatureIsDisabledException
+    {
+        FeatureFlags featureFlags = config.getFeatureFlags();
+        if(featureFlags.isSchedulerEnabled() && featureFlags.isCancellationEnabled())
+        {
+            int numberOfCancelledTasks = 0;
+            for(ScheduledTask task : scheduledTasksToRunnablesMapper.values())
+            {
+                if(task.getTask() != null && !task.getTask().isCancelled() && taskFilter.test(task) && cancelTask(task, false))
+                {
+                    numberOfCancelledTasks++;
+                }
+            }
+            return numberOfCancelledTasks;
+        }
+        else
+        {
+            throw new FeatureIsDisabledException();
+        }
+    }
+
+
+    /**
+     * It cancels, without interrupting them, all the pending tasks whose taskID starts with the given prefix,
+     * including the spilled ones, in one pass over the task map and the spill store.
+     * @param taskIDPrefix
+     * @return the number of cancelled tasks
+     * @throws FeatureIsDisabledException if the scheduler or the cancellation feature is disabled.
+     */
+    public int cancelByPrefix(String taskIDPrefix) throws FeatureIsDisabledException
+    {
+        int numberOfCancelledTasks = cancelAll(task -> task.getTaskID().startsWith(taskIDPrefix));
+        if(spillStore != null)
+        {
+            for(String taskID : spillStore.cancelAll(taskID -> taskID.startsWith(taskIDPrefix)))
+            {
+                metrics.recordCancelled();
+                journalTaskEnd(taskID, true);
+                publishLifecycleEvent(TaskLifecycleEventType.CANCELLED, taskID, null);
+                numberOfCancelledTasks++;
+            }
+        }
+        return numberOfCancelledTasks;
+    }
+
+
+    /**
+     * It takes a pending task off this service, so that another node can take it over. Its timer is cancelled and
+     * its admission is released, and the journal records it as completed here, so that it is not recovered on this node.
+     * Unlike a cancellation, it is not counted or published as cancelled and its callbacks do not run.
+     * @return true if the task was detached and false if it has already started or been cancelled
+     */
+    boolean detachForHandoff(ScheduledTask task)
+    {
+        if(task.getTask() == null || !task.getTask().cancel(false))
+        {
+            return false;
+        }
+        if(scheduledTasksToRunnablesMapper.remove(task.getTaskID(), task))
+        {
+            releaseTask(task);
+        }
+        journalTaskEnd(task, false);
+        return true;
+    }
+
+
+    private boolean cancelTask(ScheduledTask task, boolean mayInterruptIfRunning)
+    {
+        boolean wasTaskCancelled = task.getTask().cancel(mayInterruptIfRunning);
+        if(wasTaskCancelled)
+        {
+            if(scheduledTasksToRunnablesMapper.remove(task.getTaskID(), task))
+            {
+                releaseTask(task);
+            }
+            metrics.recordCancelled();
+            journalTaskEnd(task, true);
+            cancelResult(task);
+            publishLifecycleEvent(TaskLifecycleEventType.CANCELLED, task.getTaskID(), null);
+            if(task.getTask() instanceof TimerFuture timerFuture)
+            {
+                logTaskEvent(SchedulerEventType.CANCELLED, task.getTaskID(), timerFuture.getDueTimeInNanos(), 0L);
+            }
+        }
+        if(task.getCallbackAfterTaskIsCancelled() != null)
+        {
+            task.getCallbackAfterTaskIsCancelled().run();
+        }
+        return wasTaskCancelled;
+    }
+
+
+    /**
+     * It cancels the timer of a task that a task with the same taskID has replaced in the task map.
+     * If the new task has a taskType, its schedule event supersedes the one of the replaced task in the journal.
+     * Otherwise, the journal is told that the replaced task was cancelled.
+     */
+    private void cancelReplacedTask(ScheduledTask replacedTask, ScheduledTask newTask)
+    {
+        releaseTask(replacedTask);
+        if(newTask.getTaskType() == null)
+        {
+            journalTaskEnd(replacedTask, true);
+        }
+        if(replacedTask.getTask() != null && replacedTask.getTask().cancel(false))
+        {
+            metrics.recordCancelled();
+            cancelResult(replacedTask);
+            publishLifecycleEvent(TaskLifecycleEventType.CANCELLED, replacedTask.getTaskID(), null);
+            if(replacedTask.getCallbackAfterTaskIsCancelled() != null)
+            {
+                replacedTask.getCallbackAfterTaskIsCancelled().run();
+            }
+        }
+    }
+
+
+    private void cancelResult(ScheduledTask task)
+    {
+        if(task.getTaskToSchedule() instanceof ResultTask<?> resultTask)
+        {
+            resultTask.cancel();
+        }
+    }
+
+
+    /**
+     * It stops accepting new tasks and cancels the tasks that have not fired yet.
+     * Tasks that are already running are allowed to finish.
+     * If the service has a journal, it is closed and the cancelled tasks stay pending in it,
+     * so that they are recovered by the next instance of the service.
+     * If the service has a lifecycle dispatcher, it is closed after delivering the events that are still queued.
+     */
+    public void shutdown()
+    {
+        timerEngine.shutdown();
+        for(ScheduledTask task : scheduledTasksToRunnablesMapper.values())
+        {
+            if(task.getTask() instanceof TimerFuture timerFuture && !timerFuture.hasStarted())
+            {
+                timerFuture.cancel(false);
+                if(scheduledTasksToRunnablesMapper.remove(task.getTaskID(), task))
+                {
+                    releaseTask(task);
+                }
+                cancelResult(task);
+            }
+        }
+        if(journal != null)
+        {
+            try
+            {
+                journal.close();
+            }
+            catch(IOException e)
+            {
+                log.warning("the journal could not be closed: " + e.getMessage());
+            }
+        }
+        if(spillStore != null)
+        {
+            try
+            {
+                spillStore.close();
+            }
+            catch(IOException e)
+            {
+                log.warning("the spill store could not be closed: " + e.getMessage());
+            }
+        }
+        if(eventLog != null)
+        {
+            eventLog.close();
+        }
+        if(lifecycleDispatcher != null)
+        {
+            lifecycleDispatcher.close();
+        }
+        if(runTimeWatchdog != null)
+        {
+            runTimeWatchdog.stop();
+        }
+    }
+
+
+    /**
+     * @return true if shutdown() has been called.
+     */
+    public boolean isShutdown()
+    {
+        return timerEngine.isShutdown();
+    }
+
+
+    /**
+     * It blocks until all running tasks have finished after a shutdown() call, or the timeout occurs,
+     * or the current thread is interrupted, whichever happens first.
+     * @param timeout
+     * @param unit
+     * @return true if the service terminated and false if the timeout elapsed before termination
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        return timerEngine.awaitTermination(timeout, unit);
+    }
+
+
     /**
      * It returns a mapping of taskIDs to ScheduledTask objects
      * @return
@@ -175,6 +1046,130 @@ public class SingleExecutionScheduleService
     }
 
 
+    /**
+     * It returns a snapshot of the scheduling lag and throughput metrics of this service.
+     * The counters are updated without locking on the hot paths, so taking a snapshot while
+     * tasks are being scheduled or fired gives an approximate but consistent enough view.
+     * @return
+     */
+    public MetricsSnapshot getMetrics()
+    {
+        return metrics.snapshot(scheduledTasksToRunnablesMapper.size() + (spillStore != null ? spillStore.size() : 0));
+    }
+
+
+    SchedulerMetrics getSchedulerMetrics()
+    {
+        return metrics;
+    }
+
+
+    TimerEngine getTimerEngine()
+    {
+        return timerEngine;
+    }
+
+
+    TaskTypeRegistry getTaskTypeRegistry()
+    {
+        return taskTypeRegistry;
+    }
+
+
+    private void logScheduledTask(ScheduledTask task)
+    {
+        if(config.getFeatureFlags().isAsyncLoggingEnabled())
+        {
+            long dueTimeInNanos = task.getTask() instanceof TimerFuture timerFuture ? timerFuture.getDueTimeInNanos()
+                            : System.nanoTime() + task.getUnit().toNanos(Math.max(task.getDelay(), 0L));
+            logTaskEvent(SchedulerEventType.SCHEDULED, task.getTaskID(), dueTimeInNanos, 0L);
+        }
+        else
+        {
+            log.info("schedule started");
+        }
+    }
+
+
+    /**
+     * It queues an event of a task to the event log, if async logging is enabled.
+     * @param eventType
+     * @param taskID
+     * @param dueTimeInNanos the due time of the task, in System.nanoTime() terms
+     * @param lagInNanos
+     */
+    void logTaskEvent(SchedulerEventType eventType, String taskID, long dueTimeInNanos, long lagInNanos)
+    {
+        FeatureFlags featureFlags = config.getFeatureFlags();
+        if(featureFlags.isAsyncLoggingEnabled())
+        {
+            long dueTimeInEpochMillis = System.currentTimeMillis() + TimeUnit.NANOSECONDS.toMillis(dueTimeInNanos - System.nanoTime());
+            getEventLog().publish(eventType, taskID, dueTimeInEpochMillis, lagInNanos, featureFlags.getAsyncLoggingSamplingRate());
+        }
+    }
+
+
+    /**
+     * It queues a lifecycle event of a task to the listeners of the lifecycle dispatcher, if the service has one.
+     * @param eventType
+     * @param taskID
+     * @param error the exception of a FAILED or RETRIED event. It can be null.
+     */
+    void publishLifecycleEvent(TaskLifecycleEventType eventType, String taskID, Throwable error)
+    {
+        if(lifecycleDispatcher != null)
+        {
+            lifecycleDispatcher.publish(eventType, taskID, error);
+        }
+    }
+
+
+    /**
+     * It starts timing a run of the given task on the current thread, if the task has a maxRunTime.
+     * @return the watch that the run has to finish, or null if the task has no maxRunTime
+     */
+    RunTimeWatchdog.Watch watchRunTime(ScheduledTask task)
+    {
+        if(task.getMaxRunTime() <= 0L || task.getMaxRunTimeUnit() == null)
+        {
+            return null;
+        }
+        RunTimeWatchdog currentWatchdog = runTimeWatchdog;
+        if(currentWatchdog == null)
+        {
+            synchronized(this)
+            {
+                currentWatchdog = runTimeWatchdog;
+                if(currentWatchdog == null)
+                {
+                    currentWatchdog = new RunTimeWatchdog();
+                    runTimeWatchdog = currentWatchdog;
+                }
+            }
+        }
+        return currentWatchdog.watch(task.getMaxRunTimeUnit().toNanos(task.getMaxRunTime()));
+    }
+
+
+    private SchedulerEventLog getEventLog()
+    {
+        SchedulerEventLog currentEventLog = eventLog;
+        if(currentEventLog == null)
+        {
+            synchronized(this)
+            {
+                currentEventLog = eventLog;
+                if(currentEventLog == null)
+                {
+                    currentEventLog = new SchedulerEventLog(log);
+                    eventLog = currentEventLog;
+                }
+            }
+        }
+        return currentEventLog;
+    }
+
+
     /**
      * It returns the config of this instance of the service.
      * @return
@@ -183,4 +1178,24 @@ public class SingleExecutionScheduleService
     {
         return config;
     }
+
+
+    /**
+     * It periodically pages in the spilled tasks that are due within the page-in lead of the spill store.
+     */
+    private class SpillPager implements RearmableTask
+    {
+        @Override
+        public void run()
+        {
+            pageInSpilledTasks(System.currentTimeMillis() + spillStore.getPageInLeadInMillis());
+        }
+
+
+        @Override
+        public long getRearmDelayInNanos()
+        {
+            return TimeUnit.MILLISECONDS.toNanos(SPILL_PAGE_IN_INTERVAL_IN_MILLIS);
+        }
+    }
 }
@@ -0,0 +1,173 @@
+package io.github.orionlibs.task_scheduler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A set of tasks with dependencies between them that is scheduled as one unit by a TaskGraphScheduleService.
+ * The graph fires after its delay. Then the tasks without dependencies start, and every other task starts
+ * as soon as all the tasks it depends on have completed.
+ * <br>
+ * Only the taskID, taskToSchedule, callbackAfterTaskCompletes and numberOfRetriesOnError of the tasks apply.
+ * Their delay is ignored and a failed run is retried immediately.
+ */
+public class TaskGraph
+{
+    @Getter
+    private final String graphID;
+    @Getter
+    private final long delay;
+    @Getter
+    private final TimeUnit unit;
+    private final Map<String, ScheduledTask> tasks;
+    private final Map<String, List<String>> dependencies;
+
+
+    /**
+     * @param graphID the taskID under which the graph is scheduled in the SingleExecutionScheduleService
+     * @param delay the delay after which the tasks of the graph that have no dependencies start
+     * @param unit the unit of delay
+     */
+    public TaskGraph(String graphID, long delay, TimeUnit unit)
+    {
+        this.graphID = graphID;
+        this.delay = delay;
+        this.unit = unit;
+        this.tasks = new LinkedHashMap<>();
+        this.dependencies = new HashMap<>();
+    }
+
+
+    /**
+     * It adds a task that starts after the tasks with the given taskIDs have completed.
+     * The tasks it depends on can be added after it.
+     * @param task
+     * @param dependsOnTaskIDs
+     * @return this graph
+     * @throws InvalidArgumentException if the task has no taskID or taskToSchedule, or the graph already has a task with its taskID.
+     */
+    public TaskGraph addTask(ScheduledTask task, String... dependsOnTaskIDs) throws InvalidArgumentException
+    {
+        if(task == null || task.getTaskID() == null || task.getTaskID().isEmpty())
+        {
+            throw new InvalidArgumentException("taskID cannot be null/empty.");
+        }
+        if(task.getTaskToSchedule() == null)
+        {
+            throw new InvalidArgumentException("taskToSchedule cannot be null.");
+        }
+        if(tasks.putIfAbsent(task.getTaskID(), task) != null)
+        {
+            throw new InvalidArgumentException("the graph already has a task with taskID %s.", task.getTaskID());
+        }
+        dependencies.put(task.getTaskID(), dependsOnTaskIDs != null ? List.of(dependsOnTaskIDs) : Collections.emptyList());
+        return this;
+    }
+
+
+    /**
+     * It indexes the tasks of the graph and checks that the graph is a non-empty DAG.
+     * @return the indexed graph
+     * @throws InvalidArgumentException if the graph is empty, a task depends on a task that is not in the graph or the dependencies have a cycle.
+     */
+    IndexedGraph index() throws InvalidArgumentException
+    {
+        if(graphID == null || graphID.isEmpty())
+        {
+            throw new InvalidArgumentException("graphID cannot be null/empty.");
+        }
+        if(unit == null)
+        {
+            throw new InvalidArgumentException("unit cannot be null.");
+        }
+        if(tasks.isEmpty())
+        {
+            throw new InvalidArgumentException("the graph %s has no tasks.", graphID);
+        }
+        List<ScheduledTask> indexedTasks = new ArrayList<>(tasks.values());
+        Map<String, Integer> taskIndexes = new HashMap<>();
+        for(int i = 0; i < indexedTasks.size(); i++)
+        {
+            taskIndexes.put(indexedTasks.get(i).getTaskID(), i);
+        }
+        int[] dependencyCounts = new int[indexedTasks.size()];
+        List<List<Integer>> dependents = new ArrayList<>(indexedTasks.size());
+        for(int i = 0; i < indexedTasks.size(); i++)
+        {
+            dependents.add(new ArrayList<>());
+        }
+        for(int i = 0; i < indexedTasks.size(); i++)
+        {
+            for(String dependency : dependencies.get(indexedTasks.get(i).getTaskID()))
+            {
+                Integer dependencyIndex = taskIndexes.get(dependency);
+                if(dependencyIndex == null)
+                {
+                    throw new InvalidArgumentException("the task %s depends on the task %s, which is not in the graph.", indexedTasks.get(i).getTaskID(), dependency);
+                }
+                dependents.get(dependencyIndex).add(i);
+                dependencyCounts[i]++;
+            }
+        }
+        int[][] dependentIndexes = new int[indexedTasks.size()][];
+        for(int i = 0; i < indexedTasks.size(); i++)
+        {
+            dependentIndexes[i] = dependents.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+        checkForCycles(dependencyCounts, dependentIndexes);
+        return new IndexedGraph(indexedTasks.toArray(new ScheduledTask[0]), dependencyCounts, dependentIndexes);
+    }
+
+
+    private void checkForCycles(int[] dependencyCounts, int[][] dependentIndexes) throws InvalidArgumentException
+    {
+        int[] remainingDependencies = dependencyCounts.clone();
+        Deque<Integer> readyTasks = new ArrayDeque<>();
+        for(int i = 0; i < remainingDependencies.length; i++)
+        {
+            if(remainingDependencies[i] == 0)
+            {
+                readyTasks.add(i);
+            }
+        }
+        int numberOfVisitedTasks = 0;
+        while(!readyTasks.isEmpty())
+        {
+            int task = readyTasks.poll();
+            numberOfVisitedTasks++;
+            for(int dependent : dependentIndexes[task])
+            {
+                if(--remainingDependencies[dependent] == 0)
+                {
+                    readyTasks.add(dependent);
+                }
+            }
+        }
+        if(numberOfVisitedTasks < remainingDependencies.length)
+        {
+            throw new InvalidArgumentException("the dependencies of the graph %s have a cycle.", graphID);
+        }
+    }
+
+
+    /**
+     * The tasks of a graph in arrays, with the number of dependencies and the dependents of each one.
+     */
+    @AllArgsConstructor
+    @Getter
+    static class IndexedGraph
+    {
+        private final ScheduledTask[] tasks;
+        private final int[] dependencyCounts;
+        private final int[][] dependents;
+    }
+}
@@ -0,0 +1,256 @@
+package io.github.orionlibs.task_scheduler;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Service that schedules TaskGraphs i.e. sets of tasks with dependencies between them.
+ * A graph is scheduled through a SingleExecutionScheduleService as one task whose taskID is the graphID,
+ * so it shares the engine, the task map, the config and the cancel semantics of that service.
+ * When it fires, the tasks of the graph run on a work-stealing ForkJoinPool: the tasks without dependencies
+ * start in parallel, and a task that completes forks the dependents that it made ready, keeping one of them
+ * on its own thread, so independent branches run in parallel and a chain runs without hand-offs.
+ * <br>
+ * If a task fails after its retries, the tasks that have not started yet are skipped and the result of the graph
+ * completes exceptionally with its exception. Graphs are not journaled.
+ */
+public class TaskGraphScheduleService
+{
+    private final SingleExecutionScheduleService singleExecutionScheduleService;
+    private final ForkJoinPool pool;
+
+
+    /**
+     * @param singleExecutionScheduleService the service that fires the graphs
+     */
+    public TaskGraphScheduleService(SingleExecutionScheduleService singleExecutionScheduleService)
+    {
+        this(singleExecutionScheduleService, ForkJoinPool.commonPool());
+    }
+
+
+    /**
+     * @param singleExecutionScheduleService the service that fires the graphs
+     * @param pool the pool that runs the tasks of the graphs. If null, the common pool is used.
+     */
+    public TaskGraphScheduleService(SingleExecutionScheduleService singleExecutionScheduleService, ForkJoinPool pool)
+    {
+        this.singleExecutionScheduleService = singleExecutionScheduleService;
+        this.pool = pool != null ? pool : ForkJoinPool.commonPool();
+    }
+
+
+    /**
+     * It schedules the given graph to fire after its delay.
+     * The returned future is completed when all the tasks of the graph have completed, exceptionally with the exception
+     * of the first task that failed after its retries, and it is cancelled when the graph is cancelled before it fires.
+     * Cancelling the returned future skips the tasks of the graph that have not started yet.
+     * @param graph
+     * @return the future completion of the graph
+     * @throws FeatureIsDisabledException if the scheduler is disabled.
+     * @throws RejectedExecutionException if the scheduler rejects the graph e.g. because it has been shut down.
+     * @throws InvalidArgumentException if the graph is null, empty or has a cycle, or a task depends on a task that is not in the graph.
+     */
+    public CompletableFuture<Void> schedule(TaskGraph graph) throws FeatureIsDisabledException, RejectedExecutionException, InvalidArgumentException
+    {
+        if(graph == null)
+        {
+            throw new InvalidArgumentException("graph cannot be null.");
+        }
+        GraphRun graphRun = new GraphRun(graph.index());
+        ScheduledTask graphTask = ScheduledTask.builder()
+                        .taskID(graph.getGraphID())
+                        .delay(graph.getDelay())
+                        .unit(graph.getUnit())
+                        .build();
+        CompletableFuture<Void> fired = singleExecutionScheduleService.schedule(graphTask, () -> {
+            graphRun.start();
+            return null;
+        });
+        fired.whenComplete((result, error) -> {
+            if(error instanceof CancellationException)
+            {
+                graphRun.result.cancel(false);
+            }
+            else if(error != null)
+            {
+                graphRun.result.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        });
+        return graphRun.result;
+    }
+
+
+    /**
+     * It cancels the given graph before it fires.
+     * @param graphID
+     * @return
+     * @throws FeatureIsDisabledException if the scheduler or the cancellation feature is disabled.
+     * @throws TaskDoesNotExistException if the graph does not exist in the scheduler.
+     */
+    public boolean cancel(String graphID) throws FeatureIsDisabledException, TaskDoesNotExistException
+    {
+        return singleExecutionScheduleService.cancel(graphID);
+    }
+
+
+    /**
+     * It returns the service that fires the graphs.
+     * @return
+     */
+    public SingleExecutionScheduleService getSingleExecutionScheduleService()
+    {
+        return singleExecutionScheduleService;
+    }
+
+
+    /**
+     * The state of one firing of a graph.
+     */
+    private class GraphRun
+    {
+        private final ScheduledTask[] tasks;
+        private final int[] dependencyCounts;
+        private final int[][] dependents;
+        private final AtomicIntegerArray remainingDependencies;
+        private final AtomicInteger remainingTasks;
+        private final CompletableFuture<Void> result;
+
+
+        GraphRun(TaskGraph.IndexedGraph graph)
+        {
+            this.tasks = graph.getTasks();
+            this.dependencyCounts = graph.getDependencyCounts();
+            this.dependents = graph.getDependents();
+            this.remainingDependencies = new AtomicIntegerArray(dependencyCounts);
+            this.remainingTasks = new AtomicInteger(tasks.length);
+            this.result = new CompletableFuture<>();
+        }
+
+
+        void start()
+        {
+            for(int i = 0; i < tasks.length; i++)
+            {
+                if(dependencyCounts[i] == 0)
+                {
+                    pool.execute(new GraphTaskRunner(this, i));
+                }
+            }
+        }
+
+
+        /**
+         * It runs the given task, with its retries, and then its callbackAfterTaskCompletes, which is not retried,
+         * so a callback that throws fails the graph without running the task again.
+         * @return true if the task completed, possibly after retries
+         */
+        boolean runTask(ScheduledTask task)
+        {
+            int remainingRetries = Math.max(task.getNumberOfRetriesOnError(), 0);
+            while(true)
+            {
+                try
+                {
+                    task.getTaskToSchedule().run();
+                    break;
+                }
+                catch(Exception e)
+                {
+                    if(remainingRetries-- <= 0 || result.isDone())
+                    {
+                        result.completeExceptionally(e);
+                        return false;
+                    }
+                }
+            }
+            if(task.getCallbackAfterTaskCompletes() != null)
+            {
+                try
+                {
+                    task.getCallbackAfterTaskCompletes().run();
+                }
+                catch(Exception e)
+                {
+                    result.completeExceptionally(e);
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+
+    /**
+     * It runs a task of a graph and then, on the same thread, one of the dependents that the task made ready.
+     * The other ready dependents are forked, so that idle workers of the pool steal them.
+     */
+    private static class GraphTaskRunner extends RecursiveAction
+    {
+        private final GraphRun graphRun;
+        private final int taskIndex;
+
+
+        GraphTaskRunner(GraphRun graphRun, int taskIndex)
+        {
+            this.graphRun = graphRun;
+            this.taskIndex = taskIndex;
+        }
+
+
+        @Override
+        protected void compute()
+        {
+            try
+            {
+                runTasks();
+            }
+            catch(Throwable e)
+            {
+                //e.g. an Error of a task, which is not retried
+                graphRun.result.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+
+        private void runTasks()
+        {
+            int nextTaskIndex = taskIndex;
+            while(nextTaskIndex >= 0 && !graphRun.result.isDone())
+            {
+                if(!graphRun.runTask(graphRun.tasks[nextTaskIndex]))
+                {
+                    return;
+                }
+                if(graphRun.remainingTasks.decrementAndGet() == 0)
+                {
+                    graphRun.result.complete(null);
+                    return;
+                }
+                int readyTaskIndex = -1;
+                for(int dependent : graphRun.dependents[nextTaskIndex])
+                {
+                    if(graphRun.remainingDependencies.decrementAndGet(dependent) == 0)
+                    {
+                        if(readyTaskIndex < 0)
+                        {
+                            readyTaskIndex = dependent;
+                        }
+                        else
+                        {
+                            new GraphTaskRunner(graphRun, dependent).fork();
+                        }
+                    }
+                }
+                nextTaskIndex = readyTaskIndex;
+            }
+        }
+    }
+}
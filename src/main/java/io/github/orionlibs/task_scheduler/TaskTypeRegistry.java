@@ -0,0 +1,58 @@
+package io.github.orionlibs.task_scheduler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Registry of factories that build the Runnable of a task from its taskType and taskPayload.
+ * Tasks that are stored outside the JVM (e.g. in the journal) only keep their taskType and taskPayload,
+ * so their Runnable has to be rebuilt through this registry when they are loaded back.
+ */
+public class TaskTypeRegistry
+{
+    private final Map<String, Function<String, Runnable>> taskFactories;
+
+
+    public TaskTypeRegistry()
+    {
+        this.taskFactories = new ConcurrentHashMap<>();
+    }
+
+
+    /**
+     * It registers the factory that builds the Runnable of the tasks of the given taskType.
+     * The factory receives the taskPayload of the task, which may be null.
+     * @param taskType
+     * @param taskFactory
+     * @return this registry
+     */
+    public TaskTypeRegistry register(String taskType, Function<String, Runnable> taskFactory)
+    {
+        taskFactories.put(taskType, taskFactory);
+        return this;
+    }
+
+
+    /**
+     * It builds the Runnable of a task of the given taskType.
+     * @param taskType
+     * @param taskPayload
+     * @return the Runnable or null if no factory has been registered for the given taskType
+     */
+    public Runnable createTask(String taskType, String taskPayload)
+    {
+        Function<String, Runnable> taskFactory = taskType != null ? taskFactories.get(taskType) : null;
+        return taskFactory != null ? taskFactory.apply(taskPayload) : null;
+    }
+
+
+    /**
+     * @param taskType
+     * @return true if a factory has been registered for the given taskType
+     */
+    public boolean isRegistered(String taskType)
+    {
+        return taskType != null && taskFactories.containsKey(taskType);
+    }
+}
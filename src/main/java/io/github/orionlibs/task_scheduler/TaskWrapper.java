@@ -1,9 +1,20 @@
 package io.github.orionlibs.task_scheduler;
 
-import java.util.concurrent.ConcurrentMap;
+import io.github.orionlibs.task_scheduler.engine.PrioritizedTask;
+import io.github.orionlibs.task_scheduler.engine.RearmableTask;
+import io.github.orionlibs.task_scheduler.engine.ShardKeyedTask;
+import io.github.orionlibs.task_scheduler.engine.TaskPriority;
+import io.github.orionlibs.task_scheduler.engine.TimerFuture;
+import io.github.orionlibs.task_scheduler.listener.TaskLifecycleEventType;
+import io.github.orionlibs.task_scheduler.log.SchedulerEventType;
+import io.github.orionlibs.task_scheduler.metrics.SchedulerMetrics;
+import java.util.concurrent.TimeoutException;
 
 /**
- * A class that wraps a Runnable in a way that can handle task retries.
+ * A class that wraps a Runnable in a way that can handle task retries and enforce the maxRunTime of the task.
+ * A run that is over the rate limits of the AdmissionController of the service is re-armed for when it is within them.
+ * A retry re-arms the TimerFuture of the task in its engine, so it is not validated,
+ * scheduled or cancelled again through the service.
  */
 class TaskWrapper
 {
@@ -12,76 +23,200 @@ class TaskWrapper
     }
 
 
-    static Runnable buildTaskWrapper(ScheduledTask taskToSchedule, ConcurrentMap<String, ScheduledTask> scheduledTasksToRunnablesMapper, SingleExecutionScheduleService singleExecutionScheduleService)
+    static Runnable buildTaskWrapper(ScheduledTask taskToSchedule, SingleExecutionScheduleService singleExecutionScheduleService)
     {
-        return new ScheduledRunnable(taskToSchedule, scheduledTasksToRunnablesMapper, singleExecutionScheduleService);
+        return new ScheduledRunnable(taskToSchedule, singleExecutionScheduleService);
     }
 
 
-    static class ScheduledRunnable implements Runnable
+    static class ScheduledRunnable implements RearmableTask, PrioritizedTask, ShardKeyedTask
     {
         private final ScheduledTask taskToSchedule;
-        private final ConcurrentMap<String, ScheduledTask> scheduledTasksToRunnablesMapper;
         private final SingleExecutionScheduleService singleExecutionScheduleService;
+        private final SchedulerMetrics metrics;
+        private final int numberOfRetries;
+        private long dueTimeInNanos;
         private int remainingRetries;
+        private long rearmDelayInNanos;
+        private boolean fireReserved;
 
 
-        public ScheduledRunnable(ScheduledTask taskToSchedule, ConcurrentMap<String, ScheduledTask> scheduledTasksToRunnablesMapper, SingleExecutionScheduleService singleExecutionScheduleService)
+        public ScheduledRunnable(ScheduledTask taskToSchedule, SingleExecutionScheduleService singleExecutionScheduleService)
         {
             this.taskToSchedule = taskToSchedule;
-            this.scheduledTasksToRunnablesMapper = scheduledTasksToRunnablesMapper;
             this.singleExecutionScheduleService = singleExecutionScheduleService;
-            this.remainingRetries = taskToSchedule.getNumberOfRetriesOnError() >= 0 ? taskToSchedule.getNumberOfRetriesOnError() : 0;
+            this.metrics = singleExecutionScheduleService.getSchedulerMetrics();
+            this.dueTimeInNanos = System.nanoTime() + taskToSchedule.getUnit().toNanos(Math.max(taskToSchedule.getDelay(), 0L));
+            this.numberOfRetries = taskToSchedule.getNumberOfRetriesOnError() >= 0 ? taskToSchedule.getNumberOfRetriesOnError() : 0;
+            this.remainingRetries = numberOfRetries;
+            this.rearmDelayInNanos = -1L;
         }
 
 
         @Override
         public void run()
         {
+            rearmDelayInNanos = -1L;
+            //the due time of the future is the current one if the task has been coalesced, and the one before the delay if it has been throttled
+            long firedDueTimeInNanos = fireReserved ? dueTimeInNanos : taskToSchedule.getTask() instanceof TimerFuture timerFuture ? timerFuture.getDueTimeInNanos() : dueTimeInNanos;
+            if(!fireReserved)
+            {
+                long throttleDelayInNanos = singleExecutionScheduleService.reserveFire(taskToSchedule);
+                if(throttleDelayInNanos > 0L)
+                {
+                    //the run has a token of the rate limits in the future, so it is re-armed for then
+                    fireReserved = true;
+                    dueTimeInNanos = firedDueTimeInNanos;
+                    rearmDelayInNanos = throttleDelayInNanos;
+                    return;
+                }
+            }
+            fireReserved = false;
+            long startTimeInNanos = System.nanoTime();
+            metrics.recordFired(firedDueTimeInNanos, startTimeInNanos);
+            singleExecutionScheduleService.publishLifecycleEvent(TaskLifecycleEventType.STARTED, taskToSchedule.getTaskID(), null);
+            boolean rearmed = false;
             try
             {
-                taskToSchedule.getTaskToSchedule().run();
+                runWithinMaxRunTime();
+                metrics.recordRunTime(System.nanoTime() - startTimeInNanos);
+                singleExecutionScheduleService.logTaskEvent(SchedulerEventType.SUCCEEDED, taskToSchedule.getTaskID(), firedDueTimeInNanos, startTimeInNanos - firedDueTimeInNanos);
+                singleExecutionScheduleService.publishLifecycleEvent(TaskLifecycleEventType.SUCCEEDED, taskToSchedule.getTaskID(), null);
             }
             catch(Exception e)
             {
+                metrics.recordRunTime(System.nanoTime() - startTimeInNanos);
                 if(remainingRetries > 0)
                 {
                     remainingRetries--;
-                    rescheduleTask();
+                    metrics.recordRetried();
+                    rearmDelayInNanos = getRetryDelayInNanos(numberOfRetries - remainingRetries);
+                    dueTimeInNanos = System.nanoTime() + rearmDelayInNanos;
+                    singleExecutionScheduleService.logTaskEvent(SchedulerEventType.RETRIED, taskToSchedule.getTaskID(), firedDueTimeInNanos, startTimeInNanos - firedDueTimeInNanos);
+                    singleExecutionScheduleService.publishLifecycleEvent(TaskLifecycleEventType.RETRIED, taskToSchedule.getTaskID(), e);
+                    rearmed = true;
+                    return;
                 }
-                else
+                recordFailure(e, firedDueTimeInNanos, startTimeInNanos);
+            }
+            catch(Error e)
+            {
+                //an Error is not retried, but the task still completes before it is rethrown to the TimerFuture
+                metrics.recordRunTime(System.nanoTime() - startTimeInNanos);
+                recordFailure(e, firedDueTimeInNanos, startTimeInNanos);
+                throw e;
+            }
+            finally
+            {
+                if(!rearmed)
                 {
                     handleTaskCompletion();
                 }
             }
+        }
+
+
+        @Override
+        public long getRearmDelayInNanos()
+        {
+            return rearmDelayInNanos;
+        }
+
+
+        @Override
+        public TaskPriority getPriority()
+        {
+            return taskToSchedule.getPriority();
+        }
+
+
+        @Override
+        public int getShardKey()
+        {
+            return taskToSchedule.getTaskID().hashCode();
+        }
+
+
+        /**
+         * It runs the task under the watch of the RunTimeWatchdog of the service, if the task has a maxRunTime.
+         * @throws TimeoutException if the run overran the maxRunTime, whether it returned or threw after being interrupted
+         */
+        private void runWithinMaxRunTime() throws TimeoutException
+        {
+            RunTimeWatchdog.Watch watch = singleExecutionScheduleService.watchRunTime(taskToSchedule);
+            if(watch == null)
+            {
+                taskToSchedule.getTaskToSchedule().run();
+                return;
+            }
+            RuntimeException error = null;
+            Runnable completion = null;
+            boolean timedOut;
+            try
+            {
+                if(taskToSchedule.getTaskToSchedule() instanceof ResultTask<?> resultTask)
+                {
+                    completion = resultTask.callDeferred();
+                }
+                else
+                {
+                    taskToSchedule.getTaskToSchedule().run();
+                }
+            }
+            catch(RuntimeException e)
+            {
+                error = e;
+            }
             finally
             {
-                if(remainingRetries <= 0)
+                timedOut = watch.finish();
+            }
+            if(timedOut)
+            {
+                metrics.recordTimedOut();
+                TimeoutException timeout = new TimeoutException("The task " + taskToSchedule.getTaskID() + " ran longer than its maxRunTime.");
+                if(error != null)
                 {
-                    handleTaskCompletion();
+                    timeout.initCause(error);
                 }
+                throw timeout;
+            }
+            if(error != null)
+            {
+                throw error;
+            }
+            if(completion != null)
+            {
+                completion.run();
             }
         }
 
 
-        private void rescheduleTask()
+        private void recordFailure(Throwable error, long firedDueTimeInNanos, long startTimeInNanos)
         {
-            try
+            metrics.recordFailed();
+            singleExecutionScheduleService.logTaskEvent(SchedulerEventType.FAILED, taskToSchedule.getTaskID(), firedDueTimeInNanos, startTimeInNanos - firedDueTimeInNanos);
+            singleExecutionScheduleService.publishLifecycleEvent(TaskLifecycleEventType.FAILED, taskToSchedule.getTaskID(), error);
+            if(taskToSchedule.getTaskToSchedule() instanceof ResultTask<?> resultTask)
             {
-                taskToSchedule.setNumberOfRetriesOnError(remainingRetries);
-                singleExecutionScheduleService.cancel(taskToSchedule.getTaskID());
-                singleExecutionScheduleService.schedule(taskToSchedule);
+                resultTask.fail(error);
             }
-            catch(FeatureIsDisabledException | TaskDoesNotExistException | InvalidArgumentException ex)
+        }
+
+
+        private long getRetryDelayInNanos(int retryNumber)
+        {
+            if(taskToSchedule.getRetryBackoff() != null)
             {
-                throw new RuntimeException(ex);
+                return taskToSchedule.getRetryBackoff().getDelayInNanos(retryNumber);
             }
+            return taskToSchedule.getUnit().toNanos(Math.max(taskToSchedule.getDelay(), 0L));
         }
 
 
         private void handleTaskCompletion()
         {
-            scheduledTasksToRunnablesMapper.remove(taskToSchedule.getTaskID());
+            singleExecutionScheduleService.completeTask(taskToSchedule);
             if(taskToSchedule.getCallbackAfterTaskCompletes() != null)
             {
                 taskToSchedule.getCallbackAfterTaskCompletes().run();
@@ -0,0 +1,32 @@
+package io.github.orionlibs.task_scheduler.cluster;
+
+import io.github.orionlibs.task_scheduler.persistence.PendingTaskRecord;
+import java.util.Set;
+
+/**
+ * The receiving side of a ClusterTransport, which a node of the cluster implements.
+ */
+public interface ClusterMessageHandler
+{
+    /**
+     * It schedules on this node a task that another node has forwarded to it.
+     * @param task
+     * @throws Exception if the task cannot be scheduled
+     */
+    void onSchedule(PendingTaskRecord task) throws Exception;
+
+
+    /**
+     * It cancels on this node a task that another node has forwarded the cancellation of.
+     * @param taskID
+     * @return true if the task was cancelled and false if it does not exist or has already started
+     */
+    boolean onCancel(String taskID);
+
+
+    /**
+     * It is called when a node joins or leaves the cluster, including this node.
+     * @param members the nodeIDs of the current members
+     */
+    void onMembershipChange(Set<String> members);
+}
@@ -0,0 +1,52 @@
+package io.github.orionlibs.task_scheduler.cluster;
+
+import io.github.orionlibs.task_scheduler.persistence.PendingTaskRecord;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Pluggable transport between the nodes of a cluster of schedulers.
+ * It delivers forwarded schedule and cancel calls to the node that owns the task, and it tracks the membership
+ * of the cluster, telling every member when a node joins or leaves.
+ * Tasks travel as PendingTaskRecords, so they are rebuilt on the receiving node from their taskType and taskPayload.
+ */
+public interface ClusterTransport
+{
+    /**
+     * It adds the given node to the cluster and tells all the members, including the new one, about the new membership.
+     * @param nodeID
+     * @param handler the handler of the messages to the node
+     * @throws IOException if the node cannot join
+     */
+    void join(String nodeID, ClusterMessageHandler handler) throws IOException;
+
+
+    /**
+     * It removes the given node from the cluster and tells the remaining members about the new membership.
+     * @param nodeID
+     */
+    void leave(String nodeID);
+
+
+    /**
+     * @return the nodeIDs of the current members
+     */
+    Set<String> getMembers();
+
+
+    /**
+     * @param nodeID the node that owns the task
+     * @param task
+     * @throws IOException if the task cannot be delivered or the node cannot schedule it
+     */
+    void sendSchedule(String nodeID, PendingTaskRecord task) throws IOException;
+
+
+    /**
+     * @param nodeID the node that owns the task
+     * @param taskID
+     * @return true if the node cancelled the task
+     * @throws IOException if the cancellation cannot be delivered
+     */
+    boolean sendCancel(String nodeID, String taskID) throws IOException;
+}
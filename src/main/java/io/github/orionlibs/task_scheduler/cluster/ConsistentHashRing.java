@@ -0,0 +1,82 @@
+package io.github.orionlibs.task_scheduler.cluster;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable consistent-hash ring of the members of a cluster.
+ * Every member is placed on the ring at a number of virtual points, so that the keys spread evenly and,
+ * when a member joins or leaves, only the keys of the arcs next to its points change owner.
+ */
+public class ConsistentHashRing
+{
+    public static final int DEFAULT_VIRTUAL_NODES_PER_MEMBER = 128;
+    private final TreeMap<Long, String> ring;
+    private final Set<String> members;
+
+
+    /**
+     * @param members the nodeIDs of the members
+     * @param virtualNodesPerMember the number of points of each member on the ring. Values less than 1 default to 128.
+     */
+    public ConsistentHashRing(Collection<String> members, int virtualNodesPerMember)
+    {
+        int numberOfVirtualNodes = virtualNodesPerMember > 0 ? virtualNodesPerMember : DEFAULT_VIRTUAL_NODES_PER_MEMBER;
+        this.ring = new TreeMap<>();
+        this.members = Collections.unmodifiableSet(new TreeSet<>(members));
+        for(String member : this.members)
+        {
+            for(int i = 0; i < numberOfVirtualNodes; i++)
+            {
+                //on the rare collision of two points, the member that sorts first keeps the point on every node
+                ring.putIfAbsent(hash(member + "#" + i), member);
+            }
+        }
+    }
+
+
+    /**
+     * @param key
+     * @return the member that owns the given key, or null if the ring has no members
+     */
+    public String getOwner(String key)
+    {
+        if(ring.isEmpty())
+        {
+            return null;
+        }
+        Map.Entry<Long, String> point = ring.ceilingEntry(hash(key));
+        return point != null ? point.getValue() : ring.firstEntry().getValue();
+    }
+
+
+    public Set<String> getMembers()
+    {
+        return members;
+    }
+
+
+    /**
+     * 64-bit FNV-1a over the chars of the key, finalised with the mixer of MurmurHash3,
+     * so that it is the same on every node, unlike identity hash codes.
+     */
+    static long hash(String key)
+    {
+        long hash = 0xcbf29ce484222325L;
+        for(int i = 0; i < key.length(); i++)
+        {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.orionlibs.task_scheduler.cluster;
+
+import io.github.orionlibs.task_scheduler.persistence.PendingTaskRecord;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process ClusterTransport that delivers the messages by calling the handler of the target node directly.
+ * It lets several nodes in one JVM form a cluster e.g. for tests.
+ */
+public class LoopbackClusterTransport implements ClusterTransport
+{
+    private final Map<String, ClusterMessageHandler> nodes;
+
+
+    public LoopbackClusterTransport()
+    {
+        this.nodes = new ConcurrentHashMap<>();
+    }
+
+
+    @Override
+    public synchronized void join(String nodeID, ClusterMessageHandler handler) throws IOException
+    {
+        if(nodes.putIfAbsent(nodeID, handler) != null)
+        {
+            throw new IOException("The node " + nodeID + " has already joined.");
+        }
+        notifyMembershipChange();
+    }
+
+
+    @Override
+    public synchronized void leave(String nodeID)
+    {
+        if(nodes.remove(nodeID) != null)
+        {
+            notifyMembershipChange();
+        }
+    }
+
+
+    @Override
+    public Set<String> getMembers()
+    {
+        return Set.copyOf(nodes.keySet());
+    }
+
+
+    @Override
+    public void sendSchedule(String nodeID, PendingTaskRecord task) throws IOException
+    {
+        try
+        {
+            getNode(nodeID).onSchedule(task);
+        }
+        catch(IOException e)
+        {
+            throw e;
+        }
+        catch(Exception e)
+        {
+            throw new IOException("The node " + nodeID + " could not schedule the task " + task.getTaskID() + ".", e);
+        }
+    }
+
+
+    @Override
+    public boolean sendCancel(String nodeID, String taskID) throws IOException
+    {
+        return getNode(nodeID).onCancel(taskID);
+    }
+
+
+    private ClusterMessageHandler getNode(String nodeID) throws IOException
+    {
+        ClusterMessageHandler node = nodes.get(nodeID);
+        if(node == null)
+        {
+            throw new IOException("The node " + nodeID + " is not a member.");
+        }
+        return node;
+    }
+
+
+    private void notifyMembershipChange()
+    {
+        Set<String> members = getMembers();
+        for(ClusterMessageHandler node : nodes.values())
+        {
+            node.onMembershipChange(members);
+        }
+    }
+}
@@ -1,20 +1,34 @@
 package io.github.orionlibs.task_scheduler.config;
 
 /**
- * provides access to the plugin's config
+ * provides access to the plugin's config.
+ * Besides the raw properties, it keeps a FeatureFlags snapshot that is rebuilt and swapped
+ * whenever the config changes, so that flag checks on hot paths do not parse properties.
  */
 public class ConfigurationService
 {
     private OrionConfiguration configurationRegistry;
+    private volatile FeatureFlags featureFlags;
 
 
     /**
      * stores a config object
      * @param configuration
      */
-    public void registerConfiguration(OrionConfiguration configuration)
+    public synchronized void registerConfiguration(OrionConfiguration configuration)
     {
         configurationRegistry = configuration;
+        featureFlags = FeatureFlags.of(configuration);
+    }
+
+
+    /**
+     * retrieves the current snapshot of the feature flags
+     * @return
+     */
+    public FeatureFlags getFeatureFlags()
+    {
+        return featureFlags;
     }
 
 
@@ -45,8 +59,9 @@ public class ConfigurationService
      * @param key
      * @param value
      */
-    public void updateProp(String key, String value)
+    public synchronized void updateProp(String key, String value)
     {
         configurationRegistry.updateProp(key, value);
+        featureFlags = FeatureFlags.of(configurationRegistry);
     }
 }
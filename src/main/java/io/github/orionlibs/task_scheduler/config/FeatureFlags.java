@@ -0,0 +1,58 @@
+package io.github.orionlibs.task_scheduler.config;
+
+import java.util.Properties;
+import lombok.Getter;
+
+/**
+ * Immutable, typed snapshot of the feature configuration.
+ * The values are parsed once, when the snapshot is built, so that checking a flag on a hot path is a field read.
+ */
+@Getter
+public class FeatureFlags
+{
+    public static final String TASK_SCHEDULER_ENABLED = "orionlibs.task-scheduler.enabled";
+    public static final String SCHEDULER_CANCELLATION_ENABLED = "orionlibs.task-scheduler.cancellation.enabled";
+    public static final String ASYNC_LOGGING_ENABLED = "orionlibs.task-scheduler.async-logging.enabled";
+    public static final String ASYNC_LOGGING_SAMPLING_RATE = "orionlibs.task-scheduler.async-logging.sampling-rate";
+    private final boolean schedulerEnabled;
+    private final boolean cancellationEnabled;
+    private final boolean asyncLoggingEnabled;
+    private final int asyncLoggingSamplingRate;
+
+
+    private FeatureFlags(Properties configuration)
+    {
+        this.schedulerEnabled = Boolean.parseBoolean(configuration.getProperty(TASK_SCHEDULER_ENABLED));
+        this.cancellationEnabled = Boolean.parseBoolean(configuration.getProperty(SCHEDULER_CANCELLATION_ENABLED));
+        this.asyncLoggingEnabled = Boolean.parseBoolean(configuration.getProperty(ASYNC_LOGGING_ENABLED));
+        this.asyncLoggingSamplingRate = parsePositiveInt(configuration.getProperty(ASYNC_LOGGING_SAMPLING_RATE), 1);
+    }
+
+
+    private static int parsePositiveInt(String value, int defaultValue)
+    {
+        if(value == null)
+        {
+            return defaultValue;
+        }
+        try
+        {
+            int parsedValue = Integer.parseInt(value.trim());
+            return parsedValue > 0 ? parsedValue : defaultValue;
+        }
+        catch(NumberFormatException e)
+        {
+            return defaultValue;
+        }
+    }
+
+
+    /**
+     * @param configuration
+     * @return the snapshot of the current values of the given configuration
+     */
+    public static FeatureFlags of(Properties configuration)
+    {
+        return new FeatureFlags(configuration);
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.orionlibs.task_scheduler.engine;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class of the engines that hand the due tasks over to a separate pool of worker threads.
+ * The pool is either a fixed pool of platform threads or, in virtual-thread mode, one new virtual thread per task.
+ * Either way, the number of tasks that run at the same time can be capped with a semaphore.
+ * <br>
+ * The due tasks wait for a worker in PriorityLanes. Every dispatch hands the pool a runner that takes
+ * the next task from the lanes when it gets a worker, so a burst of due tasks runs in priority order.
+ */
+abstract class AbstractTimerEngine implements TimerEngine
+{
+    private final ExecutorService workers;
+    private final Semaphore concurrentTasksPermits;
+    private final PriorityLanes priorityLanes;
+    private final Runnable laneRunner;
+
+
+    /**
+     * @param workerThreads the number of platform threads that run the tasks. Values less than 1 default to the number of available processors. It is ignored in virtual-thread mode.
+     * @param virtualThreads if true, every task and callback runs on its own virtual thread.
+     * @param maxConcurrentTasks the maximum number of tasks that can run at the same time. Values less than 1 mean no cap.
+     * @param laneWeights the share of the workers of each TaskPriority lane, indexed by ordinal. If null, the weights are 8, 4, 2 and 1.
+     */
+    protected AbstractTimerEngine(int workerThreads, boolean virtualThreads, int maxConcurrentTasks, int[] laneWeights)
+    {
+        if(virtualThreads)
+        {
+            this.workers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("orion-task-scheduler-virtual-worker-", 1L).factory());
+        }
+        else
+        {
+            this.workers = Executors.newFixedThreadPool(workerThreads > 0 ? workerThreads : Runtime.getRuntime().availableProcessors(), new EngineThreadFactory("orion-task-scheduler-worker"));
+        }
+        this.concurrentTasksPermits = maxConcurrentTasks > 0 ? new Semaphore(maxConcurrentTasks) : null;
+        this.priorityLanes = new PriorityLanes(laneWeights);
+        this.laneRunner = this::runNextDueTask;
+    }
+
+
+    /**
+     * It hands the given due task over to the worker pool.
+     * If the pool does not accept it anymore, the task is cancelled.
+     * @param future
+     */
+    protected void dispatch(TimerFuture future)
+    {
+        priorityLanes.offer(future);
+        try
+        {
+            execute(laneRunner);
+        }
+        catch(RejectedExecutionException e)
+        {
+            if(priorityLanes.remove(future))
+            {
+                future.cancel(false);
+            }
+        }
+    }
+
+
+    private void runNextDueTask()
+    {
+        TimerFuture future = priorityLanes.poll();
+        if(future != null)
+        {
+            future.run();
+        }
+    }
+
+
+    @Override
+    public void execute(Runnable task) throws RejectedExecutionException
+    {
+        if(concurrentTasksPermits == null)
+        {
+            workers.execute(task);
+        }
+        else
+        {
+            workers.execute(() -> runWithPermit(task));
+        }
+    }
+
+
+    private void runWithPermit(Runnable task)
+    {
+        try
+        {
+            concurrentTasksPermits.acquire();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            TimerFuture future = task == laneRunner ? priorityLanes.poll() : null;
+            if(future != null)
+            {
+                future.cancel(false);
+            }
+            return;
+        }
+        try
+        {
+            task.run();
+        }
+        finally
+        {
+            concurrentTasksPermits.release();
+        }
+    }
+
+
+    protected void shutdownWorkers()
+    {
+        workers.shutdown();
+    }
+
+
+    protected boolean awaitWorkersTermination(long timeoutInNanos) throws InterruptedException
+    {
+        return workers.awaitTermination(timeoutInNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,29 @@
+package io.github.orionlibs.task_scheduler.engine;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the named daemon threads of the timer engines.
+ */
+class EngineThreadFactory implements ThreadFactory
+{
+    private final String namePrefix;
+    private final AtomicInteger threadCounter;
+
+
+    EngineThreadFactory(String namePrefix)
+    {
+        this.namePrefix = namePrefix;
+        this.threadCounter = new AtomicInteger();
+    }
+
+
+    @Override
+    public Thread newThread(Runnable runnable)
+    {
+        Thread thread = new Thread(runnable, namePrefix + "-" + threadCounter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,147 @@
+package io.github.orionlibs.task_scheduler.engine;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Builder;
+
+/**
+ * TimerEngine that keeps the timers in a shared ScheduledThreadPoolExecutor.
+ * The timer threads only do the due-time bookkeeping and hand the due tasks
+ * over to a separate pool of worker threads that runs them.
+ * <br>
+ * Cancelling a timer only marks it as cancelled, so that the cancelling thread does not contend for the lock of the timer queue.
+ * The cancelled timers are purged from the queue in bulk, on a timer thread, once they are at least half of it.
+ */
+public class ExecutorTimerEngine extends AbstractTimerEngine
+{
+    private static final int DEFAULT_TIMER_THREADS = 1;
+    private static final int CANCELLATIONS_BETWEEN_PURGE_CHECKS = 1024;
+    private final ScheduledThreadPoolExecutor timer;
+    private final AtomicInteger cancelledTimers;
+
+
+    public ExecutorTimerEngine()
+    {
+        this(DEFAULT_TIMER_THREADS, Runtime.getRuntime().availableProcessors(), false, 0, null);
+    }
+
+
+    /**
+     * @param timerThreads the number of threads that fire the timers. Values less than 1 default to 1.
+     * @param workerThreads the number of threads that run the tasks. Values less than 1 default to the number of available processors. It is ignored if virtualThreads is true.
+     * @param virtualThreads if true, the timer threads only do the due-time bookkeeping and every fired task runs on its own virtual thread.
+     * @param maxConcurrentTasks the maximum number of tasks that can run at the same time. Values less than 1 mean no cap.
+     * @param laneWeights the share of the workers of each TaskPriority lane, indexed by ordinal, when more tasks are due than there are free workers. If null, the weights are 8, 4, 2 and 1.
+     */
+    @Builder
+    public ExecutorTimerEngine(int timerThreads, int workerThreads, boolean virtualThreads, int maxConcurrentTasks, int[] laneWeights)
+    {
+        super(workerThreads, virtualThreads, maxConcurrentTasks, laneWeights);
+        this.timer = new ScheduledThreadPoolExecutor(timerThreads > 0 ? timerThreads : DEFAULT_TIMER_THREADS, new EngineThreadFactory("orion-task-scheduler-timer"));
+        this.timer.setRemoveOnCancelPolicy(false);
+        this.timer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.cancelledTimers = new AtomicInteger();
+    }
+
+
+    @Override
+    public TimerFuture schedule(Runnable task, long delay, TimeUnit unit) throws RejectedExecutionException
+    {
+        long delayInNanos = unit.toNanos(Math.max(delay, 0L));
+        ExecutorTimerFuture future = new ExecutorTimerFuture(task, System.nanoTime() + delayInNanos);
+        future.setTimerHandle(timer.schedule(() -> dispatch(future), delayInNanos, TimeUnit.NANOSECONDS));
+        return future;
+    }
+
+
+    @Override
+    public void shutdown()
+    {
+        timer.shutdown();
+        shutdownWorkers();
+    }
+
+
+    @Override
+    public boolean isShutdown()
+    {
+        return timer.isShutdown();
+    }
+
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        return timer.awaitTermination(timeout, unit)
+                        && awaitWorkersTermination(deadline - System.nanoTime());
+    }
+
+
+    private void recordCancelledTimer()
+    {
+        int cancelled = cancelledTimers.incrementAndGet();
+        if(cancelled % CANCELLATIONS_BETWEEN_PURGE_CHECKS == 0 && cancelled * 2 >= timer.getQueue().size())
+        {
+            cancelledTimers.addAndGet(-cancelled);
+            try
+            {
+                timer.execute(timer::purge);
+            }
+            catch(RejectedExecutionException e)
+            {
+                //the timer has been shut down and its queue cleared
+            }
+        }
+    }
+
+
+    private class ExecutorTimerFuture extends TimerFuture
+    {
+        private volatile ScheduledFuture<?> timerHandle;
+
+
+        ExecutorTimerFuture(Runnable task, long dueTimeInNanos)
+        {
+            super(task, dueTimeInNanos);
+        }
+
+
+        void setTimerHandle(ScheduledFuture<?> timerHandle)
+        {
+            this.timerHandle = timerHandle;
+            if(isCancelled())
+            {
+                timerHandle.cancel(false);
+            }
+        }
+
+
+        @Override
+        protected void rearm(long delayInNanos)
+        {
+            try
+            {
+                setTimerHandle(timer.schedule(() -> dispatch(this), delayInNanos, TimeUnit.NANOSECONDS));
+            }
+            catch(RejectedExecutionException e)
+            {
+                cancel(false);
+            }
+        }
+
+
+        @Override
+        protected void done()
+        {
+            ScheduledFuture<?> handle = timerHandle;
+            if(handle != null && isCancelled() && handle.cancel(false))
+            {
+                recordCancelledTimer();
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package io.github.orionlibs.task_scheduler.engine;
+
+/**
+ * A task that tells the TimerEngine in which dispatch lane it goes when it is due.
+ * Tasks that do not implement it go in the NORMAL lane.
+ */
+public interface PrioritizedTask extends Runnable
+{
+    TaskPriority getPriority();
+}
@@ -0,0 +1,104 @@
+package io.github.orionlibs.task_scheduler.engine;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The due tasks that wait for a worker, in one queue per TaskPriority.
+ * The workers take them in smooth weighted round-robin order, so that, while all the lanes are backed up,
+ * every lane gets a share of the workers proportional to its weight and no lane starves.
+ * If the lane whose turn it is is empty, the highest-priority non-empty lane is taken instead.
+ */
+class PriorityLanes
+{
+    private static final int[] DEFAULT_LANE_WEIGHTS = {8, 4, 2, 1};
+    private final Queue<TimerFuture>[] lanes;
+    private final int[] laneSequence;
+    private final AtomicInteger cursor;
+
+
+    /**
+     * @param laneWeights the weight of each lane, indexed by TaskPriority ordinal. If null or invalid, the weights are 8, 4, 2 and 1.
+     */
+    @SuppressWarnings("unchecked")
+    PriorityLanes(int[] laneWeights)
+    {
+        int[] weights = isValid(laneWeights) ? laneWeights.clone() : DEFAULT_LANE_WEIGHTS;
+        this.lanes = (Queue<TimerFuture>[])new Queue<?>[weights.length];
+        for(int i = 0; i < lanes.length; i++)
+        {
+            lanes[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.laneSequence = buildLaneSequence(weights);
+        this.cursor = new AtomicInteger();
+    }
+
+
+    void offer(TimerFuture future)
+    {
+        lanes[future.getPriority().ordinal()].offer(future);
+    }
+
+
+    boolean remove(TimerFuture future)
+    {
+        return lanes[future.getPriority().ordinal()].remove(future);
+    }
+
+
+    TimerFuture poll()
+    {
+        int lane = laneSequence[Math.floorMod(cursor.getAndIncrement(), laneSequence.length)];
+        TimerFuture future = lanes[lane].poll();
+        for(int i = 0; future == null && i < lanes.length; i++)
+        {
+            future = lanes[i].poll();
+        }
+        return future;
+    }
+
+
+    private static boolean isValid(int[] laneWeights)
+    {
+        if(laneWeights == null || laneWeights.length != TaskPriority.values().length)
+        {
+            return false;
+        }
+        for(int weight : laneWeights)
+        {
+            if(weight < 1)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    private static int[] buildLaneSequence(int[] weights)
+    {
+        int totalWeight = 0;
+        for(int weight : weights)
+        {
+            totalWeight += weight;
+        }
+        int[] currentWeights = new int[weights.length];
+        int[] sequence = new int[totalWeight];
+        for(int i = 0; i < sequence.length; i++)
+        {
+            int selectedLane = 0;
+            for(int lane = 0; lane < weights.length; lane++)
+            {
+                currentWeights[lane] += weights[lane];
+                if(currentWeights[lane] > currentWeights[selectedLane])
+                {
+                    selectedLane = lane;
+                }
+            }
+            currentWeights[selectedLane] -= totalWeight;
+            sequence[i] = selectedLane;
+        }
+        return sequence;
+    }
+}
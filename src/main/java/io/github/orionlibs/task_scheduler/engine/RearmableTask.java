@@ -0,0 +1,14 @@
+package io.github.orionlibs.task_scheduler.engine;
+
+/**
+ * A task that can ask the TimerEngine to run it again, through the same TimerFuture, after it has run.
+ * It is how retries are armed without cancelling the TimerFuture or scheduling a new one.
+ */
+public interface RearmableTask extends Runnable
+{
+    /**
+     * It is called after every run of the task.
+     * @return the delay in nanoseconds after which the task has to run again, or a negative value if the task has finished
+     */
+    long getRearmDelayInNanos();
+}
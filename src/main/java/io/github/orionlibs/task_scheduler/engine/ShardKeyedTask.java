@@ -0,0 +1,10 @@
+package io.github.orionlibs.task_scheduler.engine;
+
+/**
+ * A task that tells a ShardedTimerEngine which shard it belongs to.
+ * Tasks with the same shard key always go to the same shard.
+ */
+public interface ShardKeyedTask extends Runnable
+{
+    int getShardKey();
+}
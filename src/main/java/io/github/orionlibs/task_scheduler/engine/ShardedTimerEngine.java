@@ -0,0 +1,180 @@
+package io.github.orionlibs.task_scheduler.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.Builder;
+
+/**
+ * TimerEngine that spreads the timers over N independent engines, by the shard key of the task.
+ * Every shard has its own timer structure, timer thread and worker pool, so producers that schedule
+ * and cancel tasks of different shards do not contend on a shared queue, and the tasks of a shard always
+ * run on the workers of that shard.
+ * <br>
+ * Tasks that are not ShardKeyedTasks and the untimed work passed to execute() go to a random shard.
+ */
+public class ShardedTimerEngine implements TimerEngine
+{
+    private final TimerEngine[] shards;
+
+
+    public ShardedTimerEngine()
+    {
+        this(0, 0, null);
+    }
+
+
+    /**
+     * @param shards the number of shards. Values less than 1 default to the number of available processors.
+     * @param workerThreadsPerShard the number of worker threads of each shard. Values less than 1 default to the number of available processors divided by the number of shards, and at least 1. It is ignored if engineFactory is given.
+     * @param engineFactory creates the engine of each shard. If null, every shard is an ExecutorTimerEngine with 1 timer thread.
+     */
+    @Builder
+    public ShardedTimerEngine(int shards, int workerThreadsPerShard, Supplier<TimerEngine> engineFactory)
+    {
+        int availableProcessors = Runtime.getRuntime().availableProcessors();
+        int numberOfShards = shards > 0 ? shards : availableProcessors;
+        int workerThreads = workerThreadsPerShard > 0 ? workerThreadsPerShard : Math.max(1, availableProcessors / numberOfShards);
+        Supplier<TimerEngine> factory = engineFactory != null ? engineFactory : () -> ExecutorTimerEngine.builder()
+                        .timerThreads(1)
+                        .workerThreads(workerThreads)
+                        .build();
+        this.shards = new TimerEngine[numberOfShards];
+        for(int i = 0; i < numberOfShards; i++)
+        {
+            this.shards[i] = factory.get();
+        }
+    }
+
+
+    @Override
+    public TimerFuture schedule(Runnable task, long delay, TimeUnit unit) throws RejectedExecutionException
+    {
+        return shards[shardOf(task)].schedule(task, delay, unit);
+    }
+
+
+    /**
+     * It groups the tasks by shard and arms every group with one scheduleAll call on its shard.
+     */
+    @Override
+    public TimerFuture[] scheduleAll(List<? extends Runnable> tasks, long[] delaysInNanos) throws RejectedExecutionException
+    {
+        int[] taskShards = new int[tasks.size()];
+        int[] tasksPerShard = new int[shards.length];
+        for(int i = 0; i < taskShards.length; i++)
+        {
+            taskShards[i] = shardOf(tasks.get(i));
+            tasksPerShard[taskShards[i]]++;
+        }
+        TimerFuture[] futures = new TimerFuture[tasks.size()];
+        try
+        {
+            for(int shard = 0; shard < shards.length; shard++)
+            {
+                if(tasksPerShard[shard] > 0)
+                {
+                    List<Runnable> shardTasks = new ArrayList<>(tasksPerShard[shard]);
+                    long[] shardDelaysInNanos = new long[tasksPerShard[shard]];
+                    for(int i = 0; i < taskShards.length; i++)
+                    {
+                        if(taskShards[i] == shard)
+                        {
+                            shardDelaysInNanos[shardTasks.size()] = delaysInNanos[i];
+                            shardTasks.add(tasks.get(i));
+                        }
+                    }
+                    TimerFuture[] shardFutures = shards[shard].scheduleAll(shardTasks, shardDelaysInNanos);
+                    for(int i = 0, j = 0; i < taskShards.length; i++)
+                    {
+                        if(taskShards[i] == shard)
+                        {
+                            futures[i] = shardFutures[j++];
+                        }
+                    }
+                }
+            }
+        }
+        catch(RejectedExecutionException e)
+        {
+            for(TimerFuture future : futures)
+            {
+                if(future != null)
+                {
+                    future.cancel(false);
+                }
+            }
+            throw e;
+        }
+        return futures;
+    }
+
+
+    @Override
+    public void execute(Runnable task) throws RejectedExecutionException
+    {
+        shards[ThreadLocalRandom.current().nextInt(shards.length)].execute(task);
+    }
+
+
+    @Override
+    public void shutdown()
+    {
+        for(TimerEngine shard : shards)
+        {
+            shard.shutdown();
+        }
+    }
+
+
+    @Override
+    public boolean isShutdown()
+    {
+        for(TimerEngine shard : shards)
+        {
+            if(!shard.isShutdown())
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for(TimerEngine shard : shards)
+        {
+            if(!shard.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * @return the number of shards
+     */
+    public int getNumberOfShards()
+    {
+        return shards.length;
+    }
+
+
+    private int shardOf(Runnable task)
+    {
+        if(task instanceof ShardKeyedTask shardKeyedTask)
+        {
+            int key = shardKeyedTask.getShardKey();
+            return ((key ^ (key >>> 16)) & Integer.MAX_VALUE) % shards.length;
+        }
+        return ThreadLocalRandom.current().nextInt(shards.length);
+    }
+}
@@ -0,0 +1,13 @@
+package io.github.orionlibs.task_scheduler.engine;
+
+/**
+ * The dispatch lane of a task. When more tasks are due than there are free workers,
+ * the workers take the due tasks from the lanes in proportion to the lane weights of the engine.
+ */
+public enum TaskPriority
+{
+    CRITICAL,
+    HIGH,
+    NORMAL,
+    LOW
+}
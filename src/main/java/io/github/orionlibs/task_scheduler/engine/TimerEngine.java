@@ -0,0 +1,88 @@
+package io.github.orionlibs.task_scheduler.engine;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The structure that keeps track of the due time of scheduled tasks and
+ * hands them over to a pool of worker threads when they become due.
+ * A single engine is shared by all the tasks of a SingleExecutionScheduleService.
+ */
+public interface TimerEngine
+{
+    /**
+     * Arms a timer that will execute the given task once, after the given delay.
+     * @param task
+     * @param delay
+     * @param unit
+     * @return the handle of the armed timer
+     * @throws RejectedExecutionException if the engine has been shut down.
+     */
+    TimerFuture schedule(Runnable task, long delay, TimeUnit unit) throws RejectedExecutionException;
+
+
+    /**
+     * Arms one timer per given task, in one batched operation if the engine supports it.
+     * @param tasks
+     * @param delaysInNanos the delay of each task, in the same order as the tasks
+     * @return the handles of the armed timers, in the same order as the tasks
+     * @throws RejectedExecutionException if the engine has been shut down. In that case none of the timers is armed.
+     */
+    default TimerFuture[] scheduleAll(List<? extends Runnable> tasks, long[] delaysInNanos) throws RejectedExecutionException
+    {
+        TimerFuture[] futures = new TimerFuture[tasks.size()];
+        try
+        {
+            for(int i = 0; i < futures.length; i++)
+            {
+                futures[i] = schedule(tasks.get(i), delaysInNanos[i], TimeUnit.NANOSECONDS);
+            }
+        }
+        catch(RejectedExecutionException e)
+        {
+            for(TimerFuture future : futures)
+            {
+                if(future != null)
+                {
+                    future.cancel(false);
+                }
+            }
+            throw e;
+        }
+        return futures;
+    }
+
+
+    /**
+     * Runs the given task on the worker pool of this engine as soon as possible.
+     * It is used for the work that is not timed e.g. the due tasks that are handed over to the worker pool.
+     * @param task
+     * @throws RejectedExecutionException if the engine has been shut down.
+     */
+    void execute(Runnable task) throws RejectedExecutionException;
+
+
+    /**
+     * Stops accepting new tasks and discards the timers that have not fired yet.
+     * Tasks that are already running are allowed to finish.
+     */
+    void shutdown();
+
+
+    /**
+     * @return true if shutdown() has been called.
+     */
+    boolean isShutdown();
+
+
+    /**
+     * Blocks until all running tasks have finished after a shutdown request, or the timeout occurs,
+     * or the current thread is interrupted, whichever happens first.
+     * @param timeout
+     * @param unit
+     * @return true if the engine terminated and false if the timeout elapsed before termination
+     * @throws InterruptedException if interrupted while waiting
+     */
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException;
+}
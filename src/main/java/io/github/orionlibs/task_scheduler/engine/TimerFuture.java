@@ -0,0 +1,156 @@
+package io.github.orionlibs.task_scheduler.engine;
+
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The handle of a task that has been armed in a TimerEngine.
+ * It is the ScheduledFuture that ScheduledTask.getTask() returns.
+ * <br>
+ * If the task is a RearmableTask that asks to run again, the future does not complete. It is re-armed
+ * in its engine instead, so that it stays the same handle (and can be cancelled) across all the runs.
+ */
+public abstract class TimerFuture extends FutureTask<Object> implements ScheduledFuture<Object>
+{
+    private final RearmableTask rearmableTask;
+    private final TaskPriority priority;
+    private volatile long dueTimeInNanos;
+    private volatile boolean started;
+    private volatile boolean postponed;
+
+
+    protected TimerFuture(Runnable task, long dueTimeInNanos)
+    {
+        super(task, null);
+        this.rearmableTask = task instanceof RearmableTask ? (RearmableTask)task : null;
+        TaskPriority taskPriority = task instanceof PrioritizedTask ? ((PrioritizedTask)task).getPriority() : null;
+        this.priority = taskPriority != null ? taskPriority : TaskPriority.NORMAL;
+        this.dueTimeInNanos = dueTimeInNanos;
+    }
+
+
+    /**
+     * It returns the System.nanoTime() value at which this task is due.
+     * @return
+     */
+    public long getDueTimeInNanos()
+    {
+        return dueTimeInNanos;
+    }
+
+
+    protected void setDueTimeInNanos(long dueTimeInNanos)
+    {
+        this.dueTimeInNanos = dueTimeInNanos;
+    }
+
+
+    /**
+     * It returns the dispatch lane of this task.
+     * @return
+     */
+    public TaskPriority getPriority()
+    {
+        return priority;
+    }
+
+
+    /**
+     * It returns true if a worker thread has picked up this task.
+     * @return
+     */
+    public boolean hasStarted()
+    {
+        return started;
+    }
+
+
+    /**
+     * It moves the due time of this task to the given one, if that is later and the task has not started.
+     * The timer of the task in its engine is not moved. When it fires, the task is re-armed for the remaining time,
+     * so that the due time can be pushed forward any number of times without allocating.
+     * @param dueTimeInNanos the new System.nanoTime() value at which this task is due
+     * @return false if the task has already started or completed, in which case its due time is not moved
+     */
+    public boolean postpone(long dueTimeInNanos)
+    {
+        if(started || isDone())
+        {
+            return false;
+        }
+        synchronized(this)
+        {
+            if(dueTimeInNanos - this.dueTimeInNanos > 0L)
+            {
+                this.dueTimeInNanos = dueTimeInNanos;
+                postponed = true;
+            }
+        }
+        //if run() has set started after the check above, it may not have seen the new due time
+        return !started;
+    }
+
+
+    @Override
+    public void run()
+    {
+        started = true;
+        if(postponed)
+        {
+            postponed = false;
+            long remainingDelayInNanos = dueTimeInNanos - System.nanoTime();
+            if(remainingDelayInNanos > 0L)
+            {
+                started = false;
+                rearm(remainingDelayInNanos);
+                return;
+            }
+        }
+        if(rearmableTask == null)
+        {
+            super.run();
+        }
+        else if(runAndReset())
+        {
+            long rearmDelayInNanos = rearmableTask.getRearmDelayInNanos();
+            if(rearmDelayInNanos < 0L)
+            {
+                set(null);
+            }
+            else
+            {
+                dueTimeInNanos = System.nanoTime() + rearmDelayInNanos;
+                started = false;
+                rearm(rearmDelayInNanos);
+            }
+        }
+    }
+
+
+    /**
+     * It arms this future again in its engine, so that it runs after the given delay.
+     * If the engine has been shut down, the future has to be cancelled instead.
+     * @param delayInNanos
+     */
+    protected abstract void rearm(long delayInNanos);
+
+
+    @Override
+    public long getDelay(TimeUnit unit)
+    {
+        return unit.convert(dueTimeInNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+
+    @Override
+    public int compareTo(Delayed other)
+    {
+        if(other == this)
+        {
+            return 0;
+        }
+        return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+    }
+}
@@ -0,0 +1,392 @@
+package io.github.orionlibs.task_scheduler.engine;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import lombok.Builder;
+
+/**
+ * TimerEngine that keeps the timers in a hashed hierarchical timing wheel.
+ * Scheduling and cancelling a timer are O(1) regardless of how many timers are pending.
+ * <br>
+ * Time is divided into ticks of tickDuration. A single timer thread advances the wheel one tick at a time.
+ * The wheel of level 0 has one bucket per tick and every higher level has buckets that span
+ * wheelSize times more ticks than the level below. When the lower wheel completes a rotation, the
+ * next bucket of the level above is cascaded down. Timers fire at the end of the tick they are due in,
+ * so the firing accuracy is one tickDuration.
+ */
+public class TimingWheelTimerEngine extends AbstractTimerEngine
+{
+    private static final long DEFAULT_TICK_DURATION_IN_MILLIS = 10L;
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+    private final long tickDurationInNanos;
+    private final int wheelBits;
+    private final long wheelMask;
+    private final Bucket[][] wheels;
+    private final Queue<WheelTimeout> timeoutsToAdd;
+    private final Queue<WheelTimeout> cancelledTimeouts;
+    private final long startTimeInNanos;
+    private final Thread timerThread;
+    private volatile boolean shutdown;
+    private long currentTick;
+
+
+    public TimingWheelTimerEngine()
+    {
+        this(DEFAULT_TICK_DURATION_IN_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_WHEEL_SIZE, Runtime.getRuntime().availableProcessors(), false, 0, null);
+    }
+
+
+    /**
+     * @param tickDuration the duration of a tick. Values less than 1 default to 10 milliseconds.
+     * @param tickUnit the unit of tickDuration. If null, milliseconds are used.
+     * @param wheelSize the number of buckets per wheel level. It is rounded up to a power of 2. Values less than 2 default to 512.
+     * @param workerThreads the number of threads that run the tasks. Values less than 1 default to the number of available processors. It is ignored if virtualThreads is true.
+     * @param virtualThreads if true, the timer thread only does the due-time bookkeeping and every fired task runs on its own virtual thread.
+     * @param maxConcurrentTasks the maximum number of tasks that can run at the same time. Values less than 1 mean no cap.
+     * @param laneWeights the share of the workers of each TaskPriority lane, indexed by ordinal, when more tasks are due than there are free workers. If null, the weights are 8, 4, 2 and 1.
+     */
+    @Builder
+    public TimingWheelTimerEngine(long tickDuration, TimeUnit tickUnit, int wheelSize, int workerThreads, boolean virtualThreads, int maxConcurrentTasks, int[] laneWeights)
+    {
+        super(workerThreads, virtualThreads, maxConcurrentTasks, laneWeights);
+        if(tickDuration < 1L)
+        {
+            tickDuration = DEFAULT_TICK_DURATION_IN_MILLIS;
+            tickUnit = TimeUnit.MILLISECONDS;
+        }
+        this.tickDurationInNanos = Math.max(1L, (tickUnit != null ? tickUnit : TimeUnit.MILLISECONDS).toNanos(tickDuration));
+        int normalisedWheelSize = wheelSize < 2 ? DEFAULT_WHEEL_SIZE : Integer.highestOneBit(Math.min(wheelSize, 1 << 30) - 1) << 1;
+        this.wheelBits = Integer.numberOfTrailingZeros(normalisedWheelSize);
+        this.wheelMask = normalisedWheelSize - 1L;
+        this.wheels = new Bucket[(Long.SIZE + wheelBits - 1) / wheelBits][];
+        this.timeoutsToAdd = new ConcurrentLinkedQueue<>();
+        this.cancelledTimeouts = new ConcurrentLinkedQueue<>();
+        this.startTimeInNanos = System.nanoTime();
+        this.timerThread = new EngineThreadFactory("orion-task-scheduler-wheel").newThread(this::runTimer);
+        this.timerThread.start();
+    }
+
+
+    @Override
+    public TimerFuture schedule(Runnable task, long delay, TimeUnit unit) throws RejectedExecutionException
+    {
+        if(shutdown)
+        {
+            throw new RejectedExecutionException("The timing wheel has been shut down.");
+        }
+        WheelTimeout timeout = new WheelTimeout(task, System.nanoTime() + unit.toNanos(Math.max(delay, 0L)));
+        timeoutsToAdd.add(timeout);
+        if(shutdown && timeoutsToAdd.remove(timeout))
+        {
+            throw new RejectedExecutionException("The timing wheel has been shut down.");
+        }
+        return timeout;
+    }
+
+
+    /**
+     * It hands all the timeouts over to the timer thread with a single append to its queue.
+     */
+    @Override
+    public TimerFuture[] scheduleAll(List<? extends Runnable> tasks, long[] delaysInNanos) throws RejectedExecutionException
+    {
+        if(shutdown)
+        {
+            throw new RejectedExecutionException("The timing wheel has been shut down.");
+        }
+        long now = System.nanoTime();
+        WheelTimeout[] timeouts = new WheelTimeout[tasks.size()];
+        for(int i = 0; i < timeouts.length; i++)
+        {
+            timeouts[i] = new WheelTimeout(tasks.get(i), now + Math.max(delaysInNanos[i], 0L));
+        }
+        timeoutsToAdd.addAll(Arrays.asList(timeouts));
+        if(shutdown && timeouts.length > 0 && timeoutsToAdd.remove(timeouts[0]))
+        {
+            timeoutsToAdd.removeAll(Arrays.asList(timeouts));
+            throw new RejectedExecutionException("The timing wheel has been shut down.");
+        }
+        return timeouts;
+    }
+
+
+    @Override
+    public void shutdown()
+    {
+        shutdown = true;
+        LockSupport.unpark(timerThread);
+    }
+
+
+    @Override
+    public boolean isShutdown()
+    {
+        return shutdown;
+    }
+
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        TimeUnit.NANOSECONDS.timedJoin(timerThread, deadline - System.nanoTime());
+        return !timerThread.isAlive() && awaitWorkersTermination(deadline - System.nanoTime());
+    }
+
+
+    private void runTimer()
+    {
+        while(!shutdown)
+        {
+            long tick = currentTick + 1L;
+            long tickDeadline = startTimeInNanos + tick * tickDurationInNanos;
+            long sleepTimeInNanos;
+            while((sleepTimeInNanos = tickDeadline - System.nanoTime()) > 0L && !shutdown)
+            {
+                LockSupport.parkNanos(this, sleepTimeInNanos);
+            }
+            if(shutdown)
+            {
+                break;
+            }
+            currentTick = tick;
+            cascade(tick);
+            transferTimeoutsToBuckets(tick);
+            removeCancelledTimeouts();
+            expireTimeouts(tick);
+        }
+        cancelPendingTimeouts();
+        shutdownWorkers();
+    }
+
+
+    private void cascade(long tick)
+    {
+        for(int level = 1; level < wheels.length && level * wheelBits < Long.SIZE; level++)
+        {
+            int shift = level * wheelBits;
+            if((tick & ((1L << shift) - 1L)) != 0L)
+            {
+                break;
+            }
+            Bucket[] wheel = wheels[level];
+            if(wheel != null)
+            {
+                Bucket bucket = wheel[(int)((tick >>> shift) & wheelMask)];
+                WheelTimeout timeout;
+                while((timeout = bucket.poll()) != null)
+                {
+                    place(timeout, tick);
+                }
+            }
+        }
+    }
+
+
+    private void transferTimeoutsToBuckets(long tick)
+    {
+        WheelTimeout timeout;
+        while((timeout = timeoutsToAdd.poll()) != null)
+        {
+            if(!timeout.isCancelled())
+            {
+                place(timeout, tick);
+            }
+        }
+    }
+
+
+    private void removeCancelledTimeouts()
+    {
+        WheelTimeout timeout;
+        while((timeout = cancelledTimeouts.poll()) != null)
+        {
+            if(timeout.bucket != null)
+            {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+
+    private void expireTimeouts(long tick)
+    {
+        Bucket bucket = bucketAt(0, (int)(tick & wheelMask));
+        WheelTimeout timeout;
+        while((timeout = bucket.poll()) != null)
+        {
+            if(timeout.expirationTick > tick)
+            {
+                place(timeout, tick);
+            }
+            else if(!timeout.isCancelled())
+            {
+                dispatch(timeout);
+            }
+        }
+    }
+
+
+    /**
+     * It puts the timeout in the lowest level whose wheel distinguishes its expiration tick from the current tick.
+     * Since the expiration tick and the current tick agree on all the digits above that level, the bucket
+     * is reached (and cascaded down, if the level is above 0) before the wheel wraps around.
+     */
+    private void place(WheelTimeout timeout, long tick)
+    {
+        long elapsedTimeInNanos = Math.max(0L, timeout.getDueTimeInNanos() - startTimeInNanos);
+        long expirationTick = Math.max(tick, (elapsedTimeInNanos + tickDurationInNanos - 1L) / tickDurationInNanos);
+        long differentDigits = expirationTick ^ tick;
+        int level = differentDigits == 0L ? 0 : (Long.SIZE - 1 - Long.numberOfLeadingZeros(differentDigits)) / wheelBits;
+        timeout.expirationTick = expirationTick;
+        bucketAt(level, (int)((expirationTick >>> (level * wheelBits)) & wheelMask)).add(timeout);
+    }
+
+
+    private Bucket bucketAt(int level, int index)
+    {
+        Bucket[] wheel = wheels[level];
+        if(wheel == null)
+        {
+            wheel = new Bucket[(int)wheelMask + 1];
+            for(int i = 0; i < wheel.length; i++)
+            {
+                wheel[i] = new Bucket();
+            }
+            wheels[level] = wheel;
+        }
+        return wheel[index];
+    }
+
+
+    private void cancelPendingTimeouts()
+    {
+        for(Bucket[] wheel : wheels)
+        {
+            if(wheel != null)
+            {
+                for(Bucket bucket : wheel)
+                {
+                    WheelTimeout timeout;
+                    while((timeout = bucket.poll()) != null)
+                    {
+                        timeout.cancel(false);
+                    }
+                }
+            }
+        }
+        WheelTimeout timeout;
+        while((timeout = timeoutsToAdd.poll()) != null)
+        {
+            timeout.cancel(false);
+        }
+        cancelledTimeouts.clear();
+    }
+
+
+    private class WheelTimeout extends TimerFuture
+    {
+        private long expirationTick;
+        private Bucket bucket;
+        private WheelTimeout previous;
+        private WheelTimeout next;
+
+
+        WheelTimeout(Runnable task, long dueTimeInNanos)
+        {
+            super(task, dueTimeInNanos);
+        }
+
+
+        @Override
+        protected void rearm(long delayInNanos)
+        {
+            if(!shutdown)
+            {
+                timeoutsToAdd.add(this);
+                if(!shutdown || !timeoutsToAdd.remove(this))
+                {
+                    return;
+                }
+            }
+            cancel(false);
+        }
+
+
+        @Override
+        protected void done()
+        {
+            if(isCancelled() && !shutdown)
+            {
+                cancelledTimeouts.add(this);
+            }
+        }
+    }
+
+
+    /**
+     * Doubly-linked list of timeouts that is only accessed by the timer thread.
+     */
+    private static class Bucket
+    {
+        private WheelTimeout head;
+        private WheelTimeout tail;
+
+
+        void add(WheelTimeout timeout)
+        {
+            timeout.bucket = this;
+            timeout.previous = tail;
+            timeout.next = null;
+            if(tail == null)
+            {
+                head = timeout;
+            }
+            else
+            {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+
+        void remove(WheelTimeout timeout)
+        {
+            if(timeout.previous == null)
+            {
+                head = timeout.next;
+            }
+            else
+            {
+                timeout.previous.next = timeout.next;
+            }
+            if(timeout.next == null)
+            {
+                tail = timeout.previous;
+            }
+            else
+            {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.bucket = null;
+            timeout.previous = null;
+            timeout.next = null;
+        }
+
+
+        WheelTimeout poll()
+        {
+            WheelTimeout timeout = head;
+            if(timeout != null)
+            {
+                remove(timeout);
+            }
+            return timeout;
+        }
+    }
+}
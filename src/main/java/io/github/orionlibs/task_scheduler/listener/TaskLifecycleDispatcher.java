@@ -0,0 +1,244 @@
+package io.github.orionlibs.task_scheduler.listener;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+import lombok.Builder;
+
+/**
+ * It delivers the lifecycle events of the tasks to the registered TaskLifecycleListeners in batches.
+ * <br>
+ * Publishing an event only appends it to a bounded lock-free queue, and wakes up the daemon thread of the dispatcher
+ * if it is waiting for events. The thread collects the events into batches of up to maxBatchSize events, waiting at most
+ * maxLinger after the first event of a batch for more events, and hands each batch to the executor, which calls the listeners.
+ * Only one batch is handed over at a time, so the batches are delivered one after the other, in order, even on a multi-threaded executor.
+ * If the queue is full, the event is dropped and counted, so a slow listener can never slow down the tasks.
+ * If no listener is registered, publishing does nothing.
+ */
+public class TaskLifecycleDispatcher implements Closeable
+{
+    private static final int DEFAULT_MAX_BATCH_SIZE = 256;
+    private static final long DEFAULT_MAX_LINGER_IN_NANOS = TimeUnit.MILLISECONDS.toNanos(10L);
+    private static final int DEFAULT_CAPACITY = 65_536;
+    private static final Logger log = Logger.getLogger(TaskLifecycleDispatcher.class.getName());
+    private final Executor executor;
+    private final int maxBatchSize;
+    private final long maxLingerInNanos;
+    private final int capacity;
+    private final List<TaskLifecycleListener> listeners;
+    private final Queue<TaskLifecycleEvent> events;
+    private final AtomicInteger numberOfQueuedEvents;
+    private final LongAdder droppedEvents;
+    private final Semaphore deliverySlot;
+    private final Thread dispatcherThread;
+    private volatile boolean waitingForEvents;
+    private volatile boolean closed;
+
+
+    public TaskLifecycleDispatcher()
+    {
+        this(null, 0, 0L, null, 0);
+    }
+
+
+    /**
+     * @param executor the executor that calls the listeners with each batch. If null, the dispatcher thread calls them.
+     * @param maxBatchSize the maximum number of events per batch. Values less than 1 default to 256.
+     * @param maxLinger how long the dispatcher waits for a batch to fill up. Values less than 0 default to 10 milliseconds.
+     * @param maxLingerUnit the unit of maxLinger. If null, maxLinger is ignored.
+     * @param capacity the maximum number of events that wait to be batched. Values less than 1 default to 65536.
+     */
+    @Builder
+    public TaskLifecycleDispatcher(Executor executor, int maxBatchSize, long maxLinger, TimeUnit maxLingerUnit, int capacity)
+    {
+        this.executor = executor;
+        this.maxBatchSize = maxBatchSize > 0 ? maxBatchSize : DEFAULT_MAX_BATCH_SIZE;
+        this.maxLingerInNanos = maxLingerUnit != null && maxLinger >= 0L ? maxLingerUnit.toNanos(maxLinger) : DEFAULT_MAX_LINGER_IN_NANOS;
+        this.capacity = capacity > 0 ? capacity : DEFAULT_CAPACITY;
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.events = new ConcurrentLinkedQueue<>();
+        this.numberOfQueuedEvents = new AtomicInteger();
+        this.droppedEvents = new LongAdder();
+        this.deliverySlot = new Semaphore(1);
+        this.dispatcherThread = new Thread(this::runDispatcher, "orion-task-scheduler-lifecycle");
+        this.dispatcherThread.setDaemon(true);
+        this.dispatcherThread.start();
+    }
+
+
+    public TaskLifecycleDispatcher addListener(TaskLifecycleListener listener)
+    {
+        listeners.add(listener);
+        return this;
+    }
+
+
+    public boolean removeListener(TaskLifecycleListener listener)
+    {
+        return listeners.remove(listener);
+    }
+
+
+    /**
+     * @return true if at least one listener is registered, so publishing events is not a no-op
+     */
+    public boolean hasListeners()
+    {
+        return !listeners.isEmpty();
+    }
+
+
+    /**
+     * It queues an event to be delivered to the listeners.
+     * @param eventType
+     * @param taskID
+     * @param error the exception of a FAILED or RETRIED event. It can be null.
+     * @return true if the event was queued
+     */
+    public boolean publish(TaskLifecycleEventType eventType, String taskID, Throwable error)
+    {
+        if(closed || listeners.isEmpty())
+        {
+            return false;
+        }
+        if(numberOfQueuedEvents.incrementAndGet() > capacity)
+        {
+            numberOfQueuedEvents.decrementAndGet();
+            droppedEvents.increment();
+            return false;
+        }
+        events.offer(new TaskLifecycleEvent(eventType, taskID, System.currentTimeMillis(), error));
+        if(waitingForEvents)
+        {
+            LockSupport.unpark(dispatcherThread);
+        }
+        return true;
+    }
+
+
+    /**
+     * @return the number of events that were dropped because the queue was full
+     */
+    public long getDroppedEvents()
+    {
+        return droppedEvents.sum();
+    }
+
+
+    /**
+     * It delivers the events that are still queued and stops the dispatcher thread.
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+        LockSupport.unpark(dispatcherThread);
+    }
+
+
+    private void runDispatcher()
+    {
+        while(!closed)
+        {
+            TaskLifecycleEvent firstEvent = events.poll();
+            if(firstEvent == null)
+            {
+                //publish() reads the flag after it has queued its event, so either it unparks this thread or the check below sees the event
+                waitingForEvents = true;
+                if(events.isEmpty() && !closed)
+                {
+                    LockSupport.park(this);
+                }
+                waitingForEvents = false;
+                continue;
+            }
+            List<TaskLifecycleEvent> batch = new ArrayList<>(Math.min(maxBatchSize, 64));
+            batch.add(firstEvent);
+            long deadlineInNanos = System.nanoTime() + maxLingerInNanos;
+            while(batch.size() < maxBatchSize && !closed)
+            {
+                TaskLifecycleEvent event = events.poll();
+                if(event != null)
+                {
+                    batch.add(event);
+                    continue;
+                }
+                long remainingLingerInNanos = deadlineInNanos - System.nanoTime();
+                if(remainingLingerInNanos <= 0L)
+                {
+                    break;
+                }
+                LockSupport.parkNanos(this, remainingLingerInNanos);
+            }
+            numberOfQueuedEvents.addAndGet(-batch.size());
+            deliver(batch);
+        }
+        List<TaskLifecycleEvent> remainingEvents = new ArrayList<>();
+        for(TaskLifecycleEvent event = events.poll(); event != null; event = events.poll())
+        {
+            remainingEvents.add(event);
+            if(remainingEvents.size() == maxBatchSize)
+            {
+                deliver(remainingEvents);
+                remainingEvents = new ArrayList<>();
+            }
+        }
+        if(!remainingEvents.isEmpty())
+        {
+            deliver(remainingEvents);
+        }
+    }
+
+
+    private void deliver(List<TaskLifecycleEvent> batch)
+    {
+        List<TaskLifecycleEvent> events = List.copyOf(batch);
+        Runnable delivery = () -> {
+            try
+            {
+                for(TaskLifecycleListener listener : listeners)
+                {
+                    try
+                    {
+                        listener.onEvents(events);
+                    }
+                    catch(RuntimeException e)
+                    {
+                        log.warning("a task lifecycle listener failed: " + e.getMessage());
+                    }
+                }
+            }
+            finally
+            {
+                deliverySlot.release();
+            }
+        };
+        //the previous batch has to be delivered before this one is handed over, so that the executor cannot reorder them
+        deliverySlot.acquireUninterruptibly();
+        if(executor == null)
+        {
+            delivery.run();
+            return;
+        }
+        try
+        {
+            executor.execute(delivery);
+        }
+        catch(RejectedExecutionException e)
+        {
+            deliverySlot.release();
+            droppedEvents.add(events.size());
+        }
+    }
+}
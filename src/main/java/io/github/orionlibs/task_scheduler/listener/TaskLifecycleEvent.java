@@ -0,0 +1,20 @@
+package io.github.orionlibs.task_scheduler.listener;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * An event in the lifecycle of a task.
+ */
+@AllArgsConstructor
+@Getter
+public class TaskLifecycleEvent
+{
+    private final TaskLifecycleEventType eventType;
+    private final String taskID;
+    private final long timeInEpochMillis;
+    /**
+     * The exception that the run threw, for FAILED and RETRIED events, and null otherwise.
+     */
+    private final Throwable error;
+}
@@ -0,0 +1,36 @@
+package io.github.orionlibs.task_scheduler.listener;
+
+/**
+ * The stages of the lifecycle of a task that a TaskLifecycleListener is notified about.
+ */
+public enum TaskLifecycleEventType
+{
+    /**
+     * The task has been accepted and armed or spilled.
+     */
+    SCHEDULED,
+    /**
+     * A run of the task has started.
+     */
+    STARTED,
+    /**
+     * A run of the task has finished without throwing.
+     */
+    SUCCEEDED,
+    /**
+     * A run of the task has thrown and the task has no retries left.
+     */
+    FAILED,
+    /**
+     * A run of the task has thrown and the task will run again.
+     */
+    RETRIED,
+    /**
+     * The task has been cancelled or replaced by a task with the same taskID before it ran.
+     */
+    CANCELLED,
+    /**
+     * The task has not been scheduled, because it was rejected or a pending task with the same taskID absorbed it.
+     */
+    DROPPED
+}
@@ -0,0 +1,64 @@
+package io.github.orionlibs.task_scheduler.listener;
+
+import java.util.List;
+
+/**
+ * Service-level listener of the lifecycle events of the tasks e.g. for monitoring or auditing.
+ * The events are delivered in batches, in the order they were published, by a TaskLifecycleDispatcher
+ * and never on the thread that schedules, fires or cancels the task.
+ * Implement onEvents() to handle a whole batch at once, or override the methods of the events of interest.
+ */
+public interface TaskLifecycleListener
+{
+    default void onEvents(List<TaskLifecycleEvent> events)
+    {
+        for(TaskLifecycleEvent event : events)
+        {
+            switch(event.getEventType())
+            {
+                case SCHEDULED -> onScheduled(event);
+                case STARTED -> onStarted(event);
+                case SUCCEEDED -> onSucceeded(event);
+                case FAILED -> onFailed(event);
+                case RETRIED -> onRetried(event);
+                case CANCELLED -> onCancelled(event);
+                case DROPPED -> onDropped(event);
+            }
+        }
+    }
+
+
+    default void onScheduled(TaskLifecycleEvent event)
+    {
+    }
+
+
+    default void onStarted(TaskLifecycleEvent event)
+    {
+    }
+
+
+    default void onSucceeded(TaskLifecycleEvent event)
+    {
+    }
+
+
+    default void onFailed(TaskLifecycleEvent event)
+    {
+    }
+
+
+    default void onRetried(TaskLifecycleEvent event)
+    {
+    }
+
+
+    default void onCancelled(TaskLifecycleEvent event)
+    {
+    }
+
+
+    default void onDropped(TaskLifecycleEvent event)
+    {
+    }
+}
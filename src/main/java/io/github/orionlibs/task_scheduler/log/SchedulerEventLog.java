@@ -0,0 +1,196 @@
+package io.github.orionlibs.task_scheduler.log;
+
+import java.io.Closeable;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Asynchronous log of scheduler events.
+ * <br>
+ * The calling thread checks the level and the sampling rate, and then writes the event into a preallocated,
+ * bounded, lock-free ring buffer. It does not format anything, allocate or touch a log handler.
+ * A background thread drains the ring, formats the events and logs them through the given Logger.
+ * While the ring is empty, the thread is parked, and the caller unparks it only if it is waiting for events.
+ * When the ring is full, the event is dropped and counted, so a slow log handler can never block the scheduler.
+ */
+public class SchedulerEventLog implements Closeable
+{
+    private static final int DEFAULT_CAPACITY = 8192;
+    private static final SchedulerEventType[] EVENT_TYPES = SchedulerEventType.values();
+    private final Logger logger;
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final String[] taskIDs;
+    private final byte[] eventTypes;
+    private final long[] dueTimesInEpochMillis;
+    private final long[] lagsInNanos;
+    private final AtomicLong tail;
+    private final LongAdder droppedEvents;
+    private final Thread drainerThread;
+    private long head;
+    private volatile boolean waitingForEvents;
+    private volatile boolean closed;
+
+
+    public SchedulerEventLog(Logger logger)
+    {
+        this(logger, DEFAULT_CAPACITY);
+    }
+
+
+    /**
+     * @param logger the Logger that the events are logged through, by the drainer thread
+     * @param capacity the number of events that the ring holds. It is rounded up to a power of 2. Values less than 2 default to 8192.
+     */
+    public SchedulerEventLog(Logger logger, int capacity)
+    {
+        int normalisedCapacity = capacity < 2 ? DEFAULT_CAPACITY : Integer.highestOneBit(Math.min(capacity, 1 << 30) - 1) << 1;
+        this.logger = logger;
+        this.mask = normalisedCapacity - 1;
+        this.sequences = new AtomicLongArray(normalisedCapacity);
+        for(int i = 0; i < normalisedCapacity; i++)
+        {
+            sequences.set(i, i);
+        }
+        this.taskIDs = new String[normalisedCapacity];
+        this.eventTypes = new byte[normalisedCapacity];
+        this.dueTimesInEpochMillis = new long[normalisedCapacity];
+        this.lagsInNanos = new long[normalisedCapacity];
+        this.tail = new AtomicLong();
+        this.droppedEvents = new LongAdder();
+        this.drainerThread = new Thread(this::runDrainer, "orion-task-scheduler-event-log");
+        this.drainerThread.setDaemon(true);
+        this.drainerThread.start();
+    }
+
+
+    /**
+     * It queues an event to be logged, unless its level is not loggable or it is not sampled.
+     * @param eventType
+     * @param taskID
+     * @param dueTimeInEpochMillis the time at which the task is due
+     * @param lagInNanos the time from the due time to the start of the run, or 0 if the task has not run
+     * @param samplingRate 1 in how many of the events that are logged at INFO are logged
+     * @return true if the event was queued
+     */
+    public boolean publish(SchedulerEventType eventType, String taskID, long dueTimeInEpochMillis, long lagInNanos, int samplingRate)
+    {
+        if(closed || !logger.isLoggable(eventType.getLevel()))
+        {
+            return false;
+        }
+        if(samplingRate > 1 && eventType.getLevel().intValue() <= Level.INFO.intValue()
+                        && ThreadLocalRandom.current().nextInt(samplingRate) != 0)
+        {
+            return false;
+        }
+        long position;
+        while(true)
+        {
+            position = tail.get();
+            long sequence = sequences.get((int)(position & mask));
+            if(sequence == position)
+            {
+                if(tail.compareAndSet(position, position + 1L))
+                {
+                    break;
+                }
+            }
+            else if(sequence < position)
+            {
+                droppedEvents.increment();
+                return false;
+            }
+        }
+        int index = (int)(position & mask);
+        taskIDs[index] = taskID;
+        eventTypes[index] = (byte)eventType.ordinal();
+        dueTimesInEpochMillis[index] = dueTimeInEpochMillis;
+        lagsInNanos[index] = lagInNanos;
+        //a volatile write, so that the drainer either sees the event or is unparked by the check below
+        sequences.set(index, position + 1L);
+        if(waitingForEvents)
+        {
+            LockSupport.unpark(drainerThread);
+        }
+        return true;
+    }
+
+
+    /**
+     * @return the number of events that were dropped because the ring was full
+     */
+    public long getDroppedEvents()
+    {
+        return droppedEvents.sum();
+    }
+
+
+    /**
+     * It logs the events that are still in the ring and stops the drainer thread.
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+        LockSupport.unpark(drainerThread);
+    }
+
+
+    private void runDrainer()
+    {
+        while(!closed)
+        {
+            if(!drain())
+            {
+                waitingForEvents = true;
+                if(!hasEvent() && !closed)
+                {
+                    LockSupport.park(this);
+                }
+                waitingForEvents = false;
+            }
+        }
+        drain();
+    }
+
+
+    private boolean hasEvent()
+    {
+        return sequences.get((int)(head & mask)) == head + 1L;
+    }
+
+
+    /**
+     * @return true if at least one event was logged
+     */
+    private boolean drain()
+    {
+        boolean drained = false;
+        while(true)
+        {
+            if(!hasEvent())
+            {
+                return drained;
+            }
+            int index = (int)(head & mask);
+            SchedulerEventType eventType = EVENT_TYPES[eventTypes[index]];
+            String message = "task " + taskIDs[index]
+                            + " " + eventType.name().toLowerCase()
+                            + ", due " + Instant.ofEpochMilli(dueTimesInEpochMillis[index])
+                            + ", lag " + TimeUnit.NANOSECONDS.toMicros(lagsInNanos[index]) + "us";
+            taskIDs[index] = null;
+            sequences.lazySet(index, head + mask + 1L);
+            head++;
+            logger.log(eventType.getLevel(), message);
+            drained = true;
+        }
+    }
+}
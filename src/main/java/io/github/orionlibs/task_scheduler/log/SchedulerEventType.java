@@ -0,0 +1,29 @@
+package io.github.orionlibs.task_scheduler.log;
+
+import java.util.logging.Level;
+
+/**
+ * The kinds of event that a scheduler logs about a task, with the level each is logged at.
+ * Only the events that are logged at INFO are sampled.
+ */
+public enum SchedulerEventType
+{
+    SCHEDULED(Level.INFO),
+    SUCCEEDED(Level.INFO),
+    CANCELLED(Level.INFO),
+    RETRIED(Level.WARNING),
+    FAILED(Level.WARNING);
+    private final Level level;
+
+
+    SchedulerEventType(Level level)
+    {
+        this.level = level;
+    }
+
+
+    public Level getLevel()
+    {
+        return level;
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.orionlibs.task_scheduler.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable copy of a LatencyHistogram.
+ */
+public class HistogramSnapshot
+{
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+
+    HistogramSnapshot(long[] counts, long count, long sum, long max)
+    {
+        this.counts = counts;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+
+    /**
+     * @return the number of recorded values
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+
+    /**
+     * @param unit
+     * @return the largest recorded value
+     */
+    public long getMax(TimeUnit unit)
+    {
+        return unit.convert(max, TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * @param unit
+     * @return the mean of the recorded values or 0 if there are none
+     */
+    public double getMean(TimeUnit unit)
+    {
+        return count == 0L ? 0.0d : (double)sum / count / unit.toNanos(1L);
+    }
+
+
+    /**
+     * It returns the value below which the given percentage of the recorded values fall.
+     * The value is the upper bound of the bucket of that percentile, capped by the largest recorded value.
+     * @param percentile from 0 to 100
+     * @param unit
+     * @return the value or 0 if there are no recorded values
+     */
+    public long getValueAtPercentile(double percentile, TimeUnit unit)
+    {
+        long totalCount = 0L;
+        for(long bucketCount : counts)
+        {
+            totalCount += bucketCount;
+        }
+        if(totalCount == 0L)
+        {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long)Math.ceil(Math.min(100.0d, Math.max(0.0d, percentile)) / 100.0d * totalCount));
+        long seen = 0L;
+        for(int i = 0; i < counts.length; i++)
+        {
+            seen += counts[i];
+            if(seen >= rank)
+            {
+                return unit.convert(Math.min(LatencyHistogram.bucketUpperBound(i), max), TimeUnit.NANOSECONDS);
+            }
+        }
+        return unit.convert(max, TimeUnit.NANOSECONDS);
+    }
+}
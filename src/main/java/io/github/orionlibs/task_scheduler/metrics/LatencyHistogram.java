@@ -0,0 +1,91 @@
+package io.github.orionlibs.task_scheduler.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent histogram of durations in nanoseconds with HDR-style log-linear buckets.
+ * Every power of 2 is split into 16 linear sub-buckets, so the recorded values keep 2 significant
+ * binary digits of precision (at most 6.25% relative error) from 1 nanosecond up to many years.
+ * <br>
+ * Recording a value is an index computation and an increment of a striped LongAdder, so
+ * concurrent recorders do not contend with each other.
+ */
+public class LatencyHistogram
+{
+    static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int NUMBER_OF_BUCKETS = (Long.SIZE - 1 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    private final LongAdder[] buckets;
+    private final LongAdder totalCount;
+    private final LongAdder totalValue;
+    private final LongAccumulator maxValue;
+
+
+    public LatencyHistogram()
+    {
+        this.buckets = new LongAdder[NUMBER_OF_BUCKETS];
+        for(int i = 0; i < buckets.length; i++)
+        {
+            buckets[i] = new LongAdder();
+        }
+        this.totalCount = new LongAdder();
+        this.totalValue = new LongAdder();
+        this.maxValue = new LongAccumulator(Math::max, 0L);
+    }
+
+
+    /**
+     * It records the given duration. Negative durations are recorded as 0.
+     * @param valueInNanos
+     */
+    public void record(long valueInNanos)
+    {
+        long value = Math.max(0L, valueInNanos);
+        buckets[bucketIndex(value)].increment();
+        totalCount.increment();
+        totalValue.add(value);
+        maxValue.accumulate(value);
+    }
+
+
+    /**
+     * It returns a point-in-time copy of this histogram.
+     * Values that are recorded while the copy is taken may be partially included.
+     * @return
+     */
+    public HistogramSnapshot snapshot()
+    {
+        long[] counts = new long[buckets.length];
+        for(int i = 0; i < buckets.length; i++)
+        {
+            counts[i] = buckets[i].sum();
+        }
+        return new HistogramSnapshot(counts, totalCount.sum(), totalValue.sum(), maxValue.get());
+    }
+
+
+    static int bucketIndex(long value)
+    {
+        if(value < SUB_BUCKETS)
+        {
+            return (int)value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int)((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+
+    static long bucketUpperBound(int index)
+    {
+        if(index < SUB_BUCKETS)
+        {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = index % SUB_BUCKETS;
+        long lowerBound = (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+        return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1L;
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.orionlibs.task_scheduler.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Point-in-time copy of the metrics of a scheduler.
+ * The counters are totals since the scheduler was created.
+ */
+@AllArgsConstructor
+@Getter
+public class MetricsSnapshot
+{
+    private final long pendingTasks;
+    private final long scheduledTasks;
+    private final long firedTasks;
+    private final long cancelledTasks;
+    private final long retriedTasks;
+    private final long failedTasks;
+    /**
+     * The runs that overran the maximum run time of their task. They are also counted as retried or failed.
+     */
+    private final long timedOutTasks;
+    /**
+     * The actual start time minus the due time of every execution of a task.
+     */
+    private final HistogramSnapshot firingLag;
+    /**
+     * The run time of every execution of a task.
+     */
+    private final HistogramSnapshot runTime;
+}
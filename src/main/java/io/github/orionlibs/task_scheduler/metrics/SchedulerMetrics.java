@@ -0,0 +1,100 @@
+package io.github.orionlibs.task_scheduler.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters and histograms that a scheduler updates on its hot paths.
+ * They are all striped, so that concurrent updates do not contend with each other.
+ */
+public class SchedulerMetrics
+{
+    private final LongAdder scheduledTasks;
+    private final LongAdder firedTasks;
+    private final LongAdder cancelledTasks;
+    private final LongAdder retriedTasks;
+    private final LongAdder failedTasks;
+    private final LongAdder timedOutTasks;
+    private final LatencyHistogram firingLag;
+    private final LatencyHistogram runTime;
+
+
+    public SchedulerMetrics()
+    {
+        this.scheduledTasks = new LongAdder();
+        this.firedTasks = new LongAdder();
+        this.cancelledTasks = new LongAdder();
+        this.retriedTasks = new LongAdder();
+        this.failedTasks = new LongAdder();
+        this.timedOutTasks = new LongAdder();
+        this.firingLag = new LatencyHistogram();
+        this.runTime = new LatencyHistogram();
+    }
+
+
+    public void recordScheduled(int numberOfTasks)
+    {
+        scheduledTasks.add(numberOfTasks);
+    }
+
+
+    /**
+     * @param dueTimeInNanos the System.nanoTime() value at which the execution was due
+     * @param startTimeInNanos the System.nanoTime() value at which the execution started
+     */
+    public void recordFired(long dueTimeInNanos, long startTimeInNanos)
+    {
+        firedTasks.increment();
+        firingLag.record(startTimeInNanos - dueTimeInNanos);
+    }
+
+
+    public void recordRunTime(long runTimeInNanos)
+    {
+        runTime.record(runTimeInNanos);
+    }
+
+
+    public void recordCancelled()
+    {
+        cancelledTasks.increment();
+    }
+
+
+    public void recordRetried()
+    {
+        retriedTasks.increment();
+    }
+
+
+    public void recordFailed()
+    {
+        failedTasks.increment();
+    }
+
+
+    /**
+     * It counts a run that overran the maximum run time of its task. The run is also counted as retried or failed.
+     */
+    public void recordTimedOut()
+    {
+        timedOutTasks.increment();
+    }
+
+
+    /**
+     * @param pendingTasks the number of tasks that are currently pending in the scheduler
+     * @return
+     */
+    public MetricsSnapshot snapshot(long pendingTasks)
+    {
+        return new MetricsSnapshot(pendingTasks,
+                        scheduledTasks.sum(),
+                        firedTasks.sum(),
+                        cancelledTasks.sum(),
+                        retriedTasks.sum(),
+                        failedTasks.sum(),
+                        timedOutTasks.sum(),
+                        firingLag.snapshot(),
+                        runTime.snapshot());
+    }
+}
@@ -0,0 +1,318 @@
+package io.github.orionlibs.task_scheduler.persistence;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Embedded TaskStore in a local directory, which the scheduler instances of one host share.
+ * <br>
+ * Every operation takes an exclusive lock on a lock file, reads the store file, applies its changes and, if they modified
+ * any task, replaces the store file atomically, so the instances can be in different processes and a crash never leaves a partial file.
+ * An idle poll that claims nothing only reads the store file.
+ * Since an operation reads and writes the whole store, the store suits thousands of tasks, not millions,
+ * and batched claims and completions are what keep the number of operations low.
+ */
+public class FileTaskStore implements TaskStore
+{
+    private static final String STORE_FILE_NAME = "tasks.store";
+    private static final String LOCK_FILE_NAME = "tasks.lock";
+    private static final int FORMAT_VERSION = 1;
+    /**
+     * The JVM-wide locks of the store directories, since a process cannot hold two file locks on the same file.
+     */
+    private static final Map<Path, ReentrantLock> directoryLocks = new ConcurrentHashMap<>();
+    private final Path storeFile;
+    private final Path temporaryStoreFile;
+    private final ReentrantLock directoryLock;
+    private final FileChannel lockChannel;
+
+
+    /**
+     * It opens the store in the given directory, which is created if it does not exist.
+     * @param directory
+     * @throws IOException
+     */
+    public FileTaskStore(Path directory) throws IOException
+    {
+        Files.createDirectories(directory);
+        Path normalisedDirectory = directory.toAbsolutePath().normalize();
+        this.storeFile = normalisedDirectory.resolve(STORE_FILE_NAME);
+        this.temporaryStoreFile = normalisedDirectory.resolve(STORE_FILE_NAME + ".tmp");
+        this.directoryLock = directoryLocks.computeIfAbsent(normalisedDirectory, path -> new ReentrantLock());
+        this.lockChannel = FileChannel.open(normalisedDirectory.resolve(LOCK_FILE_NAME), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+
+    @Override
+    public void add(PendingTaskRecord task) throws IOException
+    {
+        update(tasks -> {
+            tasks.put(task.getTaskID(), new StoredTask(task, null, 0L));
+            return null;
+        });
+    }
+
+
+    @Override
+    public boolean remove(String taskID) throws IOException
+    {
+        return update(tasks -> tasks.remove(taskID) != null);
+    }
+
+
+    @Override
+    public List<PendingTaskRecord> claimDue(String ownerID, long dueUntilEpochMillis, int maxTasks, long leaseExpiresAtEpochMillis) throws IOException
+    {
+        long now = System.currentTimeMillis();
+        return update(tasks -> {
+            List<StoredTask> dueTasks = new ArrayList<>();
+            for(StoredTask task : tasks.values())
+            {
+                if(task.record.getDueTimeInEpochMillis() <= dueUntilEpochMillis && (task.leaseOwnerID == null || task.leaseExpiresAtEpochMillis <= now))
+                {
+                    dueTasks.add(task);
+                }
+            }
+            dueTasks.sort(Comparator.comparingLong(task -> task.record.getDueTimeInEpochMillis()));
+            List<PendingTaskRecord> claimedTasks = new ArrayList<>(Math.min(maxTasks, dueTasks.size()));
+            for(StoredTask task : dueTasks.subList(0, Math.min(maxTasks, dueTasks.size())))
+            {
+                tasks.put(task.record.getTaskID(), new StoredTask(task.record, ownerID, leaseExpiresAtEpochMillis));
+                claimedTasks.add(task.record);
+            }
+            return claimedTasks;
+        });
+    }
+
+
+    @Override
+    public void complete(Collection<String> taskIDs, String ownerID, long leaseExpiresAtEpochMillis) throws IOException
+    {
+        update(tasks -> {
+            for(String taskID : taskIDs)
+            {
+                if(isLeasedBy(tasks.get(taskID), ownerID, leaseExpiresAtEpochMillis))
+                {
+                    tasks.remove(taskID);
+                }
+            }
+            return null;
+        });
+    }
+
+
+    @Override
+    public void reschedule(PendingTaskRecord task, String ownerID, long leaseExpiresAtEpochMillis) throws IOException
+    {
+        update(tasks -> {
+            if(isLeasedBy(tasks.get(task.getTaskID()), ownerID, leaseExpiresAtEpochMillis))
+            {
+                tasks.put(task.getTaskID(), new StoredTask(task, null, 0L));
+            }
+            return null;
+        });
+    }
+
+
+    @Override
+    public void release(Collection<String> taskIDs, String ownerID, long leaseExpiresAtEpochMillis) throws IOException
+    {
+        update(tasks -> {
+            for(String taskID : taskIDs)
+            {
+                StoredTask task = tasks.get(taskID);
+                if(isLeasedBy(task, ownerID, leaseExpiresAtEpochMillis))
+                {
+                    tasks.put(taskID, new StoredTask(task.record, null, 0L));
+                }
+            }
+            return null;
+        });
+    }
+
+
+    @Override
+    public int size() throws IOException
+    {
+        directoryLock.lock();
+        try(FileLock fileLock = lockChannel.lock())
+        {
+            return read().size();
+        }
+        finally
+        {
+            directoryLock.unlock();
+        }
+    }
+
+
+    @Override
+    public void close() throws IOException
+    {
+        lockChannel.close();
+    }
+
+
+    private static boolean isLeasedBy(StoredTask task, String ownerID, long leaseExpiresAtEpochMillis)
+    {
+        return task != null && ownerID.equals(task.leaseOwnerID) && task.leaseExpiresAtEpochMillis == leaseExpiresAtEpochMillis;
+    }
+
+
+    /**
+     * It applies the given change to the tasks under the lock of the store and writes them back, if the change modified them.
+     */
+    private <T> T update(StoreUpdate<T> change) throws IOException
+    {
+        directoryLock.lock();
+        try(FileLock fileLock = lockChannel.lock())
+        {
+            StoredTasks tasks = read();
+            T result = change.apply(tasks);
+            if(tasks.modified)
+            {
+                write(tasks);
+            }
+            return result;
+        }
+        finally
+        {
+            directoryLock.unlock();
+        }
+    }
+
+
+    private StoredTasks read() throws IOException
+    {
+        StoredTasks tasks = new StoredTasks();
+        if(!Files.exists(storeFile))
+        {
+            return tasks;
+        }
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(storeFile)));
+        if(input.readInt() != FORMAT_VERSION)
+        {
+            throw new IOException("The task store " + storeFile + " has an unknown format.");
+        }
+        int numberOfTasks = input.readInt();
+        for(int i = 0; i < numberOfTasks; i++)
+        {
+            String taskID = input.readUTF();
+            String taskType = input.readUTF();
+            String taskPayload = input.readBoolean() ? input.readUTF() : null;
+            long dueTimeInEpochMillis = input.readLong();
+            int numberOfRetriesOnError = input.readInt();
+            String leaseOwnerID = input.readBoolean() ? input.readUTF() : null;
+            long leaseExpiresAtEpochMillis = input.readLong();
+            tasks.put(taskID, new StoredTask(new PendingTaskRecord(taskID, taskType, taskPayload, dueTimeInEpochMillis, numberOfRetriesOnError),
+                            leaseOwnerID,
+                            leaseExpiresAtEpochMillis));
+        }
+        tasks.modified = false;
+        return tasks;
+    }
+
+
+    private void write(Map<String, StoredTask> tasks) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(FORMAT_VERSION);
+        output.writeInt(tasks.size());
+        for(StoredTask task : tasks.values())
+        {
+            output.writeUTF(task.record.getTaskID());
+            output.writeUTF(task.record.getTaskType());
+            output.writeBoolean(task.record.getTaskPayload() != null);
+            if(task.record.getTaskPayload() != null)
+            {
+                output.writeUTF(task.record.getTaskPayload());
+            }
+            output.writeLong(task.record.getDueTimeInEpochMillis());
+            output.writeInt(task.record.getNumberOfRetriesOnError());
+            output.writeBoolean(task.leaseOwnerID != null);
+            if(task.leaseOwnerID != null)
+            {
+                output.writeUTF(task.leaseOwnerID);
+            }
+            output.writeLong(task.leaseExpiresAtEpochMillis);
+        }
+        output.flush();
+        try(FileChannel channel = FileChannel.open(temporaryStoreFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            ByteBuffer contents = ByteBuffer.wrap(bytes.toByteArray());
+            while(contents.hasRemaining())
+            {
+                channel.write(contents);
+            }
+            channel.force(false);
+        }
+        Files.move(temporaryStoreFile, storeFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+
+    private interface StoreUpdate<T>
+    {
+        T apply(Map<String, StoredTask> tasks) throws IOException;
+    }
+
+
+    /**
+     * The tasks of the store, in the order they were added, with a flag that tells if an operation has put or removed any of them.
+     */
+    private static class StoredTasks extends LinkedHashMap<String, StoredTask>
+    {
+        private boolean modified;
+
+
+        @Override
+        public StoredTask put(String taskID, StoredTask task)
+        {
+            modified = true;
+            return super.put(taskID, task);
+        }
+
+
+        @Override
+        public StoredTask remove(Object taskID)
+        {
+            StoredTask task = super.remove(taskID);
+            modified |= task != null;
+            return task;
+        }
+    }
+
+
+    private static class StoredTask
+    {
+        private final PendingTaskRecord record;
+        private final String leaseOwnerID;
+        private final long leaseExpiresAtEpochMillis;
+
+
+        StoredTask(PendingTaskRecord record, String leaseOwnerID, long leaseExpiresAtEpochMillis)
+        {
+            this.record = record;
+            this.leaseOwnerID = leaseOwnerID;
+            this.leaseExpiresAtEpochMillis = leaseExpiresAtEpochMillis;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.orionlibs.task_scheduler.persistence;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The journaled state of a task that has been scheduled and has not completed or been cancelled yet.
+ */
+@AllArgsConstructor
+@Getter
+public class PendingTaskRecord
+{
+    private final String taskID;
+    private final String taskType;
+    private final String taskPayload;
+    private final long dueTimeInEpochMillis;
+    private final int numberOfRetriesOnError;
+}
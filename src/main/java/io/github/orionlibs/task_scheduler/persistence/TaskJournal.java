@@ -0,0 +1,566 @@
+package io.github.orionlibs.task_scheduler.persistence;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import lombok.Builder;
+
+/**
+ * Write-ahead journal of the schedule, cancel and complete events of the tasks that have a taskType.
+ * <br>
+ * Events are appended to memory-mapped segment files of a fixed size. When a segment is full, a new one is started.
+ * A background thread forces the appended events to disk in groups, so that all the appenders that are waiting for
+ * durability at the same time share one fsync. The same thread periodically writes a snapshot of the pending tasks
+ * and deletes the segments that the snapshot covers, so that recovery only replays the latest snapshot and the
+ * segments after it.
+ * <br>
+ * Opening a journal recovers the tasks that were pending when the previous instance stopped.
+ */
+public class TaskJournal implements Closeable
+{
+    private static final int DEFAULT_SEGMENT_SIZE_IN_BYTES = 64 * 1024 * 1024;
+    private static final long DEFAULT_FLUSH_INTERVAL_IN_MILLIS = 5L;
+    private static final int DEFAULT_EVENTS_BETWEEN_SNAPSHOTS = 100_000;
+    private static final String SEGMENT_FILE_PREFIX = "journal-";
+    private static final String SEGMENT_FILE_SUFFIX = ".log";
+    private static final String SNAPSHOT_FILE_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_FILE_SUFFIX = ".snap";
+    private static final byte SCHEDULED_EVENT = 1;
+    private static final byte CANCELLED_EVENT = 2;
+    private static final byte COMPLETED_EVENT = 3;
+    private final Path directory;
+    private final int segmentSizeInBytes;
+    private final long flushIntervalInNanos;
+    private final int eventsBetweenSnapshots;
+    private final ReentrantLock appendLock;
+    private final Object flushMonitor;
+    private final Map<String, PendingTaskRecord> pendingTasks;
+    private final List<PendingTaskRecord> recoveredTasks;
+    private final Thread flusherThread;
+    private FileChannel segmentChannel;
+    private MappedByteBuffer segment;
+    private long segmentNumber;
+    private long appendedEvents;
+    private long eventsSinceSnapshot;
+    private volatile long flushedEvents;
+    private volatile boolean closed;
+    private volatile boolean terminated;
+
+
+    /**
+     * @param directory the directory of the journal files. It is created if it does not exist.
+     * @param segmentSizeInBytes the size of each segment file. Values less than 1 default to 64MB.
+     * @param flushInterval the maximum time between 2 group commits. Values less than 1 default to 5 milliseconds.
+     * @param flushIntervalUnit the unit of flushInterval. If null, milliseconds are used.
+     * @param eventsBetweenSnapshots the number of events after which the journal is compacted into a snapshot. Values less than 1 default to 100000.
+     * @throws IOException if the journal cannot be opened or recovered
+     */
+    @Builder
+    public TaskJournal(Path directory, int segmentSizeInBytes, long flushInterval, TimeUnit flushIntervalUnit, int eventsBetweenSnapshots) throws IOException
+    {
+        this.directory = directory;
+        this.segmentSizeInBytes = segmentSizeInBytes > 0 ? segmentSizeInBytes : DEFAULT_SEGMENT_SIZE_IN_BYTES;
+        this.flushIntervalInNanos = flushInterval > 0L ? (flushIntervalUnit != null ? flushIntervalUnit : TimeUnit.MILLISECONDS).toNanos(flushInterval) : TimeUnit.MILLISECONDS.toNanos(DEFAULT_FLUSH_INTERVAL_IN_MILLIS);
+        this.eventsBetweenSnapshots = eventsBetweenSnapshots > 0 ? eventsBetweenSnapshots : DEFAULT_EVENTS_BETWEEN_SNAPSHOTS;
+        this.appendLock = new ReentrantLock();
+        this.flushMonitor = new Object();
+        this.pendingTasks = new LinkedHashMap<>();
+        Files.createDirectories(directory);
+        recover();
+        this.recoveredTasks = Collections.unmodifiableList(new ArrayList<>(pendingTasks.values()));
+        compact();
+        this.flusherThread = new Thread(this::runFlusher, "orion-task-scheduler-journal-flusher");
+        this.flusherThread.setDaemon(true);
+        this.flusherThread.start();
+    }
+
+
+    /**
+     * It returns the tasks that were pending when this journal was opened.
+     * @return
+     */
+    public List<PendingTaskRecord> getRecoveredTasks()
+    {
+        return recoveredTasks;
+    }
+
+
+    /**
+     * It appends a schedule event and blocks until it is durable.
+     * @param task
+     * @throws IOException if the event cannot be written or the journal has been closed
+     */
+    public void appendScheduled(PendingTaskRecord task) throws IOException
+    {
+        awaitDurable(append(SCHEDULED_EVENT, task.getTaskID(), task));
+    }
+
+
+    /**
+     * It appends schedule events for all the given tasks and blocks once until all of them are durable.
+     * @param tasks
+     * @throws IOException if the events cannot be written or the journal has been closed
+     */
+    public void appendScheduled(List<PendingTaskRecord> tasks) throws IOException
+    {
+        long lastEvent = 0L;
+        for(PendingTaskRecord task : tasks)
+        {
+            lastEvent = append(SCHEDULED_EVENT, task.getTaskID(), task);
+        }
+        awaitDurable(lastEvent);
+    }
+
+
+    /**
+     * It appends a cancel event for the given task, if it is pending in this journal.
+     * It does not wait for the event to become durable. If it is lost, the task fires once more after recovery.
+     * The event is dropped if the journal has been closed.
+     * @param taskID
+     * @throws IOException if the event cannot be written
+     */
+    public void appendCancelled(String taskID) throws IOException
+    {
+        append(CANCELLED_EVENT, taskID, null);
+    }
+
+
+    /**
+     * It appends a complete event for the given task, if it is pending in this journal.
+     * It does not wait for the event to become durable. If it is lost, the task fires once more after recovery.
+     * The event is dropped if the journal has been closed.
+     * @param taskID
+     * @throws IOException if the event cannot be written
+     */
+    public void appendCompleted(String taskID) throws IOException
+    {
+        append(COMPLETED_EVENT, taskID, null);
+    }
+
+
+    /**
+     * It writes a snapshot of the pending tasks and deletes the segments and snapshots that it supersedes.
+     * @throws IOException
+     */
+    public void compact() throws IOException
+    {
+        long snapshotNumber;
+        List<PendingTaskRecord> snapshot;
+        appendLock.lock();
+        try
+        {
+            if(closed)
+            {
+                return;
+            }
+            rollSegment();
+            snapshotNumber = segmentNumber;
+            snapshot = new ArrayList<>(pendingTasks.values());
+            eventsSinceSnapshot = 0L;
+        }
+        finally
+        {
+            appendLock.unlock();
+        }
+        writeSnapshot(snapshotNumber, snapshot);
+        for(Map.Entry<Long, Path> file : listFiles(SEGMENT_FILE_PREFIX, SEGMENT_FILE_SUFFIX).headMap(snapshotNumber).entrySet())
+        {
+            Files.deleteIfExists(file.getValue());
+        }
+        for(Map.Entry<Long, Path> file : listFiles(SNAPSHOT_FILE_PREFIX, SNAPSHOT_FILE_SUFFIX).headMap(snapshotNumber).entrySet())
+        {
+            Files.deleteIfExists(file.getValue());
+        }
+    }
+
+
+    /**
+     * It forces the appended events to disk and closes the journal.
+     * Schedule events that are appended after this point are rejected and cancel or complete events are dropped.
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if(closed)
+        {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(flusherThread);
+        try
+        {
+            flusherThread.join();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        appendLock.lock();
+        try
+        {
+            segment.force();
+            segmentChannel.close();
+            publishFlushedEvents(appendedEvents);
+            terminated = true;
+        }
+        finally
+        {
+            appendLock.unlock();
+        }
+    }
+
+
+    private long append(byte eventType, String taskID, PendingTaskRecord task) throws IOException
+    {
+        byte[] event = encodeEvent(eventType, taskID, task);
+        if(event.length + Integer.BYTES > segmentSizeInBytes)
+        {
+            throw new IOException("The journal event of task " + taskID + " does not fit in a segment.");
+        }
+        appendLock.lock();
+        try
+        {
+            if(closed)
+            {
+                if(eventType == SCHEDULED_EVENT)
+                {
+                    throw new IOException("The journal has been closed.");
+                }
+                return 0L;
+            }
+            if(eventType != SCHEDULED_EVENT && pendingTasks.remove(taskID) == null)
+            {
+                return 0L;
+            }
+            if(segment.remaining() < event.length + Integer.BYTES)
+            {
+                rollSegment();
+            }
+            segment.putInt(event.length);
+            segment.put(event);
+            if(eventType == SCHEDULED_EVENT)
+            {
+                pendingTasks.put(taskID, task);
+            }
+            eventsSinceSnapshot++;
+            return ++appendedEvents;
+        }
+        finally
+        {
+            appendLock.unlock();
+        }
+    }
+
+
+    private void awaitDurable(long event) throws IOException
+    {
+        if(flushedEvents >= event)
+        {
+            return;
+        }
+        LockSupport.unpark(flusherThread);
+        synchronized(flushMonitor)
+        {
+            while(flushedEvents < event)
+            {
+                if(terminated)
+                {
+                    throw new IOException("The journal has been closed.");
+                }
+                try
+                {
+                    flushMonitor.wait(TimeUnit.NANOSECONDS.toMillis(flushIntervalInNanos) + 1L);
+                }
+                catch(InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the journal to become durable.", e);
+                }
+            }
+        }
+    }
+
+
+    private void runFlusher()
+    {
+        while(!closed)
+        {
+            LockSupport.parkNanos(this, flushIntervalInNanos);
+            try
+            {
+                flush();
+                if(eventsSinceSnapshot >= eventsBetweenSnapshots)
+                {
+                    compact();
+                }
+            }
+            catch(IOException e)
+            {
+                //the waiting appenders time out on their own and the next round retries
+            }
+        }
+    }
+
+
+    private void flush()
+    {
+        MappedByteBuffer segmentToFlush;
+        long eventsToFlush;
+        appendLock.lock();
+        try
+        {
+            segmentToFlush = segment;
+            eventsToFlush = appendedEvents;
+        }
+        finally
+        {
+            appendLock.unlock();
+        }
+        if(eventsToFlush > flushedEvents)
+        {
+            segmentToFlush.force();
+            publishFlushedEvents(eventsToFlush);
+        }
+    }
+
+
+    private void publishFlushedEvents(long events)
+    {
+        synchronized(flushMonitor)
+        {
+            if(events > flushedEvents)
+            {
+                flushedEvents = events;
+            }
+            flushMonitor.notifyAll();
+        }
+    }
+
+
+    /**
+     * It must be called while holding the appendLock.
+     */
+    private void rollSegment() throws IOException
+    {
+        if(segment != null)
+        {
+            segment.force();
+            segmentChannel.close();
+            publishFlushedEvents(appendedEvents);
+        }
+        segmentNumber++;
+        segmentChannel = FileChannel.open(segmentFile(segmentNumber), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = segmentChannel.map(FileChannel.MapMode.READ_WRITE, 0L, segmentSizeInBytes);
+    }
+
+
+    private void recover() throws IOException
+    {
+        TreeMap<Long, Path> snapshots = listFiles(SNAPSHOT_FILE_PREFIX, SNAPSHOT_FILE_SUFFIX);
+        long firstSegmentToReplay = 0L;
+        if(!snapshots.isEmpty())
+        {
+            firstSegmentToReplay = snapshots.lastKey();
+            readSnapshot(snapshots.lastEntry().getValue());
+        }
+        TreeMap<Long, Path> segments = listFiles(SEGMENT_FILE_PREFIX, SEGMENT_FILE_SUFFIX);
+        for(Map.Entry<Long, Path> segmentFile : segments.tailMap(firstSegmentToReplay).entrySet())
+        {
+            replaySegment(segmentFile.getValue());
+        }
+        segmentNumber = Math.max(firstSegmentToReplay, segments.isEmpty() ? 0L : segments.lastKey());
+    }
+
+
+    private void replaySegment(Path segmentFile) throws IOException
+    {
+        try(FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.READ))
+        {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+            while(buffer.remaining() >= Integer.BYTES)
+            {
+                int eventLength = buffer.getInt();
+                if(eventLength <= Long.BYTES || eventLength > buffer.remaining())
+                {
+                    //end of the segment or an event that was torn by a crash
+                    break;
+                }
+                byte[] event = new byte[eventLength];
+                buffer.get(event);
+                if(!applyEvent(event))
+                {
+                    break;
+                }
+            }
+        }
+    }
+
+
+    private boolean applyEvent(byte[] event) throws IOException
+    {
+        CRC32 checksum = new CRC32();
+        checksum.update(event, 0, event.length - Long.BYTES);
+        if(checksum.getValue() != ByteBuffer.wrap(event, event.length - Long.BYTES, Long.BYTES).getLong())
+        {
+            return false;
+        }
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(event, 0, event.length - Long.BYTES));
+        byte eventType = input.readByte();
+        String taskID = input.readUTF();
+        if(eventType == SCHEDULED_EVENT)
+        {
+            pendingTasks.put(taskID, readTask(taskID, input));
+        }
+        else
+        {
+            pendingTasks.remove(taskID);
+        }
+        return true;
+    }
+
+
+    private byte[] encodeEvent(byte eventType, String taskID, PendingTaskRecord task) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeByte(eventType);
+        output.writeUTF(taskID);
+        if(eventType == SCHEDULED_EVENT)
+        {
+            writeTask(task, output);
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes.toByteArray());
+        output.writeLong(checksum.getValue());
+        return bytes.toByteArray();
+    }
+
+
+    private void writeTask(PendingTaskRecord task, DataOutputStream output) throws IOException
+    {
+        output.writeUTF(task.getTaskType());
+        if(task.getTaskPayload() == null)
+        {
+            output.writeInt(-1);
+        }
+        else
+        {
+            byte[] payload = task.getTaskPayload().getBytes(StandardCharsets.UTF_8);
+            output.writeInt(payload.length);
+            output.write(payload);
+        }
+        output.writeLong(task.getDueTimeInEpochMillis());
+        output.writeInt(task.getNumberOfRetriesOnError());
+    }
+
+
+    private PendingTaskRecord readTask(String taskID, DataInputStream input) throws IOException
+    {
+        String taskType = input.readUTF();
+        int payloadLength = input.readInt();
+        String taskPayload = null;
+        if(payloadLength >= 0)
+        {
+            byte[] payload = new byte[payloadLength];
+            input.readFully(payload);
+            taskPayload = new String(payload, StandardCharsets.UTF_8);
+        }
+        return new PendingTaskRecord(taskID, taskType, taskPayload, input.readLong(), input.readInt());
+    }
+
+
+    private void writeSnapshot(long snapshotNumber, List<PendingTaskRecord> snapshot) throws IOException
+    {
+        Path temporaryFile = directory.resolve(SNAPSHOT_FILE_PREFIX + String.format("%020d", snapshotNumber) + ".tmp");
+        try(FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(bytes);
+            output.writeInt(snapshot.size());
+            for(PendingTaskRecord task : snapshot)
+            {
+                output.writeUTF(task.getTaskID());
+                writeTask(task, output);
+            }
+            CRC32 checksum = new CRC32();
+            checksum.update(bytes.toByteArray());
+            output.writeLong(checksum.getValue());
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while(buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporaryFile, directory.resolve(SNAPSHOT_FILE_PREFIX + String.format("%020d", snapshotNumber) + SNAPSHOT_FILE_SUFFIX), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+
+    private void readSnapshot(Path snapshotFile) throws IOException
+    {
+        byte[] bytes = Files.readAllBytes(snapshotFile);
+        if(bytes.length < Integer.BYTES + Long.BYTES)
+        {
+            throw new IOException("The journal snapshot " + snapshotFile + " is corrupted.");
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes, 0, bytes.length - Long.BYTES);
+        if(checksum.getValue() != ByteBuffer.wrap(bytes, bytes.length - Long.BYTES, Long.BYTES).getLong())
+        {
+            throw new IOException("The journal snapshot " + snapshotFile + " is corrupted.");
+        }
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+        int numberOfTasks = input.readInt();
+        for(int i = 0; i < numberOfTasks; i++)
+        {
+            String taskID = input.readUTF();
+            pendingTasks.put(taskID, readTask(taskID, input));
+        }
+    }
+
+
+    private TreeMap<Long, Path> listFiles(String prefix, String suffix) throws IOException
+    {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try(Stream<Path> directoryFiles = Files.list(directory))
+        {
+            directoryFiles.forEach(file -> {
+                String fileName = file.getFileName().toString();
+                if(fileName.startsWith(prefix) && fileName.endsWith(suffix))
+                {
+                    files.put(Long.parseLong(fileName.substring(prefix.length(), fileName.length() - suffix.length())), file);
+                }
+            });
+        }
+        return files;
+    }
+
+
+    private Path segmentFile(long number)
+    {
+        return directory.resolve(SEGMENT_FILE_PREFIX + String.format("%020d", number) + SEGMENT_FILE_SUFFIX);
+    }
+}
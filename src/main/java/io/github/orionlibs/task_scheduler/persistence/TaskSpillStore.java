@@ -0,0 +1,290 @@
+package io.github.orionlibs.task_scheduler.persistence;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import lombok.Builder;
+
+/**
+ * On-disk store of the tasks that are due too far in the future to be kept on heap.
+ * <br>
+ * The tasks are appended to one file per minute of their due time, so spilling a task is a sequential append
+ * and paging in the tasks that are due soon reads and deletes whole files. On heap, a spilled task only keeps
+ * an index entry from its taskID to the sequence number of its record, so that it can be cancelled or replaced.
+ * A cancelled or replaced task stays in its file and is skipped when the file is paged in.
+ * <br>
+ * The store is not a durability mechanism, so it starts empty and deletes the files of its previous instance.
+ * Use a TaskJournal to make the tasks survive restarts.
+ */
+public class TaskSpillStore implements Closeable
+{
+    private static final long DEFAULT_HORIZON_IN_MILLIS = TimeUnit.HOURS.toMillis(1L);
+    private static final long MINIMUM_HORIZON_IN_MILLIS = TimeUnit.MINUTES.toMillis(5L);
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    private static final String BUCKET_FILE_PREFIX = "due-minute-";
+    private static final String BUCKET_FILE_SUFFIX = ".spill";
+    private final Path directory;
+    private final long horizonInMillis;
+    private final ReentrantLock bucketLock;
+    private final TreeMap<Long, FileChannel> buckets;
+    private final Map<String, Long> spilledTasks;
+    private long spillSequence;
+    private volatile boolean closed;
+
+
+    /**
+     * @param directory the directory of the bucket files. It is created if it does not exist.
+     * @param horizon the tasks that are due further than this in the future are spilled. Values less than 1 default to 1 hour and the minimum is 5 minutes.
+     * @param horizonUnit the unit of horizon. If null, milliseconds are used.
+     * @throws IOException if the directory cannot be created or cleaned up
+     */
+    @Builder
+    public TaskSpillStore(Path directory, long horizon, TimeUnit horizonUnit) throws IOException
+    {
+        this.directory = directory;
+        long horizonInMillis = horizon > 0L ? (horizonUnit != null ? horizonUnit : TimeUnit.MILLISECONDS).toMillis(horizon) : DEFAULT_HORIZON_IN_MILLIS;
+        this.horizonInMillis = Math.max(horizonInMillis, MINIMUM_HORIZON_IN_MILLIS);
+        this.bucketLock = new ReentrantLock();
+        this.buckets = new TreeMap<>();
+        this.spilledTasks = new ConcurrentHashMap<>();
+        Files.createDirectories(directory);
+        try(Stream<Path> files = Files.list(directory))
+        {
+            for(Path file : (Iterable<Path>)files::iterator)
+            {
+                if(file.getFileName().toString().startsWith(BUCKET_FILE_PREFIX))
+                {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * @param dueTimeInEpochMillis
+     * @return true if a task with the given due time is beyond the horizon of this store
+     */
+    public boolean isBeyondHorizon(long dueTimeInEpochMillis)
+    {
+        return dueTimeInEpochMillis - System.currentTimeMillis() > horizonInMillis;
+    }
+
+
+    /**
+     * It returns how long before their due time the spilled tasks have to be paged in, at the latest.
+     * It leaves half the horizon for the tasks to be paged in and armed.
+     * @return
+     */
+    public long getPageInLeadInMillis()
+    {
+        return horizonInMillis / 2L;
+    }
+
+
+    /**
+     * It appends the given task to the bucket file of its due minute.
+     * If a task with the same taskID is already spilled, it is replaced.
+     * @param task
+     * @throws IOException if the task cannot be written or the store has been closed
+     */
+    public void spill(PendingTaskRecord task) throws IOException
+    {
+        long minute = Math.floorDiv(task.getDueTimeInEpochMillis(), MILLIS_PER_MINUTE);
+        bucketLock.lock();
+        try
+        {
+            if(closed)
+            {
+                throw new IOException("The spill store has been closed.");
+            }
+            long sequence = ++spillSequence;
+            ByteBuffer record = ByteBuffer.wrap(serialise(task, sequence));
+            FileChannel bucket = buckets.get(minute);
+            if(bucket == null)
+            {
+                bucket = FileChannel.open(bucketFile(minute), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                buckets.put(minute, bucket);
+            }
+            while(record.hasRemaining())
+            {
+                bucket.write(record);
+            }
+            spilledTasks.put(task.getTaskID(), sequence);
+        }
+        finally
+        {
+            bucketLock.unlock();
+        }
+    }
+
+
+    /**
+     * @param taskID
+     * @return true if the task was spilled and had not been paged in or cancelled yet
+     */
+    public boolean cancel(String taskID)
+    {
+        return taskID != null && spilledTasks.remove(taskID) != null;
+    }
+
+
+    /**
+     * It cancels all the spilled tasks whose taskID matches the given filter, in one pass over the index.
+     * @param taskIDFilter
+     * @return the taskIDs of the cancelled tasks
+     */
+    public List<String> cancelAll(Predicate<String> taskIDFilter)
+    {
+        List<String> cancelledTaskIDs = new ArrayList<>();
+        for(String taskID : spilledTasks.keySet())
+        {
+            if(taskIDFilter.test(taskID) && spilledTasks.remove(taskID) != null)
+            {
+                cancelledTaskIDs.add(taskID);
+            }
+        }
+        return cancelledTaskIDs;
+    }
+
+
+    /**
+     * @param taskID
+     * @return true if a task with the given taskID is spilled
+     */
+    public boolean contains(String taskID)
+    {
+        return taskID != null && spilledTasks.containsKey(taskID);
+    }
+
+
+    /**
+     * @return the number of spilled tasks
+     */
+    public int size()
+    {
+        return spilledTasks.size();
+    }
+
+
+    /**
+     * It reads and deletes the bucket files of all the minutes up to the one of the given time.
+     * @param untilEpochMillis
+     * @return the spilled tasks of those minutes that have not been cancelled or replaced, in the order they were spilled per minute
+     * @throws IOException if a bucket file cannot be read
+     */
+    public List<PendingTaskRecord> pageIn(long untilEpochMillis) throws IOException
+    {
+        List<PendingTaskRecord> tasks = new ArrayList<>();
+        bucketLock.lock();
+        try
+        {
+            Map<Long, FileChannel> dueBuckets = buckets.headMap(Math.floorDiv(untilEpochMillis, MILLIS_PER_MINUTE), true);
+            for(Map.Entry<Long, FileChannel> bucket : dueBuckets.entrySet())
+            {
+                bucket.getValue().close();
+                Path file = bucketFile(bucket.getKey());
+                deserialise(Files.readAllBytes(file), tasks);
+                Files.delete(file);
+            }
+            dueBuckets.clear();
+        }
+        finally
+        {
+            bucketLock.unlock();
+        }
+        return tasks;
+    }
+
+
+    @Override
+    public void close() throws IOException
+    {
+        bucketLock.lock();
+        try
+        {
+            closed = true;
+            for(FileChannel bucket : buckets.values())
+            {
+                bucket.close();
+            }
+        }
+        finally
+        {
+            bucketLock.unlock();
+        }
+    }
+
+
+    private Path bucketFile(long minute)
+    {
+        return directory.resolve(BUCKET_FILE_PREFIX + minute + BUCKET_FILE_SUFFIX);
+    }
+
+
+    private static byte[] serialise(PendingTaskRecord task, long sequence) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeLong(sequence);
+        output.writeUTF(task.getTaskID());
+        output.writeUTF(task.getTaskType());
+        output.writeBoolean(task.getTaskPayload() != null);
+        if(task.getTaskPayload() != null)
+        {
+            output.writeUTF(task.getTaskPayload());
+        }
+        output.writeLong(task.getDueTimeInEpochMillis());
+        output.writeInt(task.getNumberOfRetriesOnError());
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+
+    /**
+     * It adds the records of the given file contents to tasks, if their sequence number is still the indexed one of their task.
+     * A record that was cut short by a crash ends the file.
+     */
+    private void deserialise(byte[] contents, List<PendingTaskRecord> tasks) throws IOException
+    {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(contents));
+        try
+        {
+            while(input.available() > 0)
+            {
+                long sequence = input.readLong();
+                String taskID = input.readUTF();
+                String taskType = input.readUTF();
+                String taskPayload = input.readBoolean() ? input.readUTF() : null;
+                long dueTimeInEpochMillis = input.readLong();
+                int numberOfRetriesOnError = input.readInt();
+                if(spilledTasks.remove(taskID, sequence))
+                {
+                    tasks.add(new PendingTaskRecord(taskID, taskType, taskPayload, dueTimeInEpochMillis, numberOfRetriesOnError));
+                }
+            }
+        }
+        catch(EOFException e)
+        {
+            //the last record is incomplete
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.orionlibs.task_scheduler.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Store of pending tasks that several scheduler instances share, so that they share one schedule.
+ * An instance claims the tasks that are due soon in batches, by taking a time-bounded lease on them,
+ * fires them locally and then completes them in batches. A task whose lease expires before it is completed
+ * e.g. because its instance died can be claimed by another instance, so every task fires at least once
+ * and, as long as it is completed before its lease expires, exactly once.
+ * A claim is identified by its owner and the expiry of its lease, so an owner has to give each of its claims a distinct expiry.
+ * Completing, rescheduling or releasing a task only applies to the claim that returned it, not to a later version of the task.
+ * <br>
+ * All the operations that take or return several tasks are meant to be one round trip to the store.
+ */
+public interface TaskStore extends Closeable
+{
+    /**
+     * It adds the given task, or replaces the task with the same taskID, and clears any lease on it.
+     * @param task
+     * @throws IOException
+     */
+    void add(PendingTaskRecord task) throws IOException;
+
+
+    /**
+     * @param taskID
+     * @return true if the task was in the store, whether it was leased or not
+     * @throws IOException
+     */
+    boolean remove(String taskID) throws IOException;
+
+
+    /**
+     * It leases to the given owner up to maxTasks of the tasks that are due up to the given time and that are not leased
+     * or whose lease has expired, the earliest due first.
+     * @param ownerID
+     * @param dueUntilEpochMillis
+     * @param maxTasks
+     * @param leaseExpiresAtEpochMillis
+     * @return the claimed tasks
+     * @throws IOException
+     */
+    List<PendingTaskRecord> claimDue(String ownerID, long dueUntilEpochMillis, int maxTasks, long leaseExpiresAtEpochMillis) throws IOException;
+
+
+    /**
+     * It removes the given tasks, if they are still leased by the given owner under the given lease.
+     * A task that has been replaced or claimed again in the meantime is kept.
+     * @param taskIDs
+     * @param ownerID
+     * @param leaseExpiresAtEpochMillis the lease expiry of the claim that returned the tasks
+     * @throws IOException
+     */
+    void complete(Collection<String> taskIDs, String ownerID, long leaseExpiresAtEpochMillis) throws IOException;
+
+
+    /**
+     * It replaces a task that is leased by the given owner under the given lease with the given version of it e.g. for a retry, and clears the lease.
+     * A task that has been replaced or claimed again in the meantime is kept.
+     * @param task
+     * @param ownerID
+     * @param leaseExpiresAtEpochMillis the lease expiry of the claim that returned the task
+     * @throws IOException
+     */
+    void reschedule(PendingTaskRecord task, String ownerID, long leaseExpiresAtEpochMillis) throws IOException;
+
+
+    /**
+     * It clears the given lease of the given owner on the given tasks, so that they can be claimed again straight away.
+     * @param taskIDs
+     * @param ownerID
+     * @param leaseExpiresAtEpochMillis the lease expiry of the claim that returned the tasks
+     * @throws IOException
+     */
+    void release(Collection<String> taskIDs, String ownerID, long leaseExpiresAtEpochMillis) throws IOException;
+
+
+    /**
+     * @return the number of tasks in the store, leased or not
+     * @throws IOException
+     */
+    int size() throws IOException;
+}
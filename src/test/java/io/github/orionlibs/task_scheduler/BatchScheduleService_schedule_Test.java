@@ -0,0 +1,188 @@
+package io.github.orionlibs.task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class BatchScheduleService_schedule_Test
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+    private BatchScheduleService batchScheduler;
+    private List<List<String>> batches;
+
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        singleExecutionScheduler = new SingleExecutionScheduleService();
+        batchScheduler = new BatchScheduleService(singleExecutionScheduler);
+        batches = new CopyOnWriteArrayList<>();
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdown();
+    }
+
+
+    @Test
+    void test_schedule_firesCoDueTasksAsOneBatch() throws Exception
+    {
+        batchScheduler.registerBatchHandler("flush", this::recordBatch, 10, 100, TimeUnit.MILLISECONDS);
+        CountDownLatch callbacks = new CountDownLatch(3);
+        for(int i = 0; i < 3; i++)
+        {
+            ScheduledTask task = ScheduledTask.builder()
+                            .taskID("flush" + i)
+                            .delay(20)
+                            .unit(TimeUnit.MILLISECONDS)
+                            .build();
+            task.setCallbackAfterTaskCompletes(callbacks::countDown);
+            batchScheduler.schedule("flush", task);
+        }
+        assertTrue(callbacks.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of(List.of("flush0", "flush1", "flush2")), batches);
+        assertEquals(3L, batchScheduler.getMetrics().getFiredTasks());
+        assertEquals(0L, batchScheduler.getMetrics().getPendingTasks());
+    }
+
+
+    @Test
+    void test_schedule_splitsBatchesAtTheMaxBatchSize() throws Exception
+    {
+        batchScheduler.registerBatchHandler("flush", this::recordBatch, 2, 100, TimeUnit.MILLISECONDS);
+        for(int i = 0; i < 5; i++)
+        {
+            batchScheduler.schedule("flush", ScheduledTask.builder()
+                            .taskID("flush" + i)
+                            .delay(20)
+                            .unit(TimeUnit.MILLISECONDS)
+                            .build());
+        }
+        waitForBatchedTasks(5);
+        assertEquals(List.of(2, 2, 1), batches.stream().map(List::size).sorted((size1, size2) -> size2 - size1).collect(Collectors.toList()));
+    }
+
+
+    @Test
+    void test_schedule_firesTasksThatAreDueFurtherApartThanTheMaxLingerSeparately() throws Exception
+    {
+        batchScheduler.registerBatchHandler("flush", this::recordBatch, 10, 20, TimeUnit.MILLISECONDS);
+        batchScheduler.registerBatchHandler("other", this::recordBatch, 10, 20, TimeUnit.MILLISECONDS);
+        batchScheduler.schedule("flush", ScheduledTask.builder()
+                        .taskID("early")
+                        .delay(0)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        batchScheduler.schedule("flush", ScheduledTask.builder()
+                        .taskID("late")
+                        .delay(300)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        batchScheduler.schedule("other", ScheduledTask.builder()
+                        .taskID("otherGroup")
+                        .delay(0)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        waitForBatchedTasks(3);
+        assertEquals(3, batches.size());
+        assertEquals(List.of("late"), batches.get(2));
+    }
+
+
+    @Test
+    void test_cancel_removesATaskFromItsBatch() throws Exception
+    {
+        batchScheduler.registerBatchHandler("flush", this::recordBatch, 10, 100, TimeUnit.MILLISECONDS);
+        batchScheduler.schedule("flush", ScheduledTask.builder()
+                        .taskID("kept")
+                        .delay(20)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        batchScheduler.schedule("flush", ScheduledTask.builder()
+                        .taskID("cancelled")
+                        .delay(20)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        assertTrue(batchScheduler.cancel("cancelled"));
+        assertThrows(TaskDoesNotExistException.class, () -> batchScheduler.cancel("cancelled"));
+        waitForBatchedTasks(1);
+        Thread.sleep(100);
+        assertEquals(List.of(List.of("kept")), batches);
+        assertEquals(1L, batchScheduler.getMetrics().getCancelledTasks());
+    }
+
+
+    @Test
+    void test_schedule_retriesTheTasksOfAFailedBatch() throws Exception
+    {
+        AtomicInteger failuresLeft = new AtomicInteger(1);
+        batchScheduler.registerBatchHandler("flush", batch -> {
+            if(failuresLeft.getAndDecrement() > 0)
+            {
+                throw new IllegalStateException("downstream is unavailable");
+            }
+            recordBatch(batch);
+        }, 10, 50, TimeUnit.MILLISECONDS);
+        ScheduledTask retriedTask = ScheduledTask.builder()
+                        .taskID("retried")
+                        .delay(0)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build();
+        retriedTask.setNumberOfRetriesOnError(1);
+        batchScheduler.schedule("flush", retriedTask);
+        batchScheduler.schedule("flush", ScheduledTask.builder()
+                        .taskID("failed")
+                        .delay(0)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        waitForBatchedTasks(1);
+        Thread.sleep(100);
+        assertEquals(List.of(List.of("retried")), batches);
+        assertEquals(1L, batchScheduler.getMetrics().getRetriedTasks());
+        assertEquals(1L, batchScheduler.getMetrics().getFailedTasks());
+    }
+
+
+    @Test
+    void test_schedule_rejectsTasksOfAnUnregisteredGroup()
+    {
+        assertThrows(InvalidArgumentException.class, () -> batchScheduler.schedule("unknown", ScheduledTask.builder()
+                        .taskID("task")
+                        .delay(0)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build()));
+    }
+
+
+    private void recordBatch(List<ScheduledTask> batch)
+    {
+        batches.add(batch.stream().map(ScheduledTask::getTaskID).collect(Collectors.toList()));
+    }
+
+
+    private void waitForBatchedTasks(int numberOfTasks) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + 3_000L;
+        while(batches.stream().mapToInt(List::size).sum() < numberOfTasks && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(10);
+        }
+        assertEquals(numberOfTasks, batches.stream().mapToInt(List::size).sum());
+    }
+}
@@ -0,0 +1,203 @@
+package io.github.orionlibs.task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.orionlibs.task_scheduler.cluster.LoopbackClusterTransport;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class ClusterScheduleService_schedule_Test
+{
+    private LoopbackClusterTransport transport;
+    private List<ClusterScheduleService> nodes;
+
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        transport = new LoopbackClusterTransport();
+        nodes = new ArrayList<>();
+        nodes.add(newNode("node-a"));
+        nodes.add(newNode("node-b"));
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        for(ClusterScheduleService node : nodes)
+        {
+            node.getSingleExecutionScheduleService().shutdown();
+        }
+    }
+
+
+    @Test
+    void test_schedule_placesEveryTaskOnItsOwner() throws Exception
+    {
+        nodes.add(newNode("node-c"));
+        for(int i = 0; i < 300; i++)
+        {
+            nodes.get(0).schedule(ScheduledTask.builder()
+                            .taskID("cluster-task" + i)
+                            .taskToSchedule(() -> {})
+                            .delay(10)
+                            .unit(TimeUnit.MINUTES)
+                            .taskType("cluster-type")
+                            .taskPayload("payload-cluster-task" + i)
+                            .build());
+        }
+        assertEquals(Set.of("node-a", "node-b", "node-c"), nodes.get(1).getMembers());
+        for(ClusterScheduleService node : nodes)
+        {
+            int numberOfTasks = node.getSingleExecutionScheduleService().getScheduledTasksToRunnablesMapper().size();
+            assertTrue(numberOfTasks > 30, node.getNodeID() + " has " + numberOfTasks + " tasks");
+        }
+        assertEquals(300, countTasks());
+        for(int i = 0; i < 300; i++)
+        {
+            String taskID = "cluster-task" + i;
+            assertNotNull(getNode(nodes.get(2).getOwner(taskID)).getSingleExecutionScheduleService().getScheduledTaskByID(taskID));
+        }
+    }
+
+
+    @Test
+    void test_cancel_forwardsTheCancellationToTheOwner() throws Exception
+    {
+        String taskID = findTaskIDOwnedBy("node-b");
+        nodes.get(0).schedule(ScheduledTask.builder()
+                        .taskID(taskID)
+                        .taskToSchedule(() -> {})
+                        .delay(10)
+                        .unit(TimeUnit.MINUTES)
+                        .taskType("cluster-type")
+                        .taskPayload("payload-" + taskID)
+                        .build());
+        assertNull(nodes.get(0).getSingleExecutionScheduleService().getScheduledTaskByID(taskID));
+        assertTrue(nodes.get(0).cancel(taskID));
+        assertNull(nodes.get(1).getSingleExecutionScheduleService().getScheduledTaskByID(taskID));
+        assertFalse(nodes.get(0).cancel(taskID));
+    }
+
+
+    @Test
+    void test_schedule_rejectsTasksThatCannotBeForwarded() throws Exception
+    {
+        String taskID = findTaskIDOwnedBy("node-b");
+        ScheduledTask taskWithCallback = ScheduledTask.builder()
+                        .taskID(taskID)
+                        .taskToSchedule(() -> {})
+                        .delay(10)
+                        .unit(TimeUnit.MINUTES)
+                        .taskType("cluster-type")
+                        .taskPayload("payload-" + taskID)
+                        .build();
+        taskWithCallback.setCallbackAfterTaskCompletes(() -> {});
+        assertThrows(InvalidArgumentException.class, () -> nodes.get(0).schedule(taskWithCallback));
+        for(DuplicatePolicy duplicatePolicy : List.of(DuplicatePolicy.KEEP_EXISTING, DuplicatePolicy.COALESCE))
+        {
+            //the policy does not travel with the task, so the owner would replace its pending task instead
+            assertThrows(InvalidArgumentException.class, () -> nodes.get(0).schedule(ScheduledTask.builder()
+                            .taskID(taskID)
+                            .taskToSchedule(() -> {})
+                            .delay(10)
+                            .unit(TimeUnit.MINUTES)
+                            .taskType("cluster-type")
+                            .taskPayload("payload-" + taskID)
+                            .duplicatePolicy(duplicatePolicy)
+                            .build()));
+        }
+    }
+
+
+    @Test
+    void test_membershipChange_movesTheTasksToTheirNewOwners() throws Exception
+    {
+        for(int i = 0; i < 200; i++)
+        {
+            nodes.get(0).schedule(ScheduledTask.builder()
+                            .taskID("cluster-task" + i)
+                            .taskToSchedule(() -> {})
+                            .delay(10)
+                            .unit(TimeUnit.MINUTES)
+                            .taskType("cluster-type")
+                            .taskPayload("payload-cluster-task" + i)
+                            .build());
+        }
+        ClusterScheduleService nodeC = newNode("node-c");
+        nodes.add(nodeC);
+        assertEquals(200, countTasks());
+        int numberOfTasksOnC = nodeC.getSingleExecutionScheduleService().getScheduledTasksToRunnablesMapper().size();
+        assertTrue(numberOfTasksOnC > 0);
+        for(ClusterScheduleService node : nodes)
+        {
+            for(String taskID : node.getSingleExecutionScheduleService().getScheduledTasksToRunnablesMapper().keySet())
+            {
+                assertEquals(node.getNodeID(), node.getOwner(taskID));
+            }
+        }
+        ScheduledTask movedTask = nodeC.getSingleExecutionScheduleService().getScheduledTasksToRunnablesMapper().values().iterator().next();
+        assertTrue(movedTask.getTask().getDelay(TimeUnit.MINUTES) >= 9);
+        nodeC.leave();
+        assertEquals(0, nodeC.getSingleExecutionScheduleService().getScheduledTasksToRunnablesMapper().size());
+        assertEquals(200, countTasks());
+        for(ClusterScheduleService node : nodes)
+        {
+            //moving a task to another node does not cancel it
+            assertEquals(0L, node.getSingleExecutionScheduleService().getMetrics().getCancelledTasks());
+        }
+        assertEquals(Set.of("node-a", "node-b"), nodes.get(0).getMembers());
+    }
+
+
+    private ClusterScheduleService newNode(String nodeID) throws Exception
+    {
+        SingleExecutionScheduleService service = SingleExecutionScheduleService.builder()
+                        .taskTypeRegistry(new TaskTypeRegistry().register("cluster-type", payload -> () -> {}))
+                        .build();
+        return ClusterScheduleService.builder()
+                        .nodeID(nodeID)
+                        .singleExecutionScheduleService(service)
+                        .transport(transport)
+                        .virtualNodesPerMember(64)
+                        .build();
+    }
+
+
+    private String findTaskIDOwnedBy(String nodeID)
+    {
+        for(int i = 0; ; i++)
+        {
+            if(nodes.get(0).getOwner("cluster-task" + i).equals(nodeID))
+            {
+                return "cluster-task" + i;
+            }
+        }
+    }
+
+
+    private ClusterScheduleService getNode(String nodeID)
+    {
+        return nodes.stream().filter(node -> node.getNodeID().equals(nodeID)).findFirst().get();
+    }
+
+
+    private int countTasks()
+    {
+        return nodes.stream().mapToInt(node -> node.getSingleExecutionScheduleService().getScheduledTasksToRunnablesMapper().size()).sum();
+    }
+}
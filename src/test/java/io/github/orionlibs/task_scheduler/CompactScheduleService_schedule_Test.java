@@ -0,0 +1,161 @@
+package io.github.orionlibs.task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class CompactScheduleService_schedule_Test
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+    private CompactScheduleService compactScheduler;
+    private List<String> expiredSessions;
+    private CountDownLatch expiries;
+    private AtomicInteger failuresLeft;
+
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        expiredSessions = new CopyOnWriteArrayList<>();
+        expiries = new CountDownLatch(1);
+        failuresLeft = new AtomicInteger();
+        TaskTypeRegistry registry = new TaskTypeRegistry()
+                        .register("expire-session", payload -> () -> {
+                            if(failuresLeft.getAndDecrement() > 0)
+                            {
+                                throw new IllegalStateException("expire-session failure");
+                            }
+                            expiredSessions.add(payload);
+                            expiries.countDown();
+                        })
+                        .register("crash-session", payload -> () -> {
+                            throw new Error("crash-session failure");
+                        });
+        singleExecutionScheduler = SingleExecutionScheduleService.builder()
+                        .taskTypeRegistry(registry)
+                        .build();
+        compactScheduler = new CompactScheduleService(singleExecutionScheduler);
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        compactScheduler.shutdown();
+        singleExecutionScheduler.shutdown();
+    }
+
+
+    @Test
+    void test_schedule_materializesTheRunnableWhenTheTaskFires() throws Exception
+    {
+        expiries = new CountDownLatch(2);
+        compactScheduler.schedule("session2", "expire-session", "user2", 60, TimeUnit.MILLISECONDS);
+        compactScheduler.schedule("session1", "expire-session", "user1", 20, TimeUnit.MILLISECONDS);
+        assertEquals(2, compactScheduler.getNumberOfTasks());
+        assertTrue(expiries.await(1, TimeUnit.SECONDS));
+        assertEquals(List.of("user1", "user2"), expiredSessions);
+        Thread.sleep(50);
+        assertEquals(0, compactScheduler.getNumberOfTasks());
+        assertFalse(compactScheduler.isScheduled("session1"));
+        assertEquals(2L, compactScheduler.getMetrics().getFiredTasks());
+        assertTrue(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().isEmpty());
+    }
+
+
+    @Test
+    void test_schedule_replacesAPendingTaskInPlace() throws Exception
+    {
+        compactScheduler.schedule("session1", "expire-session", "user1", 30, TimeUnit.MILLISECONDS);
+        compactScheduler.schedule("session1", "expire-session", "user1-extended", 150, TimeUnit.MILLISECONDS);
+        assertEquals(1, compactScheduler.getNumberOfTasks());
+        assertFalse(expiries.await(100, TimeUnit.MILLISECONDS));
+        assertTrue(expiries.await(1, TimeUnit.SECONDS));
+        assertEquals(List.of("user1-extended"), expiredSessions);
+    }
+
+
+    @Test
+    void test_cancel_removesThePendingTask() throws Exception
+    {
+        compactScheduler.schedule("session1", "expire-session", "user1", 50, TimeUnit.MILLISECONDS);
+        assertTrue(compactScheduler.cancel("session1"));
+        assertFalse(compactScheduler.isScheduled("session1"));
+        assertThrows(TaskDoesNotExistException.class, () -> compactScheduler.cancel("session1"));
+        assertFalse(expiries.await(150, TimeUnit.MILLISECONDS));
+        assertEquals(1L, compactScheduler.getMetrics().getCancelledTasks());
+    }
+
+
+    @Test
+    void test_schedule_retriesAFailedTask() throws Exception
+    {
+        failuresLeft.set(2);
+        compactScheduler.schedule("session1", "expire-session", "user1", 10, TimeUnit.MILLISECONDS, 2);
+        assertTrue(expiries.await(1, TimeUnit.SECONDS));
+        assertEquals(2L, compactScheduler.getMetrics().getRetriedTasks());
+        assertEquals(0L, compactScheduler.getMetrics().getFailedTasks());
+    }
+
+
+    @Test
+    void test_schedule_finishesATaskWhoseBodyThrowsAnError() throws Exception
+    {
+        compactScheduler.schedule("session1", "crash-session", "user1", 10, TimeUnit.MILLISECONDS, 2);
+        long deadline = System.currentTimeMillis() + 1_000L;
+        while(compactScheduler.isScheduled("session1") && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(5);
+        }
+        assertFalse(compactScheduler.isScheduled("session1"));
+        assertEquals(0, compactScheduler.getNumberOfTasks());
+        assertEquals(1L, compactScheduler.getMetrics().getFailedTasks());
+        assertEquals(0L, compactScheduler.getMetrics().getRetriedTasks());
+    }
+
+
+    @Test
+    void test_schedule_keepsManyDormantTasksAndCancelsThemAll() throws Exception
+    {
+        int numberOfTasks = 200_000;
+        for(int i = 0; i < numberOfTasks; i++)
+        {
+            compactScheduler.schedule("session" + i, "expire-session", null, 1 + i % 1000, TimeUnit.HOURS);
+        }
+        assertEquals(numberOfTasks, compactScheduler.getNumberOfTasks());
+        for(int i = 0; i < numberOfTasks; i += 2)
+        {
+            assertTrue(compactScheduler.cancel("session" + i));
+        }
+        assertEquals(numberOfTasks / 2, compactScheduler.getNumberOfTasks());
+        for(int i = 0; i < numberOfTasks; i++)
+        {
+            assertEquals(i % 2 == 1, compactScheduler.isScheduled("session" + i));
+        }
+    }
+
+
+    @Test
+    void test_schedule_rejectsUnregisteredTaskTypesAndShutdown() throws Exception
+    {
+        assertThrows(InvalidArgumentException.class, () -> compactScheduler.schedule("session1", "unknown", null, 1, TimeUnit.SECONDS));
+        assertThrows(InvalidArgumentException.class, () -> compactScheduler.schedule("session1", "expire-session", null, 1, null));
+        compactScheduler.shutdown();
+        assertThrows(RejectedExecutionException.class, () -> compactScheduler.schedule("session1", "expire-session", null, 1, TimeUnit.SECONDS));
+    }
+}
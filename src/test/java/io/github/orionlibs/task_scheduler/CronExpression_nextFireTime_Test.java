@@ -0,0 +1,128 @@
+package io.github.orionlibs.task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class CronExpression_nextFireTime_Test
+{
+    @Test
+    void test_nextFireTime_simpleExpressions() throws Exception
+    {
+        long after = OffsetDateTime.of(2024, 2, 28, 23, 59, 30, 0, ZoneOffset.UTC).toInstant().toEpochMilli();
+        assertEquals(OffsetDateTime.of(2024, 2, 29, 0, 0, 0, 0, ZoneOffset.UTC).toInstant().toEpochMilli(),
+                        CronExpression.parse("0 0 * * *").nextFireTime(after));
+        assertEquals(OffsetDateTime.of(2024, 2, 28, 23, 59, 45, 0, ZoneOffset.UTC).toInstant().toEpochMilli(),
+                        CronExpression.parse("*/15 * * * * *").nextFireTime(after));
+        assertEquals(OffsetDateTime.of(2024, 3, 4, 9, 30, 0, 0, ZoneOffset.UTC).toInstant().toEpochMilli(),
+                        CronExpression.parse("30 9 * * MON-FRI").nextFireTime(OffsetDateTime.of(2024, 3, 1, 10, 0, 0, 0, ZoneOffset.UTC).toInstant().toEpochMilli()));
+        assertEquals(OffsetDateTime.of(2028, 2, 29, 12, 0, 0, 0, ZoneOffset.UTC).toInstant().toEpochMilli(),
+                        CronExpression.parse("0 12 29 FEB *").nextFireTime(after + 86_400_000L));
+        assertEquals(-1L, CronExpression.parse("0 0 30 2 *").nextFireTime(after));
+    }
+
+
+    @Test
+    void test_nextFireTime_withOffset() throws Exception
+    {
+        ZoneOffset offset = ZoneOffset.ofHours(2);
+        long after = OffsetDateTime.of(2024, 6, 1, 7, 0, 0, 0, offset).toInstant().toEpochMilli();
+        assertEquals(OffsetDateTime.of(2024, 6, 1, 8, 0, 0, 0, offset).toInstant().toEpochMilli(),
+                        CronExpression.parse("0 8 * * *", offset).nextFireTime(after));
+    }
+
+
+    @Test
+    void test_nextFireTime_matchesBruteForce() throws Exception
+    {
+        String[] expressions = {"*/7 3,5,17 * * *", "0 0 1,15 * SUN", "15 10 28-31 * *", "0 30 4 */3 * 1-5", "0 0 1 JAN,JUL *"};
+        Random random = new Random(42L);
+        for(String expression : expressions)
+        {
+            CronExpression cron = CronExpression.parse(expression);
+            for(int i = 0; i < 20; i++)
+            {
+                OffsetDateTime start = OffsetDateTime.of(2020, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).plusSeconds(random.nextInt(200_000_000));
+                assertEquals(bruteForce(expression, start), cron.nextFireTime(start.toInstant().toEpochMilli()), expression + " after " + start);
+            }
+        }
+    }
+
+
+    @Test
+    void test_parse_invalidExpressions()
+    {
+        assertThrows(InvalidArgumentException.class, () -> CronExpression.parse("* * *"));
+        assertThrows(InvalidArgumentException.class, () -> CronExpression.parse("60 * * * *"));
+        assertThrows(InvalidArgumentException.class, () -> CronExpression.parse("* * * FOO *"));
+        assertThrows(InvalidArgumentException.class, () -> CronExpression.parse("5-1 * * * *"));
+    }
+
+
+    /**
+     * Steps through every minute (or second) with java.time and checks the expression field by field.
+     */
+    private static long bruteForce(String expression, OffsetDateTime after)
+    {
+        String[] fields = expression.split(" ");
+        boolean withSeconds = fields.length == 6;
+        int first = withSeconds ? 1 : 0;
+        ChronoUnit step = withSeconds ? ChronoUnit.SECONDS : ChronoUnit.MINUTES;
+        OffsetDateTime time = after.truncatedTo(step).plus(1, step);
+        for(long i = 0; i < 10_000_000L; i++, time = time.plus(1, step))
+        {
+            if((!withSeconds || matches(fields[0], time.getSecond(), 0, null))
+                            && matches(fields[first], time.getMinute(), 0, null)
+                            && matches(fields[first + 1], time.getHour(), 0, null)
+                            && matches(fields[first + 3], time.getMonthValue(), 1, new String[] {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"}))
+            {
+                boolean dayOfMonth = matches(fields[first + 2], time.getDayOfMonth(), 1, null);
+                boolean dayOfWeek = matches(fields[first + 4], time.getDayOfWeek().getValue() % 7, 0, new String[] {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"});
+                boolean restricted = !fields[first + 2].startsWith("*") && !fields[first + 4].startsWith("*");
+                if(restricted ? dayOfMonth || dayOfWeek : dayOfMonth && dayOfWeek)
+                {
+                    return time.toInstant().toEpochMilli();
+                }
+            }
+        }
+        return -1L;
+    }
+
+
+    private static boolean matches(String field, int value, int min, String[] names)
+    {
+        for(String part : field.split(","))
+        {
+            String range = part.contains("/") ? part.substring(0, part.indexOf('/')) : part;
+            int step = part.contains("/") ? Integer.parseInt(part.substring(part.indexOf('/') + 1)) : 1;
+            int from = range.equals("*") ? min : parse(range.contains("-") ? range.substring(0, range.indexOf('-')) : range, names);
+            int to = range.equals("*") ? Integer.MAX_VALUE : range.contains("-") ? parse(range.substring(range.indexOf('-') + 1), names) : from;
+            if(value >= from && value <= to && (value - from) % step == 0)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private static int parse(String value, String[] names)
+    {
+        if(names != null)
+        {
+            for(int i = 0; i < names.length; i++)
+            {
+                if(names[i].equals(value))
+                {
+                    return names.length == 12 ? i + 1 : i;
+                }
+            }
+        }
+        return Integer.parseInt(value);
+    }
+}
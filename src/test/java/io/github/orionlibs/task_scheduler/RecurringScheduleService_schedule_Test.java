@@ -0,0 +1,171 @@
+package io.github.orionlibs.task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class RecurringScheduleService_schedule_Test
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+    private RecurringScheduleService recurringScheduler;
+
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        singleExecutionScheduler = new SingleExecutionScheduleService();
+        recurringScheduler = new RecurringScheduleService(singleExecutionScheduler);
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdown();
+    }
+
+
+    @Test
+    void test_scheduleAtFixedRate_runsRepeatedlyThroughTheSameFutureUntilCancelled() throws Exception
+    {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch threeRuns = new CountDownLatch(3);
+        ScheduledTask task = ScheduledTask.builder()
+                        .taskID("fixed-rate-runnable")
+                        .taskToSchedule(() -> {
+                            runs.incrementAndGet();
+                            throw new IllegalStateException("fixed-rate-runnable failure");
+                        })
+                        .delay(10)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .callbackAfterTaskCompletes(threeRuns::countDown)
+                        .build();
+        recurringScheduler.scheduleAtFixedRate(task, 20, TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> future = task.getTask();
+        assertTrue(threeRuns.await(1, TimeUnit.SECONDS));
+        assertSame(future, task.getTask());
+        assertSame(task, singleExecutionScheduler.getScheduledTaskByID("fixed-rate-runnable"));
+        assertTrue(recurringScheduler.cancel("fixed-rate-runnable"));
+        int runsAfterCancel = runs.get();
+        Thread.sleep(100);
+        assertTrue(runs.get() <= runsAfterCancel + 1);
+        assertTrue(future.isCancelled());
+        assertFalse(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().containsKey("fixed-rate-runnable"));
+        assertEquals(1L, singleExecutionScheduler.getMetrics().getScheduledTasks());
+    }
+
+
+    @Test
+    void test_scheduleWithFixedDelay_waitsForTheDelayAfterEveryRun() throws Exception
+    {
+        long[] runTimesInNanos = new long[3];
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch threeRuns = new CountDownLatch(3);
+        recurringScheduler.scheduleWithFixedDelay(ScheduledTask.builder()
+                        .taskID("fixed-delay-runnable")
+                        .taskToSchedule(() -> {
+                            int run = runs.getAndIncrement();
+                            if(run < runTimesInNanos.length)
+                            {
+                                runTimesInNanos[run] = System.nanoTime();
+                                threeRuns.countDown();
+                            }
+                            try
+                            {
+                                Thread.sleep(20);
+                            }
+                            catch(InterruptedException e)
+                            {
+                                Thread.currentThread().interrupt();
+                            }
+                        })
+                        .delay(0)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build(), 30, TimeUnit.MILLISECONDS);
+        assertTrue(threeRuns.await(1, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(runTimesInNanos[1] - runTimesInNanos[0]) >= 50L);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(runTimesInNanos[2] - runTimesInNanos[1]) >= 50L);
+    }
+
+
+    @Test
+    void test_scheduleWithCron_setsTheDelayToTheFirstFireTime() throws Exception
+    {
+        ScheduledTask task = ScheduledTask.builder()
+                        .taskID("cron-runnable")
+                        .taskToSchedule(() -> {
+                        })
+                        .delay(5)
+                        .unit(TimeUnit.DAYS)
+                        .build();
+        recurringScheduler.scheduleWithCron(task, CronExpression.parse("* * * * * *"));
+        assertEquals(TimeUnit.MILLISECONDS, task.getUnit());
+        assertTrue(task.getDelay() <= 1000L);
+        assertThrows(InvalidArgumentException.class, () -> recurringScheduler.scheduleWithCron(task, CronExpression.parse("0 0 30 2 *")));
+    }
+
+
+    @Test
+    void test_scheduleAtFixedRate_completesATaskWhoseBodyThrowsAnError() throws Exception
+    {
+        AtomicInteger runs = new AtomicInteger();
+        recurringScheduler.scheduleAtFixedRate(ScheduledTask.builder()
+                        .taskID("erroring-runnable")
+                        .taskToSchedule(() -> {
+                            runs.incrementAndGet();
+                            throw new AssertionError("erroring-runnable failure");
+                        })
+                        .delay(10)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build(), 20, TimeUnit.MILLISECONDS);
+        Thread.sleep(150);
+        assertEquals(1, runs.get());
+        assertFalse(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().containsKey("erroring-runnable"));
+        assertEquals(1L, singleExecutionScheduler.getMetrics().getFailedTasks());
+    }
+
+
+    @Test
+    void test_scheduleAtFixedRate_completesATaskWhoseCallbackThrows() throws Exception
+    {
+        AtomicInteger runs = new AtomicInteger();
+        recurringScheduler.scheduleAtFixedRate(ScheduledTask.builder()
+                        .taskID("failing-callback-runnable")
+                        .taskToSchedule(runs::incrementAndGet)
+                        .delay(10)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .callbackAfterTaskCompletes(() -> {
+                            throw new IllegalStateException("callback failure");
+                        })
+                        .build(), 20, TimeUnit.MILLISECONDS);
+        Thread.sleep(150);
+        assertEquals(1, runs.get());
+        assertFalse(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().containsKey("failing-callback-runnable"));
+    }
+
+
+    @Test
+    void test_scheduleAtFixedRate_withInvalidPeriod()
+    {
+        assertThrows(InvalidArgumentException.class, () -> recurringScheduler.scheduleAtFixedRate(ScheduledTask.builder()
+                        .taskID("invalid-rate-runnable")
+                        .taskToSchedule(() -> {
+                        })
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build(), 0, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,199 @@
+package io.github.orionlibs.task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.orionlibs.task_scheduler.persistence.FileTaskStore;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.io.TempDir;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SharedStoreScheduleService_schedule_Test
+{
+    @TempDir
+    Path storeDirectory;
+    private Map<String, AtomicInteger> runs;
+    private AtomicInteger failuresLeft;
+    private SingleExecutionScheduleService singleExecutionScheduler1;
+    private SingleExecutionScheduleService singleExecutionScheduler2;
+    private SharedStoreScheduleService sharedScheduler1;
+    private SharedStoreScheduleService sharedScheduler2;
+
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        runs = new ConcurrentHashMap<>();
+        failuresLeft = new AtomicInteger();
+        singleExecutionScheduler1 = newSingleExecutionScheduler();
+        singleExecutionScheduler2 = newSingleExecutionScheduler();
+        sharedScheduler1 = newSharedScheduler(singleExecutionScheduler1, "node1");
+        sharedScheduler2 = newSharedScheduler(singleExecutionScheduler2, "node2");
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        sharedScheduler1.shutdown();
+        sharedScheduler2.shutdown();
+        singleExecutionScheduler1.shutdown();
+        singleExecutionScheduler2.shutdown();
+    }
+
+
+    @Test
+    void test_schedule_firesEveryTaskOnceAcrossTheInstances() throws Exception
+    {
+        for(int i = 0; i < 100; i++)
+        {
+            (i % 2 == 0 ? sharedScheduler1 : sharedScheduler2).schedule("shared-task" + i, "shared-type", "shared-task" + i, 100, TimeUnit.MILLISECONDS);
+        }
+        waitForRuns(100);
+        Thread.sleep(300);
+        assertEquals(100, runs.size());
+        assertTrue(runs.values().stream().allMatch(count -> count.get() == 1));
+        try(FileTaskStore store = new FileTaskStore(storeDirectory))
+        {
+            assertEquals(0, store.size());
+        }
+        assertEquals(100L, sharedScheduler1.getMetrics().getFiredTasks() + sharedScheduler2.getMetrics().getFiredTasks());
+    }
+
+
+    @Test
+    void test_schedule_retriesFailedTasks() throws Exception
+    {
+        failuresLeft.set(1);
+        sharedScheduler1.schedule("failing-shared-task", "failing-type", "failing-shared-task", 0, TimeUnit.MILLISECONDS, 1);
+        long deadline = System.currentTimeMillis() + 3_000L;
+        while(runs.getOrDefault("failing-shared-task", new AtomicInteger()).get() < 2 && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(10);
+        }
+        assertEquals(2, runs.get("failing-shared-task").get());
+        assertEquals(1L, sharedScheduler1.getMetrics().getRetriedTasks() + sharedScheduler2.getMetrics().getRetriedTasks());
+    }
+
+
+    @Test
+    void test_schedule_completesRunsThatEndCloseToTheirLeaseStraightAway() throws Exception
+    {
+        sharedScheduler1.shutdown();
+        sharedScheduler2.shutdown();
+        sharedScheduler1 = newSharedScheduler(singleExecutionScheduler1, "node1", 100);
+        sharedScheduler2 = newSharedScheduler(singleExecutionScheduler2, "node2", 100);
+        for(int i = 0; i < 10; i++)
+        {
+            sharedScheduler1.schedule("slow-shared-task" + i, "slow-type", "slow-shared-task" + i, 0, TimeUnit.MILLISECONDS);
+        }
+        waitForRuns(10);
+        Thread.sleep(400);
+        assertEquals(10, runs.size());
+        assertTrue(runs.values().stream().allMatch(count -> count.get() == 1));
+    }
+
+
+    @Test
+    void test_schedule_firesOnlyTheNewVersionOfAClaimedTaskThatIsReplaced() throws Exception
+    {
+        sharedScheduler1.shutdown();
+        sharedScheduler2.shutdown();
+        sharedScheduler1 = SharedStoreScheduleService.builder()
+                        .singleExecutionScheduleService(singleExecutionScheduler1)
+                        .taskStore(new FileTaskStore(storeDirectory))
+                        .nodeID("node1")
+                        .pollInterval(10)
+                        .pollIntervalUnit(TimeUnit.SECONDS)
+                        .build();
+        sharedScheduler1.schedule("replaced-shared-task", "shared-type", "replaced-old", 300, TimeUnit.MILLISECONDS);
+        sharedScheduler1.poll();
+        sharedScheduler1.schedule("replaced-shared-task", "shared-type", "replaced-new", 0, TimeUnit.MILLISECONDS);
+        sharedScheduler1.poll();
+        Thread.sleep(600);
+        sharedScheduler1.poll();
+        assertEquals(1, runs.get("replaced-new").get());
+        assertFalse(runs.containsKey("replaced-old"));
+        try(FileTaskStore store = new FileTaskStore(storeDirectory))
+        {
+            assertEquals(0, store.size());
+        }
+    }
+
+
+    @Test
+    void test_cancel_removesTheTaskFromTheStore() throws Exception
+    {
+        sharedScheduler1.schedule("cancelled-shared-task", "shared-type", "cancelled-shared-task", 10, TimeUnit.SECONDS);
+        assertTrue(sharedScheduler2.cancel("cancelled-shared-task"));
+        assertFalse(sharedScheduler1.cancel("cancelled-shared-task"));
+    }
+
+
+    private SingleExecutionScheduleService newSingleExecutionScheduler() throws Exception
+    {
+        return SingleExecutionScheduleService.builder()
+                        .taskTypeRegistry(new TaskTypeRegistry()
+                                        .register("shared-type", payload -> () -> runs.computeIfAbsent(payload, taskID -> new AtomicInteger()).incrementAndGet())
+                                        .register("slow-type", payload -> () -> {
+                                            try
+                                            {
+                                                Thread.sleep(70);
+                                            }
+                                            catch(InterruptedException e)
+                                            {
+                                                Thread.currentThread().interrupt();
+                                            }
+                                            runs.computeIfAbsent(payload, taskID -> new AtomicInteger()).incrementAndGet();
+                                        })
+                                        .register("failing-type", payload -> () -> {
+                                            runs.computeIfAbsent(payload, taskID -> new AtomicInteger()).incrementAndGet();
+                                            if(failuresLeft.getAndDecrement() > 0)
+                                            {
+                                                throw new IllegalStateException("shared task failure");
+                                            }
+                                        }))
+                        .build();
+    }
+
+
+    private SharedStoreScheduleService newSharedScheduler(SingleExecutionScheduleService singleExecutionScheduler, String nodeID) throws Exception
+    {
+        return newSharedScheduler(singleExecutionScheduler, nodeID, 0);
+    }
+
+
+    private SharedStoreScheduleService newSharedScheduler(SingleExecutionScheduleService singleExecutionScheduler, String nodeID, long leaseDurationInMillis) throws Exception
+    {
+        return SharedStoreScheduleService.builder()
+                        .singleExecutionScheduleService(singleExecutionScheduler)
+                        .taskStore(new FileTaskStore(storeDirectory))
+                        .nodeID(nodeID)
+                        .pollInterval(50)
+                        .pollIntervalUnit(TimeUnit.MILLISECONDS)
+                        .leaseDuration(leaseDurationInMillis)
+                        .leaseDurationUnit(TimeUnit.MILLISECONDS)
+                        .batchSize(16)
+                        .build();
+    }
+
+
+    private void waitForRuns(int numberOfTasks) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + 5_000L;
+        while(runs.size() < numberOfTasks && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package io.github.orionlibs.task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_admission_Test
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdown();
+    }
+
+
+    @Test
+    void test_schedule_rejectsTasksAboveMaxPendingTasks() throws Exception
+    {
+        buildScheduler(AdmissionController.builder()
+                        .maxPendingTasks(2)
+                        .build());
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("task1")
+                        .taskToSchedule(() -> {})
+                        .delay(1)
+                        .unit(TimeUnit.HOURS)
+                        .build());
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("task2")
+                        .taskToSchedule(() -> {})
+                        .delay(1)
+                        .unit(TimeUnit.HOURS)
+                        .build());
+        assertThrows(RejectedExecutionException.class, () -> singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("task3")
+                        .taskToSchedule(() -> {})
+                        .delay(1)
+                        .unit(TimeUnit.HOURS)
+                        .build()));
+        assertFalse(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().containsKey("task3"));
+        singleExecutionScheduler.cancel("task1");
+        assertDoesNotThrow(() -> singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("task3")
+                        .taskToSchedule(() -> {})
+                        .delay(1)
+                        .unit(TimeUnit.HOURS)
+                        .build()));
+    }
+
+
+    @Test
+    void test_schedule_appliesTenantQuotasByLongestPrefix() throws Exception
+    {
+        buildScheduler(AdmissionController.builder()
+                        .tenantQuotas(Map.of("tenantA:", 1, "tenantA:vip:", 2))
+                        .build());
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("tenantA:1")
+                        .taskToSchedule(() -> {})
+                        .delay(1)
+                        .unit(TimeUnit.HOURS)
+                        .build());
+        assertThrows(RejectedExecutionException.class, () -> singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("tenantA:2")
+                        .taskToSchedule(() -> {})
+                        .delay(1)
+                        .unit(TimeUnit.HOURS)
+                        .build()));
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("tenantA:vip:1")
+                        .taskToSchedule(() -> {})
+                        .delay(1)
+                        .unit(TimeUnit.HOURS)
+                        .build());
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("tenantA:vip:2")
+                        .taskToSchedule(() -> {})
+                        .delay(1)
+                        .unit(TimeUnit.HOURS)
+                        .build());
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("tenantB:1")
+                        .taskToSchedule(() -> {})
+                        .delay(1)
+                        .unit(TimeUnit.HOURS)
+                        .build());
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("tenantB:2")
+                        .taskToSchedule(() -> {})
+                        .delay(1)
+                        .unit(TimeUnit.HOURS)
+                        .build());
+        assertEquals(5, singleExecutionScheduler.getScheduledTasksToRunnablesMapper().size());
+    }
+
+
+    @Test
+    void test_schedule_shedsTheOldestPendingTask() throws Exception
+    {
+        buildScheduler(AdmissionController.builder()
+                        .maxPendingTasks(2)
+                        .overflowPolicy(OverflowPolicy.SHED_OLDEST)
+                        .build());
+        CountDownLatch oldestTaskCancelled = new CountDownLatch(1);
+        ScheduledTask oldestTask = ScheduledTask.builder()
+                        .taskID("task1")
+                        .taskToSchedule(() -> {})
+                        .delay(1)
+                        .unit(TimeUnit.HOURS)
+                        .build();
+        oldestTask.setCallbackAfterTaskIsCancelled(oldestTaskCancelled::countDown);
+        singleExecutionScheduler.schedule(oldestTask);
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("task2")
+                        .taskToSchedule(() -> {})
+                        .delay(1)
+                        .unit(TimeUnit.HOURS)
+                        .build());
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("task3")
+                        .taskToSchedule(() -> {})
+                        .delay(1)
+                        .unit(TimeUnit.HOURS)
+                        .build());
+        assertTrue(oldestTaskCancelled.await(1, TimeUnit.SECONDS));
+        assertTrue(oldestTask.getTask().isCancelled());
+        assertEquals(Set.of("task2", "task3"), singleExecutionScheduler.getScheduledTasksToRunnablesMapper().keySet());
+    }
+
+
+    @Test
+    void test_schedule_blocksUntilATaskCompletes() throws Exception
+    {
+        buildScheduler(AdmissionController.builder()
+                        .maxPendingTasks(1)
+                        .overflowPolicy(OverflowPolicy.BLOCK)
+                        .blockTimeout(2)
+                        .blockTimeoutUnit(TimeUnit.SECONDS)
+                        .build());
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("task1")
+                        .taskToSchedule(() -> {})
+                        .delay(100)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        long startTime = System.nanoTime();
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("task2")
+                        .taskToSchedule(() -> {})
+                        .delay(1)
+                        .unit(TimeUnit.HOURS)
+                        .build());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) >= 50L);
+        assertThrows(RejectedExecutionException.class, () -> {
+            buildScheduler(AdmissionController.builder()
+                            .maxPendingTasks(1)
+                            .overflowPolicy(OverflowPolicy.BLOCK)
+                            .blockTimeout(50)
+                            .build());
+            singleExecutionScheduler.schedule(ScheduledTask.builder()
+                            .taskID("task1")
+                            .taskToSchedule(() -> {})
+                            .delay(1)
+                            .unit(TimeUnit.HOURS)
+                            .build());
+            singleExecutionScheduler.schedule(ScheduledTask.builder()
+                            .taskID("task2")
+                            .taskToSchedule(() -> {})
+                            .delay(1)
+                            .unit(TimeUnit.HOURS)
+                            .build());
+        });
+    }
+
+
+    @Test
+    void test_schedule_replacesAPendingTaskWithoutTakingAnotherSlot() throws Exception
+    {
+        for(OverflowPolicy overflowPolicy : OverflowPolicy.values())
+        {
+            buildScheduler(AdmissionController.builder()
+                            .maxPendingTasks(2)
+                            .overflowPolicy(overflowPolicy)
+                            .build());
+            singleExecutionScheduler.schedule(ScheduledTask.builder()
+                            .taskID("task1")
+                            .taskToSchedule(() -> {})
+                            .delay(1)
+                            .unit(TimeUnit.HOURS)
+                            .build());
+            ScheduledTask task2 = ScheduledTask.builder()
+                            .taskID("task2")
+                            .taskToSchedule(() -> {})
+                            .delay(1)
+                            .unit(TimeUnit.HOURS)
+                            .build();
+            singleExecutionScheduler.schedule(task2);
+            assertDoesNotThrow(() -> singleExecutionScheduler.schedule(ScheduledTask.builder()
+                            .taskID("task1")
+                            .taskToSchedule(() -> {})
+                            .delay(2)
+                            .unit(TimeUnit.HOURS)
+                            .build()));
+            assertFalse(task2.getTask().isCancelled());
+            assertEquals(Set.of("task1", "task2"), singleExecutionScheduler.getScheduledTasksToRunnablesMapper().keySet());
+            assertEquals(2L, singleExecutionScheduler.getMetrics().getPendingTasks());
+            if(overflowPolicy == OverflowPolicy.SHED_OLDEST)
+            {
+                singleExecutionScheduler.schedule(ScheduledTask.builder()
+                                .taskID("task3")
+                                .taskToSchedule(() -> {})
+                                .delay(1)
+                                .unit(TimeUnit.HOURS)
+                                .build());
+                assertTrue(task2.getTask().isCancelled());
+            }
+            else
+            {
+                assertThrows(RejectedExecutionException.class, () -> singleExecutionScheduler.schedule(ScheduledTask.builder()
+                                .taskID("task3")
+                                .taskToSchedule(() -> {})
+                                .delay(1)
+                                .unit(TimeUnit.HOURS)
+                                .build()));
+            }
+        }
+    }
+
+
+    @Test
+    void test_schedule_delaysTheTasksThatFireAboveTheRateLimit() throws Exception
+    {
+        buildScheduler(AdmissionController.builder()
+                        .maxTasksPerSecond(20)
+                        .burst(1)
+                        .build());
+        List<Long> startTimes = new CopyOnWriteArrayList<>();
+        CountDownLatch tasksRan = new CountDownLatch(5);
+        for(int i = 0; i < 5; i++)
+        {
+            singleExecutionScheduler.schedule(ScheduledTask.builder()
+                            .taskID("task" + i)
+                            .taskToSchedule(() -> {
+                                startTimes.add(System.nanoTime());
+                                tasksRan.countDown();
+                            })
+                            .delay(0)
+                            .unit(TimeUnit.MILLISECONDS)
+                            .build());
+        }
+        assertTrue(tasksRan.await(2, TimeUnit.SECONDS));
+        long spreadInMillis = TimeUnit.NANOSECONDS.toMillis(startTimes.stream().mapToLong(Long::longValue).max().getAsLong()
+                        - startTimes.stream().mapToLong(Long::longValue).min().getAsLong());
+        assertTrue(spreadInMillis >= 150L, "the runs were spread over " + spreadInMillis + "ms");
+    }
+
+
+    @Test
+    void test_schedule_appliesTheRateLimitOfEachTenantSeparately() throws Exception
+    {
+        buildScheduler(AdmissionController.builder()
+                        .tenantMaxTasksPerSecond(Map.of("noisy:", 2.0d, "quiet:", 1_000.0d))
+                        .burst(1)
+                        .build());
+        CountDownLatch noisyTasksRan = new CountDownLatch(3);
+        CountDownLatch quietTasksRan = new CountDownLatch(3);
+        for(int i = 0; i < 3; i++)
+        {
+            singleExecutionScheduler.schedule(ScheduledTask.builder()
+                            .taskID("noisy:" + i)
+                            .taskToSchedule(noisyTasksRan::countDown)
+                            .delay(0)
+                            .unit(TimeUnit.MILLISECONDS)
+                            .build());
+        }
+        for(int i = 0; i < 3; i++)
+        {
+            singleExecutionScheduler.schedule(ScheduledTask.builder()
+                            .taskID("quiet:" + i)
+                            .taskToSchedule(quietTasksRan::countDown)
+                            .delay(0)
+                            .unit(TimeUnit.MILLISECONDS)
+                            .build());
+        }
+        assertTrue(quietTasksRan.await(300, TimeUnit.MILLISECONDS));
+        assertEquals(2L, noisyTasksRan.getCount());
+        assertTrue(noisyTasksRan.await(2, TimeUnit.SECONDS));
+    }
+
+
+    private void buildScheduler(AdmissionController admissionController) throws IOException
+    {
+        if(singleExecutionScheduler != null)
+        {
+            singleExecutionScheduler.shutdown();
+        }
+        singleExecutionScheduler = SingleExecutionScheduleService.builder()
+                        .admissionController(admissionController)
+                        .build();
+    }
+}
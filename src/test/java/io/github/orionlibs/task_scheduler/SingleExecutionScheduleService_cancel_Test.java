@@ -1,6 +1,7 @@
 package io.github.orionlibs.task_scheduler;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -9,7 +10,11 @@ import io.github.orionlibs.task_scheduler.log.ListLogHandler;
 import io.github.orionlibs.task_scheduler.utils.Callback;
 import io.github.orionlibs.task_scheduler.utils.RunnableExample;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -170,4 +175,76 @@ public class SingleExecutionScheduleService_cancel_Test
         assertTrue(listLogHandler.getLogRecords().stream()
                         .anyMatch(record -> record.getMessage().contains("callback has been called")));
     }
+
+
+    @Test
+    void test_cancelTask_runsTheCallbackAfterTaskIsCancelledOnTheCallingThread() throws Exception
+    {
+        AtomicReference<Thread> callbackThread = new AtomicReference<>();
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("runnable")
+                        .taskToSchedule(() -> {})
+                        .delay(200)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .callbackAfterTaskIsCancelled(() -> callbackThread.set(Thread.currentThread()))
+                        .build());
+        singleExecutionScheduler.cancel("runnable");
+        assertEquals(Thread.currentThread(), callbackThread.get());
+        callbackThread.set(null);
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("runnable")
+                        .taskToSchedule(() -> {})
+                        .delay(200)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .callbackAfterTaskIsCancelled(() -> callbackThread.set(Thread.currentThread()))
+                        .build());
+        assertTrue(singleExecutionScheduler.tryCancel("runnable"));
+        assertEquals(Thread.currentThread(), callbackThread.get());
+    }
+
+
+    @Test
+    void test_tryCancel_doesNotThrowOnMissingTasks() throws Exception
+    {
+        AtomicInteger runs = new AtomicInteger();
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("timeout1")
+                        .taskToSchedule(runs::incrementAndGet)
+                        .delay(100)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        assertTrue(singleExecutionScheduler.tryCancel("timeout1"));
+        assertFalse(singleExecutionScheduler.tryCancel("timeout1"));
+        assertFalse(singleExecutionScheduler.tryCancel("missing-timeout"));
+        assertFalse(singleExecutionScheduler.tryCancel(null));
+        Thread.sleep(200);
+        assertEquals(0, runs.get());
+        assertTrue(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().isEmpty());
+        config.updateProp("orionlibs.task-scheduler.cancellation.enabled", "false");
+        assertThrows(FeatureIsDisabledException.class, () -> singleExecutionScheduler.tryCancel("timeout1"));
+        config.updateProp("orionlibs.task-scheduler.cancellation.enabled", "true");
+    }
+
+
+    @Test
+    void test_cancelAll_cancelsTheMatchingTasksInOnePass() throws Exception
+    {
+        List<ScheduledTask> tasks = new ArrayList<>();
+        for(int i = 0; i < 1200; i++)
+        {
+            tasks.add(ScheduledTask.builder()
+                            .taskID((i % 2 == 0 ? "tenantA:" : "tenantB:") + i)
+                            .taskToSchedule(() -> {})
+                            .delay(i % 3 == 0 ? 30 : 60)
+                            .unit(TimeUnit.SECONDS)
+                            .build());
+        }
+        singleExecutionScheduler.schedule(tasks);
+        assertEquals(600, singleExecutionScheduler.cancelByPrefix("tenantA:"));
+        assertEquals(200, singleExecutionScheduler.cancelAll(task -> task.getDelay() == 30));
+        assertEquals(400, singleExecutionScheduler.getScheduledTasksToRunnablesMapper().size());
+        assertEquals(0, singleExecutionScheduler.cancelByPrefix("tenantA:"));
+        assertTrue(tasks.stream().allMatch(task -> task.getTask().isCancelled() == (task.getTaskID().startsWith("tenantA:") || task.getDelay() == 30)));
+        assertEquals(800L, singleExecutionScheduler.getMetrics().getCancelledTasks());
+    }
 }
@@ -0,0 +1,245 @@
+package io.github.orionlibs.task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.orionlibs.task_scheduler.engine.TimingWheelTimerEngine;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_duplicate_Test
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdown();
+    }
+
+
+    @Test
+    void test_schedule_replaceCancelsTheTimerOfThePendingTask() throws Exception
+    {
+        singleExecutionScheduler = new SingleExecutionScheduleService();
+        AtomicInteger firstRuns = new AtomicInteger();
+        AtomicInteger secondRuns = new AtomicInteger();
+        ScheduledTask firstTask = ScheduledTask.builder()
+                        .taskID("refresh-entity")
+                        .taskToSchedule(firstRuns::incrementAndGet)
+                        .delay(30)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build();
+        singleExecutionScheduler.schedule(firstTask);
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("refresh-entity")
+                        .taskToSchedule(secondRuns::incrementAndGet)
+                        .delay(60)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .duplicatePolicy(DuplicatePolicy.REPLACE)
+                        .build());
+        Thread.sleep(200);
+        assertEquals(0, firstRuns.get());
+        assertEquals(1, secondRuns.get());
+        assertTrue(firstTask.getTask().isCancelled());
+        assertEquals(1L, singleExecutionScheduler.getMetrics().getCancelledTasks());
+    }
+
+
+    @Test
+    void test_schedule_keepExistingDropsTheNewTask() throws Exception
+    {
+        singleExecutionScheduler = new SingleExecutionScheduleService();
+        AtomicInteger firstRuns = new AtomicInteger();
+        ScheduledTask firstTask = ScheduledTask.builder()
+                        .taskID("keep-entity")
+                        .taskToSchedule(firstRuns::incrementAndGet)
+                        .delay(30)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build();
+        singleExecutionScheduler.schedule(firstTask);
+        ScheduledTask secondTask = ScheduledTask.builder()
+                        .taskID("keep-entity")
+                        .taskToSchedule(() -> {})
+                        .delay(60)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .duplicatePolicy(DuplicatePolicy.KEEP_EXISTING)
+                        .build();
+        CompletableFuture<String> secondResult = singleExecutionScheduler.schedule(secondTask, () -> "second");
+        assertSame(firstTask, singleExecutionScheduler.getScheduledTaskByID("keep-entity"));
+        assertNull(secondTask.getTask());
+        assertTrue(secondResult.isCancelled());
+        Thread.sleep(150);
+        assertEquals(1, firstRuns.get());
+        assertEquals(1L, singleExecutionScheduler.getMetrics().getScheduledTasks());
+    }
+
+
+    @Test
+    void test_schedule_coalescePushesTheDueTimeForward() throws Exception
+    {
+        singleExecutionScheduler = new SingleExecutionScheduleService();
+        assertCoalesces("coalesce-executor");
+    }
+
+
+    @Test
+    void test_schedule_coalescePushesTheDueTimeForwardInTheTimingWheel() throws Exception
+    {
+        singleExecutionScheduler = SingleExecutionScheduleService.builder()
+                        .timerEngine(TimingWheelTimerEngine.builder()
+                                        .tickDuration(1)
+                                        .tickUnit(TimeUnit.MILLISECONDS)
+                                        .build())
+                        .build();
+        assertCoalesces("coalesce-wheel");
+    }
+
+
+    private void assertCoalesces(String taskID) throws Exception
+    {
+        AtomicInteger runs = new AtomicInteger();
+        AtomicLong runTimeInNanos = new AtomicLong();
+        Runnable task = () -> {
+            runTimeInNanos.set(System.nanoTime());
+            runs.incrementAndGet();
+        };
+        //the first schedule() call of a cold JVM can take longer than the delay, so the service is warmed up first
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("warm-up")
+                        .taskToSchedule(() -> {})
+                        .delay(1)
+                        .unit(TimeUnit.HOURS)
+                        .build());
+        singleExecutionScheduler.cancel("warm-up");
+        ScheduledTask firstTask = ScheduledTask.builder()
+                        .taskID(taskID)
+                        .taskToSchedule(task)
+                        .delay(50)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .duplicatePolicy(DuplicatePolicy.COALESCE)
+                        .build();
+        singleExecutionScheduler.schedule(firstTask);
+        ScheduledFuture<?> future = firstTask.getTask();
+        long lastScheduleTimeInNanos = 0L;
+        for(int i = 0; i < 10; i++)
+        {
+            Thread.sleep(10);
+            lastScheduleTimeInNanos = System.nanoTime();
+            singleExecutionScheduler.schedule(ScheduledTask.builder()
+                            .taskID(taskID)
+                            .taskToSchedule(task)
+                            .delay(50)
+                            .unit(TimeUnit.MILLISECONDS)
+                            .duplicatePolicy(DuplicatePolicy.COALESCE)
+                            .build());
+        }
+        assertSame(firstTask, singleExecutionScheduler.getScheduledTaskByID(taskID));
+        Thread.sleep(250);
+        assertEquals(1, runs.get());
+        assertTrue(runTimeInNanos.get() - lastScheduleTimeInNanos >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(future.isDone());
+        assertEquals(2L, singleExecutionScheduler.getMetrics().getScheduledTasks());
+    }
+
+
+    @Test
+    void test_scheduleCollection_appliesTheDuplicatePolicyOfEachTask() throws Exception
+    {
+        singleExecutionScheduler = new SingleExecutionScheduleService();
+        AtomicInteger pendingRuns = new AtomicInteger();
+        AtomicInteger replacingRuns = new AtomicInteger();
+        AtomicInteger keptRuns = new AtomicInteger();
+        AtomicInteger coalescedRuns = new AtomicInteger();
+        AtomicLong coalescedRunTimeInNanos = new AtomicLong();
+        for(String taskID : List.of("replaced", "kept"))
+        {
+            singleExecutionScheduler.schedule(ScheduledTask.builder()
+                            .taskID(taskID)
+                            .taskToSchedule(pendingRuns::incrementAndGet)
+                            .delay(200)
+                            .unit(TimeUnit.MILLISECONDS)
+                            .build());
+        }
+        ScheduledTask coalescedTask = ScheduledTask.builder()
+                        .taskID("coalesced")
+                        .taskToSchedule(() -> {
+                            coalescedRunTimeInNanos.set(System.nanoTime());
+                            coalescedRuns.incrementAndGet();
+                        })
+                        .delay(200)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build();
+        singleExecutionScheduler.schedule(coalescedTask);
+        long scheduleTimeInNanos = System.nanoTime();
+        BulkScheduleResult result = singleExecutionScheduler.schedule(List.of(ScheduledTask.builder()
+                                        .taskID("replaced")
+                                        .taskToSchedule(replacingRuns::incrementAndGet)
+                                        .delay(210)
+                                        .unit(TimeUnit.MILLISECONDS)
+                                        .duplicatePolicy(DuplicatePolicy.REPLACE)
+                                        .build(),
+                        ScheduledTask.builder()
+                                        .taskID("kept")
+                                        .taskToSchedule(keptRuns::incrementAndGet)
+                                        .delay(210)
+                                        .unit(TimeUnit.MILLISECONDS)
+                                        .duplicatePolicy(DuplicatePolicy.KEEP_EXISTING)
+                                        .build(),
+                        ScheduledTask.builder()
+                                        .taskID("coalesced")
+                                        .taskToSchedule(coalescedRuns::incrementAndGet)
+                                        .delay(400)
+                                        .unit(TimeUnit.MILLISECONDS)
+                                        .duplicatePolicy(DuplicatePolicy.COALESCE)
+                                        .build()));
+        assertEquals(ScheduleOutcome.ACCEPTED, result.getOutcome(0));
+        assertEquals(ScheduleOutcome.DUPLICATE_ID, result.getOutcome(1));
+        assertEquals(ScheduleOutcome.DUPLICATE_ID, result.getOutcome(2));
+        assertSame(coalescedTask, singleExecutionScheduler.getScheduledTaskByID("coalesced"));
+        Thread.sleep(600);
+        assertEquals(1, pendingRuns.get());
+        assertEquals(1, replacingRuns.get());
+        assertEquals(0, keptRuns.get());
+        assertEquals(1, coalescedRuns.get());
+        assertTrue(coalescedRunTimeInNanos.get() - scheduleTimeInNanos >= TimeUnit.MILLISECONDS.toNanos(390));
+    }
+
+
+    @Test
+    void test_scheduleRecurring_keepsThePendingTask() throws Exception
+    {
+        singleExecutionScheduler = new SingleExecutionScheduleService();
+        RecurringScheduleService recurringScheduler = new RecurringScheduleService(singleExecutionScheduler);
+        ScheduledTask pendingTask = ScheduledTask.builder()
+                        .taskID("recurring-entity")
+                        .taskToSchedule(() -> {})
+                        .delay(1)
+                        .unit(TimeUnit.HOURS)
+                        .build();
+        singleExecutionScheduler.schedule(pendingTask);
+        ScheduledTask recurringTask = ScheduledTask.builder()
+                        .taskID("recurring-entity")
+                        .taskToSchedule(() -> {})
+                        .delay(10)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .duplicatePolicy(DuplicatePolicy.KEEP_EXISTING)
+                        .build();
+        recurringScheduler.scheduleAtFixedRate(recurringTask, 10, TimeUnit.MILLISECONDS);
+        assertNull(recurringTask.getTask());
+        assertSame(pendingTask, singleExecutionScheduler.getScheduledTaskByID("recurring-entity"));
+    }
+}
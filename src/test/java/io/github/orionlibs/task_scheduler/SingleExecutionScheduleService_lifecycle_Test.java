@@ -0,0 +1,196 @@
+package io.github.orionlibs.task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.orionlibs.task_scheduler.listener.TaskLifecycleDispatcher;
+import io.github.orionlibs.task_scheduler.listener.TaskLifecycleEvent;
+import io.github.orionlibs.task_scheduler.listener.TaskLifecycleEventType;
+import io.github.orionlibs.task_scheduler.listener.TaskLifecycleListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_lifecycle_Test
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+    private ExecutorService listenerExecutor;
+    private List<TaskLifecycleEvent> events;
+    private List<Integer> batchSizes;
+    private List<String> listenerThreadNames;
+
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        events = new CopyOnWriteArrayList<>();
+        batchSizes = new CopyOnWriteArrayList<>();
+        listenerThreadNames = new CopyOnWriteArrayList<>();
+        listenerExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "lifecycle-listener"));
+        TaskLifecycleDispatcher lifecycleDispatcher = TaskLifecycleDispatcher.builder()
+                        .executor(listenerExecutor)
+                        .maxBatchSize(100)
+                        .maxLinger(20)
+                        .maxLingerUnit(TimeUnit.MILLISECONDS)
+                        .build()
+                        .addListener(new TaskLifecycleListener()
+                        {
+                            @Override
+                            public void onEvents(List<TaskLifecycleEvent> batch)
+                            {
+                                batchSizes.add(batch.size());
+                                listenerThreadNames.add(Thread.currentThread().getName());
+                                events.addAll(batch);
+                            }
+                        });
+        singleExecutionScheduler = SingleExecutionScheduleService.builder()
+                        .lifecycleDispatcher(lifecycleDispatcher)
+                        .build();
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdown();
+        listenerExecutor.shutdown();
+    }
+
+
+    @Test
+    void test_lifecycleListener_receivesTheEventsOfTheTasks() throws Exception
+    {
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("succeeding")
+                        .taskToSchedule(() -> {})
+                        .delay(10)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("failing")
+                        .taskToSchedule(() -> {
+                            throw new IllegalStateException("lifecycle failure");
+                        })
+                        .delay(10)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .numberOfRetriesOnError(1)
+                        .build());
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("cancelled")
+                        .taskToSchedule(() -> {})
+                        .delay(10)
+                        .unit(TimeUnit.SECONDS)
+                        .build());
+        ScheduledTask keptTask = ScheduledTask.builder()
+                        .taskID("cancelled")
+                        .taskToSchedule(() -> {})
+                        .delay(10)
+                        .unit(TimeUnit.SECONDS)
+                        .build();
+        keptTask.setDuplicatePolicy(DuplicatePolicy.KEEP_EXISTING);
+        singleExecutionScheduler.schedule(keptTask);
+        singleExecutionScheduler.cancel("cancelled");
+        waitForEvent(event -> event.getEventType() == TaskLifecycleEventType.FAILED);
+        waitForEvent(event -> event.getEventType() == TaskLifecycleEventType.SUCCEEDED);
+        assertEquals(List.of(TaskLifecycleEventType.SCHEDULED, TaskLifecycleEventType.STARTED, TaskLifecycleEventType.SUCCEEDED), eventTypesOf("succeeding"));
+        assertEquals(List.of(TaskLifecycleEventType.SCHEDULED, TaskLifecycleEventType.STARTED, TaskLifecycleEventType.RETRIED,
+                        TaskLifecycleEventType.STARTED, TaskLifecycleEventType.FAILED), eventTypesOf("failing"));
+        assertEquals(List.of(TaskLifecycleEventType.SCHEDULED, TaskLifecycleEventType.DROPPED, TaskLifecycleEventType.CANCELLED), eventTypesOf("cancelled"));
+        TaskLifecycleEvent failedEvent = events.stream().filter(event -> event.getEventType() == TaskLifecycleEventType.FAILED).findFirst().get();
+        assertEquals("lifecycle failure", failedEvent.getError().getMessage());
+        assertTrue(listenerThreadNames.stream().allMatch("lifecycle-listener"::equals));
+    }
+
+
+    @Test
+    void test_lifecycleListener_receivesTheEventsInBatches() throws Exception
+    {
+        for(int i = 0; i < 500; i++)
+        {
+            singleExecutionScheduler.schedule(ScheduledTask.builder()
+                            .taskID("batched" + i)
+                            .taskToSchedule(() -> {})
+                            .delay(10)
+                            .unit(TimeUnit.SECONDS)
+                            .build());
+        }
+        waitForEvent(event -> event.getTaskID().equals("batched499"));
+        assertEquals(500, events.size());
+        assertTrue(batchSizes.size() < 500);
+        assertTrue(batchSizes.stream().allMatch(batchSize -> batchSize <= 100));
+        assertNotEquals(0, batchSizes.stream().filter(batchSize -> batchSize > 1).count());
+    }
+
+
+    @Test
+    void test_lifecycleListener_receivesTheBatchesInOrderOnAMultiThreadedExecutor() throws Exception
+    {
+        ExecutorService multiThreadedExecutor = Executors.newFixedThreadPool(4);
+        List<String> deliveredTaskIDs = new CopyOnWriteArrayList<>();
+        TaskLifecycleDispatcher lifecycleDispatcher = TaskLifecycleDispatcher.builder()
+                        .executor(multiThreadedExecutor)
+                        .maxBatchSize(1)
+                        .build()
+                        .addListener(new TaskLifecycleListener()
+                        {
+                            @Override
+                            public void onEvents(List<TaskLifecycleEvent> batch)
+                            {
+                                LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(100_000L));
+                                batch.forEach(event -> deliveredTaskIDs.add(event.getTaskID()));
+                            }
+                        });
+        try
+        {
+            List<String> publishedTaskIDs = new ArrayList<>();
+            for(int i = 0; i < 200; i++)
+            {
+                publishedTaskIDs.add("ordered" + i);
+                lifecycleDispatcher.publish(TaskLifecycleEventType.SCHEDULED, "ordered" + i, null);
+            }
+            long deadline = System.currentTimeMillis() + 3_000L;
+            while(deliveredTaskIDs.size() < 200 && System.currentTimeMillis() < deadline)
+            {
+                Thread.sleep(5);
+            }
+            assertEquals(publishedTaskIDs, deliveredTaskIDs);
+        }
+        finally
+        {
+            lifecycleDispatcher.close();
+            multiThreadedExecutor.shutdown();
+        }
+    }
+
+
+    private List<TaskLifecycleEventType> eventTypesOf(String taskID)
+    {
+        return events.stream()
+                        .filter(event -> event.getTaskID().equals(taskID))
+                        .map(TaskLifecycleEvent::getEventType)
+                        .toList();
+    }
+
+
+    private void waitForEvent(Predicate<TaskLifecycleEvent> eventFilter) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + 3_000L;
+        while(events.stream().noneMatch(eventFilter) && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package io.github.orionlibs.task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_maxRunTime_Test
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        singleExecutionScheduler = new SingleExecutionScheduleService();
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdown();
+    }
+
+
+    @Test
+    void test_maxRunTime_interruptsAHungRunAndRetriesIt() throws Exception
+    {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch taskCompleted = new CountDownLatch(1);
+        long startTimeInMillis = System.currentTimeMillis();
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("hung")
+                        .taskToSchedule(() -> {
+                            if(runs.incrementAndGet() == 1)
+                            {
+                                try
+                                {
+                                    Thread.sleep(10_000L);
+                                }
+                                catch(InterruptedException e)
+                                {
+                                    throw new IllegalStateException("interrupted", e);
+                                }
+                            }
+                        })
+                        .delay(0)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .numberOfRetriesOnError(1)
+                        .maxRunTime(50)
+                        .maxRunTimeUnit(TimeUnit.MILLISECONDS)
+                        .callbackAfterTaskCompletes(taskCompleted::countDown)
+                        .build());
+        assertTrue(taskCompleted.await(3, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - startTimeInMillis < 3_000L);
+        assertEquals(2, runs.get());
+        assertEquals(1L, singleExecutionScheduler.getMetrics().getTimedOutTasks());
+        assertEquals(1L, singleExecutionScheduler.getMetrics().getRetriedTasks());
+        assertEquals(0L, singleExecutionScheduler.getMetrics().getFailedTasks());
+    }
+
+
+    @Test
+    void test_maxRunTime_failsARunThatIgnoresTheInterrupt() throws Exception
+    {
+        ScheduledTask task = ScheduledTask.builder()
+                        .taskID("busy")
+                        .delay(0)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .maxRunTime(20)
+                        .maxRunTimeUnit(TimeUnit.MILLISECONDS)
+                        .build();
+        CompletableFuture<String> result = singleExecutionScheduler.schedule(task, () -> {
+            long endTimeInNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(150L);
+            while(System.nanoTime() < endTimeInNanos)
+            {
+                Thread.onSpinWait();
+            }
+            return "done";
+        });
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, exception.getCause());
+        assertEquals(1L, singleExecutionScheduler.getMetrics().getTimedOutTasks());
+        assertEquals(1L, singleExecutionScheduler.getMetrics().getFailedTasks());
+    }
+
+
+    @Test
+    void test_maxRunTime_doesNotLeakTheInterruptIntoTheNextTask() throws Exception
+    {
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("fast")
+                        .taskToSchedule(() -> {})
+                        .delay(0)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .maxRunTime(1)
+                        .maxRunTimeUnit(TimeUnit.MILLISECONDS)
+                        .build());
+        Thread.sleep(50);
+        CompletableFuture<Boolean> wasInterrupted = singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("next")
+                        .delay(0)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build(), () -> Thread.currentThread().isInterrupted());
+        assertEquals(false, wasInterrupted.get(2, TimeUnit.SECONDS));
+    }
+
+
+    @Test
+    void test_maxRunTime_requiresAUnit()
+    {
+        assertThrows(InvalidArgumentException.class, () -> singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("noUnit")
+                        .taskToSchedule(() -> {})
+                        .delay(0)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .maxRunTime(1)
+                        .build()));
+    }
+
+
+    @Test
+    void test_maxRunTime_doesNotKeepTheWatchesOfFinishedRuns()
+    {
+        RunTimeWatchdog watchdog = new RunTimeWatchdog();
+        try
+        {
+            for(int i = 0; i < 10_000; i++)
+            {
+                RunTimeWatchdog.Watch watch = watchdog.watch(TimeUnit.HOURS.toNanos(1L));
+                assertFalse(watch.finish());
+            }
+            assertTrue(watchdog.getNumberOfWatches() < 2_048);
+        }
+        finally
+        {
+            watchdog.stop();
+        }
+    }
+}
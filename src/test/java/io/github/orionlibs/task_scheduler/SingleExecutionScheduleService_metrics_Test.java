@@ -0,0 +1,99 @@
+package io.github.orionlibs.task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.orionlibs.task_scheduler.metrics.MetricsSnapshot;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_metrics_Test
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        singleExecutionScheduler = new SingleExecutionScheduleService();
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdown();
+    }
+
+
+    @Test
+    void test_getMetrics_countsScheduledFiredCancelledAndFailedTasks() throws Exception
+    {
+        CountDownLatch taskCompleted = new CountDownLatch(1);
+        CountDownLatch failingTaskCompleted = new CountDownLatch(1);
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("metrics-runnable")
+                        .taskToSchedule(() -> {
+                        })
+                        .delay(10)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .callbackAfterTaskCompletes(taskCompleted::countDown)
+                        .build());
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("metrics-failing-runnable")
+                        .taskToSchedule(() -> {
+                            throw new IllegalStateException("metrics-failure");
+                        })
+                        .delay(10)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .callbackAfterTaskCompletes(failingTaskCompleted::countDown)
+                        .build());
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("metrics-cancelled-runnable")
+                        .taskToSchedule(() -> {
+                        })
+                        .delay(1)
+                        .unit(TimeUnit.HOURS)
+                        .build());
+        singleExecutionScheduler.cancel("metrics-cancelled-runnable");
+        assertTrue(taskCompleted.await(1, TimeUnit.SECONDS));
+        assertTrue(failingTaskCompleted.await(1, TimeUnit.SECONDS));
+        MetricsSnapshot metrics = singleExecutionScheduler.getMetrics();
+        assertEquals(3L, metrics.getScheduledTasks());
+        assertEquals(2L, metrics.getFiredTasks());
+        assertEquals(1L, metrics.getCancelledTasks());
+        assertEquals(1L, metrics.getFailedTasks());
+        assertEquals(0L, metrics.getRetriedTasks());
+        assertEquals(0L, metrics.getPendingTasks());
+        assertEquals(2L, metrics.getFiringLag().getCount());
+        assertEquals(2L, metrics.getRunTime().getCount());
+        assertTrue(metrics.getFiringLag().getValueAtPercentile(99.0d, TimeUnit.MILLISECONDS) < 1000L);
+    }
+
+
+    @Test
+    void test_getMetrics_countsPendingTasks() throws Exception
+    {
+        for(int i = 0; i < 5; i++)
+        {
+            singleExecutionScheduler.schedule(ScheduledTask.builder()
+                            .taskID("metrics-pending-runnable" + i)
+                            .taskToSchedule(() -> {
+                            })
+                            .delay(1)
+                            .unit(TimeUnit.HOURS)
+                            .build());
+        }
+        MetricsSnapshot metrics = singleExecutionScheduler.getMetrics();
+        assertEquals(5L, metrics.getPendingTasks());
+        assertEquals(5L, metrics.getScheduledTasks());
+        assertEquals(0L, metrics.getFiredTasks());
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.orionlibs.task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.orionlibs.task_scheduler.engine.ExecutorTimerEngine;
+import io.github.orionlibs.task_scheduler.engine.TaskPriority;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_priority_Test
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        singleExecutionScheduler = SingleExecutionScheduleService.builder()
+                        .timerEngine(ExecutorTimerEngine.builder()
+                                        .workerThreads(1)
+                                        .build())
+                        .build();
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdown();
+    }
+
+
+    @Test
+    void test_schedule_criticalTasksRunFirstWhenABurstIsDue() throws Exception
+    {
+        CountDownLatch blockerStarted = new CountDownLatch(1);
+        CountDownLatch releaseBlocker = new CountDownLatch(1);
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("blocker")
+                        .taskToSchedule(() -> {
+                            blockerStarted.countDown();
+                            try
+                            {
+                                releaseBlocker.await();
+                            }
+                            catch(InterruptedException e)
+                            {
+                                Thread.currentThread().interrupt();
+                            }
+                        })
+                        .delay(0)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        assertTrue(blockerStarted.await(1, TimeUnit.SECONDS));
+        List<TaskPriority> executionOrder = new CopyOnWriteArrayList<>();
+        CountDownLatch tasksCompleted = new CountDownLatch(25);
+        for(int i = 0; i < 25; i++)
+        {
+            TaskPriority priority = i % 5 == 4 ? TaskPriority.CRITICAL : TaskPriority.LOW;
+            singleExecutionScheduler.schedule(ScheduledTask.builder()
+                            .taskID("burst-runnable" + i)
+                            .taskToSchedule(() -> executionOrder.add(priority))
+                            .delay(10)
+                            .unit(TimeUnit.MILLISECONDS)
+                            .priority(priority)
+                            .callbackAfterTaskCompletes(tasksCompleted::countDown)
+                            .build());
+        }
+        Thread.sleep(100);
+        releaseBlocker.countDown();
+        assertTrue(tasksCompleted.await(1, TimeUnit.SECONDS));
+        long criticalTasksInTheFirst6 = executionOrder.subList(0, 6).stream()
+                        .filter(priority -> priority == TaskPriority.CRITICAL)
+                        .count();
+        assertEquals(5L, criticalTasksInTheFirst6);
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.orionlibs.task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_result_Test
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        singleExecutionScheduler = new SingleExecutionScheduleService();
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdown();
+    }
+
+
+    @Test
+    void test_schedule_completesWithTheValueOfTheCallable() throws Exception
+    {
+        CompletableFuture<String> result = singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("result-callable")
+                        .delay(10)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build(), () -> "result");
+        assertEquals("RESULT", result.thenApply(String::toUpperCase).get(1, TimeUnit.SECONDS));
+    }
+
+
+    @Test
+    void test_schedule_completesExceptionallyWhenTheRetriesRunOut() throws Exception
+    {
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<Integer> result = singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("failing-result-callable")
+                        .delay(5)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .numberOfRetriesOnError(2)
+                        .build(), () -> {
+            attempts.incrementAndGet();
+            throw new IOException("failing-result-callable failure");
+        });
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, exception.getCause());
+        assertEquals(3, attempts.get());
+    }
+
+
+    @Test
+    void test_schedule_completesExceptionallyWhenTheCallableThrowsAnError() throws Exception
+    {
+        CompletableFuture<String> result = singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("result-error")
+                        .delay(0)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build(), () -> {
+            throw new StackOverflowError();
+        });
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(StackOverflowError.class, exception.getCause());
+    }
+
+
+    @Test
+    void test_schedule_isCancelledWhenTheTaskIsCancelled() throws Exception
+    {
+        CompletableFuture<String> result = singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("cancelled-result-callable")
+                        .delay(1)
+                        .unit(TimeUnit.HOURS)
+                        .build(), () -> "result");
+        singleExecutionScheduler.cancel("cancelled-result-callable");
+        assertTrue(result.isCancelled());
+    }
+
+
+    @Test
+    void test_schedule_withNullCallable()
+    {
+        assertThrows(InvalidArgumentException.class, () -> singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("null-callable")
+                        .delay(1)
+                        .unit(TimeUnit.HOURS)
+                        .build(), null));
+    }
+}
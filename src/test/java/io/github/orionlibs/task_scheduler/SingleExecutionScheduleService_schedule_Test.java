@@ -1,6 +1,9 @@
 package io.github.orionlibs.task_scheduler;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -12,7 +15,12 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -277,6 +285,64 @@ public class SingleExecutionScheduleService_schedule_Test
     }
 
 
+    @Test
+    void test_schedule_listOfTasks_withInvalidAndDuplicateTasks() throws Exception
+    {
+        runnableExample1.addLogMessage("Runnable1 is running");
+        runnableExample2.addLogMessage("Runnable2 is running");
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("alreadyScheduled")
+                        .taskToSchedule(runnableExample1)
+                        .delay(1)
+                        .unit(TimeUnit.HOURS)
+                        .build());
+        List<ScheduledTask> tasksToSchedule = new ArrayList<>();
+        tasksToSchedule.add(ScheduledTask.builder()
+                        .taskID("runnable1")
+                        .taskToSchedule(runnableExample1)
+                        .delay(100)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        tasksToSchedule.add(ScheduledTask.builder()
+                        .taskID("runnable2")
+                        .taskToSchedule(null)
+                        .delay(100)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        tasksToSchedule.add(ScheduledTask.builder()
+                        .taskID("runnable1")
+                        .taskToSchedule(runnableExample2)
+                        .delay(100)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        tasksToSchedule.add(ScheduledTask.builder()
+                        .taskID("alreadyScheduled")
+                        .taskToSchedule(runnableExample2)
+                        .delay(100)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        BulkScheduleResult result = singleExecutionScheduler.schedule(tasksToSchedule);
+        assertEquals(ScheduleOutcome.ACCEPTED, result.getOutcome(0));
+        assertEquals(ScheduleOutcome.REJECTED, result.getOutcome(1));
+        assertEquals("taskToSchedule cannot be null.", result.getRejectionReason(1));
+        assertEquals(ScheduleOutcome.DUPLICATE_ID, result.getOutcome(2));
+        //the pending task is replaced, as the task has the default duplicatePolicy
+        assertEquals(ScheduleOutcome.ACCEPTED, result.getOutcome(3));
+        assertEquals(2, result.getNumberOfAcceptedTasks());
+        assertEquals(1, result.getNumberOfRejectedTasks());
+        assertEquals(1, result.getNumberOfDuplicateTasks());
+        assertTrue(listLogHandler.getLogRecords().stream()
+                        .anyMatch(record -> record.getMessage().equals("schedule started for 2 tasks, 1 rejected, 1 duplicate IDs")));
+        Thread.sleep(250);
+        assertEquals(1, listLogHandler.getLogRecords().stream()
+                        .filter(record -> record.getMessage().contains("Runnable1 is running"))
+                        .count());
+        assertEquals(1, listLogHandler.getLogRecords().stream()
+                        .filter(record -> record.getMessage().contains("Runnable2 is running"))
+                        .count());
+    }
+
+
     @Test
     void test_schedule_withCallbackAfterTaskCompletes() throws Exception
     {
@@ -328,11 +394,10 @@ public class SingleExecutionScheduleService_schedule_Test
                         .numberOfRetriesOnError(1)
                         .build());
         Thread.sleep(2000);
-        assertEquals(4, listLogHandler.getLogRecords().size());
+        assertEquals(3, listLogHandler.getLogRecords().size());
         assertEquals("schedule started", listLogHandler.getLogRecords().get(0).getMessage());
         assertEquals("Runnable is running", listLogHandler.getLogRecords().get(1).getMessage());
-        assertEquals("schedule started", listLogHandler.getLogRecords().get(2).getMessage());
-        assertEquals("Runnable is running", listLogHandler.getLogRecords().get(3).getMessage());
+        assertEquals("Runnable is running", listLogHandler.getLogRecords().get(2).getMessage());
     }
 
 
@@ -348,14 +413,156 @@ public class SingleExecutionScheduleService_schedule_Test
                         .numberOfRetriesOnError(3)
                         .build());
         Thread.sleep(6000);
-        assertEquals(8, listLogHandler.getLogRecords().size());
+        assertEquals(5, listLogHandler.getLogRecords().size());
         assertEquals("schedule started", listLogHandler.getLogRecords().get(0).getMessage());
         assertEquals("Runnable is running", listLogHandler.getLogRecords().get(1).getMessage());
-        assertEquals("schedule started", listLogHandler.getLogRecords().get(2).getMessage());
+        assertEquals("Runnable is running", listLogHandler.getLogRecords().get(2).getMessage());
         assertEquals("Runnable is running", listLogHandler.getLogRecords().get(3).getMessage());
-        assertEquals("schedule started", listLogHandler.getLogRecords().get(4).getMessage());
-        assertEquals("Runnable is running", listLogHandler.getLogRecords().get(5).getMessage());
-        assertEquals("schedule started", listLogHandler.getLogRecords().get(6).getMessage());
-        assertEquals("Runnable is running", listLogHandler.getLogRecords().get(7).getMessage());
+        assertEquals("Runnable is running", listLogHandler.getLogRecords().get(4).getMessage());
+    }
+
+
+    @Test
+    void test_schedule_retriesReuseTheSameFutureWithoutCancelling() throws Exception
+    {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch taskCompleted = new CountDownLatch(1);
+        AtomicBoolean cancelCallbackCalled = new AtomicBoolean();
+        ScheduledTask task = ScheduledTask.builder()
+                        .taskID("retried-runnable")
+                        .taskToSchedule(() -> {
+                            if(runs.incrementAndGet() < 3)
+                            {
+                                throw new IllegalStateException("retried-runnable failure");
+                            }
+                        })
+                        .delay(10)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .numberOfRetriesOnError(5)
+                        .callbackAfterTaskCompletes(taskCompleted::countDown)
+                        .callbackAfterTaskIsCancelled(() -> cancelCallbackCalled.set(true))
+                        .build();
+        singleExecutionScheduler.schedule(task);
+        ScheduledFuture<?> future = task.getTask();
+        assertTrue(taskCompleted.await(1, TimeUnit.SECONDS));
+        assertEquals(3, runs.get());
+        assertSame(future, task.getTask());
+        assertFalse(future.isCancelled());
+        assertFalse(cancelCallbackCalled.get());
+        assertEquals(2L, singleExecutionScheduler.getMetrics().getRetriedTasks());
+        assertEquals(1L, singleExecutionScheduler.getMetrics().getScheduledTasks());
+        assertTrue(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().isEmpty());
+    }
+
+
+    @Test
+    void test_schedule_retriesWithExponentialBackoff() throws Exception
+    {
+        List<Long> runTimesInNanos = new CopyOnWriteArrayList<>();
+        CountDownLatch taskCompleted = new CountDownLatch(1);
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("backoff-runnable")
+                        .taskToSchedule(() -> {
+                            runTimesInNanos.add(System.nanoTime());
+                            throw new IllegalStateException("backoff-runnable failure");
+                        })
+                        .delay(0)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .numberOfRetriesOnError(3)
+                        .retryBackoff(RetryBackoff.builder()
+                                        .strategy(RetryBackoff.Strategy.EXPONENTIAL)
+                                        .initialDelay(40)
+                                        .maxDelay(100)
+                                        .unit(TimeUnit.MILLISECONDS)
+                                        .build())
+                        .callbackAfterTaskCompletes(taskCompleted::countDown)
+                        .build());
+        assertTrue(taskCompleted.await(2, TimeUnit.SECONDS));
+        assertEquals(4, runTimesInNanos.size());
+        long[] minimumGapsInMillis = {40L, 80L, 100L};
+        for(int i = 0; i < minimumGapsInMillis.length; i++)
+        {
+            long gapInMillis = TimeUnit.NANOSECONDS.toMillis(runTimesInNanos.get(i + 1) - runTimesInNanos.get(i));
+            assertTrue(gapInMillis >= minimumGapsInMillis[i], "gap " + i + " was " + gapInMillis);
+        }
+        assertEquals(1L, singleExecutionScheduler.getMetrics().getFailedTasks());
+    }
+
+
+    @Test
+    void test_retryBackoff_jitteredDelaysStayWithinTheExponentialDelay()
+    {
+        RetryBackoff backoff = RetryBackoff.builder()
+                        .strategy(RetryBackoff.Strategy.JITTERED)
+                        .initialDelay(10)
+                        .multiplier(3.0d)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build();
+        for(int i = 0; i < 100; i++)
+        {
+            long delayInNanos = backoff.getDelayInNanos(3);
+            assertTrue(delayInNanos >= 0L && delayInNanos <= TimeUnit.MILLISECONDS.toNanos(90L));
+        }
+    }
+
+
+    @Test
+    void test_schedule_logsTaskEventsAsynchronouslyWhenEnabled() throws Exception
+    {
+        config.updateProp("orionlibs.task-scheduler.async-logging.enabled", "true");
+        try
+        {
+            CountDownLatch taskCompleted = new CountDownLatch(1);
+            singleExecutionScheduler.schedule(ScheduledTask.builder()
+                            .taskID("asyncLogged")
+                            .taskToSchedule(() -> {})
+                            .delay(20)
+                            .unit(TimeUnit.MILLISECONDS)
+                            .callbackAfterTaskCompletes(taskCompleted::countDown)
+                            .build());
+            assertTrue(taskCompleted.await(2, TimeUnit.SECONDS));
+            long deadline = System.currentTimeMillis() + 2_000L;
+            while(!hasLogMessage("task asyncLogged succeeded") && System.currentTimeMillis() < deadline)
+            {
+                Thread.sleep(5);
+            }
+            assertTrue(hasLogMessage("task asyncLogged scheduled"));
+            assertTrue(hasLogMessage("task asyncLogged succeeded"));
+            assertFalse(hasLogMessage("schedule started"));
+        }
+        finally
+        {
+            config.updateProp("orionlibs.task-scheduler.async-logging.enabled", "false");
+            singleExecutionScheduler.shutdown();
+        }
+    }
+
+
+    private boolean hasLogMessage(String message)
+    {
+        return new ArrayList<>(listLogHandler.getLogRecords()).stream()
+                        .anyMatch(record -> record.getMessage().contains(message));
+    }
+
+
+    @Test
+    void test_schedule_completesATaskWhoseBodyThrowsAnError() throws Exception
+    {
+        CountDownLatch taskCompleted = new CountDownLatch(1);
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("erroring")
+                        .taskToSchedule(() -> {
+                            throw new AssertionError("broken invariant");
+                        })
+                        .delay(0)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .numberOfRetriesOnError(2)
+                        .callbackAfterTaskCompletes(taskCompleted::countDown)
+                        .build());
+        assertTrue(taskCompleted.await(1, TimeUnit.SECONDS));
+        assertNull(singleExecutionScheduler.getScheduledTaskByID("erroring"));
+        assertEquals(0L, singleExecutionScheduler.getMetrics().getRetriedTasks());
+        assertEquals(1L, singleExecutionScheduler.getMetrics().getFailedTasks());
+        assertEquals(0L, singleExecutionScheduler.getMetrics().getPendingTasks());
     }
 }
@@ -0,0 +1,133 @@
+package io.github.orionlibs.task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.orionlibs.task_scheduler.engine.ExecutorTimerEngine;
+import io.github.orionlibs.task_scheduler.log.ListLogHandler;
+import io.github.orionlibs.task_scheduler.utils.RunnableExample;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_shutdown_Test
+{
+    private ListLogHandler listLogHandler;
+    private SingleExecutionScheduleService singleExecutionScheduler;
+    private RunnableExample runnableExample1;
+    private RunnableExample runnableExample2;
+
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        singleExecutionScheduler = SingleExecutionScheduleService.builder()
+                        .timerEngine(ExecutorTimerEngine.builder()
+                                        .timerThreads(2)
+                                        .workerThreads(4)
+                                        .build())
+                        .build();
+        listLogHandler = new ListLogHandler();
+        singleExecutionScheduler.addLogHandler(listLogHandler);
+        runnableExample1 = new RunnableExample();
+        runnableExample2 = new RunnableExample();
+        RunnableExample.addLogHandler(listLogHandler);
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.removeLogHandler(listLogHandler);
+        RunnableExample.removeLogHandler(listLogHandler);
+    }
+
+
+    @Test
+    void test_shutdown_cancelsPendingTasks() throws Exception
+    {
+        runnableExample1.addLogMessage("shutdown-runnable1 is running");
+        runnableExample2.addLogMessage("shutdown-runnable2 is running");
+        ScheduledTask task1 = ScheduledTask.builder()
+                        .taskID("runnable1")
+                        .taskToSchedule(runnableExample1)
+                        .delay(50)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build();
+        ScheduledTask task2 = ScheduledTask.builder()
+                        .taskID("runnable2")
+                        .taskToSchedule(runnableExample2)
+                        .delay(1)
+                        .unit(TimeUnit.HOURS)
+                        .build();
+        singleExecutionScheduler.schedule(task1);
+        singleExecutionScheduler.schedule(task2);
+        Thread.sleep(150);
+        singleExecutionScheduler.shutdown();
+        assertTrue(singleExecutionScheduler.isShutdown());
+        assertTrue(singleExecutionScheduler.awaitTermination(1, TimeUnit.SECONDS));
+        assertTrue(task1.getTask().isDone());
+        assertFalse(task1.getTask().isCancelled());
+        assertTrue(task2.getTask().isCancelled());
+        assertTrue(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().isEmpty());
+        assertEquals(1, listLogHandler.getLogRecords().stream()
+                        .filter(record -> record.getMessage().contains("shutdown-runnable"))
+                        .count());
+    }
+
+
+    @Test
+    void test_shutdown_letsRunningTasksFinish() throws Exception
+    {
+        runnableExample1.addLogMessage("shutdown-runnable1 is running");
+        CountDownLatch taskStarted = new CountDownLatch(1);
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("runnable1")
+                        .taskToSchedule(() -> {
+                            taskStarted.countDown();
+                            try
+                            {
+                                Thread.sleep(200);
+                            }
+                            catch(InterruptedException e)
+                            {
+                                Thread.currentThread().interrupt();
+                            }
+                            runnableExample1.run();
+                        })
+                        .delay(0)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        assertTrue(taskStarted.await(1, TimeUnit.SECONDS));
+        singleExecutionScheduler.shutdown();
+        assertTrue(singleExecutionScheduler.awaitTermination(1, TimeUnit.SECONDS));
+        assertTrue(listLogHandler.getLogRecords().stream()
+                        .anyMatch(record -> record.getMessage().contains("shutdown-runnable1 is running")));
+    }
+
+
+    @Test
+    void test_schedule_afterShutdown() throws Exception
+    {
+        runnableExample1.addLogMessage("shutdown-runnable1 is running");
+        singleExecutionScheduler.shutdown();
+        Exception exception = assertThrows(RejectedExecutionException.class, () -> {
+            singleExecutionScheduler.schedule(ScheduledTask.builder()
+                            .taskID("runnable1")
+                            .taskToSchedule(runnableExample1)
+                            .delay(50)
+                            .unit(TimeUnit.MILLISECONDS)
+                            .build());
+        });
+        assertTrue(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().isEmpty());
+    }
+}
@@ -0,0 +1,205 @@
+package io.github.orionlibs.task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.orionlibs.task_scheduler.persistence.PendingTaskRecord;
+import io.github.orionlibs.task_scheduler.persistence.TaskSpillStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.io.TempDir;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_spill_Test
+{
+    @TempDir
+    Path spillDirectory;
+    private SingleExecutionScheduleService singleExecutionScheduler;
+    private TaskSpillStore spillStore;
+
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        spillStore = TaskSpillStore.builder()
+                        .directory(spillDirectory)
+                        .horizon(1)
+                        .horizonUnit(TimeUnit.HOURS)
+                        .build();
+        singleExecutionScheduler = SingleExecutionScheduleService.builder()
+                        .taskTypeRegistry(new TaskTypeRegistry().register("spilled-type", payload -> () -> {}))
+                        .spillStore(spillStore)
+                        .build();
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdown();
+    }
+
+
+    @Test
+    void test_schedule_spillsTasksBeyondTheHorizonAndPagesThemIn() throws Exception
+    {
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("spilled1")
+                        .taskToSchedule(() -> {})
+                        .delay(3)
+                        .unit(TimeUnit.HOURS)
+                        .taskType("spilled-type")
+                        .taskPayload("payload-spilled1")
+                        .build());
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("spilled2")
+                        .taskToSchedule(() -> {})
+                        .delay(3)
+                        .unit(TimeUnit.HOURS)
+                        .taskType("spilled-type")
+                        .taskPayload("payload-spilled2")
+                        .build());
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("near")
+                        .taskToSchedule(() -> {})
+                        .delay(10)
+                        .unit(TimeUnit.MINUTES)
+                        .taskType("spilled-type")
+                        .taskPayload("payload-near")
+                        .build());
+        assertNull(singleExecutionScheduler.getScheduledTaskByID("spilled1"));
+        assertNotNull(singleExecutionScheduler.getScheduledTaskByID("near"));
+        assertEquals(2, spillStore.size());
+        assertEquals(3L, singleExecutionScheduler.getMetrics().getPendingTasks());
+        assertEquals(3L, singleExecutionScheduler.getMetrics().getScheduledTasks());
+        try(Stream<Path> files = Files.list(spillDirectory))
+        {
+            assertEquals(1L, files.count());
+        }
+        singleExecutionScheduler.pageInSpilledTasks(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(4));
+        ScheduledTask pagedInTask = singleExecutionScheduler.getScheduledTaskByID("spilled1");
+        assertNotNull(pagedInTask);
+        assertEquals("payload-spilled1", pagedInTask.getTaskPayload());
+        assertTrue(pagedInTask.getTask().getDelay(TimeUnit.MINUTES) > 170);
+        assertEquals(0, spillStore.size());
+        assertEquals(3L, singleExecutionScheduler.getMetrics().getPendingTasks());
+        assertEquals(3L, singleExecutionScheduler.getMetrics().getScheduledTasks());
+        try(Stream<Path> files = Files.list(spillDirectory))
+        {
+            assertEquals(0L, files.count());
+        }
+    }
+
+
+    @Test
+    void test_cancel_cancelsASpilledTask() throws Exception
+    {
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("spilled1")
+                        .taskToSchedule(() -> {})
+                        .delay(3)
+                        .unit(TimeUnit.HOURS)
+                        .taskType("spilled-type")
+                        .taskPayload("payload-spilled1")
+                        .build());
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("spilled2")
+                        .taskToSchedule(() -> {})
+                        .delay(3)
+                        .unit(TimeUnit.HOURS)
+                        .taskType("spilled-type")
+                        .taskPayload("payload-spilled2")
+                        .build());
+        assertTrue(singleExecutionScheduler.cancel("spilled1"));
+        assertThrows(TaskDoesNotExistException.class, () -> singleExecutionScheduler.cancel("spilled1"));
+        singleExecutionScheduler.pageInSpilledTasks(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(4));
+        assertNull(singleExecutionScheduler.getScheduledTaskByID("spilled1"));
+        assertNotNull(singleExecutionScheduler.getScheduledTaskByID("spilled2"));
+    }
+
+
+    @Test
+    void test_schedule_replacesASpilledTaskWithTheSameTaskID() throws Exception
+    {
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("spilled1")
+                        .taskToSchedule(() -> {})
+                        .delay(3)
+                        .unit(TimeUnit.HOURS)
+                        .taskType("spilled-type")
+                        .taskPayload("payload-spilled1")
+                        .build());
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("spilled1")
+                        .taskToSchedule(() -> {})
+                        .delay(10)
+                        .unit(TimeUnit.MINUTES)
+                        .taskType("spilled-type")
+                        .taskPayload("payload-spilled1")
+                        .build());
+        assertEquals(0, spillStore.size());
+        singleExecutionScheduler.pageInSpilledTasks(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(4));
+        assertTrue(singleExecutionScheduler.getScheduledTaskByID("spilled1").getTask().getDelay(TimeUnit.MINUTES) < 11);
+    }
+
+
+    @Test
+    void test_pageIn_pagesInTheReplacementOfATaskWithTheSameDueTime() throws Exception
+    {
+        long dueTimeInEpochMillis = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(3);
+        spillStore.spill(new PendingTaskRecord("spilled1", "spilled-type", "payload-old", dueTimeInEpochMillis, 0));
+        spillStore.spill(new PendingTaskRecord("spilled1", "other-type", "payload-new", dueTimeInEpochMillis, 0));
+        List<PendingTaskRecord> pagedInTasks = spillStore.pageIn(dueTimeInEpochMillis);
+        assertEquals(1, pagedInTasks.size());
+        assertEquals("other-type", pagedInTasks.get(0).getTaskType());
+        assertEquals("payload-new", pagedInTasks.get(0).getTaskPayload());
+        assertEquals(0, spillStore.size());
+    }
+
+
+    @Test
+    void test_schedule_keepsTasksThatCannotBeRebuiltOnHeap() throws Exception
+    {
+        ScheduledTask taskWithCallback = ScheduledTask.builder()
+                        .taskID("callback")
+                        .taskToSchedule(() -> {})
+                        .delay(3)
+                        .unit(TimeUnit.HOURS)
+                        .taskType("spilled-type")
+                        .taskPayload("payload-callback")
+                        .build();
+        taskWithCallback.setCallbackAfterTaskCompletes(() -> {});
+        ScheduledTask taskWithoutType = ScheduledTask.builder()
+                        .taskID("untyped")
+                        .taskToSchedule(() -> {})
+                        .delay(3)
+                        .unit(TimeUnit.HOURS)
+                        .build();
+        ScheduledTask spilledTask = ScheduledTask.builder()
+                        .taskID("spilled1")
+                        .taskToSchedule(() -> {})
+                        .delay(3)
+                        .unit(TimeUnit.HOURS)
+                        .taskType("spilled-type")
+                        .taskPayload("payload-spilled1")
+                        .build();
+        singleExecutionScheduler.schedule(List.of(taskWithCallback, taskWithoutType, spilledTask));
+        assertNotNull(singleExecutionScheduler.getScheduledTaskByID("callback"));
+        assertNotNull(singleExecutionScheduler.getScheduledTaskByID("untyped"));
+        assertNull(singleExecutionScheduler.getScheduledTaskByID("spilled1"));
+        assertTrue(spillStore.contains("spilled1"));
+        assertFalse(spillStore.contains("callback"));
+    }
+}
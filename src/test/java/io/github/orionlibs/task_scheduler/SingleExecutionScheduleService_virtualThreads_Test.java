@@ -0,0 +1,104 @@
+package io.github.orionlibs.task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.orionlibs.task_scheduler.engine.ExecutorTimerEngine;
+import io.github.orionlibs.task_scheduler.engine.TimingWheelTimerEngine;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SingleExecutionScheduleService_virtualThreads_Test
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        singleExecutionScheduler = SingleExecutionScheduleService.builder()
+                        .timerEngine(ExecutorTimerEngine.builder()
+                                        .virtualThreads(true)
+                                        .maxConcurrentTasks(2)
+                                        .build())
+                        .build();
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdown();
+    }
+
+
+    @Test
+    void test_schedule_runsTaskAndCallbackOnVirtualThreads() throws Exception
+    {
+        AtomicBoolean taskRanOnVirtualThread = new AtomicBoolean();
+        AtomicBoolean callbackRanOnVirtualThread = new AtomicBoolean();
+        CountDownLatch callbackCalled = new CountDownLatch(1);
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("runnable")
+                        .taskToSchedule(() -> taskRanOnVirtualThread.set(Thread.currentThread().isVirtual()))
+                        .delay(20)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .callbackAfterTaskCompletes(() -> {
+                            callbackRanOnVirtualThread.set(Thread.currentThread().isVirtual());
+                            callbackCalled.countDown();
+                        })
+                        .build());
+        assertTrue(callbackCalled.await(1, TimeUnit.SECONDS));
+        assertTrue(taskRanOnVirtualThread.get());
+        assertTrue(callbackRanOnVirtualThread.get());
+    }
+
+
+    @Test
+    void test_schedule_respectsConcurrencyCap() throws Exception
+    {
+        singleExecutionScheduler.shutdown();
+        singleExecutionScheduler = SingleExecutionScheduleService.builder()
+                        .timerEngine(TimingWheelTimerEngine.builder()
+                                        .tickDuration(1)
+                                        .virtualThreads(true)
+                                        .maxConcurrentTasks(2)
+                                        .build())
+                        .build();
+        AtomicInteger runningTasks = new AtomicInteger();
+        AtomicInteger maxRunningTasks = new AtomicInteger();
+        CountDownLatch tasksCompleted = new CountDownLatch(8);
+        for(int i = 0; i < 8; i++)
+        {
+            singleExecutionScheduler.schedule(ScheduledTask.builder()
+                            .taskID("runnable" + i)
+                            .taskToSchedule(() -> {
+                                maxRunningTasks.accumulateAndGet(runningTasks.incrementAndGet(), Math::max);
+                                try
+                                {
+                                    Thread.sleep(50);
+                                }
+                                catch(InterruptedException e)
+                                {
+                                    Thread.currentThread().interrupt();
+                                }
+                                runningTasks.decrementAndGet();
+                            })
+                            .delay(10)
+                            .unit(TimeUnit.MILLISECONDS)
+                            .callbackAfterTaskCompletes(tasksCompleted::countDown)
+                            .build());
+        }
+        assertTrue(tasksCompleted.await(2, TimeUnit.SECONDS));
+        assertEquals(2, maxRunningTasks.get());
+    }
+}
@@ -0,0 +1,224 @@
+package io.github.orionlibs.task_scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class TaskGraphScheduleService_schedule_Test
+{
+    private SingleExecutionScheduleService singleExecutionScheduler;
+    private ForkJoinPool pool;
+    private TaskGraphScheduleService graphScheduler;
+
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        singleExecutionScheduler = new SingleExecutionScheduleService();
+        pool = new ForkJoinPool(4);
+        graphScheduler = new TaskGraphScheduleService(singleExecutionScheduler, pool);
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        singleExecutionScheduler.shutdown();
+        pool.shutdown();
+    }
+
+
+    @Test
+    void test_schedule_runsTasksAfterTheirDependencies() throws Exception
+    {
+        List<String> runOrder = new CopyOnWriteArrayList<>();
+        TaskGraph graph = new TaskGraph("graph", 20, TimeUnit.MILLISECONDS)
+                        .addTask(ScheduledTask.builder()
+                                        .taskID("d")
+                                        .taskToSchedule(() -> runOrder.add("d"))
+                                        .build(), "b", "c")
+                        .addTask(ScheduledTask.builder()
+                                        .taskID("a")
+                                        .taskToSchedule(() -> runOrder.add("a"))
+                                        .build())
+                        .addTask(ScheduledTask.builder()
+                                        .taskID("b")
+                                        .taskToSchedule(() -> runOrder.add("b"))
+                                        .build(), "a")
+                        .addTask(ScheduledTask.builder()
+                                        .taskID("c")
+                                        .taskToSchedule(() -> runOrder.add("c"))
+                                        .build(), "a");
+        graphScheduler.schedule(graph).get(2, TimeUnit.SECONDS);
+        assertEquals(4, runOrder.size());
+        assertEquals("a", runOrder.get(0));
+        assertEquals("d", runOrder.get(3));
+    }
+
+
+    @Test
+    void test_schedule_runsIndependentBranchesInParallel() throws Exception
+    {
+        CountDownLatch branchesStarted = new CountDownLatch(2);
+        Runnable branch = () -> {
+            branchesStarted.countDown();
+            try
+            {
+                //each branch only finishes if the other one has started too
+                if(!branchesStarted.await(2, TimeUnit.SECONDS))
+                {
+                    throw new IllegalStateException("the branches did not run in parallel");
+                }
+            }
+            catch(InterruptedException e)
+            {
+                throw new IllegalStateException(e);
+            }
+        };
+        TaskGraph graph = new TaskGraph("parallelGraph", 0, TimeUnit.MILLISECONDS)
+                        .addTask(ScheduledTask.builder()
+                                        .taskID("root")
+                                        .taskToSchedule(() -> {})
+                                        .build())
+                        .addTask(ScheduledTask.builder()
+                                        .taskID("left")
+                                        .taskToSchedule(branch)
+                                        .build(), "root")
+                        .addTask(ScheduledTask.builder()
+                                        .taskID("right")
+                                        .taskToSchedule(branch)
+                                        .build(), "root")
+                        .addTask(ScheduledTask.builder()
+                                        .taskID("join")
+                                        .taskToSchedule(() -> {})
+                                        .build(), "left", "right");
+        graphScheduler.schedule(graph).get(3, TimeUnit.SECONDS);
+    }
+
+
+    @Test
+    void test_schedule_skipsTheDependentsOfAFailedTask() throws Exception
+    {
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger dependentRuns = new AtomicInteger();
+        ScheduledTask failingTask = ScheduledTask.builder()
+                        .taskID("failing")
+                        .taskToSchedule(() -> {
+                            attempts.incrementAndGet();
+                            throw new IllegalStateException("graph failure");
+                        })
+                        .build();
+        failingTask.setNumberOfRetriesOnError(2);
+        TaskGraph graph = new TaskGraph("failingGraph", 0, TimeUnit.MILLISECONDS)
+                        .addTask(failingTask)
+                        .addTask(ScheduledTask.builder()
+                                        .taskID("dependent")
+                                        .taskToSchedule(dependentRuns::incrementAndGet)
+                                        .build(), "failing");
+        CompletableFuture<Void> result = graphScheduler.schedule(graph);
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(2, TimeUnit.SECONDS));
+        assertEquals("graph failure", exception.getCause().getMessage());
+        assertEquals(3, attempts.get());
+        assertEquals(0, dependentRuns.get());
+    }
+
+
+    @Test
+    void test_schedule_doesNotRunATaskAgainWhenItsCallbackThrows() throws Exception
+    {
+        AtomicInteger runs = new AtomicInteger();
+        ScheduledTask task = ScheduledTask.builder()
+                        .taskID("a")
+                        .taskToSchedule(runs::incrementAndGet)
+                        .build();
+        task.setNumberOfRetriesOnError(2);
+        task.setCallbackAfterTaskCompletes(() -> {
+            throw new IllegalStateException("callback failure");
+        });
+        CompletableFuture<Void> result = graphScheduler.schedule(new TaskGraph("callbackGraph", 0, TimeUnit.MILLISECONDS).addTask(task));
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(2, TimeUnit.SECONDS));
+        assertEquals("callback failure", exception.getCause().getMessage());
+        assertEquals(1, runs.get());
+    }
+
+
+    @Test
+    void test_schedule_failsTheGraphWhenATaskThrowsAnError() throws Exception
+    {
+        TaskGraph graph = new TaskGraph("erroringGraph", 0, TimeUnit.MILLISECONDS)
+                        .addTask(ScheduledTask.builder()
+                                        .taskID("a")
+                                        .taskToSchedule(() -> {
+                                            throw new AssertionError("broken invariant");
+                                        })
+                                        .build());
+        CompletableFuture<Void> result = graphScheduler.schedule(graph);
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(AssertionError.class, exception.getCause());
+    }
+
+
+    @Test
+    void test_schedule_rejectsInvalidGraphs() throws Exception
+    {
+        TaskGraph cyclicGraph = new TaskGraph("cyclicGraph", 0, TimeUnit.MILLISECONDS)
+                        .addTask(ScheduledTask.builder()
+                                        .taskID("a")
+                                        .taskToSchedule(() -> {})
+                                        .build(), "b")
+                        .addTask(ScheduledTask.builder()
+                                        .taskID("b")
+                                        .taskToSchedule(() -> {})
+                                        .build(), "a");
+        assertThrows(InvalidArgumentException.class, () -> graphScheduler.schedule(cyclicGraph));
+        TaskGraph incompleteGraph = new TaskGraph("incompleteGraph", 0, TimeUnit.MILLISECONDS)
+                        .addTask(ScheduledTask.builder()
+                                        .taskID("a")
+                                        .taskToSchedule(() -> {})
+                                        .build(), "missing");
+        assertThrows(InvalidArgumentException.class, () -> graphScheduler.schedule(incompleteGraph));
+        assertThrows(InvalidArgumentException.class, () -> new TaskGraph("duplicateGraph", 0, TimeUnit.MILLISECONDS)
+                        .addTask(ScheduledTask.builder()
+                                        .taskID("a")
+                                        .taskToSchedule(() -> {})
+                                        .build())
+                        .addTask(ScheduledTask.builder()
+                                        .taskID("a")
+                                        .taskToSchedule(() -> {})
+                                        .build()));
+        assertFalse(singleExecutionScheduler.getScheduledTasksToRunnablesMapper().containsKey("cyclicGraph"));
+    }
+
+
+    @Test
+    void test_cancel_cancelsTheGraphBeforeItFires() throws Exception
+    {
+        AtomicInteger runs = new AtomicInteger();
+        TaskGraph graph = new TaskGraph("cancelledGraph", 10, TimeUnit.SECONDS)
+                        .addTask(ScheduledTask.builder()
+                                        .taskID("a")
+                                        .taskToSchedule(runs::incrementAndGet)
+                                        .build());
+        CompletableFuture<Void> result = graphScheduler.schedule(graph);
+        assertTrue(graphScheduler.cancel("cancelledGraph"));
+        assertTrue(result.isCancelled());
+        assertEquals(0, runs.get());
+    }
+}
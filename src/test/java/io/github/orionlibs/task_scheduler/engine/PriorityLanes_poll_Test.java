@@ -0,0 +1,73 @@
+package io.github.orionlibs.task_scheduler.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.EnumMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class PriorityLanes_poll_Test
+{
+    @Test
+    void test_poll_sharesTheWorkersByWeightWhenAllLanesAreBackedUp()
+    {
+        PriorityLanes lanes = new PriorityLanes(new int[] {8, 4, 2, 1});
+        for(int i = 0; i < 100; i++)
+        {
+            for(TaskPriority priority : TaskPriority.values())
+            {
+                lanes.offer(newFuture(priority));
+            }
+        }
+        Map<TaskPriority, Integer> polled = new EnumMap<>(TaskPriority.class);
+        for(int i = 0; i < 150; i++)
+        {
+            polled.merge(lanes.poll().getPriority(), 1, Integer::sum);
+        }
+        assertEquals(80, polled.get(TaskPriority.CRITICAL));
+        assertEquals(40, polled.get(TaskPriority.HIGH));
+        assertEquals(20, polled.get(TaskPriority.NORMAL));
+        assertEquals(10, polled.get(TaskPriority.LOW));
+    }
+
+
+    @Test
+    void test_poll_fallsBackToTheHighestNonEmptyLane()
+    {
+        PriorityLanes lanes = new PriorityLanes(null);
+        lanes.offer(newFuture(TaskPriority.LOW));
+        lanes.offer(newFuture(TaskPriority.HIGH));
+        lanes.offer(newFuture(TaskPriority.LOW));
+        assertEquals(TaskPriority.HIGH, lanes.poll().getPriority());
+        assertEquals(TaskPriority.LOW, lanes.poll().getPriority());
+        assertEquals(TaskPriority.LOW, lanes.poll().getPriority());
+        assertNull(lanes.poll());
+    }
+
+
+    private static TimerFuture newFuture(TaskPriority priority)
+    {
+        PrioritizedTask task = new PrioritizedTask()
+        {
+            @Override
+            public TaskPriority getPriority()
+            {
+                return priority;
+            }
+
+
+            @Override
+            public void run()
+            {
+            }
+        };
+        return new TimerFuture(task, 0L)
+        {
+            @Override
+            protected void rearm(long delayInNanos)
+            {
+            }
+        };
+    }
+}
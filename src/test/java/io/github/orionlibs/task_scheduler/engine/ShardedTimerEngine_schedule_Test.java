@@ -0,0 +1,131 @@
+package io.github.orionlibs.task_scheduler.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class ShardedTimerEngine_schedule_Test
+{
+    private ShardedTimerEngine shardedEngine;
+
+
+    @BeforeEach
+    void setUp()
+    {
+        shardedEngine = ShardedTimerEngine.builder()
+                        .shards(4)
+                        .workerThreadsPerShard(1)
+                        .build();
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        shardedEngine.shutdown();
+    }
+
+
+    @Test
+    void test_schedule_runsTasksOfTheSameKeyOnTheWorkerOfTheirShard() throws Exception
+    {
+        Set<Thread> threadsOfKey = ConcurrentHashMap.newKeySet();
+        Set<Thread> threadsOfAllKeys = ConcurrentHashMap.newKeySet();
+        CountDownLatch tasksCompleted = new CountDownLatch(80);
+        for(int i = 0; i < 40; i++)
+        {
+            shardedEngine.schedule(newTask(7, () -> {
+                threadsOfKey.add(Thread.currentThread());
+                tasksCompleted.countDown();
+            }), i % 5, TimeUnit.MILLISECONDS);
+            shardedEngine.schedule(newTask(i, () -> {
+                threadsOfAllKeys.add(Thread.currentThread());
+                tasksCompleted.countDown();
+            }), i % 5, TimeUnit.MILLISECONDS);
+        }
+        assertTrue(tasksCompleted.await(1, TimeUnit.SECONDS));
+        assertEquals(1, threadsOfKey.size());
+        assertEquals(4, threadsOfAllKeys.size());
+    }
+
+
+    @Test
+    void test_scheduleAll_returnsTheFuturesInTaskOrder() throws Exception
+    {
+        List<Runnable> tasks = new ArrayList<>();
+        List<Integer> ranTasks = new ArrayList<>();
+        CountDownLatch tasksCompleted = new CountDownLatch(10);
+        for(int i = 0; i < 10; i++)
+        {
+            int task = i;
+            tasks.add(newTask(i, () -> {
+                synchronized(ranTasks)
+                {
+                    ranTasks.add(task);
+                }
+                tasksCompleted.countDown();
+            }));
+        }
+        long[] delaysInNanos = new long[10];
+        for(int i = 0; i < 10; i++)
+        {
+            delaysInNanos[i] = TimeUnit.MILLISECONDS.toNanos(i % 2 == 0 ? 10L : 1000L);
+        }
+        TimerFuture[] futures = shardedEngine.scheduleAll(tasks, delaysInNanos);
+        for(int i = 1; i < 10; i += 2)
+        {
+            futures[i].cancel(false);
+        }
+        assertFalse(tasksCompleted.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(5L, tasksCompleted.getCount());
+        synchronized(ranTasks)
+        {
+            assertEquals(Set.of(0, 2, 4, 6, 8), Set.copyOf(ranTasks));
+        }
+    }
+
+
+    @Test
+    void test_schedule_afterShutdown()
+    {
+        shardedEngine.shutdown();
+        assertTrue(shardedEngine.isShutdown());
+        assertThrows(RejectedExecutionException.class, () -> shardedEngine.schedule(newTask(1, () -> {
+        }), 1, TimeUnit.MILLISECONDS));
+    }
+
+
+    private static ShardKeyedTask newTask(int shardKey, Runnable task)
+    {
+        return new ShardKeyedTask()
+        {
+            @Override
+            public int getShardKey()
+            {
+                return shardKey;
+            }
+
+
+            @Override
+            public void run()
+            {
+                task.run();
+            }
+        };
+    }
+}
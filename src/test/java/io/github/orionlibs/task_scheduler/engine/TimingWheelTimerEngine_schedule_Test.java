@@ -0,0 +1,106 @@
+package io.github.orionlibs.task_scheduler.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class TimingWheelTimerEngine_schedule_Test
+{
+    private TimingWheelTimerEngine timingWheel;
+    private List<String> firedTasks;
+
+
+    @BeforeEach
+    void setUp()
+    {
+        //a tiny wheel so that the timers of the tests cascade through several levels
+        timingWheel = TimingWheelTimerEngine.builder()
+                        .tickDuration(5)
+                        .tickUnit(TimeUnit.MILLISECONDS)
+                        .wheelSize(4)
+                        .workerThreads(2)
+                        .build();
+        firedTasks = new CopyOnWriteArrayList<>();
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        timingWheel.shutdown();
+    }
+
+
+    @Test
+    void test_schedule_firesInDueOrderAcrossLevels() throws Exception
+    {
+        timingWheel.schedule(() -> firedTasks.add("task3"), 420, TimeUnit.MILLISECONDS);
+        timingWheel.schedule(() -> firedTasks.add("task1"), 30, TimeUnit.MILLISECONDS);
+        timingWheel.schedule(() -> firedTasks.add("task2"), 140, TimeUnit.MILLISECONDS);
+        timingWheel.schedule(() -> firedTasks.add("task0"), 0, TimeUnit.MILLISECONDS);
+        Thread.sleep(600);
+        assertEquals(List.of("task0", "task1", "task2", "task3"), firedTasks);
+    }
+
+
+    @Test
+    void test_schedule_doesNotFireEarly() throws Exception
+    {
+        TimerFuture future = timingWheel.schedule(() -> firedTasks.add("task1"), 200, TimeUnit.MILLISECONDS);
+        Thread.sleep(150);
+        assertTrue(firedTasks.isEmpty());
+        assertFalse(future.isDone());
+        future.get(1, TimeUnit.SECONDS);
+        assertEquals(List.of("task1"), firedTasks);
+    }
+
+
+    @Test
+    void test_scheduleAll() throws Exception
+    {
+        TimerFuture[] futures = timingWheel.scheduleAll(List.of(() -> firedTasks.add("task2"), () -> firedTasks.add("task1")),
+                        new long[] {TimeUnit.MILLISECONDS.toNanos(120), TimeUnit.MILLISECONDS.toNanos(40)});
+        assertEquals(2, futures.length);
+        Thread.sleep(250);
+        assertEquals(List.of("task1", "task2"), firedTasks);
+        assertTrue(futures[0].isDone());
+        assertTrue(futures[1].isDone());
+    }
+
+
+    @Test
+    void test_cancel() throws Exception
+    {
+        TimerFuture future1 = timingWheel.schedule(() -> firedTasks.add("task1"), 100, TimeUnit.MILLISECONDS);
+        TimerFuture future2 = timingWheel.schedule(() -> firedTasks.add("task2"), 100, TimeUnit.MILLISECONDS);
+        Thread.sleep(20);
+        assertTrue(future1.cancel(false));
+        Thread.sleep(200);
+        assertEquals(List.of("task2"), firedTasks);
+        assertTrue(future1.isCancelled());
+        assertTrue(future2.isDone());
+    }
+
+
+    @Test
+    void test_shutdown() throws Exception
+    {
+        TimerFuture future = timingWheel.schedule(() -> firedTasks.add("task1"), 1, TimeUnit.HOURS);
+        timingWheel.shutdown();
+        assertTrue(timingWheel.awaitTermination(1, TimeUnit.SECONDS));
+        assertTrue(future.isCancelled());
+        assertThrows(RejectedExecutionException.class, () -> timingWheel.schedule(() -> firedTasks.add("task2"), 0, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,167 @@
+package io.github.orionlibs.task_scheduler.log;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class SchedulerEventLog_publish_Test
+{
+    private Logger logger;
+    private ListLogHandler listLogHandler;
+    private SchedulerEventLog eventLog;
+
+
+    @BeforeEach
+    void setUp()
+    {
+        logger = Logger.getLogger(SchedulerEventLog_publish_Test.class.getName());
+        logger.setLevel(Level.INFO);
+        listLogHandler = new ListLogHandler();
+        logger.addHandler(listLogHandler);
+    }
+
+
+    @AfterEach
+    public void teardown()
+    {
+        eventLog.close();
+        logger.removeHandler(listLogHandler);
+    }
+
+
+    @Test
+    void test_publish_logsTheEventsOnTheDrainerThread() throws Exception
+    {
+        eventLog = new SchedulerEventLog(logger);
+        assertTrue(eventLog.publish(SchedulerEventType.SUCCEEDED, "event-log-task1", 0L, 2_000L, 1));
+        assertTrue(eventLog.publish(SchedulerEventType.FAILED, "event-log-task2", 0L, 0L, 1));
+        LogRecord succeededRecord = waitForLogRecord("task event-log-task1 ");
+        LogRecord failedRecord = waitForLogRecord("task event-log-task2 ");
+        assertNotNull(failedRecord);
+        assertEquals("task event-log-task1 succeeded, due 1970-01-01T00:00:00Z, lag 2us", succeededRecord.getMessage());
+        assertEquals(Level.INFO, succeededRecord.getLevel());
+        assertEquals(Level.WARNING, failedRecord.getLevel());
+    }
+
+
+    @Test
+    void test_publish_wakesUpTheIdleDrainerThread() throws Exception
+    {
+        eventLog = new SchedulerEventLog(logger);
+        for(int i = 0; i < 3; i++)
+        {
+            //the drainer has found the ring empty and parked by now
+            Thread.sleep(50);
+            assertTrue(eventLog.publish(SchedulerEventType.SUCCEEDED, "event-log-idle" + i, 0L, 0L, 1));
+            assertNotNull(waitForLogRecord("task event-log-idle" + i + " "));
+        }
+    }
+
+
+    @Test
+    void test_publish_gatesTheEventsByLevel()
+    {
+        logger.setLevel(Level.WARNING);
+        eventLog = new SchedulerEventLog(logger);
+        assertFalse(eventLog.publish(SchedulerEventType.SCHEDULED, "event-log-task3", 0L, 0L, 1));
+        assertTrue(eventLog.publish(SchedulerEventType.RETRIED, "event-log-task4", 0L, 0L, 1));
+    }
+
+
+    @Test
+    void test_publish_samplesOnlyTheInfoEvents()
+    {
+        eventLog = new SchedulerEventLog(logger);
+        int numberOfPublishedEvents = 0;
+        for(int i = 0; i < 1000; i++)
+        {
+            if(eventLog.publish(SchedulerEventType.SCHEDULED, "event-log-task5", 0L, 0L, 100))
+            {
+                numberOfPublishedEvents++;
+            }
+            assertTrue(eventLog.publish(SchedulerEventType.FAILED, "event-log-task6", 0L, 0L, 100) || eventLog.getDroppedEvents() > 0);
+        }
+        assertTrue(numberOfPublishedEvents < 100);
+    }
+
+
+    @Test
+    void test_publish_dropsTheEventsWhenTheRingIsFull() throws Exception
+    {
+        CountDownLatch handlerReleased = new CountDownLatch(1);
+        Handler blockingHandler = new Handler()
+        {
+            @Override
+            public void publish(LogRecord record)
+            {
+                try
+                {
+                    handlerReleased.await(5, TimeUnit.SECONDS);
+                }
+                catch(InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+
+            @Override
+            public void flush()
+            {
+            }
+
+
+            @Override
+            public void close()
+            {
+            }
+        };
+        logger.addHandler(blockingHandler);
+        try
+        {
+            eventLog = new SchedulerEventLog(logger, 4);
+            for(int i = 0; i < 20; i++)
+            {
+                eventLog.publish(SchedulerEventType.SUCCEEDED, "event-log-task7", 0L, 0L, 1);
+            }
+            assertTrue(eventLog.getDroppedEvents() >= 15);
+        }
+        finally
+        {
+            handlerReleased.countDown();
+            logger.removeHandler(blockingHandler);
+        }
+    }
+
+
+    private LogRecord waitForLogRecord(String messagePrefix) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + 2_000L;
+        while(System.currentTimeMillis() < deadline)
+        {
+            for(LogRecord record : listLogHandler.getLogRecords().toArray(new LogRecord[0]))
+            {
+                if(record.getMessage().startsWith(messagePrefix))
+                {
+                    return record;
+                }
+            }
+            Thread.sleep(5);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.orionlibs.task_scheduler.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogram_record_Test
+{
+    @Test
+    void test_record_percentilesAreWithinBucketPrecision()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for(long i = 1; i <= 1000; i++)
+        {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(1000L, snapshot.getCount());
+        assertEquals(1000L, snapshot.getMax(TimeUnit.MICROSECONDS));
+        assertEquals(500.5d, snapshot.getMean(TimeUnit.MICROSECONDS), 0.001d);
+        long median = snapshot.getValueAtPercentile(50.0d, TimeUnit.MICROSECONDS);
+        long p99 = snapshot.getValueAtPercentile(99.0d, TimeUnit.MICROSECONDS);
+        assertTrue(median >= 500L && median <= 500L * 107L / 100L, "median was " + median);
+        assertTrue(p99 >= 990L && p99 <= 1000L, "p99 was " + p99);
+        assertEquals(1000L, snapshot.getValueAtPercentile(100.0d, TimeUnit.MICROSECONDS));
+    }
+
+
+    @Test
+    void test_record_emptyAndExtremeValues()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0L, histogram.snapshot().getValueAtPercentile(99.0d, TimeUnit.NANOSECONDS));
+        histogram.record(-5L);
+        histogram.record(Long.MAX_VALUE);
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(2L, snapshot.getCount());
+        assertEquals(0L, snapshot.getValueAtPercentile(50.0d, TimeUnit.NANOSECONDS));
+        assertEquals(Long.MAX_VALUE, snapshot.getValueAtPercentile(100.0d, TimeUnit.NANOSECONDS));
+    }
+}
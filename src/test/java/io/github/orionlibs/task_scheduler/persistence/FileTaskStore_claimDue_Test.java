@@ -0,0 +1,118 @@
+package io.github.orionlibs.task_scheduler.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.io.TempDir;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class FileTaskStore_claimDue_Test
+{
+    @TempDir
+    Path storeDirectory;
+    private FileTaskStore store1;
+    private FileTaskStore store2;
+    private long now;
+
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        store1 = new FileTaskStore(storeDirectory);
+        store2 = new FileTaskStore(storeDirectory);
+        now = System.currentTimeMillis();
+    }
+
+
+    @AfterEach
+    public void teardown() throws Exception
+    {
+        store1.close();
+        store2.close();
+    }
+
+
+    @Test
+    void test_claimDue_leasesTheDueTasksInBatchesEarliestFirst() throws Exception
+    {
+        store1.add(new PendingTaskRecord("task3", "type", null, now - 10L, 0));
+        store1.add(new PendingTaskRecord("task1", "type", "payload", now - 30L, 0));
+        store1.add(new PendingTaskRecord("task2", "type", null, now - 20L, 0));
+        store1.add(new PendingTaskRecord("future", "type", null, now + 60_000L, 0));
+        List<PendingTaskRecord> claimedTasks = store1.claimDue("node1", now, 2, now + 10_000L);
+        assertEquals(List.of("task1", "task2"), claimedTasks.stream().map(PendingTaskRecord::getTaskID).toList());
+        assertEquals("payload", claimedTasks.get(0).getTaskPayload());
+        assertEquals(List.of("task3"), store2.claimDue("node2", now, 10, now + 10_000L).stream().map(PendingTaskRecord::getTaskID).toList());
+        assertTrue(store2.claimDue("node2", now, 10, now + 10_000L).isEmpty());
+        assertEquals(4, store2.size());
+    }
+
+
+    @Test
+    void test_claimDue_reclaimsTasksWhoseLeaseHasExpired() throws Exception
+    {
+        store1.add(new PendingTaskRecord("task1", "type", null, now - 10L, 0));
+        assertEquals(1, store1.claimDue("node1", now, 10, now - 1L).size());
+        assertEquals(1, store2.claimDue("node2", now, 10, now + 10_000L).size());
+        store1.complete(List.of("task1"), "node1", now - 1L);
+        assertEquals(1, store1.size());
+        store2.complete(List.of("task1"), "node2", now + 10_000L);
+        assertEquals(0, store1.size());
+    }
+
+
+    @Test
+    void test_release_makesTheTasksClaimableAgain() throws Exception
+    {
+        store1.add(new PendingTaskRecord("task1", "type", null, now - 10L, 2));
+        store1.claimDue("node1", now, 10, now + 10_000L);
+        store1.release(List.of("task1"), "node1", now + 10_000L);
+        assertEquals(1, store2.claimDue("node2", now, 10, now + 10_000L).size());
+        store2.reschedule(new PendingTaskRecord("task1", "type", null, now + 60_000L, 1), "node2", now + 10_000L);
+        assertTrue(store1.claimDue("node1", now, 10, now + 10_000L).isEmpty());
+        assertEquals(1, store1.claimDue("node1", now + 60_000L, 10, now + 10_000L).get(0).getNumberOfRetriesOnError());
+    }
+
+
+    @Test
+    void test_complete_keepsATaskThatWasReplacedAndClaimedAgain() throws Exception
+    {
+        store1.add(new PendingTaskRecord("task1", "type", "old", now - 10L, 0));
+        store1.claimDue("node1", now, 10, now + 10_000L);
+        store1.add(new PendingTaskRecord("task1", "type", "new", now - 10L, 0));
+        assertEquals("new", store1.claimDue("node1", now, 10, now + 10_001L).get(0).getTaskPayload());
+        store1.complete(List.of("task1"), "node1", now + 10_000L);
+        store1.reschedule(new PendingTaskRecord("task1", "type", "old", now + 60_000L, 0), "node1", now + 10_000L);
+        store1.release(List.of("task1"), "node1", now + 10_000L);
+        assertEquals(1, store1.size());
+        assertTrue(store2.claimDue("node2", now, 10, now + 10_000L).isEmpty());
+        store1.complete(List.of("task1"), "node1", now + 10_001L);
+        assertEquals(0, store1.size());
+    }
+
+
+    @Test
+    void test_claimDue_doesNotRewriteTheStoreWhenNothingChanges() throws Exception
+    {
+        store1.add(new PendingTaskRecord("future", "type", null, now + 60_000L, 0));
+        Path storeFile = storeDirectory.resolve("tasks.store");
+        Object storeFileKey = Files.readAttributes(storeFile, BasicFileAttributes.class).fileKey();
+        assertTrue(store1.claimDue("node1", now, 10, now + 10_000L).isEmpty());
+        assertFalse(store2.remove("missing"));
+        store2.complete(List.of("future"), "node2", now + 10_000L);
+        assertEquals(storeFileKey, Files.readAttributes(storeFile, BasicFileAttributes.class).fileKey());
+        assertTrue(store2.remove("future"));
+        assertNotEquals(storeFileKey, Files.readAttributes(storeFile, BasicFileAttributes.class).fileKey());
+    }
+}
@@ -0,0 +1,165 @@
+package io.github.orionlibs.task_scheduler.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.orionlibs.task_scheduler.ScheduledTask;
+import io.github.orionlibs.task_scheduler.SingleExecutionScheduleService;
+import io.github.orionlibs.task_scheduler.TaskTypeRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+import org.junit.jupiter.api.io.TempDir;
+
+@TestInstance(Lifecycle.PER_METHOD)
+public class TaskJournal_recover_Test
+{
+    @TempDir
+    Path journalDirectory;
+    private List<String> firedPayloads;
+    private TaskTypeRegistry taskTypeRegistry;
+
+
+    @BeforeEach
+    void setUp()
+    {
+        firedPayloads = new CopyOnWriteArrayList<>();
+        taskTypeRegistry = new TaskTypeRegistry().register("record-payload", payload -> () -> firedPayloads.add(payload));
+    }
+
+
+    private SingleExecutionScheduleService buildService() throws Exception
+    {
+        return SingleExecutionScheduleService.builder()
+                        .journal(TaskJournal.builder()
+                                        .directory(journalDirectory)
+                                        .segmentSizeInBytes(512)
+                                        .build())
+                        .taskTypeRegistry(taskTypeRegistry)
+                        .build();
+    }
+
+
+    private ScheduledTask buildTask(String taskID, long delay, TimeUnit unit)
+    {
+        return ScheduledTask.builder()
+                        .taskID(taskID)
+                        .taskToSchedule(taskTypeRegistry.createTask("record-payload", taskID))
+                        .delay(delay)
+                        .unit(unit)
+                        .taskType("record-payload")
+                        .taskPayload(taskID)
+                        .build();
+    }
+
+
+    @Test
+    void test_recover_pendingTasks() throws Exception
+    {
+        SingleExecutionScheduleService singleExecutionScheduler = buildService();
+        singleExecutionScheduler.schedule(buildTask("completed", 0, TimeUnit.MILLISECONDS));
+        singleExecutionScheduler.schedule(buildTask("cancelled", 1, TimeUnit.HOURS));
+        singleExecutionScheduler.schedule(buildTask("pending", 300, TimeUnit.MILLISECONDS));
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("not-journaled")
+                        .taskToSchedule(() -> firedPayloads.add("not-journaled"))
+                        .delay(300)
+                        .unit(TimeUnit.MILLISECONDS)
+                        .build());
+        Thread.sleep(100);
+        singleExecutionScheduler.cancel("cancelled");
+        singleExecutionScheduler.shutdown();
+        assertEquals(List.of("completed"), firedPayloads);
+        firedPayloads.clear();
+        SingleExecutionScheduleService recoveredScheduler = buildService();
+        assertEquals(1, recoveredScheduler.getScheduledTasksToRunnablesMapper().size());
+        assertNull(recoveredScheduler.getScheduledTaskByID("cancelled"));
+        Thread.sleep(400);
+        assertEquals(List.of("pending"), firedPayloads);
+        assertTrue(recoveredScheduler.getScheduledTasksToRunnablesMapper().isEmpty());
+        recoveredScheduler.shutdown();
+    }
+
+
+    @Test
+    void test_recover_afterSegmentRollsAndCompaction() throws Exception
+    {
+        SingleExecutionScheduleService singleExecutionScheduler = buildService();
+        for(int i = 0; i < 50; i++)
+        {
+            singleExecutionScheduler.schedule(buildTask("task" + i, 1, TimeUnit.HOURS));
+        }
+        for(int i = 0; i < 50; i += 2)
+        {
+            singleExecutionScheduler.cancel("task" + i);
+        }
+        singleExecutionScheduler.shutdown();
+        TaskJournal journal = TaskJournal.builder()
+                        .directory(journalDirectory)
+                        .segmentSizeInBytes(512)
+                        .build();
+        assertEquals(25, journal.getRecoveredTasks().size());
+        assertTrue(journal.getRecoveredTasks().stream().allMatch(task -> Integer.parseInt(task.getTaskID().substring(4)) % 2 == 1));
+        journal.close();
+        try(Stream<Path> journalFiles = Files.list(journalDirectory))
+        {
+            //the compaction on open leaves only the latest snapshot and the new segment
+            assertEquals(2, journalFiles.count());
+        }
+    }
+
+
+    @Test
+    void test_recover_doesNotRecoverATaskReplacedByAnUntypedTask() throws Exception
+    {
+        SingleExecutionScheduleService singleExecutionScheduler = buildService();
+        singleExecutionScheduler.schedule(buildTask("replaced", 1, TimeUnit.HOURS));
+        singleExecutionScheduler.schedule(ScheduledTask.builder()
+                        .taskID("replaced")
+                        .taskToSchedule(() -> firedPayloads.add("untyped"))
+                        .delay(1)
+                        .unit(TimeUnit.HOURS)
+                        .build());
+        singleExecutionScheduler.shutdown();
+        TaskJournal journal = TaskJournal.builder()
+                        .directory(journalDirectory)
+                        .segmentSizeInBytes(512)
+                        .build();
+        assertTrue(journal.getRecoveredTasks().isEmpty());
+        journal.close();
+    }
+
+
+    @Test
+    void test_appendScheduled_throwsAfterClose() throws Exception
+    {
+        TaskJournal journal = TaskJournal.builder()
+                        .directory(journalDirectory)
+                        .segmentSizeInBytes(512)
+                        .build();
+        journal.close();
+        assertThrows(IOException.class, () -> journal.appendScheduled(new PendingTaskRecord("task1", "record-payload", "task1", System.currentTimeMillis(), 0)));
+        assertThrows(IOException.class, () -> journal.appendScheduled(List.of(new PendingTaskRecord("task2", "record-payload", "task2", System.currentTimeMillis(), 0))));
+    }
+
+
+    @Test
+    void test_recover_rejectsATruncatedSnapshot() throws Exception
+    {
+        Files.write(journalDirectory.resolve("snapshot-00000000000000000001.snap"), new byte[] {0, 0, 0, 1});
+        assertThrows(IOException.class, () -> TaskJournal.builder()
+                        .directory(journalDirectory)
+                        .segmentSizeInBytes(512)
+                        .build());
+    }
+}